@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2018 Ericsson
+ * Copyright (c) 2015, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -116,17 +116,29 @@ public final class KernelEventHandlerUtils {
      */
     public static void setProcessToRunning(long timestamp, int currentThreadNode, ITmfStateSystemBuilder ssb)
             throws TimeRangeException, StateValueTypeException {
+        ITmfStateValue value = getProcessRunningStatus(currentThreadNode, ssb);
+        ssb.modifyAttribute(timestamp, value.unboxValue(), currentThreadNode);
+    }
+
+    /**
+     * Get the status to give to a process set back to a "running" state,
+     * depending on whether it has a system call active or not.
+     *
+     * @param currentThreadNode
+     *            The current thread node
+     * @param ssb
+     *            the state system
+     * @return The running status of the process
+     */
+    public static ITmfStateValue getProcessRunningStatus(int currentThreadNode, ITmfStateSystemBuilder ssb) {
         int quark = ssb.getQuarkRelativeAndAdd(currentThreadNode, Attributes.SYSTEM_CALL);
 
-        ITmfStateValue value;
         if (ssb.queryOngoingState(quark).isNull()) {
             /* We were in user mode before the interruption */
-            value = ProcessStatus.RUN.getStateValue();
-        } else {
-            /* We were previously in kernel mode */
-            value = ProcessStatus.RUN_SYTEMCALL.getStateValue();
+            return ProcessStatus.RUN.getStateValue();
         }
-        ssb.modifyAttribute(timestamp, value.unboxValue(), currentThreadNode);
+        /* We were previously in kernel mode */
+        return ProcessStatus.RUN_SYTEMCALL.getStateValue();
     }
 
     /**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Ericsson
+ * Copyright (c) 2015, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import org.eclipse.tracecompass.analysis.os.linux.core.model.ProcessStatus;
 import org.eclipse.tracecompass.analysis.os.linux.core.trace.IKernelAnalysisEventLayout;
 import org.eclipse.tracecompass.internal.analysis.os.linux.core.kernel.Attributes;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateChangeBatch;
 import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
 import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
 import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
@@ -30,6 +31,9 @@ import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
  */
 public class SchedSwitchHandler extends KernelEventHandler {
 
+    /* The state changes of the event, reused from one event to the next */
+    private final StateChangeBatch fBatch = new StateChangeBatch();
+
     /**
      * Constructor
      *
@@ -69,54 +73,66 @@ public class SchedSwitchHandler extends KernelEventHandler {
 
         long timestamp = KernelEventHandlerUtils.getTimestamp(event);
         /*
-         * Set the status of the process that got scheduled out. This will also
-         * set it's current CPU run queue accordingly.
+         * The state changes are applied together, before the CPU status is
+         * computed from them.
          */
-        setOldProcessStatus(ss, prevState, formerThreadNode, cpu, timestamp);
+        StateChangeBatch batch = fBatch;
+        int currentCPUNode;
+        try {
+            /*
+             * Set the status of the process that got scheduled out. This will
+             * also set it's current CPU run queue accordingly.
+             */
+            setOldProcessStatus(ss, batch, prevState, formerThreadNode, cpu);
 
-        /* Set the status of the new scheduled process */
-        KernelEventHandlerUtils.setProcessToRunning(timestamp, newCurrentThreadNode, ss);
+            /* Set the status of the new scheduled process */
+            batch.add(newCurrentThreadNode, KernelEventHandlerUtils.getProcessRunningStatus(newCurrentThreadNode, ss).unboxValue());
 
-        /*
-         * Set the current CPU run queue of the new process. Should be already
-         * set if we've seen the previous sched_wakeup, but doesn't hurt to set
-         * it here too.
-         */
-        int quark = ss.getQuarkRelativeAndAdd(newCurrentThreadNode, Attributes.CURRENT_CPU_RQ);
-        ss.modifyAttribute(timestamp, cpu, quark);
+            /*
+             * Set the current CPU run queue of the new process. Should be
+             * already set if we've seen the previous sched_wakeup, but doesn't
+             * hurt to set it here too.
+             */
+            int quark = ss.getQuarkRelativeAndAdd(newCurrentThreadNode, Attributes.CURRENT_CPU_RQ);
+            batch.add(quark, cpu);
 
-        /* Set the exec name of the former process */
-        if (prevProcessName != null) {
-            setProcessExecName(ss, prevProcessName, formerThreadNode, timestamp);
-        }
+            /* Set the exec name of the former process */
+            if (prevProcessName != null) {
+                setProcessExecName(ss, batch, prevProcessName, formerThreadNode);
+            }
 
-        /* Set the exec name of the new process */
-        if (nextProcessName != null) {
-            setProcessExecName(ss, nextProcessName, newCurrentThreadNode, timestamp);
-        }
+            /* Set the exec name of the new process */
+            if (nextProcessName != null) {
+                setProcessExecName(ss, batch, nextProcessName, newCurrentThreadNode);
+            }
 
-        /* Set the current prio for the former process */
-        if (prevPrio != null) {
-            setProcessPrio(ss, prevPrio, formerThreadNode, timestamp);
-        }
+            /* Set the current prio for the former process */
+            if (prevPrio != null) {
+                setProcessPrio(ss, batch, prevPrio, formerThreadNode);
+            }
 
-        /* Set the current prio for the new process */
-        if (nextPrio != null) {
-            setProcessPrio(ss, nextPrio, newCurrentThreadNode, timestamp);
-        }
+            /* Set the current prio for the new process */
+            if (nextPrio != null) {
+                setProcessPrio(ss, batch, nextPrio, newCurrentThreadNode);
+            }
 
-        /* Set the current scheduled process on the relevant CPU */
-        int currentCPUNode = KernelEventHandlerUtils.getCurrentCPUNode(cpu, ss);
-        setCpuProcess(ss, nextTid, timestamp, currentCPUNode);
+            /* Set the current scheduled process on the relevant CPU */
+            currentCPUNode = KernelEventHandlerUtils.getCurrentCPUNode(cpu, ss);
+            setCpuProcess(ss, batch, nextTid, currentCPUNode);
+
+            ss.modifyAttributes(timestamp, batch);
+        } finally {
+            batch.clear();
+        }
 
         /* Set the status of the CPU itself */
         setCpuStatus(ss, nextTid, newCurrentThreadNode, timestamp, currentCPUNode, cpu);
     }
 
-    private static void setOldProcessStatus(ITmfStateSystemBuilder ss, Long prevState, Integer formerThreadNode, int cpu, long timestamp) {
+    private static void setOldProcessStatus(ITmfStateSystemBuilder ss, StateChangeBatch batch, Long prevState, Integer formerThreadNode, int cpu) {
         ITmfStateValue value = ProcessStatus.getStatusFromKernelState(prevState).getStateValue();
 
-        ss.modifyAttribute(timestamp, value.unboxValue(), formerThreadNode);
+        batch.add(formerThreadNode, value.unboxValue());
 
         boolean staysOnRunQueue = ProcessStatus.WAIT_CPU.getStateValue().equals(value);
         int quark = ss.getQuarkRelativeAndAdd(formerThreadNode, Attributes.CURRENT_CPU_RQ);
@@ -130,7 +146,7 @@ public class SchedSwitchHandler extends KernelEventHandler {
         } else {
             value = TmfStateValue.nullValue();
         }
-        ss.modifyAttribute(timestamp, value.unboxValue(), quark);
+        batch.add(quark, value.unboxValue());
     }
 
     private static void setCpuStatus(ITmfStateSystemBuilder ss, Integer nextTid, Integer newCurrentThreadNode, long timestamp, int currentCPUNode, int cpu) {
@@ -150,22 +166,22 @@ public class SchedSwitchHandler extends KernelEventHandler {
         }
     }
 
-    private static void setCpuProcess(ITmfStateSystemBuilder ss, Integer nextTid, long timestamp, int currentCPUNode) {
+    private static void setCpuProcess(ITmfStateSystemBuilder ss, StateChangeBatch batch, Integer nextTid, int currentCPUNode) {
         int quark;
         quark = ss.getQuarkRelativeAndAdd(currentCPUNode, Attributes.CURRENT_THREAD);
-        ss.modifyAttribute(timestamp, nextTid, quark);
+        batch.add(quark, nextTid);
     }
 
-    private static void setProcessPrio(ITmfStateSystemBuilder ss, Integer prio, Integer threadNode, long timestamp) {
+    private static void setProcessPrio(ITmfStateSystemBuilder ss, StateChangeBatch batch, Integer prio, Integer threadNode) {
         int quark;
         quark = ss.getQuarkRelativeAndAdd(threadNode, Attributes.PRIO);
-        ss.modifyAttribute(timestamp, prio, quark);
+        batch.add(quark, prio);
     }
 
-    private static void setProcessExecName(ITmfStateSystemBuilder ss, String processName, Integer threadNode, long timestamp) {
+    private static void setProcessExecName(ITmfStateSystemBuilder ss, StateChangeBatch batch, String processName, Integer threadNode) {
         int quark;
         quark = ss.getQuarkRelativeAndAdd(threadNode, Attributes.EXEC_NAME);
-        ss.modifyAttribute(timestamp, processName, quark);
+        batch.add(quark, processName);
     }
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 EfficiOS Inc., Alexandre Montplaisir and others
+ * Copyright (c) 2015, 2026 EfficiOS Inc., Alexandre Montplaisir and others
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
 import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferWriter;
 import org.eclipse.tracecompass.datastore.core.serialization.SafeByteBufferFactory;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentCodec;
 import org.eclipse.tracecompass.segmentstore.core.segment.interfaces.INamedSegment;
 import org.eclipse.tracecompass.tmf.core.event.lookup.ITmfCallsite;
 import org.eclipse.tracecompass.tmf.core.event.lookup.ITmfSourceLookup;
@@ -40,6 +41,28 @@ public final class SystemCall implements INamedSegment, ITmfSourceLookup, ICoreE
      */
     public static final IHTIntervalReader<ISegment> READER = buffer -> new SystemCall(buffer.getLong(), buffer.getLong(), buffer.getString(), buffer.getInt(), buffer.getInt());
 
+    /**
+     * The codec to keep this segment class in a compact segment store. The name
+     * is the key and the TID and return value are packed in the payload.
+     */
+    public static final ISegmentCodec<ISegment> CODEC = new ISegmentCodec<>() {
+        @Override
+        public @Nullable Object getKey(ISegment segment) {
+            return ((SystemCall) segment).fName;
+        }
+
+        @Override
+        public long getPayload(ISegment segment) {
+            SystemCall syscall = (SystemCall) segment;
+            return ((long) syscall.fTid << 32) | (syscall.fRet & 0xffffffffL);
+        }
+
+        @Override
+        public ISegment decode(long start, long end, @Nullable Object key, long payload) {
+            return new SystemCall(start, end, String.valueOf(key), (int) (payload >>> 32), (int) payload);
+        }
+    };
+
     /**
      * The subset of information that is available from the syscall entry event.
      */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 EfficiOS Inc., Ericsson
+ * Copyright (c) 2015, 2026 EfficiOS Inc., Ericsson
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,6 +30,7 @@ import org.eclipse.tracecompass.analysis.timing.core.segmentstore.IGroupingSegme
 import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
 import org.eclipse.tracecompass.internal.analysis.os.linux.core.SyscallLookup;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentCodec;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 import org.eclipse.tracecompass.segmentstore.core.SegmentComparators;
 import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory.SegmentStoreType;
@@ -107,6 +108,11 @@ public class SystemCallLatencyAnalysis extends AbstractSegmentStoreAnalysisEvent
         return SystemCall.READER;
     }
 
+    @Override
+    protected ISegmentCodec<ISegment> getSegmentCodec() {
+        return SystemCall.CODEC;
+    }
+
     private class SyscallLatencyAnalysisRequest extends AbstractSegmentStoreAnalysisRequest {
 
         private final Map<Integer, SystemCall.InitialInfo> fOngoingSystemCalls = new HashMap<>();
@@ -0,0 +1,191 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.tests.segmentstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.SegmentStoreScatterSummary;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests the {@link SegmentStoreScatterSummary}
+ */
+public class SegmentStoreScatterSummaryTest {
+
+    private static final int SIZE = 100000;
+    private static final long DURATION = 10000000;
+    private static final String EVEN = "even";
+    private static final String ODD = "odd";
+
+    private static ISegmentStore<@NonNull ISegment> fStore;
+    private static SegmentStoreScatterSummary fSummary;
+
+    /**
+     * Build a segment store of random segments, and its summary
+     */
+    @BeforeClass
+    public static void setUp() {
+        Random random = new Random(42);
+        ISegmentStore<@NonNull ISegment> store = SegmentStoreFactory.createSegmentStore();
+        for (int i = 0; i < SIZE; i++) {
+            long start = (long) (random.nextDouble() * DURATION);
+            store.add(new BasicSegment(start, start + random.nextInt(1000)));
+        }
+        fStore = store;
+        fSummary = SegmentStoreScatterSummary.create(store, SegmentStoreScatterSummaryTest::getType);
+    }
+
+    private static @NonNull String getType(ISegment segment) {
+        return (segment.getStart() % 2 == 0) ? EVEN : ODD;
+    }
+
+    /**
+     * Test the types and size of the summary
+     */
+    @Test
+    public void testSummary() {
+        assertEquals(SIZE, fSummary.size());
+        assertEquals(2, fSummary.getTypes().size());
+        assertTrue(fSummary.getTypes().contains(EVEN));
+        assertTrue(fSummary.getTypes().contains(ODD));
+        assertFalse(fSummary.canSummarize(1));
+        assertTrue(fSummary.canSummarize(DURATION / 1000));
+    }
+
+    /**
+     * Test the number of segments of the whole summary, at each level
+     */
+    @Test
+    public void testCount() {
+        for (long pixel = DURATION / 65536; pixel <= DURATION; pixel *= 2) {
+            long count = fSummary.getCount(EVEN, Long.MIN_VALUE, Long.MAX_VALUE, pixel) + fSummary.getCount(ODD, Long.MIN_VALUE, Long.MAX_VALUE, pixel);
+            assertEquals(SIZE, count);
+        }
+        assertEquals(0, fSummary.getCount("other", 0, DURATION, DURATION / 1000));
+        assertEquals(0, fSummary.getCount(EVEN, DURATION, 0, DURATION / 1000));
+    }
+
+    /**
+     * Test that the points are segments of the range, by ascending start
+     * time, and that the extreme durations are drawn
+     */
+    @Test
+    public void testPoints() {
+        testPoints(0, DURATION, true);
+        /* The buckets at the edges may keep segments outside the range */
+        testPoints(DURATION / 3, DURATION / 2, false);
+    }
+
+    private static void testPoints(long start, long end, boolean exact) {
+        for (long pixel = DURATION / 1000; pixel <= (end - start) / 10; pixel *= 4) {
+            for (String type : new String[] { EVEN, ODD }) {
+                long minLength = Long.MAX_VALUE;
+                long maxLength = Long.MIN_VALUE;
+                Set<List<Long>> segments = new HashSet<>();
+                for (ISegment segment : fStore) {
+                    if (getType(segment).equals(type) && segment.getStart() >= start && segment.getStart() <= end) {
+                        minLength = Math.min(minLength, segment.getLength());
+                        maxLength = Math.max(maxLength, segment.getLength());
+                        segments.add(Arrays.asList(segment.getStart(), segment.getLength()));
+                    }
+                }
+                List<long[]> points = new ArrayList<>();
+                fSummary.getPoints(Objects.requireNonNull(type), start, end, pixel, (x, y) -> points.add(new long[] { x, y }));
+                assertFalse(points.isEmpty());
+                /* The buckets are larger than half a pixel */
+                assertTrue(points.size() <= 4 * ((end - start) / pixel + 1));
+                long previous = Long.MIN_VALUE;
+                long pointsMin = Long.MAX_VALUE;
+                long pointsMax = Long.MIN_VALUE;
+                for (long[] point : points) {
+                    assertTrue(point[0] >= previous);
+                    previous = point[0];
+                    assertTrue(segments.contains(Arrays.asList(point[0], point[1])));
+                    pointsMin = Math.min(pointsMin, point[1]);
+                    pointsMax = Math.max(pointsMax, point[1]);
+                }
+                if (exact) {
+                    assertEquals(minLength, pointsMin);
+                    assertEquals(maxLength, pointsMax);
+                } else {
+                    assertTrue(pointsMin >= minLength);
+                    assertTrue(pointsMax <= maxLength);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test writing and reading the summary
+     *
+     * @throws IOException
+     *             If the temporary file could not be written
+     */
+    @Test
+    public void testPersistence() throws IOException {
+        Path file = Objects.requireNonNull(Files.createTempFile("summary", ".scatter"));
+        try {
+            fSummary.write(file);
+            assertNull(SegmentStoreScatterSummary.read(file, SIZE + 1));
+            SegmentStoreScatterSummary summary = SegmentStoreScatterSummary.read(file, SIZE);
+            assertNotNull(summary);
+            assertEquals(fSummary.getTypes(), summary.getTypes());
+            long pixel = DURATION / 2000;
+            for (String type : fSummary.getTypes()) {
+                List<long[]> expected = new ArrayList<>();
+                fSummary.getPoints(type, 0, DURATION, pixel, (x, y) -> expected.add(new long[] { x, y }));
+                List<long[]> actual = new ArrayList<>();
+                summary.getPoints(type, 0, DURATION, pixel, (x, y) -> actual.add(new long[] { x, y }));
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i)[0], actual.get(i)[0]);
+                    assertEquals(expected.get(i)[1], actual.get(i)[1]);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+        assertNull(SegmentStoreScatterSummary.read(file, SIZE));
+    }
+
+    /**
+     * Test the summary of an empty segment store
+     */
+    @Test
+    public void testEmpty() {
+        SegmentStoreScatterSummary summary = SegmentStoreScatterSummary.create(SegmentStoreFactory.createSegmentStore(), SegmentStoreScatterSummaryTest::getType);
+        assertEquals(0, summary.size());
+        assertTrue(summary.getTypes().isEmpty());
+        assertEquals(0, summary.getCount(EVEN, 0, DURATION, 1));
+    }
+}
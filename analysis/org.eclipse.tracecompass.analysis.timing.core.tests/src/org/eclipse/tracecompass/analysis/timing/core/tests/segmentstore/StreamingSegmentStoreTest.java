@@ -0,0 +1,120 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.tests.segmentstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.StreamingSegmentStore;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics.SegmentStatisticsBlocks;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
+import org.junit.Test;
+
+/**
+ * Tests the {@link StreamingSegmentStore}
+ */
+public class StreamingSegmentStoreTest {
+
+    private static final int SIZE = 100000;
+    /** A segment starts every 10 ns */
+    private static final long STEP = 10;
+    /** Every 1000th segment is an outlier */
+    private static final int OUTLIERS = SIZE / 1000;
+    private static final long THRESHOLD = 5000;
+
+    /**
+     * Fill a streaming segment store, with an initial window of 1 ns, so the
+     * windows are merged many times
+     *
+     * @return The wrapped segment store, completed
+     */
+    private static ISegmentStore<@NonNull ISegment> fill(int maxOutliers) {
+        ISegmentStore<@NonNull ISegment> store = SegmentStoreFactory.createSegmentStore();
+        StreamingSegmentStore streamingStore = new StreamingSegmentStore(store, Collections.emptyList(), 0, 1, THRESHOLD, maxOutliers);
+        for (int i = 0; i < SIZE; i++) {
+            long start = i * STEP;
+            long length = (i % 1000 == 0) ? THRESHOLD + i / 1000 : i % 100;
+            streamingStore.add(new BasicSegment(start, start + length));
+        }
+        streamingStore.close(false);
+        return store;
+    }
+
+    /**
+     * Test that only the outliers are kept, the longest ones first
+     */
+    @Test
+    public void testOutliers() {
+        ISegmentStore<@NonNull ISegment> store = fill(SIZE);
+        assertEquals(OUTLIERS, store.size());
+        for (ISegment segment : store) {
+            assertTrue(segment.getLength() >= THRESHOLD);
+        }
+
+        store = fill(OUTLIERS / 2);
+        assertEquals(OUTLIERS / 2, store.size());
+        for (ISegment segment : store) {
+            assertTrue(segment.getLength() >= THRESHOLD + OUTLIERS / 2);
+        }
+    }
+
+    /**
+     * Test the statistics of all the segments, by windows
+     */
+    @Test
+    public void testStatistics() {
+        ISegmentStore<@NonNull ISegment> store = fill(OUTLIERS);
+        SegmentStatisticsBlocks blocks = SegmentStatisticsBlocks.getStreamingBlocks(store);
+        assertNotNull(blocks);
+        assertSame(blocks, SegmentStatisticsBlocks.getDurationBlocks(store, 0, SIZE * STEP, new NullProgressMonitor()));
+
+        IStatistics<@NonNull ISegment> total = blocks.getTotalStats();
+        assertEquals(SIZE, total.getNbElements());
+        assertEquals(0, total.getMin());
+        assertEquals(THRESHOLD + OUTLIERS - 1, total.getMax());
+
+        /*
+         * The windows are merged until there are at most 1024 of them, so they
+         * last 1024 ns and a range counts at most a window of segments past
+         * its end
+         */
+        IStatistics<@NonNull ISegment> half = blocks.getTotalStats(0, SIZE * STEP / 2 - 1, new NullProgressMonitor());
+        assertNotNull(half);
+        assertTrue(half.getNbElements() >= SIZE / 2);
+        assertTrue(half.getNbElements() <= SIZE / 2 + 1024 / STEP + 1);
+    }
+
+    /**
+     * Test that the statistics are not shared if the segment store is not
+     * completed
+     */
+    @Test
+    public void testCancel() {
+        ISegmentStore<@NonNull ISegment> store = SegmentStoreFactory.createSegmentStore();
+        StreamingSegmentStore streamingStore = new StreamingSegmentStore(store, Collections.emptyList(), 0, 1, THRESHOLD, OUTLIERS);
+        streamingStore.add(new BasicSegment(0, THRESHOLD));
+        streamingStore.close(true);
+        assertTrue(store.isEmpty());
+        assertNull(SegmentStatisticsBlocks.getStreamingBlocks(store));
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson
+ * Copyright (c) 2016, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -23,6 +23,8 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.analysis.timing.core.segmentstore.statistics.AbstractSegmentStatisticsAnalysis;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.Statistics;
+import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.tmf.core.exceptions.TmfAnalysisException;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
@@ -174,6 +176,39 @@ public class AbstractStatsAnalysisTest {
         fixture.dispose();
     }
 
+    /**
+     * Test the statistics of a range covering many blocks of segments, which
+     * are merged with the segments at the edges of the range
+     *
+     * @throws TmfAnalysisException
+     *             should not happen
+     */
+    @Test
+    public void testPartialStatsManyBlocks() throws TmfAnalysisException {
+        TmfXmlTraceStub trace = new TmfXmlTraceStubNs();
+        StubSegmentStatisticsAnalysis fixture = getValidSegmentStats(trace);
+        // The segments [i, 2i] intersecting [10000, 50000]
+        Statistics<@NonNull ISegment> expected = new Statistics<>(ISegment::getLength);
+        Statistics<@NonNull ISegment> expectedEven = new Statistics<>(ISegment::getLength);
+        for (int i = 5000; i <= 50000; i++) {
+            ISegment segment = new BasicSegment(i, i + i);
+            expected.update(segment);
+            if (i % 2 == 0) {
+                expectedEven.update(segment);
+            }
+        }
+        IStatistics<@NonNull ISegment> totalStats = fixture.getStatsForRange(10000, 50000, new NullProgressMonitor());
+        assertNotNull(totalStats);
+        validate(expected, totalStats);
+
+        Map<@NonNull String, IStatistics<@NonNull ISegment>> perTypeStats = fixture.getStatsPerTypeForRange(10000, 50000, new NullProgressMonitor());
+        IStatistics<@NonNull ISegment> evenStats = perTypeStats.get("even");
+        assertNotNull(evenStats);
+        validate(expectedEven, evenStats);
+        trace.dispose();
+        fixture.dispose();
+    }
+
     /**
      * Test the cancel operation
      *
@@ -192,6 +227,15 @@ public class AbstractStatsAnalysisTest {
         fixture.dispose();
     }
 
+    private static void validate(IStatistics<@NonNull ISegment> expected, IStatistics<@NonNull ISegment> actual) {
+        assertEquals("Count", expected.getNbElements(), actual.getNbElements());
+        assertEquals("Min", expected.getMin(), actual.getMin());
+        assertEquals("Max", expected.getMax(), actual.getMax());
+        assertEquals("Total", expected.getTotal(), actual.getTotal(), 0.0);
+        assertEquals("Mean", expected.getMean(), actual.getMean(), 0.0001);
+        assertEquals("Standard Deviation", expected.getStdDev(), actual.getStdDev(), 0.0001);
+    }
+
     private static StubSegmentStatisticsAnalysis getValidSegmentStats(@NonNull ITmfTrace trace) throws TmfAnalysisException {
         StubSegmentStatisticsAnalysis fixture = new StubSegmentStatisticsAnalysis();
         fixture.setTrace(trace);
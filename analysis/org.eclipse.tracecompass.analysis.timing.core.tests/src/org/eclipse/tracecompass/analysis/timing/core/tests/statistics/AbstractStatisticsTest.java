@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 École Polytechnique de Montréal
+ * Copyright (c) 2017, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -13,11 +13,13 @@ package org.eclipse.tracecompass.analysis.timing.core.tests.statistics;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -60,6 +62,8 @@ public abstract class AbstractStatisticsTest<@NonNull E> {
 
     private static final double ERROR = 0.000001;
     private static final double APPROX_ERROR = 0.0001;
+    private static final double QUANTILE_ERROR = 0.016;
+    private static final double[] QUANTILES = { 0.0, 0.5, 0.9, 0.99, 0.999, 1.0 };
 
     private final @Nullable Function<@NonNull E, @NonNull Long> fMapper;
 
@@ -111,6 +115,10 @@ public abstract class AbstractStatisticsTest<@NonNull E> {
         assertEquals("Min Element", expected.getMinObject(), toBeTested.getMinObject());
         assertEquals("Max Element", expected.getMaxObject(), toBeTested.getMaxObject());
         assertEquals("Standard Deviation", expected.getStdDev(), toBeTested.getStdDev(), APPROX_ERROR * expected.getStdDev());
+        for (double quantile : QUANTILES) {
+            double expectedQuantile = expected.getQuantile(quantile);
+            assertEquals("Quantile " + quantile, expectedQuantile, toBeTested.getQuantile(quantile), QUANTILE_ERROR * Math.abs(expectedQuantile));
+        }
     }
 
     /**
@@ -119,9 +127,9 @@ public abstract class AbstractStatisticsTest<@NonNull E> {
     private @NonNull Statistics<E> createStatistics() {
         Function<@NonNull E, Long> mapper = fMapper;
         if (mapper == null) {
-            return new Statistics<>();
+            return new Statistics<>(e -> (Number) e, true);
         }
-        return new Statistics<>(mapper);
+        return new Statistics<>(mapper, true);
     }
 
     /**
@@ -203,6 +211,102 @@ public abstract class AbstractStatisticsTest<@NonNull E> {
 
     }
 
+    /**
+     * Test the quantiles, which are exact for a few values and estimated for
+     * many values
+     */
+    @Test
+    public void testQuantiles() {
+        Collection<@NonNull E> fixture = createElementsWithValues(ImmutableList.of(7L, 1L, 5L, 3L, 9L));
+        Statistics<E> sss = buildStats(fixture);
+        assertEquals("Min", 1, sss.getQuantile(0.0), ERROR);
+        assertEquals("Median", 5, sss.getQuantile(0.5), ERROR);
+        assertEquals("90th percentile", 7, sss.getQuantile(0.9), ERROR);
+        assertEquals("Max", 9, sss.getQuantile(1.0), ERROR);
+        assertEquals("Empty", Double.NaN, createStatistics().getQuantile(0.5), ERROR);
+
+        /* The distribution is opt-in, and lost when merged with one without */
+        Statistics<E> noDistribution = new Statistics<>(e -> 0L);
+        noDistribution.merge(sss);
+        assertEquals("No distribution", Double.NaN, noDistribution.getQuantile(0.5), ERROR);
+        sss.merge(noDistribution);
+        assertEquals("Merged without distribution", Double.NaN, sss.getQuantile(0.5), ERROR);
+
+        List<@NonNull Long> longFixture = new ArrayList<>(LARGE_AMOUNT_OF_SEGMENTS);
+        for (long i = 1; i <= LARGE_AMOUNT_OF_SEGMENTS; i++) {
+            longFixture.add(i * i);
+        }
+        fixture = createElementsWithValues(longFixture);
+        sss = buildStats(fixture);
+        double median = Math.pow(LARGE_AMOUNT_OF_SEGMENTS / 2, 2);
+        assertEquals("Median", median, sss.getQuantile(0.5), QUANTILE_ERROR * median);
+        double percentile99 = Math.pow(LARGE_AMOUNT_OF_SEGMENTS * 99 / 100, 2);
+        assertEquals("99th percentile", percentile99, sss.getQuantile(0.99), QUANTILE_ERROR * percentile99);
+
+        // Compare with an offline algorithm
+        testOnlineVsOffline(fixture);
+    }
+
+    /**
+     * Test the ranks, the inverse of the quantiles, which are exact for a few
+     * values and estimated for many values
+     */
+    @Test
+    public void testRanks() {
+        Collection<@NonNull E> fixture = createElementsWithValues(ImmutableList.of(7L, 1L, 5L, 3L, 9L));
+        Statistics<E> sss = buildStats(fixture);
+        assertEquals("Below min", 0, sss.getRank(0.5));
+        assertEquals("Min", 1, sss.getRank(1));
+        assertEquals("Median", 3, sss.getRank(6));
+        assertEquals("Max", 5, sss.getRank(9));
+        assertEquals("Empty", 0, createStatistics().getRank(5));
+
+        List<@NonNull Long> longFixture = new ArrayList<>(LARGE_AMOUNT_OF_SEGMENTS);
+        for (long i = 1; i <= LARGE_AMOUNT_OF_SEGMENTS; i++) {
+            longFixture.add(i * i);
+        }
+        fixture = createElementsWithValues(longFixture);
+        sss = buildStats(fixture);
+        /* The lowest values are merged, as the values span more than 32 octaves */
+        for (long i : new long[] { 100, 1000, LARGE_AMOUNT_OF_SEGMENTS / 2, LARGE_AMOUNT_OF_SEGMENTS * 99 / 100 }) {
+            assertEquals("Rank of " + i * i, i, sss.getRank(i * i), QUANTILE_ERROR * i);
+        }
+        assertEquals("Max", LARGE_AMOUNT_OF_SEGMENTS, sss.getRank(Double.MAX_VALUE));
+    }
+
+    /**
+     * Test merging many partial statistics into an empty one, as the segment
+     * store statistics do with the statistics of each thread or node. The
+     * empty statistics must take the distribution of the first one merged
+     * rather than rebuild its buckets at each merge.
+     */
+    @Test
+    public void testMergeIntoEmpty() {
+        Statistics<E> expected = createStatistics();
+        Statistics<E> total = createStatistics();
+        long duration = 0;
+        for (int i = 0; i < MEDIUM_AMOUNT_OF_SEGMENTS * 10; i++) {
+            List<@NonNull Long> longFixture = new ArrayList<>(MEDIUM_AMOUNT_OF_SEGMENTS);
+            for (long j = 1; j <= MEDIUM_AMOUNT_OF_SEGMENTS; j++) {
+                longFixture.add((i + 1) * 1000 + j * j);
+            }
+            Statistics<E> partial = buildStats(createElementsWithValues(longFixture));
+            for (E element : createElementsWithValues(longFixture)) {
+                expected.update(element);
+            }
+            long start = System.nanoTime();
+            total.merge(partial);
+            duration += System.nanoTime() - start;
+        }
+        for (double quantile : QUANTILES) {
+            double expectedQuantile = expected.getQuantile(quantile);
+            assertEquals("Quantile " + quantile, expectedQuantile, total.getQuantile(quantile), QUANTILE_ERROR * Math.abs(expectedQuantile));
+        }
+        assertEquals("# of elements", MEDIUM_AMOUNT_OF_SEGMENTS * MEDIUM_AMOUNT_OF_SEGMENTS * 10, total.getNbElements());
+        /* Each merge only adds the buckets, it does not copy them around */
+        assertTrue("Merge duration " + duration + " ns", duration < TimeUnit.SECONDS.toNanos(1));
+    }
+
     /**
      * Test a data set with a small number of objects
      */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson
+ * Copyright (c) 2016, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -11,7 +11,10 @@
 
 package org.eclipse.tracecompass.analysis.timing.core.tests.statistics;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
 
@@ -32,6 +35,7 @@ public class OfflineStatisticsCalculator<@NonNull E> implements IStatistics<E> {
 
     private final Collection<E> fElements;
     private final @NonNull Function<E, @NonNull Long> fMapper;
+    private @Nullable List<@NonNull Long> fSortedValues = null;
 
     /**
      * Constructor
@@ -161,6 +165,23 @@ public class OfflineStatisticsCalculator<@NonNull E> implements IStatistics<E> {
         return total;
     }
 
+    @Override
+    public double getQuantile(double quantile) {
+        if (fElements.isEmpty()) {
+            return Double.NaN;
+        }
+        List<@NonNull Long> values = fSortedValues;
+        if (values == null) {
+            values = new ArrayList<>(fElements.size());
+            for (E element : fElements) {
+                values.add(fMapper.apply(element));
+            }
+            Collections.sort(values);
+            fSortedValues = values;
+        }
+        return values.get((int) Math.floor(quantile * (values.size() - 1)));
+    }
+
     @Override
     public long getNbElements() {
         return fElements.size();
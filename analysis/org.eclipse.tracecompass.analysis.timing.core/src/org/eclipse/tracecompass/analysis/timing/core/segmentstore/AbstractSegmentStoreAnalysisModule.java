@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2019 Ericsson
+ * Copyright (c) 2015, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,7 +30,9 @@ import org.eclipse.tracecompass.common.core.format.DataSizeWithUnitFormat;
 import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
 import org.eclipse.tracecompass.internal.analysis.timing.core.Activator;
 import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.Messages;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.StreamingSegmentStore;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentCodec;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
 import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory.SegmentStoreType;
@@ -40,6 +42,9 @@ import org.eclipse.tracecompass.tmf.core.segment.ISegmentAspect;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
 /**
  * Abstract analysis module to generate a segment store. It is a base class that
  * can be used as a shortcut by analysis who just need to build a single segment
@@ -52,6 +57,8 @@ import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnalysisModule implements ISegmentStoreProvider {
 
     private static final String EXTENSION = ".ss"; //$NON-NLS-1$
+    private static final String COLUMNAR_EXTENSION = ".columns"; //$NON-NLS-1$
+    private static final int DEFAULT_MAX_OUTLIERS = 100000;
     private final ListenerList<IAnalysisProgressListener> fListeners = new ListenerList<>(ListenerList.IDENTITY);
 
     private @Nullable ISegmentStore<ISegment> fSegmentStore;
@@ -140,6 +147,66 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
         throw new UnsupportedOperationException("getSegmentReader: This method should be overriden in classes that saves the segment store on disk"); //$NON-NLS-1$
     }
 
+    /**
+     * Get the codec to store the segments in a
+     * {@link SegmentStoreType#Compact} segment store. Analyses using this type
+     * of segment store must override this method. The segments are also saved
+     * in a columnar file with the supplementary files, to be reopened without
+     * running the analysis again, if the keys of the codec are strings.
+     *
+     * @return The segment codec
+     * @since 5.6
+     */
+    protected ISegmentCodec<ISegment> getSegmentCodec() {
+        throw new UnsupportedOperationException("getSegmentCodec: This method should be overriden in classes that use a compact segment store"); //$NON-NLS-1$
+    }
+
+    /**
+     * Get the duration of the windows of time of the streaming mode. In
+     * streaming mode, the segments are not all kept in the segment store:
+     * they are aggregated in statistics by windows of time, shared with the
+     * segment statistics analyses and the density chart, and only the
+     * outliers are kept, those at least as long as
+     * {@link #getOutlierThreshold()}, up to {@link #getMaxOutliers()}. The
+     * memory used then does not depend on the length of the trace, which suits
+     * very long traces, but the statistics of a time range are only as precise
+     * as the windows. The windows double in duration when there are more than
+     * 1024 of them.
+     *
+     * The statistics of the streaming mode are not saved, so a segment store on
+     * disk is built again each time in this mode.
+     *
+     * @return The duration of the windows, in nanoseconds, or 0 to keep all
+     *         the segments, which is the default
+     * @since 5.6
+     */
+    protected long getStreamingWindow() {
+        return 0;
+    }
+
+    /**
+     * Get the minimum duration of the segments kept in the segment store in
+     * streaming mode. By default, the longest segments are kept, up to
+     * {@link #getMaxOutliers()}.
+     *
+     * @return The minimum duration of the outliers, in nanoseconds
+     * @since 5.6
+     */
+    protected long getOutlierThreshold() {
+        return 0;
+    }
+
+    /**
+     * Get the maximum number of segments kept in the segment store in
+     * streaming mode. The shortest outliers are dropped when there are more.
+     *
+     * @return The maximum number of outliers
+     * @since 5.6
+     */
+    protected int getMaxOutliers() {
+        return DEFAULT_MAX_OUTLIERS;
+    }
+
     /**
      * Get the type of segment store to build. By default it is
      * {@link SegmentStoreType#Fast}
@@ -177,6 +244,9 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
         case Stable:
             store = buildInMemorySegmentStore(type, monitor);
             break;
+        case Compact:
+            store = buildCompactSegmentStore(monitor);
+            break;
         case OnDisk:
             final @Nullable String dataFileName = getDataFileName();
             store = buildOnDiskSegmentStore(dataFileName, monitor);
@@ -209,6 +279,10 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
         boolean built = false;
         ISegmentStore<ISegment> segmentStore;
         try {
+            if (isStreaming()) {
+                /* Only the outliers are saved, not the statistics */
+                Files.deleteIfExists(file);
+            }
             // Compare the file creation time to determine if this analysis is
             // built from scratch or not
             FileTime origCreationTime = (Files.exists(file) ? Objects.requireNonNull(Files.readAttributes(file, BasicFileAttributes.class)).creationTime() : FileTime.fromMillis(0));
@@ -228,7 +302,7 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
         if (built) {
             return segmentStore;
         }
-        boolean completed = buildAnalysisSegments(segmentStore, monitor);
+        boolean completed = buildSegments(segmentStore, monitor);
         if (!completed) {
             return null;
         }
@@ -238,14 +312,69 @@ public abstract class AbstractSegmentStoreAnalysisModule extends TmfAbstractAnal
 
     private @Nullable ISegmentStore<@NonNull ISegment> buildInMemorySegmentStore(SegmentStoreType type, IProgressMonitor monitor) throws TmfAnalysisException {
         ISegmentStore<ISegment> segmentStore = SegmentStoreFactory.createSegmentStore(type);
-        boolean completed = buildAnalysisSegments(segmentStore, monitor);
+        boolean completed = buildSegments(segmentStore, monitor);
+        if (!completed) {
+            return null;
+        }
+
+        return segmentStore;
+    }
+
+    private @Nullable ISegmentStore<@NonNull ISegment> buildCompactSegmentStore(IProgressMonitor monitor) throws TmfAnalysisException {
+        ITmfTrace trace = Objects.requireNonNull(getTrace());
+        ISegmentCodec<ISegment> codec = getSegmentCodec();
+        Path file = Paths.get(TmfTraceManager.getSupplementaryFileDir(trace), getId() + COLUMNAR_EXTENSION);
+
+        /* The segments of a previous run are kept in a columnar file */
+        boolean streaming = isStreaming();
+        if (!streaming && Files.exists(file)) {
+            try {
+                return SegmentStoreFactory.openColumnarSegmentStore(file, codec, getVersion());
+            } catch (IOException e) {
+                /* The file is invalid or outdated, rebuild it */
+            }
+        }
+
+        ISegmentStore<ISegment> segmentStore = SegmentStoreFactory.createCompactSegmentStore(codec);
+        boolean completed = buildSegments(segmentStore, monitor);
         if (!completed) {
             return null;
         }
+        if (streaming) {
+            return segmentStore;
+        }
 
+        try {
+            SegmentStoreFactory.writeColumnarSegmentStore(segmentStore, codec, file, getVersion());
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Error writing the columnar segment file " + file, e); //$NON-NLS-1$
+        }
         return segmentStore;
     }
 
+    private boolean isStreaming() {
+        return getStreamingWindow() > 0;
+    }
+
+    /**
+     * Build the segments, through a streaming segment store in streaming mode
+     */
+    private boolean buildSegments(ISegmentStore<ISegment> segmentStore, IProgressMonitor monitor) throws TmfAnalysisException {
+        if (!isStreaming()) {
+            return buildAnalysisSegments(segmentStore, monitor);
+        }
+        ITmfTrace trace = getTrace();
+        long origin = (trace != null) ? trace.getStartTime().toNanos() : Long.MIN_VALUE;
+        List<IGroupingSegmentAspect> groupingAspects = ImmutableList.copyOf(Objects.requireNonNull(Iterables.filter(getSegmentAspects(), IGroupingSegmentAspect.class)));
+        StreamingSegmentStore streamingStore = new StreamingSegmentStore(segmentStore, groupingAspects, origin, getStreamingWindow(), getOutlierThreshold(), getMaxOutliers());
+        boolean completed = buildAnalysisSegments(streamingStore, monitor);
+        if (completed) {
+            /* In case the segment store was not closed */
+            streamingStore.complete();
+        }
+        return completed;
+    }
+
     /**
      * Send the segment store to all its listener
      *
@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2018 Ericsson
+ * Copyright (c) 2018, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -36,6 +36,9 @@ public class SegmentStoreStatisticsModel extends TmfTreeDataModel {
     private final long fMinEnd;
     private final long fMaxStart;
     private final long fMaxEnd;
+    private final double fMedian;
+    private final double fPercentile99;
+    private final double fPercentile999;
 
     /**
      * Constructor
@@ -76,6 +79,9 @@ public class SegmentStoreStatisticsModel extends TmfTreeDataModel {
         fMean = statistics.getMean();
         fStdDev = statistics.getStdDev();
         fTotal = statistics.getTotal();
+        fMedian = statistics.getQuantile(0.5);
+        fPercentile99 = statistics.getQuantile(0.99);
+        fPercentile999 = statistics.getQuantile(0.999);
 
         ISegment max = statistics.getMaxObject();
         if (max != null) {
@@ -150,6 +156,36 @@ public class SegmentStoreStatisticsModel extends TmfTreeDataModel {
         return fTotal;
     }
 
+    /**
+     * Get the median value from the statistics
+     *
+     * @return median value, or NaN if the statistics do not estimate it.
+     * @since 5.6
+     */
+    public double getMedian() {
+        return fMedian;
+    }
+
+    /**
+     * Get the 99th percentile from the statistics
+     *
+     * @return 99th percentile, or NaN if the statistics do not estimate it.
+     * @since 5.6
+     */
+    public double getPercentile99() {
+        return fPercentile99;
+    }
+
+    /**
+     * Get the 99.9th percentile from the statistics
+     *
+     * @return 99.9th percentile, or NaN if the statistics do not estimate it.
+     * @since 5.6
+     */
+    public double getPercentile999() {
+        return fPercentile999;
+    }
+
     /**
      * Get the minimum's start time from the statistics, if there was one, else
      * {@code 0}
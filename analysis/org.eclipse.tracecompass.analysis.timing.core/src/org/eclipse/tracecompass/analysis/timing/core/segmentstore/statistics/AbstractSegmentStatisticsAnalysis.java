@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson
+ * Copyright (c) 2016, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -12,16 +12,20 @@ package org.eclipse.tracecompass.analysis.timing.core.segmentstore.statistics;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.segmentstore.IGroupingSegmentAspect;
 import org.eclipse.tracecompass.analysis.timing.core.segmentstore.ISegmentStoreProvider;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatisticsAnalysis;
 import org.eclipse.tracecompass.analysis.timing.core.statistics.Statistics;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics.SegmentStatisticsBlocks;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
@@ -31,10 +35,20 @@ import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 /**
  * Abstract analysis to build statistics data for a segment store
  *
+ * The statistics are computed in parallel for blocks of segment start times,
+ * which are kept to answer the queries on time ranges by reading only the
+ * segments at the edges of the ranges.
+ *
+ * If the segment store was built in streaming mode, it only keeps the
+ * outliers, so the statistics of the segment durations computed by windows of
+ * time while it was built are used instead, with the segment names as types.
+ * The statistics of other values are only those of the outliers.
+ *
  * @author Jean-Christian Kouame
  * @since 3.0
  */
@@ -46,6 +60,10 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
 
     private Map<String, IStatistics<ISegment>> fPerSegmentTypeStats = new HashMap<>();
 
+    private Map<String, Map<String, IStatistics<ISegment>>> fPerGroupStats = new HashMap<>();
+
+    private @Nullable SegmentStatisticsBlocks fBlocks;
+
     /**
      * Gets the segment mapper. This allows values to be resolved
      *
@@ -55,7 +73,7 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
      * @since 5.2
      */
     protected Function<ISegment, @Nullable Number> getMapper() {
-        return ISegment::getLength;
+        return SegmentStatisticsBlocks.DURATION_MAPPER;
     }
 
     @Override
@@ -77,19 +95,57 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
             return false;
         }
 
-        IStatistics<ISegment> totalStats = getTotalStats(TmfTimeRange.ETERNITY.getStartTime().toNanos(), TmfTimeRange.ETERNITY.getEndTime().toNanos(), monitor);
-        if (totalStats == null) {
+        ISegmentStoreProvider provider = fSegmentStoreProvider;
+        if (provider == null) {
+            return false;
+        }
+        ISegmentStore<@NonNull ISegment> store = getSegmentStore();
+        if (monitor.isCanceled()) {
             return false;
         }
+        if (store == null) {
+            fBlocks = null;
+            fTotalStats = new Statistics<>(getMapper(), true);
+            fPerSegmentTypeStats = new HashMap<>();
+            fPerGroupStats = new HashMap<>();
+            return true;
+        }
 
-        Map<String, IStatistics<ISegment>> perTypeStats = getPerTypeStats(TmfTimeRange.ETERNITY.getStartTime().toNanos(), TmfTimeRange.ETERNITY.getEndTime().toNanos(), monitor);
-        fTotalStats = totalStats;
-        fPerSegmentTypeStats = perTypeStats;
+        /*
+         * Spread the blocks over the trace, or over the segments if the trace
+         * range is unknown
+         */
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        ITmfTrace trace = getTrace();
+        if (trace != null) {
+            start = trace.getStartTime().toNanos();
+            end = trace.getEndTime().toNanos();
+        }
+
+        SegmentStatisticsBlocks blocks = SegmentStatisticsBlocks.getStreamingBlocks(store);
+        if (blocks == null || getMapper() != SegmentStatisticsBlocks.DURATION_MAPPER) {
+            List<IGroupingSegmentAspect> groupingAspects = ImmutableList.copyOf(Objects.requireNonNull(Iterables.filter(provider.getSegmentAspects(), IGroupingSegmentAspect.class)));
+            blocks = SegmentStatisticsBlocks.create(store, getMapper(), this::getSegmentType, groupingAspects, start, end, monitor);
+            if (blocks == null) {
+                return false;
+            }
+        }
+        /* The statistics of the durations are shared with the density chart */
+        SegmentStatisticsBlocks.shareDurationBlocks(blocks);
+        fBlocks = blocks;
+        fTotalStats = blocks.getTotalStats();
+        fPerSegmentTypeStats = blocks.getPerTypeStats();
+        fPerGroupStats = blocks.getPerGroupStats();
 
         return true;
     }
 
     private @Nullable IStatistics<ISegment> getTotalStats(long start, long end, IProgressMonitor monitor) {
+        SegmentStatisticsBlocks blocks = fBlocks;
+        if (blocks != null && !isEternity(start, end)) {
+            return blocks.getTotalStats(Long.min(start, end), Long.max(start, end), monitor);
+        }
         Iterable<@NonNull ISegment> store = getSegmentStore(start, end);
         if (store == null) {
             return null;
@@ -127,6 +183,13 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
     }
 
     private Map<@NonNull String, IStatistics<@NonNull ISegment>> getPerTypeStats(long start, long end, IProgressMonitor monitor) {
+        SegmentStatisticsBlocks blocks = fBlocks;
+        if (blocks != null && !isEternity(start, end)) {
+            if (monitor.isCanceled()) {
+                return Collections.emptyMap();
+            }
+            return blocks.getPerTypeStats(Long.min(start, end), Long.max(start, end), monitor);
+        }
         Iterable<@NonNull ISegment> store = getSegmentStore(start, end);
         if (monitor.isCanceled() || store == null) {
             return Collections.emptyMap();
@@ -174,12 +237,9 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
         if (segmentStoreProvider == null) {
             return null;
         }
-        if (segmentStoreProvider instanceof IAnalysisModule) {
-            ((IAnalysisModule) segmentStoreProvider).waitForCompletion();
-        }
         long t0 = Long.min(start, end);
         long t1 = Long.max(start, end);
-        ISegmentStore<@NonNull ISegment> segmentStore = segmentStoreProvider.getSegmentStore();
+        ISegmentStore<@NonNull ISegment> segmentStore = getSegmentStore();
         return segmentStore != null ?
                 isEternity(t0, t1) ?
                         segmentStore :
@@ -187,8 +247,24 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
                 Collections.emptyList();
     }
 
+    /**
+     * Get the segment store of the provider, once it is built
+     *
+     * @return The segment store
+     */
+    private @Nullable ISegmentStore<@NonNull ISegment> getSegmentStore() {
+        ISegmentStoreProvider segmentStoreProvider = fSegmentStoreProvider;
+        if (segmentStoreProvider == null) {
+            return null;
+        }
+        if (segmentStoreProvider instanceof IAnalysisModule) {
+            ((IAnalysisModule) segmentStoreProvider).waitForCompletion();
+        }
+        return segmentStoreProvider.getSegmentStore();
+    }
+
     private @Nullable IStatistics<ISegment> calculateTotalManual(Iterable<@NonNull ISegment> segments, IProgressMonitor monitor) {
-        IStatistics<ISegment> total = new Statistics<>(getMapper());
+        IStatistics<ISegment> total = new Statistics<>(getMapper(), true);
         for (ISegment segment : segments) {
             if (monitor.isCanceled()) {
                 return null;
@@ -207,7 +283,7 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
             }
             String segmentType = getSegmentType(segment);
             if (segmentType != null) {
-                IStatistics<ISegment> values = perSegmentTypeStats.getOrDefault(segmentType, new Statistics<>(getMapper()));
+                IStatistics<ISegment> values = perSegmentTypeStats.getOrDefault(segmentType, new Statistics<>(getMapper(), true));
                 values.update(segment);
                 perSegmentTypeStats.put(segmentType, values);
             }
@@ -277,4 +353,33 @@ public abstract class AbstractSegmentStatisticsAnalysis extends TmfAbstractAnaly
         return fPerSegmentTypeStats;
     }
 
+    /**
+     * Get the statistics for each group of the grouping aspects of the segment
+     * store provider
+     *
+     * @return the map of statistics per group, by grouping aspect name
+     * @since 5.6
+     */
+    @Override
+    public Map<String, Map<String, IStatistics<ISegment>>> getStatsPerGroup() {
+        return fPerGroupStats;
+    }
+
+    /**
+     * @since 5.6
+     */
+    @Override
+    public Map<String, Map<String, IStatistics<ISegment>>> getStatsPerGroupForRange(long start, long end, IProgressMonitor monitor) {
+        ITmfTrace trace = getTrace();
+        if (trace != null && isEternity(start, end)) {
+            waitForCompletion();
+            return getStatsPerGroup();
+        }
+        SegmentStatisticsBlocks blocks = fBlocks;
+        if (blocks == null || monitor.isCanceled()) {
+            return Collections.emptyMap();
+        }
+        return blocks.getPerGroupStats(Long.min(start, end), Long.max(start, end), monitor);
+    }
+
 }
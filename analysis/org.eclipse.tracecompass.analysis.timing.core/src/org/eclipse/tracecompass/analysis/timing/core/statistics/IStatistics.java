@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 École Polytechnique de Montréal
+ * Copyright (c) 2017, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -107,6 +107,35 @@ public interface IStatistics<@NonNull E> {
      */
     double getTotal();
 
+    /**
+     * Estimate a quantile of the values, for example the median or the 99th
+     * percentile. Implementations that do not keep the distribution of the
+     * values return NaN.
+     *
+     * @param quantile
+     *            The quantile, between 0 and 1, for example 0.99 for the 99th
+     *            percentile
+     * @return The estimated quantile, or NaN if there are no elements
+     * @since 5.6
+     */
+    default double getQuantile(double quantile) {
+        return Double.NaN;
+    }
+
+    /**
+     * Estimate the number of values lower than or equal to a value, which is
+     * the inverse of {@link #getQuantile(double)}. Implementations that do not
+     * keep the distribution of the values return -1.
+     *
+     * @param value
+     *            The value
+     * @return The estimated number of values lower than or equal to the value
+     * @since 5.6
+     */
+    default long getRank(double value) {
+        return -1;
+    }
+
     /**
      * Update the statistics based on a given object
      * <p>
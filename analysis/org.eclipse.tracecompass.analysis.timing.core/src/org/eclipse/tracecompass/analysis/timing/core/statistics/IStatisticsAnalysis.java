@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 Ericsson
+ * Copyright (c) 2020, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.tracecompass.analysis.timing.core.statistics;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -78,4 +79,35 @@ public interface IStatisticsAnalysis<@NonNull E> {
      */
     Map<String, IStatistics<@NonNull E>> getStatsPerType();
 
+    /**
+     * Get the statistics for each group of the grouping aspects of the data
+     * source, if any
+     *
+     * @return the map of statistics per group, by grouping aspect name
+     * @since 5.6
+     */
+    default Map<String, Map<String, IStatistics<@NonNull E>>> getStatsPerGroup() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Get the per group statistics for a specific range. If the range start is
+     * TmfTimeRange.ETERNITY.getStartTime().toNanos() and the range end is
+     * TmfTimeRange.ETERNITY.getEndTime().toNanos(), it will return the
+     * statistics for the whole trace.
+     *
+     * @param start
+     *            The start time of the range
+     * @param end
+     *            The end time of the range
+     * @param monitor
+     *            The progress monitor
+     * @return The map of statistics per group, by grouping aspect name, or an
+     *         empty map if the request is canceled
+     * @since 5.6
+     */
+    default Map<String, Map<String, IStatistics<@NonNull E>>> getStatsPerGroupForRange(long start, long end, IProgressMonitor monitor) {
+        return Collections.emptyMap();
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.analysis.timing.core.statistics;
+
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Mergeable sketch of the distribution of values, to estimate their quantiles
+ * (median, 99th percentile, etc.) in a single pass.
+ *
+ * The values are counted in logarithmic buckets, in the manner of HDR
+ * histograms: the bucket of a value is given by its floating point exponent
+ * and the 5 most significant bits of its mantissa, so each power of two is
+ * split in 32 buckets and a quantile is estimated within 1.6% of the actual
+ * value. Sketches of disjoint sets of values are merged by adding the counts
+ * of their buckets, which gives the same sketch as counting all the values.
+ *
+ * The first values are kept as is, so the quantiles of small sets are exact
+ * and cost little memory. The range of buckets is bounded, if the values span
+ * more than 1024 buckets, the lowest ones are merged, which
+ * only loses precision on the smallest values.
+ *
+ * @since 5.6
+ */
+public class QuantileSketch {
+
+    /** Number of values kept as is, before counting them in buckets */
+    private static final int EXACT_VALUES = 32;
+    /** The bucket index is the top 16 bits of a positive double */
+    private static final int BUCKET_SHIFT = 47;
+    /** Maximum number of buckets, for positive or negative values */
+    private static final int MAX_BUCKETS = 1024;
+    /** Number of buckets added when the range of buckets grows */
+    private static final int BUCKETS_GROWTH = 32;
+
+    private static final double[] NO_VALUES = new double[0];
+
+    private long fCount = 0;
+    private double fMin = Double.POSITIVE_INFINITY;
+    private double fMax = Double.NEGATIVE_INFINITY;
+
+    /** The values, until they are counted in the buckets */
+    private double[] fValues = NO_VALUES;
+    /** Zero is counted apart, to not stretch the range of buckets */
+    private long fZeroCount = 0;
+    private @Nullable Buckets fPositive = null;
+    private @Nullable Buckets fNegative = null;
+
+    /**
+     * Contiguous range of buckets, by bucket index
+     */
+    private static final class Buckets {
+
+        private long[] fCounts = new long[BUCKETS_GROWTH];
+        /** Bucket index of the first count */
+        private int fOffset;
+
+        public Buckets(int index) {
+            fOffset = index - BUCKETS_GROWTH / 2;
+        }
+
+        public Buckets(Buckets other) {
+            fCounts = Arrays.copyOf(other.fCounts, other.fCounts.length);
+            fOffset = other.fOffset;
+        }
+
+        public void add(int index, long count) {
+            int position = index - fOffset;
+            if (position < 0 || position >= fCounts.length) {
+                position = grow(index);
+            }
+            fCounts[position] += count;
+        }
+
+        public void addAll(Buckets other) {
+            long[] counts = other.fCounts;
+            int first = 0;
+            while (first < counts.length && counts[first] == 0) {
+                first++;
+            }
+            if (first == counts.length) {
+                return;
+            }
+            int last = counts.length - 1;
+            while (counts[last] == 0) {
+                last--;
+            }
+            /* Grow the range once for all the buckets, the highest first */
+            include(other.fOffset + last);
+            include(other.fOffset + first);
+            for (int i = first; i <= last; i++) {
+                if (counts[i] != 0) {
+                    add(other.fOffset + i, counts[i]);
+                }
+            }
+        }
+
+        private void include(int index) {
+            int position = index - fOffset;
+            if (position < 0 || position >= fCounts.length) {
+                grow(index);
+            }
+        }
+
+        /**
+         * Grow the range of buckets to include an index, with room for the
+         * next ones. The lowest buckets are merged if the range is too large.
+         *
+         * @return the position of the index in the new range
+         */
+        private int grow(int index) {
+            if (index < fOffset && fCounts.length >= MAX_BUCKETS) {
+                /* Merged in the lowest bucket, the range does not change */
+                return 0;
+            }
+            int last = fOffset + fCounts.length - 1;
+            int low = Math.min(fOffset, index);
+            int high = Math.max(last, index);
+            int length = (int) Math.min(MAX_BUCKETS, (long) high - low + 1 + BUCKETS_GROWTH);
+            int offset;
+            if (index < fOffset) {
+                offset = high - length + 1;
+            } else {
+                offset = Math.max(low, index - length + 1);
+            }
+            long[] counts = new long[length];
+            for (int i = 0; i < fCounts.length; i++) {
+                counts[Math.max(0, fOffset + i - offset)] += fCounts[i];
+            }
+            fCounts = counts;
+            fOffset = offset;
+            return Math.max(0, index - offset);
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    public QuantileSketch() {
+        // Empty sketch
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other
+     *            The sketch to copy
+     */
+    public QuantileSketch(QuantileSketch other) {
+        set(other);
+    }
+
+    private void set(QuantileSketch other) {
+        fCount = other.fCount;
+        fMin = other.fMin;
+        fMax = other.fMax;
+        fValues = (other.fValues.length == 0) ? NO_VALUES : Arrays.copyOf(other.fValues, other.fValues.length);
+        fZeroCount = other.fZeroCount;
+        Buckets positive = other.fPositive;
+        fPositive = (positive != null) ? new Buckets(positive) : null;
+        Buckets negative = other.fNegative;
+        fNegative = (negative != null) ? new Buckets(negative) : null;
+    }
+
+    /**
+     * Add a value to the sketch
+     *
+     * @param value
+     *            The value, NaN is ignored
+     */
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        fCount++;
+        fMin = Math.min(fMin, value);
+        fMax = Math.max(fMax, value);
+        if (fPositive == null && fCount <= EXACT_VALUES) {
+            if (fValues.length < fCount) {
+                fValues = Arrays.copyOf(fValues, Math.min(EXACT_VALUES, Math.max(4, fValues.length * 2)));
+            }
+            fValues[(int) fCount - 1] = value;
+            return;
+        }
+        if (fPositive == null) {
+            countValues((int) fCount - 1);
+        }
+        addToBuckets(value, 1);
+    }
+
+    /**
+     * Merge the values of another sketch in this one
+     *
+     * @param other
+     *            The sketch to merge
+     */
+    public void merge(QuantileSketch other) {
+        if (fCount == 0) {
+            /* Take the values or the buckets of the other sketch as they are */
+            set(other);
+            return;
+        }
+        Buckets otherPositive = other.fPositive;
+        if (otherPositive == null) {
+            for (int i = 0; i < other.fCount; i++) {
+                update(other.fValues[i]);
+            }
+            return;
+        }
+        Buckets positive = fPositive;
+        if (positive == null) {
+            positive = countValues((int) fCount);
+        }
+        fCount += other.fCount;
+        fMin = Math.min(fMin, other.fMin);
+        fMax = Math.max(fMax, other.fMax);
+        fZeroCount += other.fZeroCount;
+        positive.addAll(otherPositive);
+        Buckets otherNegative = other.fNegative;
+        if (otherNegative != null) {
+            Buckets negative = fNegative;
+            if (negative == null) {
+                fNegative = new Buckets(otherNegative);
+            } else {
+                negative.addAll(otherNegative);
+            }
+        }
+    }
+
+    /**
+     * Get the number of values in the sketch
+     *
+     * @return The number of values
+     */
+    public long getCount() {
+        return fCount;
+    }
+
+    /**
+     * Estimate a quantile of the values, the value whose rank is the quantile
+     * times the number of values minus one, rounded down
+     *
+     * @param quantile
+     *            The quantile, between 0 and 1, for example 0.99 for the 99th
+     *            percentile
+     * @return The estimated value of the quantile, or NaN if there are no
+     *         values
+     */
+    public double getQuantile(double quantile) {
+        if (fCount == 0 || Double.isNaN(quantile)) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0.0, Math.min(1.0, quantile)) * (fCount - 1));
+        if (rank == 0) {
+            return fMin;
+        }
+        if (rank == fCount - 1) {
+            return fMax;
+        }
+        Buckets positive = fPositive;
+        if (positive == null) {
+            double[] values = Arrays.copyOf(fValues, (int) fCount);
+            Arrays.sort(values);
+            return values[(int) rank];
+        }
+        /* The negative values come first, by decreasing magnitude */
+        long remaining = rank;
+        Buckets negative = fNegative;
+        if (negative != null) {
+            for (int i = negative.fCounts.length - 1; i >= 0; i--) {
+                remaining -= negative.fCounts[i];
+                if (remaining < 0) {
+                    return clamp(-getBucketValue(negative.fOffset + i));
+                }
+            }
+        }
+        remaining -= fZeroCount;
+        if (remaining < 0) {
+            return 0.0;
+        }
+        for (int i = 0; i < positive.fCounts.length; i++) {
+            remaining -= positive.fCounts[i];
+            if (remaining < 0) {
+                return clamp(getBucketValue(positive.fOffset + i));
+            }
+        }
+        return fMax;
+    }
+
+    /**
+     * Estimate the number of values lower than or equal to a value. The values
+     * of a bucket are counted if the bound of the bucket closest to zero is
+     * lower than or equal to the value, so the rank is exact for values that
+     * are bounds of buckets, like the integers up to 32.
+     *
+     * @param value
+     *            The value
+     * @return The estimated number of values lower than or equal to the value
+     */
+    public long getRank(double value) {
+        if (fCount == 0 || Double.isNaN(value) || value < fMin) {
+            return 0;
+        }
+        if (value >= fMax) {
+            return fCount;
+        }
+        Buckets positive = fPositive;
+        if (positive == null) {
+            long rank = 0;
+            for (int i = 0; i < fCount; i++) {
+                if (fValues[i] <= value) {
+                    rank++;
+                }
+            }
+            return rank;
+        }
+        long rank = 0;
+        Buckets negative = fNegative;
+        if (negative != null) {
+            for (int i = negative.fCounts.length - 1; i >= 0; i--) {
+                if (-getBucketBound(negative.fOffset + i) > value) {
+                    return rank;
+                }
+                rank += negative.fCounts[i];
+            }
+        }
+        if (value < 0.0) {
+            return rank;
+        }
+        rank += fZeroCount;
+        for (int i = 0; i < positive.fCounts.length; i++) {
+            if (getBucketBound(positive.fOffset + i) > value) {
+                return rank;
+            }
+            rank += positive.fCounts[i];
+        }
+        return rank;
+    }
+
+    /**
+     * Move the first values to the buckets, created around the last value
+     *
+     * @return the buckets of the positive values
+     */
+    private Buckets countValues(int count) {
+        Buckets positive = new Buckets(getBucketIndex(fValues[count - 1]));
+        fPositive = positive;
+        for (int i = 0; i < count; i++) {
+            addToBuckets(fValues[i], 1);
+        }
+        fValues = NO_VALUES;
+        return positive;
+    }
+
+    private void addToBuckets(double value, long count) {
+        if (value == 0.0) {
+            fZeroCount += count;
+        } else {
+            int index = getBucketIndex(value);
+            getBuckets(value < 0, index).add(index, count);
+        }
+    }
+
+    /**
+     * Get the buckets of the positive or negative values, created around the
+     * index of the first value
+     */
+    private Buckets getBuckets(boolean negative, int index) {
+        Buckets buckets = negative ? fNegative : fPositive;
+        if (buckets == null) {
+            buckets = new Buckets(index);
+            if (negative) {
+                fNegative = buckets;
+            } else {
+                fPositive = buckets;
+            }
+        }
+        return buckets;
+    }
+
+    private double clamp(double value) {
+        return Math.max(fMin, Math.min(fMax, value));
+    }
+
+    private static int getBucketIndex(double value) {
+        return (int) (Double.doubleToLongBits(Math.abs(value)) >>> BUCKET_SHIFT);
+    }
+
+    /**
+     * Get the bound of a bucket closest to zero, its lowest magnitude
+     */
+    private static double getBucketBound(int index) {
+        return Double.longBitsToDouble((long) index << BUCKET_SHIFT);
+    }
+
+    /**
+     * Get the middle of a bucket, which is within half a bucket of its values
+     */
+    private static double getBucketValue(int index) {
+        double low = Double.longBitsToDouble((long) index << BUCKET_SHIFT);
+        double high = Double.longBitsToDouble((long) (index + 1) << BUCKET_SHIFT);
+        return Double.isInfinite(high) ? low : (low + high) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch: " + fCount + " values, median: " + getQuantile(0.5); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 École Polytechnique de Montréal
+ * Copyright (c) 2017, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -48,6 +48,7 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
      */
     private double fVariance;
     private double fTotal;
+    private @Nullable QuantileSketch fSketch;
 
     /**
      * Constructor
@@ -69,11 +70,28 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
      *            for and returns the value to use for the statistics
      */
     public Statistics(Function<E, @Nullable ? extends @Nullable Number> mapper) {
+        this(mapper, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param mapper
+     *            A mapper function that takes an object to computes statistics
+     *            for and returns the value to use for the statistics
+     * @param keepDistribution
+     *            Whether to keep the distribution of the values, to estimate
+     *            their quantiles and ranks. It costs a few kilobytes per
+     *            statistics and a bucket update per value.
+     * @since 5.6
+     */
+    public Statistics(Function<E, @Nullable ? extends @Nullable Number> mapper, boolean keepDistribution) {
         fNbElements = 0;
         fMean = 0.0;
         fVariance = 0.0;
         fTotal = 0.0;
         fMapper = mapper;
+        fSketch = keepDistribution ? new QuantileSketch() : null;
     }
 
     @Override
@@ -135,6 +153,24 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
         return fTotal;
     }
 
+    /**
+     * @since 5.6
+     */
+    @Override
+    public double getQuantile(double quantile) {
+        QuantileSketch sketch = fSketch;
+        return sketch == null ? Double.NaN : sketch.getQuantile(quantile);
+    }
+
+    /**
+     * @since 5.6
+     */
+    @Override
+    public long getRank(double value) {
+        QuantileSketch sketch = fSketch;
+        return sketch == null ? -1 : sketch.getRank(value);
+    }
+
     @Override
     public void update(E object) {
         Number number = fMapper.apply(object);
@@ -142,6 +178,17 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
             // TODO add null category?
             return;
         }
+        updateMoments(object, number);
+        QuantileSketch sketch = fSketch;
+        if (sketch != null) {
+            sketch.update(number.doubleValue());
+        }
+    }
+
+    /**
+     * Update the statistics other than the distribution with an element
+     */
+    private void updateMoments(E object, Number number) {
         double doubleValue = number.doubleValue();
         updateMin(object, number);
         updateMax(object, number);
@@ -190,11 +237,13 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
         } else if (fNbElements == 0) {
             copy(other);
         } else if (other.fNbElements == 1) {
-            update(NonNullUtils.checkNotNull(other.getMaxObject()));
+            updateMoments(NonNullUtils.checkNotNull(other.getMaxObject()), other.fMaxNum);
+            mergeSketch(other);
         } else if (fNbElements == 1) {
-            Statistics<E> copyOther = new Statistics<>(fMapper);
+            Statistics<E> copyOther = new Statistics<>(fMapper, fSketch != null);
             copyOther.copy(other);
-            copyOther.update(NonNullUtils.checkNotNull(getMaxObject()));
+            copyOther.updateMoments(NonNullUtils.checkNotNull(getMaxObject()), fMaxNum);
+            copyOther.mergeSketch(this);
             copy(copyOther);
         } else {
             internalMerge(other);
@@ -223,25 +272,29 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
         fMean = ((oldNbSeg * oldAverage) + (otherAverage * otherSegments)) / fNbElements;
 
         /*
-         * This one is a bit tricky.
-         *
-         * The variance is the sum of the deltas from a mean squared.
-         *
-         * So if we add the old mean squared back to to variance and remove the
-         * new mean, the standard deviation can be easily calculated.
+         * The variance is the sum of the squared deltas from the mean. Both
+         * sums are added, with the squared delta between the two means
+         * weighted by the number of elements on each side, so that merging
+         * gives the same variance as updating with all the elements.
          */
-        double avg1Sq = oldAverage * oldAverage;
-        double avg2sq = otherAverage * otherAverage;
-        double avgtSq = fMean * fMean;
-        /*
-         * This is a tricky part, bear in mind that the set is not continuous
-         * but discrete, Therefore, we have for n elements, n-1 intervals
-         * between them. Ergo, n-1 intervals are used for divisions and
-         * multiplications.
-         */
-        double variance1 = fVariance / (oldNbSeg - 1);
-        double variance2 = other.fVariance / (otherSegments - 1);
-        fVariance = ((variance1 + avg1Sq - avgtSq) * (oldNbSeg - 1) + (variance2 + avg2sq - avgtSq) * (otherSegments - 1));
+        double delta = otherAverage - oldAverage;
+        fVariance += other.fVariance + delta * delta * oldNbSeg * otherSegments / fNbElements;
+
+        mergeSketch(other);
+    }
+
+    /**
+     * Merge the distribution of other statistics, the merged distribution is
+     * only known if both statistics keep theirs
+     */
+    private void mergeSketch(Statistics<E> other) {
+        QuantileSketch sketch = fSketch;
+        QuantileSketch otherSketch = other.fSketch;
+        if (sketch != null && otherSketch != null) {
+            sketch.merge(otherSketch);
+        } else {
+            fSketch = null;
+        }
     }
 
     private void copy(Statistics<E> copyOther) {
@@ -253,6 +306,8 @@ public class Statistics<@NonNull E> implements IStatistics<E> {
         fNbElements = copyOther.fNbElements;
         fTotal = copyOther.fTotal;
         fVariance = copyOther.fVariance;
+        QuantileSketch sketch = copyOther.fSketch;
+        fSketch = (fSketch == null || sketch == null) ? null : new QuantileSketch(sketch);
     }
 
     @Override
@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2017, 2020 Ericsson
+ * Copyright (c) 2017, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -138,6 +138,18 @@ public class Messages extends NLS {
      * Name of the column for maximum time range
      */
     public static @Nullable String SegmentStoreStatistics_MaxTimeRangeLabel;
+    /**
+     * Name of the median column
+     */
+    public static @Nullable String SegmentStoreStatistics_MedianLabel;
+    /**
+     * Name of the 99th percentile column
+     */
+    public static @Nullable String SegmentStoreStatistics_Percentile99Label;
+    /**
+     * Name of the 99.9th percentile column
+     */
+    public static @Nullable String SegmentStoreStatistics_Percentile999Label;
     /**
      * Title of the data provider
      */
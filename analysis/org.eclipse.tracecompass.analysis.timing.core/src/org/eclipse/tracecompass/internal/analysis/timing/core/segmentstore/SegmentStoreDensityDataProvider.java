@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2022 Ericsson
+ * Copyright (c) 2022, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -15,18 +15,19 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.StreamSupport;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.timing.core.segmentstore.ISegmentStoreProvider;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.Statistics;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics.SegmentStatisticsBlocks;
 import org.eclipse.tracecompass.internal.tmf.core.model.TmfXyResponseFactory;
 import org.eclipse.tracecompass.internal.tmf.core.model.filters.FetchParametersUtils;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
-import org.eclipse.tracecompass.segmentstore.core.SegmentComparators;
 import org.eclipse.tracecompass.tmf.core.analysis.IAnalysisModule;
 import org.eclipse.tracecompass.tmf.core.model.AbstractTmfTraceDataProvider;
 import org.eclipse.tracecompass.tmf.core.model.CommonStatusMessage;
@@ -49,6 +50,12 @@ import com.google.common.collect.ImmutableList.Builder;
  * can be used by any viewer to draw density view charts. Model returned is for
  * analysis using SegmentStore.
  *
+ * The histogram of the durations is computed from the statistics of the
+ * segment store by blocks of time, which keep the distribution of the
+ * durations and are shared with the segment store statistics analysis, so
+ * only the segments at the edges of the range are read. While the analysis is
+ * running, the segments of the range are read instead.
+ *
  * @author Puru Jaiswal
  */
 public class SegmentStoreDensityDataProvider extends AbstractTmfTraceDataProvider implements ITmfTreeXYDataProvider<TmfTreeDataModel> {
@@ -97,25 +104,33 @@ public class SegmentStoreDensityDataProvider extends AbstractTmfTraceDataProvide
                 return TmfXyResponseFactory.createFailedResponse(CommonStatusMessage.INCORRECT_QUERY_PARAMETERS);
             }
         }
-        return getXyData(segmentStore, queryFilter);
+        return getXyData(segmentStore, queryFilter, monitor != null ? monitor : new NullProgressMonitor());
     }
 
-    private TmfModelResponse<ITmfXyModel> getXyData(ISegmentStore<ISegment> segmentStore, TimeQueryFilter queryFilter) {
+    private TmfModelResponse<ITmfXyModel> getXyData(ISegmentStore<ISegment> segmentStore, TimeQueryFilter queryFilter, IProgressMonitor monitor) {
         long startTraceTime = queryFilter.getStart();
         long endTraceTime = queryFilter.getEnd();
         int width = queryFilter.getTimesRequested().length;
-        Iterable<ISegment> displayData = segmentStore.getIntersectingElements(startTraceTime, endTraceTime);
 
         IAnalysisModule module = (fProvider instanceof IAnalysisModule) ? (IAnalysisModule) fProvider : null;
         boolean complete = module != null && module.isQueryable(queryFilter.getEnd());
 
-        Optional<ISegment> maxSegment = StreamSupport.stream(displayData.spliterator(), false).max(SegmentComparators.INTERVAL_LENGTH_COMPARATOR);
+        IStatistics<ISegment> stats;
+        if (module != null && module.isQueryable(Long.MAX_VALUE)) {
+            SegmentStatisticsBlocks blocks = SegmentStatisticsBlocks.getDurationBlocks(segmentStore, getTrace().getStartTime().toNanos(), getTrace().getEndTime().toNanos(), monitor);
+            stats = (blocks != null) ? blocks.getTotalStats(startTraceTime, endTraceTime, monitor) : null;
+        } else {
+            stats = getRangeStats(segmentStore, startTraceTime, endTraceTime, monitor);
+        }
+        if (stats == null) {
+            return TmfXyResponseFactory.createCancelledResponse(CommonStatusMessage.TASK_CANCELLED);
+        }
         long maxLength = 1;
-        if (maxSegment.isPresent()) {
-            maxLength = maxSegment.get().getLength();
+        if (stats.getNbElements() > 0) {
+            maxLength = stats.getMax();
         }
 
-        double[] yValues = getYValues(displayData, width, maxLength);
+        double[] yValues = getYValues(stats, width, maxLength);
         long[] xValues = getXValues(width, maxLength);
         ImmutableList.Builder<IYModel> builder = ImmutableList.builder();
         String totalName = getTrace().getName() + '/' + Messages.SegmentStoreDensity_TotalLabel;
@@ -123,6 +138,21 @@ public class SegmentStoreDensityDataProvider extends AbstractTmfTraceDataProvide
         return TmfXyResponseFactory.create(title, xValues, builder.build(), complete);
     }
 
+    /**
+     * Get the statistics of the segments of a range from the segment store,
+     * while it is still filled and its blocks would be outdated right away
+     */
+    private static @Nullable IStatistics<ISegment> getRangeStats(ISegmentStore<ISegment> segmentStore, long start, long end, IProgressMonitor monitor) {
+        IStatistics<ISegment> stats = new Statistics<>(SegmentStatisticsBlocks.DURATION_MAPPER, true);
+        for (ISegment segment : segmentStore.getIntersectingElements(start, end)) {
+            if (monitor.isCanceled()) {
+                return null;
+            }
+            stats.update(segment);
+        }
+        return stats;
+    }
+
     private static long[] getXValues(int width, long maxLength) {
         double timeWidth = (double) maxLength / (double) width;
         long[] xValues = new long[width];
@@ -133,16 +163,22 @@ public class SegmentStoreDensityDataProvider extends AbstractTmfTraceDataProvide
         return xValues;
     }
 
-    private static double[] getYValues(Iterable<ISegment> displayData, int width, long maxLength) {
-        double maxFactor = 1.0 / (maxLength + 1.0);
+    /**
+     * Get the number of segments in each bin of durations, the bin i having
+     * the durations from i to i + 1 times (maxLength + 1) / width excluded
+     */
+    private static double[] getYValues(IStatistics<ISegment> stats, int width, long maxLength) {
+        double binWidth = (maxLength + 1.0) / width;
         double[] yValues = new double[width];
         Arrays.fill(yValues, Double.MIN_VALUE);
-        for (ISegment segment : displayData) {
-            double xBox = segment.getLength() * maxFactor * width;
-            if (yValues[(int) xBox] < 1) {
-                yValues[(int) xBox] = 1;
-            } else {
-                yValues[(int) xBox]++;
+        /* Number of segments shorter than the start of the bin */
+        long below = 0;
+        for (int i = 0; i < width; i++) {
+            /* The durations are integers */
+            long next = (i == width - 1) ? stats.getNbElements() : stats.getRank(Math.ceil((i + 1) * binWidth) - 1);
+            if (next > below) {
+                yValues[i] = next - below;
+                below = next;
             }
         }
         return yValues;
@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2017 Ericsson
+ * Copyright (c) 2017, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -11,6 +11,9 @@
 
 package org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -25,7 +28,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.analysis.timing.core.segmentstore.IGroupingSegmentAspect;
@@ -59,6 +64,7 @@ import org.eclipse.tracecompass.tmf.core.response.ITmfResponse;
 import org.eclipse.tracecompass.tmf.core.response.ITmfResponse.Status;
 import org.eclipse.tracecompass.tmf.core.response.TmfModelResponse;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
 import org.eclipse.tracecompass.tmf.core.trace.TmfTraceUtils;
 
 import com.google.common.collect.BiMap;
@@ -90,6 +96,12 @@ public class SegmentStoreScatterDataProvider extends AbstractTmfTraceDataProvide
 
     private static final String DEFAULT_CATEGORY = "default"; //$NON-NLS-1$
     private static final String GROUP_PREFIX = "group"; //$NON-NLS-1$
+    private static final String SUMMARY_EXTENSION = ".scatter"; //$NON-NLS-1$
+    /**
+     * Minimum number of segments per pixel for the points to be read from the
+     * summary, below that the segment store is cheap enough to read
+     */
+    private static final int SUMMARY_MIN_SEGMENTS_PER_PIXEL = 4;
     private static final AtomicLong ENTRY_ID = new AtomicLong();
 
     private final ISegmentStoreProvider fProvider;
@@ -99,6 +111,11 @@ public class SegmentStoreScatterDataProvider extends AbstractTmfTraceDataProvide
     private final long fTraceId = ENTRY_ID.getAndIncrement();
 
     private Iterable<IGroupingSegmentAspect> fGroupingAspects;
+    private final Object fSummaryLock = new Object();
+    /** The segment store of the summary, which is built when it completes */
+    private @Nullable ISegmentStore<ISegment> fSummaryStore = null;
+    private @Nullable SegmentStoreScatterSummary fSummary = null;
+    private @Nullable Job fSummaryJob = null;
 
     private static class CheckSegmentType implements Predicate<ISegment> {
 
@@ -367,15 +384,37 @@ public class SegmentStoreScatterDataProvider extends AbstractTmfTraceDataProvide
             return TmfXyResponseFactory.create(Objects.requireNonNull(Messages.SegmentStoreScatterGraphViewer_title), Collections.emptyList(), true);
         }
         long pixelSize = Math.max(1, (end - start) / filter.getTimesRequested().length);
+        IAnalysisModule module = (fProvider instanceof IAnalysisModule) ? (IAnalysisModule) fProvider : null;
+        boolean complete = module == null || module.isQueryable(filter.getEnd());
+
+        /*
+         * When zoomed out, the points are read from the summary of the segment
+         * store. The predicates need the segments themselves though.
+         */
+        SegmentStoreScatterSummary summary = predicates.isEmpty() ? getSummary(segStore) : null;
+        if (summary != null && summary.canSummarize(pixelSize)) {
+            long count = 0;
+            for (String name : types.keySet()) {
+                count += summary.getCount(name.substring(prefix.length()), start, end, pixelSize);
+            }
+            if (count > (long) SUMMARY_MIN_SEGMENTS_PER_PIXEL * filter.getTimesRequested().length) {
+                for (String name : types.keySet()) {
+                    if (monitor != null && monitor.isCanceled()) {
+                        return TmfXyResponseFactory.createCancelledResponse(CommonStatusMessage.TASK_CANCELLED);
+                    }
+                    Series series = Objects.requireNonNull(types.get(name));
+                    summary.getPoints(name.substring(prefix.length()), start, end, pixelSize, (x, y) -> series.addPoint(x, y, 0));
+                }
+                return createResponse(types, complete);
+            }
+        }
+
         final Iterable<ISegment> intersectingElements = Iterables.filter(segStore.getIntersectingElements(start, end, SegmentComparators.INTERVAL_START_COMPARATOR), segment -> {
             CheckSegmentType cs = new CheckSegmentType(prefix, types.keySet());
             return cs.test(segment);
         });
         final Iterable<ISegment> displayData = compactList(start, intersectingElements, pixelSize);
 
-        IAnalysisModule module = (fProvider instanceof IAnalysisModule) ? (IAnalysisModule) fProvider : null;
-        boolean complete = module == null || module.isQueryable(filter.getEnd());
-
         // For each visible segments, add start time to x value and duration for
         // y value
         for (ISegment segment : displayData) {
@@ -394,6 +433,10 @@ public class SegmentStoreScatterDataProvider extends AbstractTmfTraceDataProvide
             addPoint(thisSeries, segment, predicates);
         }
 
+        return createResponse(types, complete);
+    }
+
+    private static TmfModelResponse<ITmfXyModel> createResponse(Map<String, Series> types, boolean complete) {
         List<ISeriesModel> seriesModelMap = new ArrayList<>();
         for (Entry<String, Series> entry : types.entrySet()) {
             SeriesModel seriesModel = entry.getValue().build();
@@ -403,6 +446,78 @@ public class SegmentStoreScatterDataProvider extends AbstractTmfTraceDataProvide
                 seriesModelMap, complete);
     }
 
+    /**
+     * Get the summary of the segment store. It is built in the background once
+     * the analysis is completed, or read back from the supplementary files of
+     * the trace if a previous session saved it.
+     *
+     * @return The summary, or null if it is not available yet
+     */
+    private @Nullable SegmentStoreScatterSummary getSummary(ISegmentStore<ISegment> segStore) {
+        if (!(fProvider instanceof IAnalysisModule)) {
+            return null;
+        }
+        IAnalysisModule module = (IAnalysisModule) fProvider;
+        synchronized (fSummaryLock) {
+            if (fSummaryStore == segStore) {
+                return fSummary;
+            }
+            /* A new segment store, from a new run of the analysis */
+            Job previousJob = fSummaryJob;
+            if (previousJob != null) {
+                previousJob.cancel();
+            }
+            fSummaryStore = segStore;
+            fSummary = null;
+            Job job = new Job("Summarize " + module.getName()) { //$NON-NLS-1$
+                @Override
+                protected IStatus run(@Nullable IProgressMonitor monitor) {
+                    return buildSummary(module, segStore, monitor == null ? new NullProgressMonitor() : monitor);
+                }
+            };
+            job.setSystem(true);
+            fSummaryJob = job;
+            job.schedule();
+            return null;
+        }
+    }
+
+    private IStatus buildSummary(IAnalysisModule module, ISegmentStore<ISegment> segStore, IProgressMonitor monitor) {
+        /*
+         * The segment store does not change anymore once the analysis is
+         * completed. The monitor of this job is not given to the analysis, as
+         * canceling the job would then cancel the analysis.
+         */
+        if (!module.waitForCompletion() || monitor.isCanceled()) {
+            return org.eclipse.core.runtime.Status.CANCEL_STATUS;
+        }
+        Path file = Paths.get(TmfTraceManager.getSupplementaryFileDir(getTrace()), module.getId() + SUMMARY_EXTENSION);
+        SegmentStoreScatterSummary summary = null;
+        try {
+            summary = SegmentStoreScatterSummary.read(file, segStore.size());
+        } catch (IOException e) {
+            Activator.getInstance().logWarning("Error reading the scatter summary " + file, e); //$NON-NLS-1$
+        }
+        boolean save = (summary == null);
+        if (summary == null) {
+            summary = SegmentStoreScatterSummary.create(segStore, SegmentStoreScatterDataProvider::getSegmentName);
+        }
+        synchronized (fSummaryLock) {
+            if (fSummaryStore != segStore || monitor.isCanceled()) {
+                return org.eclipse.core.runtime.Status.CANCEL_STATUS;
+            }
+            fSummary = summary;
+        }
+        if (save) {
+            try {
+                summary.write(file);
+            } catch (IOException e) {
+                Activator.getInstance().logWarning("Error writing the scatter summary " + file, e); //$NON-NLS-1$
+            }
+        }
+        return org.eclipse.core.runtime.Status.OK_STATUS;
+    }
+
     private static String getSegmentName(ISegment segment) {
         return (segment instanceof INamedSegment) ? ((INamedSegment) segment).getName() : DEFAULT_CATEGORY;
     }
@@ -523,6 +638,15 @@ public class SegmentStoreScatterDataProvider extends AbstractTmfTraceDataProvide
         synchronized (fIdToType) {
             fIdToType.clear();
         }
+        synchronized (fSummaryLock) {
+            Job job = fSummaryJob;
+            if (job != null) {
+                job.cancel();
+            }
+            fSummaryJob = null;
+            fSummaryStore = null;
+            fSummary = null;
+        }
     }
 
 }
@@ -0,0 +1,474 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+
+/**
+ * Multi-resolution summary of a segment store for the scatter chart. The start
+ * times of the segments are split in buckets, and each bucket keeps, per
+ * segment type, the number of segments and the segments of minimum and maximum
+ * duration. Each level of the summary merges the pairs of buckets of the level
+ * below, so a range of time is drawn from the level whose buckets are about the
+ * size of a pixel, in a time that depends on the number of pixels and not on
+ * the number of segments.
+ *
+ * Only the non-empty buckets are kept, and the levels are computed from the
+ * finest one, which is the only one saved to file.
+ */
+public final class SegmentStoreScatterSummary {
+
+    private static final int MAGIC = 0x5C4770D5;
+    private static final int VERSION = 1;
+
+    /** Number of buckets of the finest level, over the whole segment store */
+    private static final int BASE_BUCKETS = 1 << 16;
+    /** Number of buckets allocated at once while building the finest level */
+    private static final int PAGE_SIZE = 1024;
+
+    private final int fSize;
+    private final long fOrigin;
+    private final long fBucketDuration;
+    /** The levels of each segment type, from the finest */
+    private final Map<String, Level[]> fLevels;
+
+    /**
+     * Receives the points of the summary
+     */
+    @FunctionalInterface
+    public interface IPointConsumer {
+        /**
+         * Receive a point
+         *
+         * @param start
+         *            The start time of the segment
+         * @param length
+         *            The duration of the segment
+         */
+        void accept(long start, long length);
+    }
+
+    /**
+     * The non-empty buckets of a level, sorted by index
+     */
+    private static final class Level {
+
+        private final int fCount;
+        private final int[] fIndexes;
+        private final long[] fCounts;
+        private final long[] fMinStarts;
+        private final long[] fMinLengths;
+        private final long[] fMaxStarts;
+        private final long[] fMaxLengths;
+
+        public Level(int count) {
+            fCount = count;
+            fIndexes = new int[count];
+            fCounts = new long[count];
+            fMinStarts = new long[count];
+            fMinLengths = new long[count];
+            fMaxStarts = new long[count];
+            fMaxLengths = new long[count];
+        }
+
+        /* Merge the pairs of buckets of this level */
+        public Level coarser() {
+            int count = 0;
+            for (int i = 0; i < fCount; i++) {
+                if (i == 0 || (fIndexes[i] >> 1) != (fIndexes[i - 1] >> 1)) {
+                    count++;
+                }
+            }
+            Level level = new Level(count);
+            int j = -1;
+            for (int i = 0; i < fCount; i++) {
+                if (i == 0 || (fIndexes[i] >> 1) != (fIndexes[i - 1] >> 1)) {
+                    j++;
+                    level.set(j, fIndexes[i] >> 1, fCounts[i], fMinStarts[i], fMinLengths[i], fMaxStarts[i], fMaxLengths[i]);
+                } else {
+                    level.merge(j, fCounts[i], fMinStarts[i], fMinLengths[i], fMaxStarts[i], fMaxLengths[i]);
+                }
+            }
+            return level;
+        }
+
+        public void set(int i, int index, long count, long minStart, long minLength, long maxStart, long maxLength) {
+            fIndexes[i] = index;
+            fCounts[i] = count;
+            fMinStarts[i] = minStart;
+            fMinLengths[i] = minLength;
+            fMaxStarts[i] = maxStart;
+            fMaxLengths[i] = maxLength;
+        }
+
+        private void merge(int i, long count, long minStart, long minLength, long maxStart, long maxLength) {
+            fCounts[i] += count;
+            if (isLower(minStart, minLength, fMinStarts[i], fMinLengths[i])) {
+                fMinStarts[i] = minStart;
+                fMinLengths[i] = minLength;
+            }
+            if (isHigher(maxStart, maxLength, fMaxStarts[i], fMaxLengths[i])) {
+                fMaxStarts[i] = maxStart;
+                fMaxLengths[i] = maxLength;
+            }
+        }
+
+        /* Position of the first bucket whose index is not lower than index */
+        public int ceiling(int index) {
+            int position = Arrays.binarySearch(fIndexes, 0, fCount, index);
+            return (position >= 0) ? position : -position - 1;
+        }
+    }
+
+    /**
+     * Builder of the finest level of a segment type, the buckets are
+     * allocated by pages when they are first used
+     */
+    private static final class LevelBuilder {
+
+        private final @Nullable Page[] fPages = new @Nullable Page[BASE_BUCKETS / PAGE_SIZE];
+        private int fNonEmpty = 0;
+
+        private static final class Page {
+            private final long[] fCounts = new long[PAGE_SIZE];
+            private final long[] fMinStarts = new long[PAGE_SIZE];
+            private final long[] fMinLengths = new long[PAGE_SIZE];
+            private final long[] fMaxStarts = new long[PAGE_SIZE];
+            private final long[] fMaxLengths = new long[PAGE_SIZE];
+        }
+
+        public void add(int index, long start, long length) {
+            Page page = fPages[index / PAGE_SIZE];
+            if (page == null) {
+                page = new Page();
+                fPages[index / PAGE_SIZE] = page;
+            }
+            int i = index % PAGE_SIZE;
+            if (page.fCounts[i]++ == 0) {
+                fNonEmpty++;
+                page.fMinStarts[i] = page.fMaxStarts[i] = start;
+                page.fMinLengths[i] = page.fMaxLengths[i] = length;
+                return;
+            }
+            if (isLower(start, length, page.fMinStarts[i], page.fMinLengths[i])) {
+                page.fMinStarts[i] = start;
+                page.fMinLengths[i] = length;
+            }
+            if (isHigher(start, length, page.fMaxStarts[i], page.fMaxLengths[i])) {
+                page.fMaxStarts[i] = start;
+                page.fMaxLengths[i] = length;
+            }
+        }
+
+        public Level build() {
+            Level level = new Level(fNonEmpty);
+            int j = 0;
+            for (int p = 0; p < fPages.length; p++) {
+                Page page = fPages[p];
+                if (page == null) {
+                    continue;
+                }
+                for (int i = 0; i < PAGE_SIZE; i++) {
+                    if (page.fCounts[i] != 0) {
+                        level.set(j++, p * PAGE_SIZE + i, page.fCounts[i], page.fMinStarts[i], page.fMinLengths[i], page.fMaxStarts[i], page.fMaxLengths[i]);
+                    }
+                }
+            }
+            return level;
+        }
+    }
+
+    private SegmentStoreScatterSummary(int size, long origin, long bucketDuration, Map<String, Level> finestLevels) {
+        fSize = size;
+        fOrigin = origin;
+        fBucketDuration = bucketDuration;
+        Map<String, Level[]> levels = new HashMap<>();
+        finestLevels.forEach((type, level) -> levels.put(type, buildLevels(level)));
+        fLevels = levels;
+    }
+
+    private static Level[] buildLevels(Level finest) {
+        Level[] levels = new Level[Integer.numberOfTrailingZeros(BASE_BUCKETS) + 1];
+        levels[0] = finest;
+        for (int i = 1; i < levels.length; i++) {
+            levels[i] = levels[i - 1].coarser();
+        }
+        return levels;
+    }
+
+    /**
+     * Build the summary of a segment store. The segment store should not
+     * change afterwards.
+     *
+     * @param store
+     *            The segment store
+     * @param typeResolver
+     *            Gives the type of a segment, the summary is kept per type
+     * @return The summary
+     */
+    public static SegmentStoreScatterSummary create(ISegmentStore<ISegment> store, Function<ISegment, String> typeResolver) {
+        int size = 0;
+        long minStart = Long.MAX_VALUE;
+        long maxStart = Long.MIN_VALUE;
+        for (ISegment segment : store) {
+            size++;
+            minStart = Math.min(minStart, segment.getStart());
+            maxStart = Math.max(maxStart, segment.getStart());
+        }
+        if (size == 0) {
+            return new SegmentStoreScatterSummary(0, 0, 1, Collections.emptyMap());
+        }
+
+        /* Rounded so that the last start is in the last bucket at most */
+        long bucketDuration = (maxStart - minStart) / BASE_BUCKETS + 1;
+        Map<String, LevelBuilder> builders = new HashMap<>();
+        for (ISegment segment : store) {
+            int index = (int) ((segment.getStart() - minStart) / bucketDuration);
+            builders.computeIfAbsent(typeResolver.apply(segment), t -> new LevelBuilder())
+                    .add(index, segment.getStart(), segment.getLength());
+        }
+        Map<String, Level> finestLevels = new HashMap<>();
+        builders.forEach((type, builder) -> finestLevels.put(type, builder.build()));
+        return new SegmentStoreScatterSummary(size, minStart, bucketDuration, finestLevels);
+    }
+
+    /**
+     * Read a summary from file
+     *
+     * @param file
+     *            The file written by {@link #write(Path)}
+     * @param size
+     *            The number of segments of the segment store, a summary of
+     *            another number of segments is ignored
+     * @return The summary, or null if the file does not exist or does not
+     *         match the segment store
+     * @throws IOException
+     *             If the file could not be read
+     */
+    public static @Nullable SegmentStoreScatterSummary read(Path file, int size) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != size) {
+                return null;
+            }
+            long origin = in.readLong();
+            long bucketDuration = in.readLong();
+            int nbTypes = in.readInt();
+            Map<String, Level> finestLevels = new HashMap<>();
+            for (int t = 0; t < nbTypes; t++) {
+                String type = Objects.requireNonNull(in.readUTF());
+                Level level = new Level(in.readInt());
+                for (int i = 0; i < level.fCount; i++) {
+                    level.set(i, in.readInt(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                }
+                finestLevels.put(type, level);
+            }
+            return new SegmentStoreScatterSummary(size, origin, bucketDuration, finestLevels);
+        }
+    }
+
+    /**
+     * Write this summary to file
+     *
+     * @param file
+     *            The file to write, it is replaced if it exists
+     * @throws IOException
+     *             If the file could not be written
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(fSize);
+            out.writeLong(fOrigin);
+            out.writeLong(fBucketDuration);
+            out.writeInt(fLevels.size());
+            for (String type : fLevels.keySet()) {
+                out.writeUTF(type);
+                Level level = Objects.requireNonNull(fLevels.get(type))[0];
+                out.writeInt(level.fCount);
+                for (int i = 0; i < level.fCount; i++) {
+                    out.writeInt(level.fIndexes[i]);
+                    out.writeLong(level.fCounts[i]);
+                    out.writeLong(level.fMinStarts[i]);
+                    out.writeLong(level.fMinLengths[i]);
+                    out.writeLong(level.fMaxStarts[i]);
+                    out.writeLong(level.fMaxLengths[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of segments of the summarized segment store
+     *
+     * @return The number of segments
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Get the segment types of the summary
+     *
+     * @return The segment types
+     */
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(fLevels.keySet());
+    }
+
+    /**
+     * Get whether the summary is precise enough for a pixel duration, that is
+     * if its finest buckets are not larger than a pixel
+     *
+     * @param pixelDuration
+     *            The duration of a pixel
+     * @return Whether the points can be read from the summary
+     */
+    public boolean canSummarize(long pixelDuration) {
+        return pixelDuration >= fBucketDuration;
+    }
+
+    /**
+     * Get the number of segments of a type starting in the buckets that
+     * intersect a time range
+     *
+     * @param type
+     *            The segment type
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param pixelDuration
+     *            The duration of a pixel, to choose the level of the summary
+     * @return The number of segments, which can include segments starting
+     *         just outside the range
+     */
+    public long getCount(String type, long start, long end, long pixelDuration) {
+        Level[] levels = fLevels.get(type);
+        if (levels == null || start > end) {
+            return 0;
+        }
+        int levelIndex = getLevel(pixelDuration);
+        Level level = levels[levelIndex];
+        int last = getIndex(end, levelIndex);
+        long count = 0;
+        for (int i = level.ceiling(getIndex(start, levelIndex)); i < level.fCount && level.fIndexes[i] <= last; i++) {
+            count += level.fCounts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Get the points of a type starting in a time range, that is the segments
+     * of minimum and maximum duration of each bucket, by ascending start time
+     *
+     * @param type
+     *            The segment type
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param pixelDuration
+     *            The duration of a pixel, to choose the level of the summary
+     * @param consumer
+     *            Receives the points
+     */
+    public void getPoints(String type, long start, long end, long pixelDuration, IPointConsumer consumer) {
+        Level[] levels = fLevels.get(type);
+        if (levels == null || start > end) {
+            return;
+        }
+        int levelIndex = getLevel(pixelDuration);
+        Level level = levels[levelIndex];
+        int last = getIndex(end, levelIndex);
+        for (int i = level.ceiling(getIndex(start, levelIndex)); i < level.fCount && level.fIndexes[i] <= last; i++) {
+            long minStart = level.fMinStarts[i];
+            long maxStart = level.fMaxStarts[i];
+            boolean single = (minStart == maxStart && level.fMinLengths[i] == level.fMaxLengths[i]);
+            if (minStart <= maxStart) {
+                accept(consumer, start, end, minStart, level.fMinLengths[i]);
+                if (!single) {
+                    accept(consumer, start, end, maxStart, level.fMaxLengths[i]);
+                }
+            } else {
+                accept(consumer, start, end, maxStart, level.fMaxLengths[i]);
+                accept(consumer, start, end, minStart, level.fMinLengths[i]);
+            }
+        }
+    }
+
+    private static void accept(IPointConsumer consumer, long start, long end, long pointStart, long length) {
+        if (pointStart >= start && pointStart <= end) {
+            consumer.accept(pointStart, length);
+        }
+    }
+
+    /**
+     * Get the coarsest level whose buckets are not larger than a pixel
+     */
+    private int getLevel(long pixelDuration) {
+        long ratio = Math.max(1, pixelDuration / fBucketDuration);
+        return Math.min(63 - Long.numberOfLeadingZeros(ratio), Integer.numberOfTrailingZeros(BASE_BUCKETS));
+    }
+
+    /**
+     * Get the index of the bucket of a time in a level, bounded to the range
+     * of the buckets
+     */
+    private int getIndex(long time, int level) {
+        if (time <= fOrigin) {
+            return 0;
+        }
+        long delta = time - fOrigin;
+        if (delta < 0) {
+            /* Overflow, the time is past all the buckets */
+            return BASE_BUCKETS;
+        }
+        return (int) Math.min((delta / fBucketDuration) >> level, BASE_BUCKETS);
+    }
+
+    /**
+     * Whether a segment has a lower duration than another, the earliest one
+     * is taken for equal durations
+     */
+    private static boolean isLower(long start, long length, long otherStart, long otherLength) {
+        return length < otherLength || (length == otherLength && start < otherStart);
+    }
+
+    /**
+     * Whether a segment has a higher duration than another, the earliest one
+     * is taken for equal durations
+     */
+    private static boolean isHigher(long start, long length, long otherStart, long otherLength) {
+        return length > otherLength || (length == otherLength && start < otherStart);
+    }
+}
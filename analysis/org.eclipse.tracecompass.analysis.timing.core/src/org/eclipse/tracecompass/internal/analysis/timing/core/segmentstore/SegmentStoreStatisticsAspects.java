@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2020, 2023 Ericsson
+ * Copyright (c) 2020, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -207,9 +207,27 @@ public final class SegmentStoreStatisticsAspects {
 
         aspectsBuilder.addAll(userDefinedAspects);
 
+        aspectsBuilder.add(createQuantileAspect(Objects.requireNonNull(Messages.SegmentStoreStatistics_MedianLabel), 0.5));
+        aspectsBuilder.add(createQuantileAspect(Objects.requireNonNull(Messages.SegmentStoreStatistics_Percentile99Label), 0.99));
+        aspectsBuilder.add(createQuantileAspect(Objects.requireNonNull(Messages.SegmentStoreStatistics_Percentile999Label), 0.999));
+
         return aspectsBuilder.build();
     }
 
+    private IDataAspect<NamedStatistics> createQuantileAspect(String name, double quantile) {
+        return new IDataAspect<>() {
+            @Override
+            public String getName() {
+                return name;
+            }
+            @Override
+            public @Nullable Object apply(NamedStatistics input) {
+                double value = input.getStatistics().getQuantile(quantile);
+                return Double.isNaN(value) ? null : fMapper.apply(value);
+            }
+        };
+    }
+
    /**
     * Wrapper of statistics name and actual statistics implementation
     */
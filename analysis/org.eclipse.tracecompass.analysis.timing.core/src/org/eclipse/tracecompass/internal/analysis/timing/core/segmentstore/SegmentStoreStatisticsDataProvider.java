@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2018, 2020 Ericsson
+ * Copyright (c) 2018, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -70,6 +70,7 @@ public class SegmentStoreStatisticsDataProvider extends AbstractTmfTraceDataProv
     private static final String STATISTICS_SUFFIX = ".statistics"; //$NON-NLS-1$
     private static final String TOTAL_PREFIX = "Total_"; //$NON-NLS-1$
     private static final String SELECTION_PREFIX = "Selection_"; //$NON-NLS-1$
+    private static final String GROUP_PREFIX = "Group_"; //$NON-NLS-1$
     private static final Map<IStatisticsAnalysis, SegmentStoreStatisticsDataProvider> PROVIDER_MAP = new WeakHashMap<>();
     private static final AtomicLong ENTRY_ID = new AtomicLong();
 
@@ -173,6 +174,7 @@ public class SegmentStoreStatisticsDataProvider extends AbstractTmfTraceDataProv
             IStatistics<ISegment> statistics = entry.getValue();
             list.add(new SegmentStoreStatisticsModel(getUniqueId(TOTAL_PREFIX + entry.getKey()), totalId, getCellLabels(entry.getKey(), statistics), statistics));
         }
+        addGroupStatistics(list, TOTAL_PREFIX, totalId, statsTotal, fProvider.getStatsPerGroup());
 
         /*
          * Add statistics for selection if any.
@@ -197,6 +199,7 @@ public class SegmentStoreStatisticsDataProvider extends AbstractTmfTraceDataProv
                     IStatistics<ISegment> statistics = entry.getValue();
                     list.add(new SegmentStoreStatisticsModel(getUniqueId(SELECTION_PREFIX + entry.getKey()), selectionId, getCellLabels(entry.getKey(), statistics), statistics));
                 }
+                addGroupStatistics(list, SELECTION_PREFIX, selectionId, statsForRange, fProvider.getStatsPerGroupForRange(start, end, nonNullMonitor));
             }
         }
         TmfTreeModel.Builder<SegmentStoreStatisticsModel> treeModelBuilder = new TmfTreeModel.Builder();
@@ -205,6 +208,23 @@ public class SegmentStoreStatisticsDataProvider extends AbstractTmfTraceDataProv
         return new TmfModelResponse<>(treeModelBuilder.build(), Status.COMPLETED, CommonStatusMessage.COMPLETED);
     }
 
+    /**
+     * Add the statistics per group, with an entry for each grouping aspect
+     * whose children are the groups.
+     */
+    private void addGroupStatistics(List<SegmentStoreStatisticsModel> list, String prefix, long parentId, IStatistics<ISegment> parentStats, Map<String, Map<String, IStatistics<ISegment>>> perGroupStats) {
+        for (Entry<String, Map<String, IStatistics<ISegment>>> aspectEntry : perGroupStats.entrySet()) {
+            String aspectName = aspectEntry.getKey();
+            String aspectPrefix = prefix + GROUP_PREFIX + aspectName;
+            long aspectId = getUniqueId(aspectPrefix);
+            list.add(new SegmentStoreStatisticsModel(aspectId, parentId, getCellLabels(aspectName, parentStats), parentStats));
+            for (Entry<String, IStatistics<ISegment>> entry : aspectEntry.getValue().entrySet()) {
+                IStatistics<ISegment> statistics = entry.getValue();
+                list.add(new SegmentStoreStatisticsModel(getUniqueId(aspectPrefix + '/' + entry.getKey()), aspectId, getCellLabels(entry.getKey(), statistics), statistics));
+            }
+        }
+    }
+
     /**
      * Gets the list of column descriptors.
      *
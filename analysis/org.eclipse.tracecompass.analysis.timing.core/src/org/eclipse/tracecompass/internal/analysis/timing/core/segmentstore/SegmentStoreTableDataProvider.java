@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Ericsson
+ * Copyright (c) 2022, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -442,7 +442,10 @@ public class SegmentStoreTableDataProvider extends AbstractTmfTableDataProvider
             }
         }
 
-        List<ISegment> newSegStore = segmentStore.getIntersectingElements(start, end, indexesComparatorWrapper.getComparator(), filter);
+        List<ISegment> newSegStore = getSortedSegments(segmentStore, indexesComparatorWrapper, startIndexRank, endIndexRank);
+        if (newSegStore == null) {
+            newSegStore = segmentStore.getIntersectingElements(start, end, indexesComparatorWrapper.getComparator(), filter);
+        }
         for (int i = actualStartQueryIndex; i < newSegStore.size(); i++) {
             if (queryFilter.getCount() == lines.size()) {
                 break;
@@ -559,12 +562,44 @@ public class SegmentStoreTableDataProvider extends AbstractTmfTableDataProvider
 
     private static List<ISegment> getIntersectingElements(ISegmentStore<ISegment> segmentStore, SegmentIndexesComparatorWrapper indexesComparatorWrapper, int startTimeIndexRank) {
         int endTimeIndexRank = startTimeIndexRank + 1;
+        List<ISegment> sortedSegments = getSortedSegments(segmentStore, indexesComparatorWrapper, startTimeIndexRank, endTimeIndexRank);
+        if (sortedSegments != null) {
+            return sortedSegments;
+        }
         SegmentStoreIndex segIndex = indexesComparatorWrapper.getIndex(startTimeIndexRank);
         SegmentPredicate filter = new SegmentPredicate(segIndex, indexesComparatorWrapper.getAspectName());
         long end = getEndTimestamp(endTimeIndexRank, indexesComparatorWrapper);
         return segmentStore.getIntersectingElements(segIndex.getStartTimestamp(), end, indexesComparatorWrapper.getComparator(), filter);
     }
 
+    /**
+     * Get the segments between two checkpoints by their ranks, if the segment
+     * store keeps its segments in the order of the comparator of the indexes.
+     * The segments are then read by index, instead of being searched from the
+     * start time of the first checkpoint and sorted.
+     *
+     * @param segmentStore
+     *            The segment store
+     * @param indexesComparatorWrapper
+     *            The segment indexes comparator wrapper to use
+     * @param startIndexRank
+     *            The rank of the first checkpoint
+     * @param endIndexRank
+     *            The rank of the checkpoint after the last segment
+     * @return The segments from the first checkpoint, or null if the segment
+     *         store does not keep its segments in this order
+     */
+    private static @Nullable List<ISegment> getSortedSegments(ISegmentStore<ISegment> segmentStore, SegmentIndexesComparatorWrapper indexesComparatorWrapper, int startIndexRank, int endIndexRank) {
+        List<ISegment> sortedSegments = segmentStore.getSortedElements(indexesComparatorWrapper.getComparator());
+        if (sortedSegments == null) {
+            return null;
+        }
+        int size = sortedSegments.size();
+        int start = (int) Math.min(size, (long) startIndexRank * STEP);
+        int end = (int) Math.min(size, (long) endIndexRank * STEP);
+        return sortedSegments.subList(start, Math.max(start, end));
+    }
+
     /**
      * Generates a predicate filter based on the search map found in the given
      * query parameters.
@@ -0,0 +1,194 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.segmentstore.IGroupingSegmentAspect;
+import org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics.SegmentStatisticsBlocks;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.segment.interfaces.INamedSegment;
+
+/**
+ * Segment store to fill in streaming mode. The segments added to this store
+ * are aggregated in statistics by windows of time, and only the outliers, the
+ * segments at least as long as a threshold, are kept in the segment store it
+ * wraps. The number of outliers is bounded: the shortest ones are dropped when
+ * there are too many, so the memory used does not depend on the number of
+ * segments.
+ *
+ * The outliers are added to the wrapped segment store when this store is
+ * closed or completed, then the statistics are shared with the statistics
+ * analysis and the density chart of the wrapped segment store.
+ *
+ * The statistics per type are by segment name, for the {@link INamedSegment}.
+ */
+public class StreamingSegmentStore implements ISegmentStore<ISegment> {
+
+    private final ISegmentStore<ISegment> fStore;
+    private final SegmentStatisticsBlocks fStatistics;
+    private final long fThreshold;
+    private final int fMaxOutliers;
+    /** The outliers to add to the segment store, the shortest first */
+    private final PriorityQueue<ISegment> fOutliers = new PriorityQueue<>(Comparator.comparingLong(ISegment::getLength));
+    private boolean fCompleted = false;
+
+    /**
+     * Constructor
+     *
+     * @param store
+     *            The segment store to fill with the outliers
+     * @param groupingAspects
+     *            The aspects grouping the segments, for the statistics per
+     *            group
+     * @param origin
+     *            The start time of the first window, or {@link Long#MIN_VALUE}
+     *            to start at the first segment
+     * @param windowDuration
+     *            The initial duration of the windows
+     * @param threshold
+     *            The minimum duration of the segments to keep
+     * @param maxOutliers
+     *            The maximum number of segments to keep
+     */
+    public StreamingSegmentStore(ISegmentStore<ISegment> store, List<IGroupingSegmentAspect> groupingAspects, long origin, long windowDuration, long threshold, int maxOutliers) {
+        fStore = store;
+        fStatistics = SegmentStatisticsBlocks.createStreaming(store, segment -> (segment instanceof INamedSegment) ? ((INamedSegment) segment).getName() : null,
+                groupingAspects, origin, windowDuration);
+        fThreshold = threshold;
+        fMaxOutliers = Math.max(0, maxOutliers);
+    }
+
+    /**
+     * Add the outliers to the segment store and share the statistics, if it
+     * is not done yet
+     */
+    public synchronized void complete() {
+        if (fCompleted) {
+            return;
+        }
+        fCompleted = true;
+        fStore.addAll(fOutliers);
+        fOutliers.clear();
+        fStatistics.complete();
+    }
+
+    @Override
+    public synchronized boolean add(@Nullable ISegment segment) {
+        if (segment == null) {
+            throw new IllegalArgumentException("Cannot add null segments"); //$NON-NLS-1$
+        }
+        if (fCompleted) {
+            throw new IllegalStateException("Cannot add segments to a completed streaming segment store"); //$NON-NLS-1$
+        }
+        fStatistics.update(segment);
+        if (segment.getLength() < fThreshold || fMaxOutliers == 0) {
+            return true;
+        }
+        fOutliers.add(segment);
+        if (fOutliers.size() > fMaxOutliers) {
+            fOutliers.poll();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean addAll(@Nullable Collection<? extends ISegment> c) {
+        if (c == null) {
+            throw new IllegalArgumentException("Cannot add null collections"); //$NON-NLS-1$
+        }
+        for (ISegment segment : c) {
+            add(segment);
+        }
+        return !c.isEmpty();
+    }
+
+    @Override
+    public void close(boolean deleteFiles) {
+        if (!deleteFiles) {
+            complete();
+        }
+        fStore.close(deleteFiles);
+    }
+
+    @Override
+    public synchronized void clear() {
+        fOutliers.clear();
+        fStore.clear();
+    }
+
+    @Override
+    public void dispose() {
+        fStore.dispose();
+    }
+
+    // ------------------------------------------------------------------------
+    // Queries, on the outliers of the wrapped segment store
+    // ------------------------------------------------------------------------
+
+    @Override
+    public int size() {
+        return fStore.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return fStore.isEmpty();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        return fStore.contains(o);
+    }
+
+    @Override
+    public boolean containsAll(@Nullable Collection<?> c) {
+        return fStore.containsAll(c);
+    }
+
+    @Override
+    public Iterator<ISegment> iterator() {
+        return Objects.requireNonNull(fStore.iterator());
+    }
+
+    @Override
+    public Object[] toArray() {
+        return fStore.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return fStore.toArray(a);
+    }
+
+    @Override
+    public Iterable<ISegment> getIntersectingElements(long start, long end) {
+        return fStore.getIntersectingElements(start, end);
+    }
+
+    @Override
+    public Iterable<ISegment> getIntersectingElements(long start, long end, Comparator<ISegment> order) {
+        return fStore.getIntersectingElements(start, end, order);
+    }
+
+    @Override
+    public @Nullable List<ISegment> getSortedElements(Comparator<ISegment> order) {
+        return fStore.getSortedElements(order);
+    }
+}
@@ -0,0 +1,587 @@
+/**********************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ **********************************************************************/
+
+package org.eclipse.tracecompass.internal.analysis.timing.core.segmentstore.statistics;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.analysis.timing.core.segmentstore.IGroupingSegmentAspect;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.IStatistics;
+import org.eclipse.tracecompass.analysis.timing.core.statistics.Statistics;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Statistics of a segment store, precomputed for blocks of segment start
+ * times. The blocks are computed in parallel, and the statistics of a time
+ * range merge the blocks starting inside the range, so that only the segments
+ * at the edges of the range are read.
+ *
+ * The segments starting before the first block are counted in the first
+ * block, and those starting after the last block in the last one.
+ *
+ * The statistics are kept in total, per segment type and per group of the
+ * grouping aspects of the segments.
+ *
+ * The statistics of the segment durations keep the distribution of the
+ * durations in log-scale buckets, so the blocks are also a duration histogram
+ * per block of time. These blocks are shared per complete segment store,
+ * between the statistics analysis and the density chart. They only keep a weak
+ * reference to their segment store, so that the shared blocks do not keep it
+ * from being garbage collected.
+ *
+ * In streaming mode, the blocks are windows of time updated with each segment
+ * as it is built, instead of being computed from the segment store, which may
+ * only keep some of the segments. The windows double in duration, merging them
+ * by pairs, when the segments go past the last window, so their number stays
+ * bounded. The statistics of a time range are then those of the windows
+ * intersecting the range.
+ */
+@NonNullByDefault
+public final class SegmentStatisticsBlocks {
+
+    /** Targeted number of segments in a block */
+    private static final int SEGMENTS_PER_BLOCK = 4096;
+    /** Maximum number of blocks, to bound the memory used per type */
+    private static final int MAX_BLOCKS = 1024;
+
+    /** The mapper of the statistics of the segment durations */
+    public static final Function<ISegment, @Nullable Number> DURATION_MAPPER = ISegment::getLength;
+
+    /** The blocks of the segment durations, by segment store, weakly */
+    private static final ConcurrentMap<ISegmentStore<ISegment>, SegmentStatisticsBlocks> DURATION_BLOCKS = Objects.requireNonNull(new MapMaker().weakKeys().makeMap());
+
+    private int fSize;
+
+    private final WeakReference<ISegmentStore<ISegment>> fStore;
+    private final Function<ISegment, @Nullable Number> fMapper;
+    private final Function<ISegment, @Nullable String> fTypeResolver;
+    private final List<IGroupingSegmentAspect> fGroupingAspects;
+    private long fOrigin;
+    private long fBlockDuration;
+    /**
+     * The statistics of each block, all set once the blocks are computed, or
+     * only those of the windows with segments in streaming mode
+     */
+    private final @Nullable Aggregate[] fBlocks;
+    private final Aggregate fTotal;
+    /** Whether the blocks are windows updated as the segments are built */
+    private final boolean fStreaming;
+
+    /**
+     * Statistics of a set of segments, in total, per segment type and per group
+     */
+    private final class Aggregate {
+
+        private final IStatistics<ISegment> fTotalStats = new Statistics<>(fMapper, true);
+        private final Map<String, IStatistics<ISegment>> fPerTypeStats = new HashMap<>();
+        /** The statistics per group, by name of grouping aspect */
+        private final Map<String, Map<String, IStatistics<ISegment>>> fPerGroupStats = new HashMap<>();
+
+        public void update(ISegment segment) {
+            fTotalStats.update(segment);
+            String type = fTypeResolver.apply(segment);
+            if (type != null) {
+                fPerTypeStats.computeIfAbsent(type, t -> new Statistics<>(fMapper, true)).update(segment);
+            }
+            for (IGroupingSegmentAspect aspect : fGroupingAspects) {
+                Object group = aspect.resolve(segment);
+                if (group != null) {
+                    fPerGroupStats.computeIfAbsent(aspect.getName(), a -> new HashMap<>())
+                            .computeIfAbsent(String.valueOf(group), g -> new Statistics<>(fMapper, true)).update(segment);
+                }
+            }
+        }
+
+        public void merge(Aggregate other) {
+            fTotalStats.merge(other.fTotalStats);
+            mergeInto(fPerTypeStats, other.fPerTypeStats);
+            for (Map.Entry<String, Map<String, IStatistics<ISegment>>> entry : other.fPerGroupStats.entrySet()) {
+                mergeInto(fPerGroupStats.computeIfAbsent(entry.getKey(), a -> new HashMap<>()), entry.getValue());
+            }
+        }
+
+        private void mergeInto(Map<String, IStatistics<ISegment>> stats, Map<String, IStatistics<ISegment>> otherStats) {
+            for (Map.Entry<String, IStatistics<ISegment>> entry : otherStats.entrySet()) {
+                stats.computeIfAbsent(entry.getKey(), t -> new Statistics<>(fMapper, true)).merge(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Task computing the statistics of a range of blocks, split in half until
+     * there is one block per task
+     */
+    private final class BlockTask extends RecursiveTask<@Nullable Aggregate> {
+
+        private static final long serialVersionUID = -3021469432127354521L;
+
+        private final int fFirst;
+        private final int fLast;
+        private final transient IProgressMonitor fMonitor;
+
+        public BlockTask(int first, int last, IProgressMonitor monitor) {
+            fFirst = first;
+            fLast = last;
+            fMonitor = monitor;
+        }
+
+        @Override
+        protected @Nullable Aggregate compute() {
+            if (fFirst == fLast) {
+                Aggregate block = new Aggregate();
+                long start = getBlockStart(fFirst);
+                long end = getBlockEnd(fFirst);
+                if (!scan(block, start, end, start, end, fMonitor)) {
+                    return null;
+                }
+                fBlocks[fFirst] = block;
+                Aggregate total = new Aggregate();
+                total.merge(block);
+                return total;
+            }
+            int middle = (fFirst + fLast) >>> 1;
+            BlockTask right = new BlockTask(middle + 1, fLast, fMonitor);
+            right.fork();
+            Aggregate left = new BlockTask(fFirst, middle, fMonitor).compute();
+            Aggregate rightResult = right.join();
+            if (left == null || rightResult == null) {
+                return null;
+            }
+            left.merge(rightResult);
+            return left;
+        }
+    }
+
+    private SegmentStatisticsBlocks(ISegmentStore<ISegment> store, Function<ISegment, @Nullable Number> mapper, Function<ISegment, @Nullable String> typeResolver, List<IGroupingSegmentAspect> groupingAspects,
+            long origin, long blockDuration, int nbBlocks, boolean streaming) {
+        fStore = new WeakReference<>(store);
+        fSize = store.size();
+        fMapper = mapper;
+        fTypeResolver = typeResolver;
+        fGroupingAspects = groupingAspects;
+        fOrigin = origin;
+        fBlockDuration = blockDuration;
+        fBlocks = new @Nullable Aggregate[nbBlocks];
+        fTotal = new Aggregate();
+        fStreaming = streaming;
+    }
+
+    /**
+     * Compute the statistics of the blocks of a segment store
+     *
+     * @param store
+     *            The segment store
+     * @param mapper
+     *            The function mapping a segment to the value of the statistics
+     * @param typeResolver
+     *            The function getting the type of a segment, for the
+     *            statistics per type
+     * @param groupingAspects
+     *            The aspects grouping the segments, for the statistics per
+     *            group
+     * @param start
+     *            The start time of the first block, typically the start of
+     *            the trace. The blocks are best spread between the first and
+     *            last segment start times.
+     * @param end
+     *            The end time of the last block. If the range is not valid,
+     *            the blocks are spread between the first and last segment
+     *            start times.
+     * @param monitor
+     *            The progress monitor
+     * @return The statistics, or null if the monitor was canceled
+     */
+    public static @Nullable SegmentStatisticsBlocks create(ISegmentStore<ISegment> store, Function<ISegment, @Nullable Number> mapper, Function<ISegment, @Nullable String> typeResolver,
+            List<IGroupingSegmentAspect> groupingAspects, long start, long end, IProgressMonitor monitor) {
+        long first = start;
+        long last = end;
+        if (first >= last || first == Long.MIN_VALUE || last == Long.MAX_VALUE) {
+            first = Long.MAX_VALUE;
+            last = Long.MIN_VALUE;
+            for (ISegment segment : store) {
+                first = Math.min(first, segment.getStart());
+                last = Math.max(last, segment.getStart());
+            }
+        }
+        int nbBlocks = Math.max(1, Math.min(MAX_BLOCKS, store.size() / SEGMENTS_PER_BLOCK));
+        /* Guard against an overflow of the duration of huge ranges */
+        long duration = last - first + 1;
+        if (first > last || duration <= 0) {
+            nbBlocks = 1;
+            duration = 1;
+        }
+        long blockDuration = Math.max(1, (duration + nbBlocks - 1) / nbBlocks);
+        SegmentStatisticsBlocks blocks = new SegmentStatisticsBlocks(store, mapper, typeResolver, groupingAspects, first, blockDuration, nbBlocks, false);
+        Aggregate total = ForkJoinPool.commonPool().invoke(blocks.new BlockTask(0, blocks.fBlocks.length - 1, monitor));
+        if (total == null || monitor.isCanceled()) {
+            return null;
+        }
+        blocks.fTotal.merge(total);
+        return blocks;
+    }
+
+    /**
+     * Start the statistics of the segment durations of a segment store in
+     * streaming mode. The windows are updated with {@link #update} as the
+     * segments are built, whether they are added to the segment store or not,
+     * then shared with {@link #complete}.
+     *
+     * @param store
+     *            The segment store, which may only keep some of the segments
+     * @param typeResolver
+     *            The function getting the type of a segment, for the
+     *            statistics per type
+     * @param groupingAspects
+     *            The aspects grouping the segments, for the statistics per
+     *            group
+     * @param origin
+     *            The start time of the first window, typically the start of
+     *            the trace, or {@link Long#MIN_VALUE} to start at the first
+     *            segment. Earlier segments are counted in the first window.
+     * @param windowDuration
+     *            The initial duration of the windows
+     * @return The statistics, to update with the segments
+     */
+    public static SegmentStatisticsBlocks createStreaming(ISegmentStore<ISegment> store, Function<ISegment, @Nullable String> typeResolver, List<IGroupingSegmentAspect> groupingAspects,
+            long origin, long windowDuration) {
+        return new SegmentStatisticsBlocks(store, DURATION_MAPPER, typeResolver, groupingAspects, origin, Math.max(1, windowDuration), MAX_BLOCKS, true);
+    }
+
+    /**
+     * Add a segment to the window of its start time, in streaming mode
+     *
+     * @param segment
+     *            The segment
+     */
+    public void update(ISegment segment) {
+        if (!fStreaming) {
+            throw new IllegalStateException("Only the statistics in streaming mode can be updated"); //$NON-NLS-1$
+        }
+        long start = segment.getStart();
+        if (fOrigin == Long.MIN_VALUE) {
+            fOrigin = start;
+        }
+        int index = getWindow(start);
+        while (index >= fBlocks.length) {
+            mergeWindows();
+            index = getWindow(start);
+        }
+        Aggregate window = fBlocks[index];
+        if (window == null) {
+            window = new Aggregate();
+            fBlocks[index] = window;
+        }
+        window.update(segment);
+    }
+
+    /**
+     * Complete the statistics in streaming mode, once all the segments are
+     * added to the segment store, and share them with
+     * {@link #getStreamingBlocks} and {@link #getDurationBlocks}
+     */
+    public void complete() {
+        for (Aggregate window : fBlocks) {
+            if (window != null) {
+                fTotal.merge(window);
+            }
+        }
+        ISegmentStore<ISegment> store = fStore.get();
+        if (store != null) {
+            fSize = store.size();
+            shareDurationBlocks(this);
+        }
+    }
+
+    /**
+     * Get the statistics of the segment durations of a segment store that
+     * were computed in streaming mode
+     *
+     * @param store
+     *            The segment store
+     * @return The statistics, or null if the segment store was not built in
+     *         streaming mode
+     */
+    public static @Nullable SegmentStatisticsBlocks getStreamingBlocks(ISegmentStore<ISegment> store) {
+        SegmentStatisticsBlocks blocks = DURATION_BLOCKS.get(store);
+        return (blocks != null && blocks.fStreaming) ? blocks : null;
+    }
+
+    /**
+     * Get the statistics of the segment durations of a segment store, by
+     * blocks. The blocks shared for this segment store are used if they are
+     * up to date, or if they were computed in streaming mode, otherwise the
+     * statistics are computed and shared. The segment store must be complete,
+     * as the blocks of a segment store that is still filled would need to be
+     * computed again at each call.
+     *
+     * @param store
+     *            The segment store, which must be complete
+     * @param start
+     *            The start time of the first block
+     * @param end
+     *            The end time of the last block
+     * @param monitor
+     *            The progress monitor
+     * @return The statistics, or null if the monitor was canceled
+     */
+    public static @Nullable SegmentStatisticsBlocks getDurationBlocks(ISegmentStore<ISegment> store, long start, long end, IProgressMonitor monitor) {
+        SegmentStatisticsBlocks blocks = DURATION_BLOCKS.get(store);
+        if (blocks != null && (blocks.fStreaming || blocks.fSize == store.size())) {
+            return blocks;
+        }
+        blocks = create(store, DURATION_MAPPER, segment -> null, Collections.emptyList(), start, end, monitor);
+        if (blocks != null) {
+            shareDurationBlocks(blocks);
+        }
+        return blocks;
+    }
+
+    /**
+     * Share the statistics of the segment durations of a segment store, to be
+     * returned by {@link #getDurationBlocks}
+     *
+     * @param blocks
+     *            The statistics, whose mapper must be {@link #DURATION_MAPPER}
+     */
+    public static void shareDurationBlocks(SegmentStatisticsBlocks blocks) {
+        ISegmentStore<ISegment> store = blocks.fStore.get();
+        if (blocks.fMapper == DURATION_MAPPER && store != null) {
+            DURATION_BLOCKS.put(store, blocks);
+        }
+    }
+
+    /**
+     * Get the statistics of all the segments
+     *
+     * @return The total statistics
+     */
+    public IStatistics<ISegment> getTotalStats() {
+        return fTotal.fTotalStats;
+    }
+
+    /**
+     * Get the statistics of all the segments, per segment type
+     *
+     * @return The statistics per type
+     */
+    public Map<String, IStatistics<ISegment>> getPerTypeStats() {
+        return fTotal.fPerTypeStats;
+    }
+
+    /**
+     * Get the statistics of all the segments, per group of each grouping
+     * aspect
+     *
+     * @return The statistics per group, by grouping aspect name
+     */
+    public Map<String, Map<String, IStatistics<ISegment>>> getPerGroupStats() {
+        return fTotal.fPerGroupStats;
+    }
+
+    /**
+     * Get the total statistics of the segments intersecting a time range
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param monitor
+     *            The progress monitor
+     * @return The total statistics, or null if the monitor was canceled
+     */
+    public @Nullable IStatistics<ISegment> getTotalStats(long start, long end, IProgressMonitor monitor) {
+        Aggregate aggregate = getStats(start, end, monitor);
+        return aggregate != null ? aggregate.fTotalStats : null;
+    }
+
+    /**
+     * Get the statistics per type of the segments intersecting a time range
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param monitor
+     *            The progress monitor
+     * @return The statistics per type, or an empty map if the monitor was
+     *         canceled
+     */
+    public Map<String, IStatistics<ISegment>> getPerTypeStats(long start, long end, IProgressMonitor monitor) {
+        Aggregate aggregate = getStats(start, end, monitor);
+        return aggregate != null ? aggregate.fPerTypeStats : Collections.emptyMap();
+    }
+
+    /**
+     * Get the statistics per group of the segments intersecting a time range
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param monitor
+     *            The progress monitor
+     * @return The statistics per group, by grouping aspect name, or an empty
+     *         map if the monitor was canceled
+     */
+    public Map<String, Map<String, IStatistics<ISegment>>> getPerGroupStats(long start, long end, IProgressMonitor monitor) {
+        Aggregate aggregate = getStats(start, end, monitor);
+        return aggregate != null ? aggregate.fPerGroupStats : Collections.emptyMap();
+    }
+
+    private @Nullable Aggregate getStats(long start, long end, IProgressMonitor monitor) {
+        Aggregate aggregate = new Aggregate();
+        if (fStreaming) {
+            /* The segments are not all kept, use the windows of the range */
+            int last = Math.min(fBlocks.length - 1, getWindow(end));
+            for (int i = getWindow(start); i <= last; i++) {
+                Aggregate window = fBlocks[i];
+                if (window != null) {
+                    aggregate.merge(window);
+                }
+            }
+            return monitor.isCanceled() ? null : aggregate;
+        }
+        int first = getFirstBlockAfter(start);
+        int last = getLastBlockBefore(end);
+        if (first > last) {
+            /* No block is entirely inside the range */
+            return scan(aggregate, start, end, Long.MIN_VALUE, Long.MAX_VALUE, monitor) ? aggregate : null;
+        }
+        for (int i = first; i <= last; i++) {
+            Aggregate block = fBlocks[i];
+            if (block != null) {
+                aggregate.merge(block);
+            }
+        }
+        /*
+         * The segments starting before the first block, including the ones
+         * overlapping the start of the range, and the ones starting after the
+         * last block.
+         */
+        if (first > 0) {
+            long firstStart = getBlockStart(first);
+            if (!scan(aggregate, start, Math.max(start, firstStart - 1), Long.MIN_VALUE, firstStart - 1, monitor)) {
+                return null;
+            }
+        }
+        if (last < fBlocks.length - 1) {
+            long nextStart = getBlockStart(last + 1);
+            if (nextStart <= end && !scan(aggregate, nextStart, end, nextStart, Long.MAX_VALUE, monitor)) {
+                return null;
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * Add the segments intersecting a range to the statistics, if they start
+     * between two times, inclusively. There are none to add if the segment
+     * store was garbage collected, as nothing uses it anymore.
+     */
+    private boolean scan(Aggregate aggregate, long start, long end, long minStart, long maxStart, IProgressMonitor monitor) {
+        ISegmentStore<ISegment> store = fStore.get();
+        if (store == null) {
+            return !monitor.isCanceled();
+        }
+        for (ISegment segment : store.getIntersectingElements(start, end)) {
+            if (monitor.isCanceled()) {
+                return false;
+            }
+            long segmentStart = segment.getStart();
+            if (segmentStart >= minStart && segmentStart <= maxStart) {
+                aggregate.update(segment);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the window of a time in streaming mode, which may be past the last
+     * window
+     */
+    private int getWindow(long time) {
+        if (time <= fOrigin || fOrigin == Long.MIN_VALUE) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (time - fOrigin) / fBlockDuration);
+    }
+
+    /**
+     * Double the duration of the windows, merging them by pairs
+     */
+    private void mergeWindows() {
+        for (int i = 0; i < fBlocks.length; i += 2) {
+            Aggregate window = fBlocks[i];
+            Aggregate next = (i + 1 < fBlocks.length) ? fBlocks[i + 1] : null;
+            if (window == null) {
+                window = next;
+            } else if (next != null) {
+                window.merge(next);
+            }
+            fBlocks[i] = null;
+            fBlocks[i / 2] = window;
+        }
+        for (int i = (fBlocks.length + 1) / 2; i < fBlocks.length; i++) {
+            fBlocks[i] = null;
+        }
+        fBlockDuration *= 2;
+    }
+
+    private long getBlockStart(int block) {
+        return (block == 0) ? Long.MIN_VALUE : fOrigin + block * fBlockDuration;
+    }
+
+    private long getBlockEnd(int block) {
+        return (block == fBlocks.length - 1) ? Long.MAX_VALUE : fOrigin + (block + 1) * fBlockDuration - 1;
+    }
+
+    /**
+     * Get the first block that starts at or after a time, or the number of
+     * blocks if there is none
+     */
+    private int getFirstBlockAfter(long time) {
+        if (time == Long.MIN_VALUE) {
+            return 0;
+        }
+        if (time <= fOrigin + fBlockDuration) {
+            return 1;
+        }
+        return (int) Math.min(fBlocks.length, (time - fOrigin - 1) / fBlockDuration + 1);
+    }
+
+    /**
+     * Get the last block that ends at or before a time, or -1 if there is none
+     */
+    private int getLastBlockBefore(long time) {
+        if (time == Long.MAX_VALUE) {
+            return fBlocks.length - 1;
+        }
+        if (time < fOrigin) {
+            return -1;
+        }
+        return (int) Math.min(fBlocks.length - 2, (time - fOrigin + 1) / fBlockDuration - 1);
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.perf.io;
+
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.junit.Test;
+
+/**
+ * Benchmark of the reads of the {@link BitBuffer}, for the byte-aligned
+ * integers of most trace fields, the integers that are not byte-aligned, the
+ * bit fields, the arrays of integers and the strings.
+ */
+public class BitBufferReadBenchmark {
+
+    private static final String TEST_SUITE_NAME = "BitBuffer Read Benchmark";
+    private static final String TEST_ID = "org.eclipse.linuxtools#" + TEST_SUITE_NAME;
+    private static final int LOOP_COUNT = 25;
+    private static final int BUFFER_SIZE = 1 << 20;
+    /** Number of times the buffer is read per loop */
+    private static final int NB_READS = 20;
+    private static final int ARRAY_LENGTH = 64;
+    private static final int STRING_LENGTH = 24;
+
+    private interface Reader {
+        long read(BitBuffer input) throws CTFException;
+    }
+
+    /**
+     * Benchmark reading byte-aligned 32-bit integers
+     */
+    @Test
+    public void testAligned32() {
+        runBenchmark("Aligned 32-bit integers", input -> input.get(Integer.SIZE, false), true);
+    }
+
+    /**
+     * Benchmark reading byte-aligned 64-bit integers
+     */
+    @Test
+    public void testAligned64() {
+        runBenchmark("Aligned 64-bit integers", input -> input.get(Long.SIZE, false), true);
+    }
+
+    /**
+     * Benchmark reading 32-bit integers which are not byte-aligned
+     */
+    @Test
+    public void testUnaligned32() {
+        runBenchmark("Unaligned 32-bit integers", input -> {
+            input.position(input.position() + 1);
+            return input.get(Integer.SIZE, false);
+        }, false);
+    }
+
+    /**
+     * Benchmark reading 5-bit fields
+     */
+    @Test
+    public void testBitFields() {
+        runBenchmark("5-bit fields", input -> input.get(5, false), false);
+    }
+
+    /**
+     * Benchmark reading arrays of byte-aligned 32-bit integers in bulk
+     */
+    @Test
+    public void testArrays() {
+        long[] array = new long[ARRAY_LENGTH];
+        runBenchmark("Arrays of 32-bit integers", input -> {
+            input.get(array, Integer.SIZE, false);
+            return array[0];
+        }, false);
+    }
+
+    /**
+     * Benchmark reading null-terminated strings
+     */
+    @Test
+    public void testStrings() {
+        runBenchmark("Strings", input -> input.getNullTerminatedBytes().length, false);
+    }
+
+    private static @NonNull ByteBuffer createBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        if (buffer == null) {
+            throw new IllegalStateException("Failed to alloc");
+        }
+        /* Strings of STRING_LENGTH letters, and null bytes */
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            buffer.put(i, (byte) ((i % (STRING_LENGTH + 1) == STRING_LENGTH) ? 0 : 'a' + (i % 26)));
+        }
+        return buffer;
+    }
+
+    private static void runBenchmark(String testName, Reader reader, boolean inGlobalSummary) {
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = perf.createPerformanceMeter(TEST_ID + '#' + testName);
+        perf.tagAsSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
+
+        if (inGlobalSummary) {
+            perf.tagAsGlobalSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
+        }
+
+        BitBuffer input = new BitBuffer(createBuffer(), ByteOrder.LITTLE_ENDIAN);
+        long sum = 0;
+        for (int loop = 0; loop < LOOP_COUNT; loop++) {
+            pm.start();
+            try {
+                for (int i = 0; i < NB_READS; i++) {
+                    input.position(0);
+                    /* Leave room for the largest read */
+                    while (input.canRead(ARRAY_LENGTH * Long.SIZE)) {
+                        sum += reader.read(input);
+                    }
+                }
+            } catch (CTFException e) {
+                fail("Test failed at iteration " + loop + ':' + e.getMessage());
+            }
+            pm.stop();
+        }
+        pm.commit();
+        /* Use the values read */
+        if (sum == 0) {
+            System.err.println(testName + ": nothing read");
+        }
+    }
+}
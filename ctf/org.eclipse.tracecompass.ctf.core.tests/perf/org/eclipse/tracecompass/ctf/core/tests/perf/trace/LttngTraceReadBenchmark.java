@@ -38,6 +38,8 @@ public class LttngTraceReadBenchmark {
     private static final String TEST_SUITE_NAME = "Lttng Read Benchmark";
     private static final String TEST_ID = "org.eclipse.linuxtools#" + TEST_SUITE_NAME;
     private static final int LOOP_COUNT = 10;
+    /** Number of packets decoded ahead per stream in the read ahead mode */
+    private static final int READ_AHEAD = 4;
 
     /**
      * Benchmark reading the Lttng traces
@@ -63,11 +65,12 @@ public class LttngTraceReadBenchmark {
                 fail(e.getMessage());
             }
 
-            readTrace(trace, "Kernel trace: " + path, false);
+            readTrace(trace, "Kernel trace: " + path, false, 0);
+            readTrace(trace, "Kernel trace, read ahead: " + path, false, READ_AHEAD);
         }
     }
 
-    private static void readTrace(CTFTrace trace, String testName, boolean inGlobalSummary) {
+    private static void readTrace(CTFTrace trace, String testName, boolean inGlobalSummary, int readAhead) {
         Performance perf = Performance.getDefault();
         PerformanceMeter pm = perf.createPerformanceMeter(TEST_ID + '#' + testName);
         perf.tagAsSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
@@ -80,7 +83,7 @@ public class LttngTraceReadBenchmark {
             pm.start();
             try {
                 try (CTFTraceReader traceReader = new CTFTraceReader(trace);) {
-
+                    traceReader.setReadAhead(readAhead);
                     while (traceReader.hasMoreEvents()) {
                         IEventDefinition ed = traceReader.getCurrentEventDef();
                         /* Do something with the event */
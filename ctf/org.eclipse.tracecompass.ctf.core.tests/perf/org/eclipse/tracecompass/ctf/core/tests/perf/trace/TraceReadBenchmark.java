@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -17,12 +17,17 @@ package org.eclipse.tracecompass.ctf.core.tests.perf.trace;
 
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
 import org.eclipse.test.performance.Dimension;
 import org.eclipse.test.performance.Performance;
 import org.eclipse.test.performance.PerformanceMeter;
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.tests.shared.CtfTestTraceUtils;
+import org.eclipse.tracecompass.ctf.core.tests.shared.LttngTraceGenerator;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
 import org.eclipse.tracecompass.ctf.core.trace.CTFTraceReader;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
@@ -39,13 +44,17 @@ public class TraceReadBenchmark {
     private static final String TEST_SUITE_NAME = "CTF Read Benchmark";
     private static final String TEST_ID = "org.eclipse.linuxtools#" + TEST_SUITE_NAME;
     private static final int LOOP_COUNT = 100;
+    private static final int SYNTHETIC_LOOP_COUNT = 10;
+    /** Number of packets decoded ahead per stream in the read ahead mode */
+    private static final int READ_AHEAD = 4;
+    private static final long SYNTHETIC_EVENTS = 2000000;
 
     /**
      * Benchmark reading the trace "kernel"
      */
     @Test
     public void testKernelTrace() {
-        readTrace(CtfTestTrace.KERNEL, "trace-kernel", true);
+        readTrace(CtfTestTrace.KERNEL, "trace-kernel", true, 0);
     }
 
     /**
@@ -53,10 +62,84 @@ public class TraceReadBenchmark {
      */
     @Test
     public void testKernelVmTrace() {
-        readTrace(CtfTestTrace.KERNEL_VM, "trace-kernel-vm", false);
+        readTrace(CtfTestTrace.KERNEL_VM, "trace-kernel-vm", false, 0);
+    }
+
+    /**
+     * Benchmark reading the trace "kernel", with the packets of the streams
+     * decoded ahead in parallel
+     */
+    @Test
+    public void testKernelTraceReadAhead() {
+        readTrace(CtfTestTrace.KERNEL, "trace-kernel-read-ahead", false, READ_AHEAD);
     }
 
-    private static void readTrace(CtfTestTrace testTrace, String testName, boolean inGlobalSummary) {
+    /**
+     * Benchmark reading the bigger trace "kernel_vm", with the packets of the
+     * streams decoded ahead in parallel
+     */
+    @Test
+    public void testKernelVmTraceReadAhead() {
+        readTrace(CtfTestTrace.KERNEL_VM, "trace-kernel-vm-read-ahead", false, READ_AHEAD);
+    }
+
+    /**
+     * Benchmark reading generated traces with the same number of events in
+     * more and more streams, with the packets decoded as they are read and
+     * decoded ahead in parallel. With the packets decoded ahead, the
+     * throughput should rise with the number of streams, up to the number of
+     * processors.
+     *
+     * @throws IOException
+     *             if the traces could not be generated
+     */
+    @Test
+    public void testSyntheticTraces() throws IOException {
+        for (int nbStreams : new int[] { 1, 4, 16, 64 }) {
+            File traceDir = Files.createTempDirectory("synthetic-trace").toFile();
+            try {
+                new LttngTraceGenerator(SYNTHETIC_EVENTS * 1000, SYNTHETIC_EVENTS, nbStreams).writeTrace(traceDir);
+                CTFTrace trace = new CTFTrace(traceDir);
+                readTrace(trace, "synthetic-" + nbStreams + "-streams", SYNTHETIC_LOOP_COUNT, 0);
+                readTrace(trace, "synthetic-" + nbStreams + "-streams-read-ahead", SYNTHETIC_LOOP_COUNT, READ_AHEAD);
+            } catch (CTFException e) {
+                fail(e.getMessage());
+            } finally {
+                File[] files = traceDir.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+                traceDir.delete();
+            }
+        }
+    }
+
+    private static void readTrace(CTFTrace trace, String testName, int loopCount, int readAhead) {
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = perf.createPerformanceMeter(TEST_ID + '#' + testName);
+        perf.tagAsSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
+
+        for (int loop = 0; loop < loopCount; loop++) {
+            pm.start();
+            try (CTFTraceReader traceReader = new CTFTraceReader(trace);) {
+                traceReader.setReadAhead(readAhead);
+                while (traceReader.hasMoreEvents()) {
+                    IEventDefinition ed = traceReader.getCurrentEventDef();
+                    /* Do something with the event */
+                    ed.getCPU();
+                    traceReader.advance();
+                }
+            } catch (CTFException e) {
+                fail("Test failed at iteration " + loop + ':' + e.getMessage());
+            }
+            pm.stop();
+        }
+        pm.commit();
+    }
+
+    private static void readTrace(CtfTestTrace testTrace, String testName, boolean inGlobalSummary, int readAhead) {
         Performance perf = Performance.getDefault();
         PerformanceMeter pm = perf.createPerformanceMeter(TEST_ID + '#' + testName);
         perf.tagAsSummary(pm, TEST_SUITE_NAME + ':' + testName, Dimension.CPU_TIME);
@@ -70,7 +153,7 @@ public class TraceReadBenchmark {
             try {
                 CTFTrace trace = CtfTestTraceUtils.getTrace(testTrace);
                 try (CTFTraceReader traceReader = new CTFTraceReader(trace);) {
-
+                    traceReader.setReadAhead(readAhead);
                     while (traceReader.hasMoreEvents()) {
                         IEventDefinition ed = traceReader.getCurrentEventDef();
                         /* Do something with the event */
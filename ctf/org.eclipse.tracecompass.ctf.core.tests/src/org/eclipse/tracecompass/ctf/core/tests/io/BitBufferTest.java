@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Ericsson
+ * Copyright (c) 2013, 2026 Ericsson
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
  * which accompanies this distribution, and is available at
@@ -13,11 +13,13 @@
 
 package org.eclipse.tracecompass.ctf.core.tests.io;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.ctf.core.CTFException;
@@ -209,4 +211,88 @@ public class BitBufferTest {
         String actual = new String(data);
         assertEquals("world", actual);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test the bulk get of integers, which reads the same integers as the
+     * single gets, byte-aligned or not, in both byte orders
+     *
+     * @throws CTFException
+     *             won't happen, the buffer is large enough
+     */
+    @Test
+    public void testGetLongs() throws CTFException {
+        ByteBuffer bb = ByteBuffer.allocate(128);
+        for (int i = 0; i < bb.capacity(); i++) {
+            bb.put(i, (byte) (i * 37 + 0x80));
+        }
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            for (int length : new int[] { 8, 16, 32, 64, 5, 24, 35 }) {
+                for (int start : new int[] { 0, 8, 3 }) {
+                    for (boolean signed : new boolean[] { true, false }) {
+                        BitBuffer single = new BitBuffer(bb, order);
+                        single.position(start);
+                        long[] expected = new long[(128 * 8 - start) / length];
+                        for (int i = 0; i < expected.length; i++) {
+                            expected[i] = single.get(length, signed);
+                        }
+                        BitBuffer bulk = new BitBuffer(bb, order);
+                        bulk.position(start);
+                        long[] actual = new long[expected.length];
+                        bulk.get(actual, length, signed);
+                        assertArrayEquals(expected, actual);
+                        assertEquals(single.position(), bulk.position());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test the bulk get of integers beyond the end of the buffer
+     *
+     * @throws CTFException
+     *             expected, the buffer is too small
+     */
+    @Test(expected = CTFException.class)
+    public void testGetLongsUnderflow() throws CTFException {
+        fixture = new BitBuffer(Util.testMemory(ByteBuffer.allocate(16)));
+        fixture.get(new long[3], 64, false);
+    }
+
+    /**
+     * Test the get of null-terminated bytes, byte-aligned or not
+     *
+     * @throws CTFException
+     *             won't happen, the strings are terminated
+     */
+    @Test
+    public void testGetNullTerminatedBytes() throws CTFException {
+        byte[] data = "hello\0a longer world\0\0".getBytes(StandardCharsets.US_ASCII);
+        fixture = new BitBuffer(Util.testMemory(ByteBuffer.wrap(data)));
+        assertArrayEquals("hello".getBytes(StandardCharsets.US_ASCII), fixture.getNullTerminatedBytes());
+        assertEquals(6 * 8, fixture.position());
+        assertArrayEquals("a longer world".getBytes(StandardCharsets.US_ASCII), fixture.getNullTerminatedBytes());
+        assertEquals(21 * 8, fixture.position());
+        assertEquals(0, fixture.getNullTerminatedBytes().length);
+        assertEquals(22 * 8, fixture.position());
+
+        /* Shift the bytes of "hi" by 4 bits */
+        fixture = new BitBuffer(Util.testMemory(ByteBuffer.wrap(new byte[] { 0x06, (byte) 0x86, (byte) 0x90, 0x00 })));
+        fixture.position(4);
+        assertArrayEquals("hi".getBytes(StandardCharsets.US_ASCII), fixture.getNullTerminatedBytes());
+        assertEquals(28, fixture.position());
+    }
+
+    /**
+     * Test the get of null-terminated bytes, when the buffer ends before the
+     * null byte
+     *
+     * @throws CTFException
+     *             expected, the string is not terminated
+     */
+    @Test(expected = CTFException.class)
+    public void testGetNullTerminatedBytesUnterminated() throws CTFException {
+        fixture = new BitBuffer(Util.testMemory(ByteBuffer.wrap("not terminated".getBytes(StandardCharsets.US_ASCII))));
+        fixture.getNullTerminatedBytes();
+    }
+}
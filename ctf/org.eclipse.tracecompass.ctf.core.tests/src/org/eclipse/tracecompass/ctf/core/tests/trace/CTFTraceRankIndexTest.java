@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.tests.shared.LttngTraceGenerator;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceRankIndex;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test the index of the ranks of the events of a trace, built from its
+ * packets
+ */
+public class CTFTraceRankIndexTest {
+
+    private static final int NB_CHANNELS = 8;
+    private static final long NB_EVENTS = 100000;
+
+    private static File fTraceDir;
+
+    /**
+     * Generate a trace with many packets per trace file
+     *
+     * @throws IOException
+     *             if the temporary directory could not be created
+     */
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        fTraceDir = Files.createTempDirectory("rank-index").toFile();
+        new LttngTraceGenerator(NB_EVENTS * 1000, NB_EVENTS, NB_CHANNELS).writeTrace(fTraceDir);
+    }
+
+    /**
+     * Delete the trace
+     */
+    @AfterClass
+    public static void afterClass() {
+        File[] files = fTraceDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        fTraceDir.delete();
+    }
+
+    /**
+     * Test that the ranks of the index are those of the events read in order
+     *
+     * @throws CTFException
+     *             if the trace could not be read
+     */
+    @Test
+    public void testRanks() throws CTFException {
+        long[] timestamps = new long[(int) NB_EVENTS * 2];
+        int nbEvents = 0;
+        try (CTFTraceReader reader = new CTFTraceReader(new CTFTrace(fTraceDir))) {
+            while (reader.hasMoreEvents()) {
+                IEventDefinition event = reader.getCurrentEventDef();
+                assertNotNull(event);
+                timestamps[nbEvents++] = event.getTimestamp();
+                reader.advance();
+            }
+        }
+        assertTrue(nbEvents > NB_EVENTS / 2);
+
+        CTFTraceRankIndex index = CTFTraceRankIndex.build(new CTFTrace(fTraceDir), ForkJoinPool.commonPool(), () -> false);
+        assertNotNull(index);
+        assertEquals(nbEvents, index.getNbEvents());
+        assertTrue(index.size() > NB_CHANNELS);
+        assertEquals(0, index.getRank(0));
+        for (int i = 0; i < index.size(); i++) {
+            long timestamp = index.getTimestamp(i);
+            long rank = index.getRank(i);
+            assertTrue(rank == 0 || timestamps[(int) rank - 1] < timestamp);
+            assertTrue(rank == nbEvents || timestamps[(int) rank] >= timestamp);
+            if (i > 0) {
+                assertTrue(index.getTimestamp(i - 1) < timestamp);
+                assertTrue(index.getRank(i - 1) <= rank);
+            }
+        }
+    }
+
+    /**
+     * Test that a reader seeking the timestamp of an entry is positioned at
+     * an event of its rank
+     *
+     * @throws CTFException
+     *             if the trace could not be read
+     */
+    @Test
+    public void testSeek() throws CTFException {
+        CTFTrace trace = new CTFTrace(fTraceDir);
+        CTFTraceRankIndex index = CTFTraceRankIndex.build(trace, ForkJoinPool.commonPool(), () -> false);
+        assertNotNull(index);
+        int entry = index.size() / 2;
+        try (CTFTraceReader reader = new CTFTraceReader(trace)) {
+            for (long rank = 0; rank < index.getRank(entry); rank++) {
+                reader.advance();
+            }
+            IEventDefinition expected = reader.getCurrentEventDef();
+            assertNotNull(expected);
+            reader.seek(index.getTimestamp(entry));
+            IEventDefinition event = reader.getCurrentEventDef();
+            assertNotNull(event);
+            /* The events at a same timestamp may be merged in another order */
+            assertEquals(expected.getTimestamp(), event.getTimestamp());
+        }
+    }
+
+    /**
+     * Test canceling the indexing
+     *
+     * @throws CTFException
+     *             if the trace could not be read
+     */
+    @Test
+    public void testCancel() throws CTFException {
+        assertNull(CTFTraceRankIndex.build(new CTFTrace(fTraceDir), ForkJoinPool.commonPool(), () -> true));
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.tests.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.tests.shared.LttngTraceGenerator;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceReader;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test reading a trace with the packets of its trace files decoded ahead, in
+ * parallel
+ */
+public class CTFTraceReaderReadAheadTest {
+
+    private static final int NB_CHANNELS = 8;
+    private static final long NB_EVENTS = 100000;
+
+    private static File fTraceDir;
+
+    /**
+     * Generate a trace with many packets per trace file
+     *
+     * @throws IOException
+     *             if the temporary directory could not be created
+     */
+    @BeforeClass
+    public static void beforeClass() throws IOException {
+        fTraceDir = Files.createTempDirectory("read-ahead").toFile();
+        new LttngTraceGenerator(NB_EVENTS * 1000, NB_EVENTS, NB_CHANNELS).writeTrace(fTraceDir);
+    }
+
+    /**
+     * Delete the trace
+     */
+    @AfterClass
+    public static void afterClass() {
+        File[] files = fTraceDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        fTraceDir.delete();
+    }
+
+    /**
+     * Test that the events are read in the same order with the packets
+     * decoded ahead
+     *
+     * @throws CTFException
+     *             if the trace could not be read
+     */
+    @Test
+    public void testReadAll() throws CTFException {
+        List<String> expected = readEvents(0, Long.MIN_VALUE);
+        assertTrue(expected.size() > NB_EVENTS / 2);
+        assertEquals(expected, readEvents(1, Long.MIN_VALUE));
+        assertEquals(expected, readEvents(4, Long.MIN_VALUE));
+    }
+
+    /**
+     * Test that the events are read in the same order after a seek with the
+     * packets decoded ahead
+     *
+     * @throws CTFException
+     *             if the trace could not be read
+     */
+    @Test
+    public void testSeek() throws CTFException {
+        List<String> all = readEvents(0, Long.MIN_VALUE);
+        long middle;
+        try (CTFTraceReader reader = new CTFTraceReader(new CTFTrace(fTraceDir))) {
+            for (int i = 0; i < all.size() / 2; i++) {
+                reader.advance();
+            }
+            IEventDefinition event = reader.getCurrentEventDef();
+            assertNotNull(event);
+            middle = event.getTimestamp();
+        }
+        List<String> expected = readEvents(0, middle);
+        assertTrue(expected.size() < all.size());
+        assertEquals(expected, readEvents(2, middle));
+    }
+
+    /**
+     * Read the events of the trace
+     *
+     * @param readAhead
+     *            the number of packets to decode ahead
+     * @param seekTimestamp
+     *            the timestamp to seek to after reading the first events, or
+     *            {@link Long#MIN_VALUE} to read all the events
+     * @return the descriptions of the events read
+     */
+    private static List<String> readEvents(int readAhead, long seekTimestamp) throws CTFException {
+        List<String> events = new ArrayList<>();
+        try (CTFTraceReader reader = new CTFTraceReader(new CTFTrace(fTraceDir))) {
+            reader.setReadAhead(readAhead);
+            assertEquals(readAhead, reader.getReadAhead());
+            if (seekTimestamp != Long.MIN_VALUE) {
+                for (int i = 0; i < 1000; i++) {
+                    reader.advance();
+                }
+                reader.seek(seekTimestamp);
+            }
+            while (reader.hasMoreEvents()) {
+                IEventDefinition event = reader.getCurrentEventDef();
+                assertNotNull(event);
+                events.add(event.getTimestamp() + " " + event.getCPU() + " " + event.getDeclaration().getName() + " " + event.getFields());
+                reader.advance();
+            }
+        }
+        return events;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Ericsson
+ * Copyright (c) 2013, 2026 Ericsson
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
  * which accompanies this distribution, and is available at
@@ -21,15 +21,22 @@ import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
 import org.eclipse.tracecompass.ctf.core.event.types.AbstractArrayDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.CompoundDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.Definition;
 import org.eclipse.tracecompass.ctf.core.event.types.Encoding;
 import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
 import org.eclipse.tracecompass.ctf.core.tests.io.Util;
 import org.eclipse.tracecompass.internal.ctf.core.event.types.ArrayDeclaration;
@@ -179,4 +186,50 @@ public class ArrayDeclaration2Test {
         assertTrue(d.isBinaryEquivalent(a));
         assertTrue(a.isBinaryEquivalent(a));
     }
+
+    /**
+     * Test reading the same array declaration from several threads, as when
+     * the packets of a stream are read concurrently
+     *
+     * @throws Exception
+     *             an error in a thread
+     */
+    @Test
+    public void testConcurrentCreateDefinition() throws Exception {
+        int nbThreads = 8;
+        int length = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            for (int round = 0; round < 100; round++) {
+                /* A new declaration each round, to race on its first reads */
+                ArrayDeclaration array = new ArrayDeclaration(length, IntegerDeclaration.UINT_16L_DECL);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < nbThreads; thread++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < 10; i++) {
+                            ByteBuffer buffer = ByteBuffer.allocate(length * 2).order(ByteOrder.LITTLE_ENDIAN);
+                            for (int j = 0; j < length; j++) {
+                                buffer.putShort((short) j);
+                            }
+                            buffer.flip();
+                            AbstractArrayDefinition result = array.createDefinition(null, "array", new BitBuffer(buffer));
+                            List<Definition> elements = result.getDefinitions();
+                            assertEquals(length, elements.size());
+                            for (int j = 0; j < length; j++) {
+                                Definition element = elements.get(j);
+                                assertEquals("array[" + j + ']', element.getScopePath().getName());
+                                assertEquals(j, ((IntegerDefinition) element).getValue());
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
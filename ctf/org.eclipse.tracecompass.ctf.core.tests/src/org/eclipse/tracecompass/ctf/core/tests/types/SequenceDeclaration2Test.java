@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Ericsson
+ * Copyright (c) 2013, 2026 Ericsson
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,11 @@ import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.ctf.core.CTFException;
@@ -167,4 +172,53 @@ public class SequenceDeclaration2Test {
         assertTrue(a.isBinaryEquivalent(a));
     }
 
+    /**
+     * Test reading sequences of different lengths of the same declaration from
+     * several threads, as when the packets of a stream are read concurrently
+     *
+     * @throws Exception
+     *             an error in a thread
+     */
+    @Test
+    public void testConcurrentCreateDefinition() throws Exception {
+        int nbThreads = 8;
+        int maxLength = 64;
+        SequenceDeclaration sequence = new SequenceDeclaration(FIELD_NAME, IntegerDeclaration.UINT_16L_DECL);
+        StructDeclaration structDec = new StructDeclaration(0);
+        structDec.addField(FIELD_NAME, IntegerDeclaration.UINT_8_DECL);
+        ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < nbThreads; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        int length = (i * nbThreads + offset) % maxLength + 1;
+                        StructDefinition structDef = new StructDefinition(structDec, null, "x",
+                                new Definition[] { new IntegerDefinition(IntegerDeclaration.UINT_8_DECL, null, FIELD_NAME, length) });
+                        ByteBuffer buffer = ByteBuffer.allocate(maxLength * 2).order(ByteOrder.LITTLE_ENDIAN);
+                        for (int j = 0; j < maxLength; j++) {
+                            buffer.putShort((short) j);
+                        }
+                        buffer.flip();
+                        AbstractArrayDefinition result = sequence.createDefinition(structDef, "seq", new BitBuffer(buffer));
+                        List<Definition> elements = result.getDefinitions();
+                        assertEquals(length, elements.size());
+                        for (int j = 0; j < length; j++) {
+                            Definition element = elements.get(j);
+                            assertEquals("seq[" + j + ']', element.getScopePath().getName());
+                            assertEquals(j, ((IntegerDefinition) element).getValue());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
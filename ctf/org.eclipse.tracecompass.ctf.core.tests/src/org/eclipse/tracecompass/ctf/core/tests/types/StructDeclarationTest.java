@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Ericsson
+ * Copyright (c) 2013, 2026 Ericsson
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
  * which accompanies this distribution, and is available at
@@ -20,15 +20,19 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.eclipse.tracecompass.ctf.core.CTFException;
 import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.types.Definition;
 import org.eclipse.tracecompass.ctf.core.event.types.Encoding;
+import org.eclipse.tracecompass.ctf.core.event.types.EnumDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StringDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.ArrayDeclaration;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -89,6 +93,56 @@ public class StructDeclarationTest {
         assertNotNull(result);
     }
 
+    /**
+     * Test that the fields of a struct are read as by their declarations, with
+     * their scopes in the scope of the struct
+     *
+     * @throws CTFException
+     *             out of bounds
+     */
+    @Test
+    public void testCreateDefinitionFields() throws CTFException {
+        StructDeclaration nested = new StructDeclaration(8);
+        nested.addField("x", IntegerDeclaration.INT_32L_DECL);
+        EnumDeclaration enumDec = new EnumDeclaration(IntegerDeclaration.UINT_8_DECL);
+        enumDec.add(0, 127, "low");
+        enumDec.add(128, 255, "high");
+        fixture.addField("bits", IntegerDeclaration.createDeclaration(3, false, 10, ByteOrder.BIG_ENDIAN, Encoding.NONE, "", 1));
+        fixture.addField("signed", IntegerDeclaration.createDeclaration(13, true, 10, ByteOrder.BIG_ENDIAN, Encoding.NONE, "", 1));
+        fixture.addField("big", IntegerDeclaration.INT_32B_DECL);
+        fixture.addField("little", IntegerDeclaration.createDeclaration(64, false, 10, ByteOrder.LITTLE_ENDIAN, Encoding.NONE, "", 8));
+        fixture.addField("enum", enumDec);
+        fixture.addField("bytes", new ArrayDeclaration(5, IntegerDeclaration.UINT_8_DECL));
+        fixture.addField("nested", nested);
+        fixture.addField("string", StringDeclaration.getStringDeclaration(Encoding.UTF8));
+        byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 37 + 11);
+        }
+        bytes[40] = 0;
+
+        BitBuffer bb = new BitBuffer(ByteBuffer.wrap(bytes));
+        StructDefinition result = fixture.createDefinition(null, "struct", bb);
+        BitBuffer expectedBb = new BitBuffer(ByteBuffer.wrap(bytes));
+        for (String name : fixture.getFieldsList()) {
+            IDeclaration declaration = fixture.getField(name);
+            assertNotNull(declaration);
+            Definition expected = declaration.createDefinition(null, name, expectedBb);
+            Definition definition = result.getDefinition(name);
+            assertNotNull(definition);
+            assertEquals(expected.toString(), definition.toString());
+            assertEquals(result.getScopePath().getPath() + '.' + name, definition.getScopePath().getPath());
+        }
+        assertEquals(expectedBb.position(), bb.position());
+        assertEquals(ByteOrder.BIG_ENDIAN, bb.getByteOrder());
+
+        /* Read it again, with the scopes resolved */
+        bb.position(0);
+        StructDefinition again = fixture.createDefinition(null, "struct", bb);
+        assertEquals(result.toString(), again.toString());
+        assertEquals(expectedBb.position(), bb.position());
+    }
+
     /**
      * Run the Declaration getField(String) method test.
      */
@@ -1,5 +1,5 @@
 /*******************************************************************************.
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -44,6 +44,10 @@ public final class BitBuffer {
     private static final long INT_MASK = (1L << BIT_INT) - 1;
     private static final int BIT_LONG = Long.SIZE;
 
+    /* SWAR constants to find a null byte in a long, 8 bytes at a time */
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
     // ------------------------------------------------------------------------
     // Attributes
     // ------------------------------------------------------------------------
@@ -151,6 +155,13 @@ public final class BitBuffer {
         if (length > BIT_LONG) {
             throw new CTFException("Cannot read a long longer than 64 bits. Rquested: " + length); //$NON-NLS-1$
         }
+        if (length == BIT_LONG && (fPosition & (BIT_CHAR - 1)) == 0) {
+            /* Byte-aligned long, read it in one go */
+            checkCanRead(BIT_LONG);
+            long retVal = fBuffer.getLong((int) (fPosition / BIT_CHAR));
+            fPosition += BIT_LONG;
+            return retVal;
+        }
         if (length > BIT_INT) {
             final int highShift = length - BIT_INT;
             long a = getInt();
@@ -193,6 +204,134 @@ public final class BitBuffer {
         fPosition += dst.length * BIT_CHAR;
     }
 
+    /**
+     * Relative bulk <i>get</i> method for reading integers of <i>length</i>
+     * bits.
+     *
+     * Reads <i>dst.length</i> contiguous integers of <i>length</i> bits,
+     * starting at the current position, as {@link #get(int, boolean)} would
+     * one at a time. The integers of 8, 16, 32 or 64 bits starting at a
+     * byte-aligned position are read straight from the byte buffer, without
+     * checking the bounds of each read.
+     *
+     * @param dst
+     *            the array to fill with the integers read
+     * @param length
+     *            The length in bits of each integer
+     * @param signed
+     *            The sign extended flag
+     * @throws CTFException
+     *             An error occurred reading the data. If more than 64 bits at a
+     *             time are read, or the buffer is read beyond its end, this
+     *             exception will be raised.
+     * @since 4.5
+     */
+    public void get(long @NonNull [] dst, int length, boolean signed) throws CTFException {
+        if ((fPosition & (BIT_CHAR - 1)) != 0 || (length != BIT_CHAR && length != BIT_SHORT && length != BIT_INT && length != BIT_LONG)) {
+            for (int i = 0; i < dst.length; i++) {
+                dst[i] = get(length, signed);
+            }
+            return;
+        }
+        long bits = (long) dst.length * length;
+        if (fPosition + bits > fBitCapacity) {
+            throw new CTFException("Cannot read the integers, " + //$NON-NLS-1$
+                    "the buffer does not have enough remaining space. " + //$NON-NLS-1$
+                    "Requested:" + bits + " Available:" + (fBitCapacity - fPosition)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        int index = (int) (fPosition / BIT_CHAR);
+        switch (length) {
+        case BIT_CHAR:
+            for (int i = 0; i < dst.length; i++, index++) {
+                byte val = fBuffer.get(index);
+                dst[i] = signed ? val : (val & BYTE_MASK);
+            }
+            break;
+        case BIT_SHORT:
+            for (int i = 0; i < dst.length; i++, index += Short.BYTES) {
+                short val = fBuffer.getShort(index);
+                dst[i] = signed ? val : (val & SHORT_MASK);
+            }
+            break;
+        case BIT_INT:
+            for (int i = 0; i < dst.length; i++, index += Integer.BYTES) {
+                int val = fBuffer.getInt(index);
+                dst[i] = signed ? val : (val & INT_MASK);
+            }
+            break;
+        default:
+            for (int i = 0; i < dst.length; i++, index += Long.BYTES) {
+                dst[i] = fBuffer.getLong(index);
+            }
+            break;
+        }
+        fPosition += bits;
+    }
+
+    /**
+     * Relative <i>get</i> method for reading a null-terminated string of bytes.
+     *
+     * Reads the bytes starting at the current position up to the next null
+     * byte. The current position is increased past the null byte. When the
+     * position is byte-aligned, the null byte is searched 8 bytes at a time
+     * and the bytes are copied in bulk from the byte buffer.
+     *
+     * @return The bytes read, without the terminating null byte
+     * @throws CTFException
+     *             An error occurred reading the data. When the buffer ends
+     *             before a null byte, this exception will be raised.
+     * @since 4.5
+     */
+    public byte @NonNull [] getNullTerminatedBytes() throws CTFException {
+        if ((fPosition & (BIT_CHAR - 1)) != 0) {
+            long start = fPosition;
+            int length = 0;
+            while (get(BIT_CHAR, false) != 0) {
+                length++;
+            }
+            long end = fPosition;
+            fPosition = start;
+            byte[] dst = new byte[length];
+            for (int i = 0; i < length; i++) {
+                dst[i] = (byte) get(BIT_CHAR, false);
+            }
+            fPosition = end;
+            return dst;
+        }
+        int start = (int) (fPosition / BIT_CHAR);
+        int end = indexOfNull(start, (int) (fBitCapacity / BIT_CHAR));
+        if (end < 0) {
+            throw new CTFException("Cannot read the string, " + //$NON-NLS-1$
+                    "the buffer ends before its terminating null byte. " + //$NON-NLS-1$
+                    "Available:" + (fBitCapacity - fPosition)); //$NON-NLS-1$
+        }
+        byte[] dst = new byte[end - start];
+        fBuffer.position(start);
+        fBuffer.get(dst);
+        fPosition = (end + 1L) * BIT_CHAR;
+        return dst;
+    }
+
+    /**
+     * Find the first null byte of the byte buffer in a range, 8 bytes at a
+     * time, then byte by byte in the 8 bytes that have one
+     */
+    private int indexOfNull(int from, int to) {
+        int index = from;
+        for (; index + Long.BYTES <= to; index += Long.BYTES) {
+            long word = fBuffer.getLong(index);
+            if (((word - LOW_BITS) & ~word & HIGH_BITS) != 0) {
+                break;
+            }
+        }
+        for (; index < to; index++) {
+            if (fBuffer.get(index) == 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Relative <i>get</i> method for reading integer of <i>length</i> bits.
      *
@@ -217,11 +356,7 @@ public final class BitBuffer {
         }
 
         /* Validate that the buffer has enough bits. */
-        if (!canRead(length)) {
-            throw new CTFException("Cannot read the integer, " + //$NON-NLS-1$
-                    "the buffer does not have enough remaining space. " + //$NON-NLS-1$
-                    "Requested:" + length + " Available:" + (fBitCapacity - fPosition)); //$NON-NLS-1$ //$NON-NLS-2$
-        }
+        checkCanRead(length);
 
         /* Get the value from the byte buffer. */
         int val = 0;
@@ -676,6 +811,14 @@ public final class BitBuffer {
         return ((fPosition + length) <= fBitCapacity);
     }
 
+    private void checkCanRead(int length) throws CTFException {
+        if (!canRead(length)) {
+            throw new CTFException("Cannot read the integer, " + //$NON-NLS-1$
+                    "the buffer does not have enough remaining space. " + //$NON-NLS-1$
+                    "Requested:" + length + " Available:" + (fBitCapacity - fPosition)); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
     /**
      * Sets the order of the buffer.
      *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Ericsson
+ * Copyright (c) 2014, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -18,6 +18,7 @@ import java.util.List;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
 import org.eclipse.tracecompass.internal.ctf.core.utils.SaturatedArithmetic;
 
 /**
@@ -43,6 +44,24 @@ public abstract class AbstractArrayDefinition extends Definition {
         super(declaration, definitionScope, fieldName);
     }
 
+    /**
+     * Constructor. This is a faster constructor as it has a lexical scope and
+     * this does not need to look it up.
+     *
+     * @param declaration
+     *            the event declaration
+     * @param definitionScope
+     *            the definition is in a scope, (normally a struct) what is it?
+     * @param fieldName
+     *            the name of the definition. (it is a field in the parent scope)
+     * @param scope
+     *            the lexical scope of the definition
+     * @since 4.5
+     */
+    public AbstractArrayDefinition(IDeclaration declaration, @Nullable IDefinitionScope definitionScope, String fieldName, ILexicalScope scope) {
+        super(declaration, definitionScope, fieldName, scope);
+    }
+
     /**
      * Get the defintions, an array is a collection of definitions
      *
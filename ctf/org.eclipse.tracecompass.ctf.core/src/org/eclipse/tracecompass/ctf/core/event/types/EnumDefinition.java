@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -17,6 +17,7 @@ package org.eclipse.tracecompass.ctf.core.event.types;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
 
 /**
  * A CTF enum definition.
@@ -64,6 +65,30 @@ public final class EnumDefinition extends SimpleDatatypeDefinition {
         fValue = declaration.query(fInteger.getValue());
     }
 
+    /**
+     * Constructor. This is a faster constructor as it has a lexical scope and
+     * this does not need to look it up.
+     *
+     * @param declaration
+     *            the parent declaration
+     * @param definitionScope
+     *            the parent scope
+     * @param fieldName
+     *            the field name
+     * @param scope
+     *            the lexical scope of this definition
+     * @param intValue
+     *            the value of the enum
+     * @since 4.5
+     */
+    public EnumDefinition(@NonNull EnumDeclaration declaration,
+            IDefinitionScope definitionScope, @NonNull String fieldName, @NonNull ILexicalScope scope, IntegerDefinition intValue) {
+        super(declaration, definitionScope, fieldName, scope);
+
+        fInteger = intValue;
+        fValue = declaration.query(fInteger.getValue());
+    }
+
     // ------------------------------------------------------------------------
     // Getters/Setters/Predicates
     // ------------------------------------------------------------------------
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -15,6 +15,7 @@ package org.eclipse.tracecompass.ctf.core.event.types;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
 
 /**
  * Simple Datatype definition is a datatype that allows the addition of
@@ -39,6 +40,25 @@ public abstract class SimpleDatatypeDefinition extends Definition {
         super(declaration, definitionScope, fieldName);
     }
 
+    /**
+     * Create a new SimpleDatatypeDefinition. This is a faster constructor as
+     * it has a lexical scope and this does not need to look it up.
+     *
+     * @param declaration
+     *            definition's declaration
+     * @param definitionScope
+     *            The scope of this definition
+     * @param fieldName
+     *            The name of the field matching this definition in the parent scope
+     * @param scope
+     *            the lexical scope of this definition
+     * @since 4.5
+     */
+    public SimpleDatatypeDefinition(@NonNull IDeclaration declaration, IDefinitionScope definitionScope,
+            @NonNull String fieldName, @NonNull ILexicalScope scope) {
+        super(declaration, definitionScope, fieldName, scope);
+    }
+
     /**
      * Gets the value in integer form
      *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -14,6 +14,8 @@
 
 package org.eclipse.tracecompass.ctf.core.event.types;
 
+import java.nio.charset.StandardCharsets;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.CTFException;
@@ -133,13 +135,8 @@ public class StringDeclaration extends Declaration {
         /* Offset the buffer position wrt the current alignment */
         alignRead(input);
 
-        StringBuilder sb = new StringBuilder();
-        char c = (char) input.get(BITS_PER_BYTE, false);
-        while (c != 0) {
-            sb.append(c);
-            c = (char) input.get(BITS_PER_BYTE, false);
-        }
-        return sb.toString();
+        /* Each byte is a char, as the strings have always been read */
+        return new String(input.getNullTerminatedBytes(), StandardCharsets.ISO_8859_1);
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -58,6 +58,9 @@ public class StructDeclaration extends Declaration {
     /** maximum bit alignment */
     private long fMaxAlign;
 
+    /** The decoder of the fields, compiled when the fields are first read */
+    private transient @Nullable StructDeclarationDecoder fDecoder;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -182,7 +185,7 @@ public class StructDeclaration extends Declaration {
         final Definition[] myFields = new Definition[fFields.length];
 
         StructDefinition structDefinition = new StructDefinition(this, definitionScope,
-                fieldScope, fieldScope.getName(), Arrays.asList(fFieldNames), myFields);
+                fieldScope, fieldScope.getName(), getDecoder().getFieldNames(), myFields);
         fillStruct(input, myFields, structDefinition);
         return structDefinition;
     }
@@ -210,15 +213,20 @@ public class StructDeclaration extends Declaration {
         fFieldNames = names;
         fFields = fields;
         fMaxAlign = Math.max(fMaxAlign, declaration.getAlignment());
+        fDecoder = null;
     }
 
-    private void fillStruct(@NonNull BitBuffer input, final IDefinition[] myFields, StructDefinition structDefinition) throws CTFException {
-        final @NonNull String[] fieldNames = fFieldNames;
-        final @NonNull IDeclaration[] fields = fFields;
-        for (int i = 0; i < fields.length; i++) {
-            /* We should not have inserted null keys... */
-            myFields[i] = fields[i].createDefinition(structDefinition, fieldNames[i], input);
+    private @NonNull StructDeclarationDecoder getDecoder() {
+        StructDeclarationDecoder decoder = fDecoder;
+        if (decoder == null) {
+            decoder = new StructDeclarationDecoder(getFieldsList(), fFields);
+            fDecoder = decoder;
         }
+        return decoder;
+    }
+
+    private void fillStruct(@NonNull BitBuffer input, final Definition[] myFields, StructDefinition structDefinition) throws CTFException {
+        getDecoder().decode(input, myFields, structDefinition);
     }
 
     /**
@@ -245,7 +253,7 @@ public class StructDeclaration extends Declaration {
             merged = new InternalDef(definitionScope, eventHeaderDef);
         }
         StructDefinition structDefinition = new StructDefinition(this, merged,
-                fields, fields.getName(), Arrays.asList(fFieldNames), myFields);
+                fields, fields.getName(), getDecoder().getFieldNames(), myFields);
         if (merged instanceof InternalDef) {
             InternalDef internalDef = (InternalDef) merged;
             internalDef.setDefinition(structDefinition);
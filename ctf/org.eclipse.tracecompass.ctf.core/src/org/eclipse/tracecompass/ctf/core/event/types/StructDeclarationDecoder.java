@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.event.types;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteOrder;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.io.BitBuffer;
+import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.ArrayDeclaration;
+import org.eclipse.tracecompass.internal.ctf.core.event.types.ByteArrayDefinition;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Decoder of the fields of a {@link StructDeclaration}, compiled once from the
+ * declaration into a flat plan of the reads of its fields.
+ *
+ * The integer, enum and byte array fields, which make most of the fields of
+ * kernel events, are read straight from the {@link BitBuffer}, with their
+ * alignment, length, signedness and byte order resolved when the plan is
+ * compiled, instead of walking their declarations. The lexical scopes of the
+ * fields are resolved once per scope of the struct, instead of being looked up
+ * for every field of every event. The other fields, such as variants,
+ * sequences, strings and floats, are read by their declarations, as they may
+ * depend on the fields read before them.
+ *
+ * A decoder does not change once compiled, so it can decode events from many
+ * threads at once.
+ */
+final class StructDeclarationDecoder {
+
+    private final @NonNull List<@NonNull String> fFieldNames;
+    private final FieldDecoder[] fFields;
+
+    /** The scopes of the fields, for the last scope of the struct */
+    private volatile @Nullable FieldScopes fFieldScopes = null;
+
+    private static final class FieldScopes {
+        private final ILexicalScope fStructScope;
+        private final @NonNull ILexicalScope @NonNull [] fScopes;
+
+        public FieldScopes(ILexicalScope structScope, @NonNull ILexicalScope @NonNull [] scopes) {
+            fStructScope = structScope;
+            fScopes = scopes;
+        }
+    }
+
+    /**
+     * The read of a field, by its declaration unless it is compiled by a
+     * subclass
+     */
+    private static class FieldDecoder {
+        protected final @NonNull String fName;
+        private final @NonNull IDeclaration fDeclaration;
+        /** The alignment of the field minus 1, in bits */
+        private final long fAlignMask;
+
+        public FieldDecoder(@NonNull String name, @NonNull IDeclaration declaration) {
+            fName = name;
+            fDeclaration = declaration;
+            fAlignMask = declaration.getAlignment() - 1;
+        }
+
+        protected final void align(@NonNull BitBuffer input) throws CTFException {
+            long pos = input.position();
+            if ((pos & fAlignMask) != 0) {
+                input.position((pos + fAlignMask) & ~fAlignMask);
+            }
+        }
+
+        /**
+         * Read the field
+         *
+         * @param input
+         *            the input, in the byte order of the struct
+         * @param structDefinition
+         *            the definition of the struct
+         * @param scope
+         *            the scope of the field
+         * @return the definition of the field
+         * @throws CTFException
+         *             if the field could not be read
+         */
+        public Definition decode(@NonNull BitBuffer input, StructDefinition structDefinition, @NonNull ILexicalScope scope) throws CTFException {
+            return fDeclaration.createDefinition(structDefinition, fName, input);
+        }
+    }
+
+    /**
+     * The read of an integer of at most 64 bits, and of the integer of an
+     * enum
+     */
+    private static class IntegerFieldDecoder extends FieldDecoder {
+        private final @NonNull IntegerDeclaration fInteger;
+        private final int fLength;
+        private final boolean fSigned;
+        private final ByteOrder fByteOrder;
+
+        public IntegerFieldDecoder(@NonNull String name, @NonNull IDeclaration declaration, @NonNull IntegerDeclaration integer) {
+            super(name, declaration);
+            fInteger = integer;
+            fLength = integer.getLength();
+            fSigned = integer.isSigned();
+            fByteOrder = integer.getByteOrder();
+        }
+
+        protected final IntegerDefinition readInteger(@NonNull BitBuffer input, StructDefinition structDefinition, @NonNull ILexicalScope scope) throws CTFException {
+            align(input);
+            ByteOrder byteOrder = input.getByteOrder();
+            input.setByteOrder(fByteOrder);
+            long value = input.get(fLength, fSigned);
+            input.setByteOrder(byteOrder);
+            return new IntegerDefinition(fInteger, structDefinition, fName, scope, value);
+        }
+
+        @Override
+        public Definition decode(@NonNull BitBuffer input, StructDefinition structDefinition, @NonNull ILexicalScope scope) throws CTFException {
+            return readInteger(input, structDefinition, scope);
+        }
+    }
+
+    private static final class EnumFieldDecoder extends IntegerFieldDecoder {
+        private final @NonNull EnumDeclaration fEnum;
+
+        public EnumFieldDecoder(@NonNull String name, @NonNull EnumDeclaration declaration) {
+            super(name, declaration, requireNonNull(declaration.getContainerType()));
+            fEnum = declaration;
+        }
+
+        @Override
+        public Definition decode(@NonNull BitBuffer input, StructDefinition structDefinition, @NonNull ILexicalScope scope) throws CTFException {
+            return new EnumDefinition(fEnum, structDefinition, fName, scope, readInteger(input, structDefinition, scope));
+        }
+    }
+
+    private static final class ByteArrayFieldDecoder extends FieldDecoder {
+        private final @NonNull ArrayDeclaration fArray;
+        private final int fLength;
+
+        public ByteArrayFieldDecoder(@NonNull String name, @NonNull ArrayDeclaration declaration) {
+            super(name, declaration);
+            fArray = declaration;
+            fLength = declaration.getLength();
+        }
+
+        @Override
+        public Definition decode(@NonNull BitBuffer input, StructDefinition structDefinition, @NonNull ILexicalScope scope) throws CTFException {
+            align(input);
+            if (input.getByteBuffer().remaining() < fLength) {
+                throw new CTFException("Buffer underflow"); //$NON-NLS-1$
+            }
+            byte[] data = new byte[fLength];
+            input.get(data);
+            return new ByteArrayDefinition(fArray, structDefinition, fName, scope, data);
+        }
+    }
+
+    private static final class StructFieldDecoder extends FieldDecoder {
+        private final @NonNull StructDeclaration fStruct;
+
+        public StructFieldDecoder(@NonNull String name, @NonNull StructDeclaration declaration) {
+            super(name, declaration);
+            fStruct = declaration;
+        }
+
+        @Override
+        public Definition decode(@NonNull BitBuffer input, StructDefinition structDefinition, @NonNull ILexicalScope scope) throws CTFException {
+            return fStruct.createDefinition(structDefinition, scope, input);
+        }
+    }
+
+    /**
+     * Compile the decoder of the fields of a struct
+     *
+     * @param names
+     *            the names of the fields
+     * @param fields
+     *            the declarations of the fields
+     */
+    public StructDeclarationDecoder(@NonNull Iterable<@NonNull String> names, @NonNull IDeclaration[] fields) {
+        fFieldNames = ImmutableList.copyOf(names);
+        fFields = new FieldDecoder[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fFields[i] = compile(fFieldNames.get(i), fields[i]);
+        }
+    }
+
+    private static @NonNull FieldDecoder compile(@NonNull String name, @NonNull IDeclaration field) {
+        if (field instanceof IntegerDeclaration && ((IntegerDeclaration) field).getLength() <= Long.SIZE) {
+            return new IntegerFieldDecoder(name, field, (IntegerDeclaration) field);
+        }
+        if (field instanceof EnumDeclaration && ((EnumDeclaration) field).getContainerType().getLength() <= Long.SIZE) {
+            return new EnumFieldDecoder(name, (EnumDeclaration) field);
+        }
+        if (field instanceof ArrayDeclaration && ((ArrayDeclaration) field).isAlignedBytes()) {
+            return new ByteArrayFieldDecoder(name, (ArrayDeclaration) field);
+        }
+        if (field instanceof StructDeclaration) {
+            return new StructFieldDecoder(name, (StructDeclaration) field);
+        }
+        /* Let the declaration read the field, and report its errors */
+        return new FieldDecoder(name, field);
+    }
+
+    /**
+     * Get the names of the fields
+     *
+     * @return the names of the fields
+     */
+    public @NonNull List<@NonNull String> getFieldNames() {
+        return fFieldNames;
+    }
+
+    /**
+     * Read the fields of a struct
+     *
+     * @param input
+     *            the input to read from, at the first field of the struct
+     * @param definitions
+     *            the definitions of the fields to fill
+     * @param structDefinition
+     *            the definition of the struct, the scope of its fields
+     * @throws CTFException
+     *             if a field could not be read
+     */
+    public void decode(@NonNull BitBuffer input, Definition[] definitions, StructDefinition structDefinition) throws CTFException {
+        @NonNull ILexicalScope[] scopes = getFieldScopes(structDefinition);
+        for (int i = 0; i < fFields.length; i++) {
+            definitions[i] = fFields[i].decode(input, structDefinition, scopes[i]);
+        }
+    }
+
+    private @NonNull ILexicalScope[] getFieldScopes(StructDefinition structDefinition) {
+        ILexicalScope structScope = structDefinition.getScopePath();
+        FieldScopes fieldScopes = fFieldScopes;
+        if (fieldScopes == null || fieldScopes.fStructScope != structScope) {
+            @NonNull ILexicalScope @NonNull [] scopes = new @NonNull ILexicalScope[fFields.length];
+            for (int i = 0; i < scopes.length; i++) {
+                scopes[i] = fFields[i].fDeclaration.getPath(structDefinition, fFields[i].fName);
+            }
+            fieldScopes = new FieldScopes(structScope, scopes);
+            fFieldScopes = fieldScopes;
+        }
+        return fieldScopes.fScopes;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -49,6 +49,12 @@ public final class StructDefinition extends ScopedDefinition implements IComposi
     // Attributes
     // ------------------------------------------------------------------------
 
+    /**
+     * Number of fields up to which the fields are looked up by name without
+     * building a map
+     */
+    private static final int MAX_FIELDS_WITHOUT_MAP = 16;
+
     private final @NonNull List<@NonNull String> fFieldNames;
     private final Definition[] fDefinitions;
     private Map<String, Definition> fDefinitionsMap = null;
@@ -121,6 +127,14 @@ public final class StructDefinition extends ScopedDefinition implements IComposi
     @Override
     public Definition getDefinition(String fieldName) {
         if (fDefinitionsMap == null) {
+            if (fFieldNames.size() <= MAX_FIELDS_WITHOUT_MAP) {
+                /*
+                 * Most structs are the fields of an event, which are read a
+                 * few times, so a map per struct would cost more than it saves
+                 */
+                int index = fFieldNames.indexOf(fieldName);
+                return (index < 0) ? null : fDefinitions[index];
+            }
             /* Build the definitions map */
             Builder<String, Definition> mapBuilder = new ImmutableMap.Builder<>();
             for (int i = 0; i < fFieldNames.size(); i++) {
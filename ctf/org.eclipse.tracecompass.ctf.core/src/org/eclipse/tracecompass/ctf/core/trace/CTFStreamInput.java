@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -228,7 +228,7 @@ public class CTFStreamInput implements IDefinitionScope {
      * @throws CTFException
      *             If there was a problem reading the packed header
      */
-    public boolean addPacketHeaderIndex() throws CTFException {
+    public synchronized boolean addPacketHeaderIndex() throws CTFException {
         long currentPosBits = 0L;
         if (!fIndex.isEmpty()) {
             ICTFPacketDescriptor pos = fIndex.lastElement();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2015 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -20,7 +20,10 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -33,7 +36,9 @@ import org.eclipse.tracecompass.ctf.core.event.types.StructDeclaration;
 import org.eclipse.tracecompass.internal.ctf.core.CtfCoreLoggerUtil;
 import org.eclipse.tracecompass.internal.ctf.core.SafeMappedByteBuffer;
 import org.eclipse.tracecompass.internal.ctf.core.trace.CTFPacketReader;
+import org.eclipse.tracecompass.internal.ctf.core.trace.DecodedPacketReader;
 import org.eclipse.tracecompass.internal.ctf.core.trace.NullPacketReader;
+import org.eclipse.tracecompass.internal.ctf.core.trace.PacketReadAhead;
 
 /**
  * A CTF trace event reader. Reads the events of a trace file.
@@ -83,6 +88,12 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     private boolean fLive = false;
 
+    /**
+     * The packets decoded ahead of the current one, null if they are decoded
+     * as they are read
+     */
+    private @Nullable PacketReadAhead fReadAhead = null;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -176,6 +187,10 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     @Override
     public void close() throws IOException {
+        PacketReadAhead readAhead = fReadAhead;
+        if (readAhead != null) {
+            readAhead.clear();
+        }
         if (fFileChannel != null) {
             fFileChannel.close();
         }
@@ -271,6 +286,33 @@ public class CTFStreamInputReader implements AutoCloseable {
         return fLive;
     }
 
+    /**
+     * Set the number of packets to decode ahead of the packet being read. The
+     * next packets are then decoded in parallel, by tasks of the common
+     * {@link ForkJoinPool}, while the events of the current packet are read.
+     * The packets are not decoded ahead when the trace is read live.
+     *
+     * @param nbPackets
+     *            the number of packets to decode ahead, or 0 to decode the
+     *            packets as they are read
+     * @since 4.5
+     */
+    public void setReadAhead(int nbPackets) {
+        PacketReadAhead readAhead = fReadAhead;
+        if (readAhead != null) {
+            readAhead.clear();
+        }
+        if (nbPackets <= 0) {
+            fReadAhead = null;
+            return;
+        }
+        readAhead = new PacketReadAhead(this::decodePacket, Objects.requireNonNull(ForkJoinPool.commonPool()), nbPackets);
+        fReadAhead = readAhead;
+        if (!fLive) {
+            readAhead.start(fPacketIndex + 1);
+        }
+    }
+
     /**
      * Get the event context of the stream
      *
@@ -304,7 +346,13 @@ public class CTFStreamInputReader implements AutoCloseable {
                     }
                     break;
                 }
-                goToNextPacket();
+                PacketReadAhead readAhead = fReadAhead;
+                if (readAhead != null && !fLive) {
+                    fPacketIndex++;
+                    fPacketReader = readAhead.take(fPacketIndex);
+                } else {
+                    goToNextPacket();
+                }
             }
 
             /*
@@ -351,6 +399,81 @@ public class CTFStreamInputReader implements AutoCloseable {
         return fStreamInput.getIndex().size();
     }
 
+    /**
+     * Decode all the events of a packet, called by the tasks decoding the
+     * packets ahead. The packet is indexed if needed.
+     *
+     * @param packetIndex
+     *            the index of the packet in the stream
+     * @return the reader of the decoded events, or the null packet reader if
+     *         there is no such packet
+     * @throws CTFException
+     *             if the packet could not be indexed
+     */
+    private IPacketReader decodePacket(int packetIndex) throws CTFException {
+        ICTFPacketDescriptor packet;
+        synchronized (fStreamInput) {
+            while (getPacketSize() <= packetIndex) {
+                if (!fStreamInput.addPacketHeaderIndex()) {
+                    return NullPacketReader.INSTANCE;
+                }
+            }
+            packet = Objects.requireNonNull(fStreamInput.getIndex().getElement(packetIndex));
+        }
+        IPacketReader packetReader = getCurrentPacketReader(packet);
+        List<IEventDefinition> events = new ArrayList<>();
+        try {
+            while (packetReader.hasMoreEvents()) {
+                events.add(Objects.requireNonNull(packetReader.readNextEvent()));
+            }
+        } catch (CTFException e) {
+            return new DecodedPacketReader(packet, packetReader.getCPU(), events, e);
+        }
+        return new DecodedPacketReader(packet, packetReader.getCPU(), events, null);
+    }
+
+    /**
+     * Count the events of a packet, and the events before timestamps within
+     * the packet. It does not change the position of this reader, so it can
+     * be called concurrently on the packets of the trace file.
+     *
+     * @param packet
+     *            the packet, already indexed
+     * @param timestamps
+     *            sorted timestamps
+     * @param from
+     *            the index of the first timestamp to count the events before
+     * @param to
+     *            the index after the last timestamp to count the events before
+     * @param counts
+     *            the numbers of events of the packet before each timestamp,
+     *            from index 0
+     * @return the number of events of the packet
+     * @throws CTFException
+     *             if the packet could not be read
+     */
+    long countEvents(ICTFPacketDescriptor packet, long[] timestamps, int from, int to, long[] counts) throws CTFException {
+        IPacketReader packetReader = getCurrentPacketReader(packet);
+        long count = 0;
+        int index = from;
+        while (packetReader.hasMoreEvents()) {
+            IEventDefinition event = packetReader.readNextEvent();
+            if (event == null) {
+                break;
+            }
+            long timestamp = event.getTimestamp();
+            while (index < to && timestamps[index] <= timestamp) {
+                counts[index - from] = count;
+                index++;
+            }
+            count++;
+        }
+        for (; index < to; index++) {
+            counts[index - from] = count;
+        }
+        return count;
+    }
+
     /**
      * Changes the location of the trace file reader so that the current event
      * is the first event with a timestamp greater or equal the given timestamp.
@@ -363,6 +486,10 @@ public class CTFStreamInputReader implements AutoCloseable {
      */
     public long seek(long timestamp) throws CTFException {
         long offset = 0;
+        PacketReadAhead readAhead = fReadAhead;
+        if (readAhead != null) {
+            readAhead.clear();
+        }
 
         gotoPacket(timestamp);
 
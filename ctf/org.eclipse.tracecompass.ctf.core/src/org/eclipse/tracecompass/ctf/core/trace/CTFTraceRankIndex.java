@@ -0,0 +1,343 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.ctf.core.trace;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.internal.ctf.core.trace.StreamInputPacketIndex;
+
+/**
+ * Index of the ranks of the events of a trace at the beginnings of its
+ * packets, the rank of an event being its position in the events of all the
+ * trace files, merged by timestamps.
+ *
+ * The index is built from the packets, in parallel: the packet headers of the
+ * trace files are indexed concurrently, then the events of all the packets are
+ * counted concurrently, without merging the trace files. The packets do not
+ * hold their number of events, so their events are decoded to be counted, but
+ * only the packets overlapping the beginning of a packet of another trace file
+ * count their events before it.
+ *
+ * The timestamps of the index are in cycles, and are kept by a conversion to
+ * nanoseconds and back, so a reader seeking the nanosecond timestamp of an
+ * entry is positioned at its rank.
+ *
+ * @since 4.5
+ */
+@NonNullByDefault
+public final class CTFTraceRankIndex {
+
+    /** Maximum number of conversions to find a timestamp kept by conversions */
+    private static final int MAX_CONVERSIONS = 4;
+
+    private final long[] fTimestamps;
+    private final long[] fRanks;
+    private final long fNbEvents;
+
+    /**
+     * The events of a packet, before each timestamp of the index within the
+     * packet
+     */
+    private static final class PacketCount {
+        private final int fFrom;
+        private final long[] fCounts;
+        private long fNbEvents;
+
+        public PacketCount(int from, int to) {
+            fFrom = from;
+            fCounts = new long[to - from];
+        }
+    }
+
+    /**
+     * The readers of the trace files, closed together
+     */
+    private static final class StreamInputReaders implements AutoCloseable {
+        private final @Nullable CTFStreamInputReader[] fReaders;
+
+        public StreamInputReaders(CTFTrace trace) throws CTFException {
+            int nbStreamInputs = 0;
+            for (ICTFStream stream : trace.getStreams()) {
+                nbStreamInputs += stream.getStreamInputs().size();
+            }
+            fReaders = new @Nullable CTFStreamInputReader[nbStreamInputs];
+            int i = 0;
+            try {
+                for (ICTFStream stream : trace.getStreams()) {
+                    for (CTFStreamInput streamInput : stream.getStreamInputs()) {
+                        fReaders[i++] = new CTFStreamInputReader(Objects.requireNonNull(streamInput));
+                    }
+                }
+            } catch (CTFException e) {
+                close();
+                throw e;
+            }
+        }
+
+        public List<CTFStreamInputReader> getReaders() {
+            List<CTFStreamInputReader> readers = new ArrayList<>(fReaders.length);
+            for (CTFStreamInputReader reader : fReaders) {
+                if (reader != null) {
+                    readers.add(reader);
+                }
+            }
+            return readers;
+        }
+
+        @Override
+        public void close() {
+            for (CTFStreamInputReader reader : fReaders) {
+                if (reader != null) {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        // Ignore
+                    }
+                }
+            }
+        }
+    }
+
+    private CTFTraceRankIndex(long[] timestamps, long[] ranks, long nbEvents) {
+        fTimestamps = timestamps;
+        fRanks = ranks;
+        fNbEvents = nbEvents;
+    }
+
+    /**
+     * Build the rank index of a trace
+     *
+     * @param trace
+     *            the trace, which should not grow while it is indexed
+     * @param pool
+     *            the pool of the tasks indexing the packets
+     * @param isCanceled
+     *            tells if the indexing was canceled, it is checked by the tasks
+     * @return the rank index of the trace, or null if the indexing was
+     *         canceled
+     * @throws CTFException
+     *             if a trace file could not be read
+     */
+    public static @Nullable CTFTraceRankIndex build(CTFTrace trace, ForkJoinPool pool, BooleanSupplier isCanceled) throws CTFException {
+        try (StreamInputReaders readers = new StreamInputReaders(trace)) {
+            return build(trace, readers.getReaders(), pool, isCanceled);
+        } catch (CancellationException e) {
+            return null;
+        }
+    }
+
+    private static CTFTraceRankIndex build(CTFTrace trace, List<CTFStreamInputReader> readers, ForkJoinPool pool, BooleanSupplier isCanceled) throws CTFException {
+        /* Index the packet headers of the trace files */
+        List<Callable<@Nullable Void>> indexTasks = new ArrayList<>();
+        for (CTFStreamInputReader reader : readers) {
+            indexTasks.add(() -> {
+                CTFStreamInput streamInput = reader.getStreamInput();
+                while (!isCanceled.getAsBoolean()) {
+                    synchronized (streamInput) {
+                        if (!streamInput.addPacketHeaderIndex()) {
+                            return null;
+                        }
+                    }
+                }
+                throw new CancellationException();
+            });
+        }
+        invokeAll(pool, indexTasks);
+
+        /* The beginnings of the packets are the timestamps of the index */
+        int nbPackets = 0;
+        for (CTFStreamInputReader reader : readers) {
+            nbPackets += reader.getStreamInput().getIndex().size();
+        }
+        long[] timestamps = new long[nbPackets];
+        int size = 0;
+        for (CTFStreamInputReader reader : readers) {
+            StreamInputPacketIndex index = reader.getStreamInput().getIndex();
+            for (int i = 0; i < index.size(); i++) {
+                long timestamp = getSeekTimestamp(trace, index.getElement(i).getTimestampBegin());
+                if (timestamp != Long.MIN_VALUE) {
+                    timestamps[size++] = timestamp;
+                }
+            }
+        }
+        Arrays.sort(timestamps, 0, size);
+        int nbTimestamps = 0;
+        for (int i = 0; i < size; i++) {
+            if (nbTimestamps == 0 || timestamps[i] != timestamps[nbTimestamps - 1]) {
+                timestamps[nbTimestamps++] = timestamps[i];
+            }
+        }
+        long @NonNull [] sortedTimestamps = Objects.requireNonNull(Arrays.copyOf(timestamps, nbTimestamps));
+
+        /*
+         * Count the events of each packet, and its events before the
+         * timestamps between its beginning and its end
+         */
+        List<Callable<PacketCount>> countTasks = new ArrayList<>();
+        for (CTFStreamInputReader reader : readers) {
+            StreamInputPacketIndex index = reader.getStreamInput().getIndex();
+            for (int i = 0; i < index.size(); i++) {
+                ICTFPacketDescriptor packet = index.getElement(i);
+                int from = upperBound(sortedTimestamps, packet.getTimestampBegin());
+                int to = upperBound(sortedTimestamps, packet.getTimestampEnd());
+                countTasks.add(() -> {
+                    if (isCanceled.getAsBoolean()) {
+                        throw new CancellationException();
+                    }
+                    PacketCount count = new PacketCount(from, to);
+                    count.fNbEvents = reader.countEvents(packet, sortedTimestamps, from, to, count.fCounts);
+                    return count;
+                });
+            }
+        }
+
+        /*
+         * The packets ending before a timestamp add all their events to its
+         * rank, the packets overlapping it add their events before it
+         */
+        List<PacketCount> counts = invokeAll(pool, countTasks);
+        long[] ranks = new long[nbTimestamps + 1];
+        long nbEvents = 0;
+        for (PacketCount count : counts) {
+            ranks[count.fFrom + count.fCounts.length] += count.fNbEvents;
+            nbEvents += count.fNbEvents;
+        }
+        for (int i = 1; i < ranks.length; i++) {
+            ranks[i] += ranks[i - 1];
+        }
+        ranks = Arrays.copyOf(ranks, nbTimestamps);
+        for (PacketCount count : counts) {
+            for (int i = 0; i < count.fCounts.length; i++) {
+                ranks[count.fFrom + i] += count.fCounts[i];
+            }
+        }
+        return new CTFTraceRankIndex(sortedTimestamps, ranks, nbEvents);
+    }
+
+    /**
+     * Get the timestamp to seek to be positioned at the events at or after a
+     * timestamp, when the timestamps are converted to nanoseconds and back.
+     *
+     * @return the timestamp, or {@link Long#MIN_VALUE} if the conversions do
+     *         not converge
+     */
+    private static long getSeekTimestamp(CTFTrace trace, long timestamp) {
+        long seekTimestamp = timestamp;
+        for (int i = 0; i < MAX_CONVERSIONS; i++) {
+            long converted = trace.timestampNanoToCycles(trace.timestampCyclesToNanos(seekTimestamp));
+            if (converted == seekTimestamp) {
+                return seekTimestamp;
+            }
+            seekTimestamp = converted;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Get the index of the first timestamp greater than a timestamp
+     */
+    private static int upperBound(long[] timestamps, long timestamp) {
+        int low = 0;
+        int high = timestamps.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) throws CTFException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CTFException) {
+                throw (CTFException) cause;
+            }
+            if (cause instanceof CancellationException) {
+                throw (CancellationException) cause;
+            }
+            throw new CTFException("Failed to index the packets", cause); //$NON-NLS-1$
+        }
+        return results;
+    }
+
+    // ------------------------------------------------------------------------
+    // Getters
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the number of entries of the index
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return fTimestamps.length;
+    }
+
+    /**
+     * Get the timestamp of an entry, the beginning of packets
+     *
+     * @param index
+     *            the index of the entry, entries are sorted by timestamps
+     * @return the timestamp in cycles
+     */
+    public long getTimestamp(int index) {
+        return fTimestamps[index];
+    }
+
+    /**
+     * Get the rank of an entry, the number of events of the trace before its
+     * timestamp, which is also the rank of the first event at or after its
+     * timestamp
+     *
+     * @param index
+     *            the index of the entry, entries are sorted by ranks
+     * @return the rank
+     */
+    public long getRank(int index) {
+        return fRanks[index];
+    }
+
+    /**
+     * Get the number of events of the trace, including the lost events
+     *
+     * @return the number of events
+     */
+    public long getNbEvents() {
+        return fNbEvents;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -84,6 +84,11 @@ public class CTFTraceReader implements AutoCloseable {
      */
     private boolean fClosed = false;
 
+    /**
+     * Number of packets decoded ahead by each trace file reader
+     */
+    private int fReadAhead = 0;
+
     // ------------------------------------------------------------------------
     // Constructors
     // ------------------------------------------------------------------------
@@ -134,6 +139,7 @@ public class CTFTraceReader implements AutoCloseable {
         newReader = new CTFTraceReader(fTrace);
         newReader.fStartTime = fStartTime;
         newReader.fEndTime = fEndTime;
+        newReader.setReadAhead(fReadAhead);
         return newReader;
     }
 
@@ -254,6 +260,7 @@ public class CTFTraceReader implements AutoCloseable {
                 try (CTFStreamInputReader streamInputReader = new CTFStreamInputReader(requireNonNull(streamInput))) {
                     if (!fStreamInputReaders.contains(streamInputReader)) {
                         CTFStreamInputReader streamInputReaderToAdd = new CTFStreamInputReader(requireNonNull(streamInput));
+                        streamInputReaderToAdd.setReadAhead(fReadAhead);
                         streamInputReaderToAdd.readNextEvent();
                         fStreamInputReaders.add(streamInputReaderToAdd);
                         readers.add(streamInputReaderToAdd);
@@ -551,6 +558,39 @@ public class CTFTraceReader implements AutoCloseable {
         return getTopStream().isLive();
     }
 
+    /**
+     * Set the number of packets that each trace file reader decodes ahead of
+     * the packet being read. The trace files are then decoded in parallel,
+     * and this reader only merges their events in timestamp order. More
+     * packets decoded ahead use more memory, but let the decoding go on while
+     * the events of a trace file are not read.
+     *
+     * @param nbPackets
+     *            the number of packets to decode ahead per trace file, or 0 to
+     *            decode the packets as they are read, on the calling thread
+     * @since 4.5
+     */
+    public void setReadAhead(int nbPackets) {
+        fReadAhead = Math.max(0, nbPackets);
+        synchronized (fStreamInputReaders) {
+            for (CTFStreamInputReader reader : fStreamInputReaders) {
+                reader.setReadAhead(fReadAhead);
+            }
+        }
+    }
+
+    /**
+     * Get the number of packets that each trace file reader decodes ahead of
+     * the packet being read
+     *
+     * @return the number of packets decoded ahead, 0 if they are decoded as
+     *         they are read
+     * @since 4.5
+     */
+    public int getReadAhead() {
+        return fReadAhead;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011-2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2011, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -16,7 +16,6 @@ package org.eclipse.tracecompass.internal.ctf.core.event;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +36,8 @@ import org.eclipse.tracecompass.ctf.core.event.types.StructDefinition;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
 import org.eclipse.tracecompass.internal.ctf.core.utils.JsonMetadataStrings;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Representation of a particular instance of an event.
  */
@@ -84,7 +85,17 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
     /**
      * Masked fields from packet context that will not be returned by getContext().
      */
-    private final Set<String> fMaskedPacketContextFields;
+    private static final Set<String> MASKED_PACKET_CONTEXT_FIELDS = ImmutableSet.of(
+            CTFStrings.TIMESTAMP_BEGIN,
+            CTFStrings.TIMESTAMP_END,
+            CTFStrings.PACKET_SIZE,
+            CTFStrings.CONTENT_SIZE,
+            CTFStrings.EVENTS_DISCARDED,
+            JsonMetadataStrings.DEFAULT_CLOCK_TIMESTAMP,
+            JsonMetadataStrings.PACKET_END_TIMESTAMP,
+            JsonMetadataStrings.PACKET_TOTAL_LENGTH,
+            JsonMetadataStrings.PACKET_CONTENT_LENGTH,
+            JsonMetadataStrings.CURRENT_DISCARDED_EVENT_COUNT);
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -135,17 +146,6 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
         fStreamContext = streamContext;
         fPacketAttributes = packetDescriptor != null ? packetDescriptor.getAttributes() : Collections.emptyMap();
         fPacketContext = packetDescriptor != null ? packetDescriptor.getStreamPacketContextDef() : null;
-        fMaskedPacketContextFields = new HashSet<String>();
-        fMaskedPacketContextFields.add(CTFStrings.TIMESTAMP_BEGIN);
-        fMaskedPacketContextFields.add(CTFStrings.TIMESTAMP_END);
-        fMaskedPacketContextFields.add(CTFStrings.PACKET_SIZE);
-        fMaskedPacketContextFields.add(CTFStrings.CONTENT_SIZE);
-        fMaskedPacketContextFields.add(CTFStrings.EVENTS_DISCARDED);
-        fMaskedPacketContextFields.add(JsonMetadataStrings.DEFAULT_CLOCK_TIMESTAMP);
-        fMaskedPacketContextFields.add(JsonMetadataStrings.PACKET_END_TIMESTAMP);
-        fMaskedPacketContextFields.add(JsonMetadataStrings.PACKET_TOTAL_LENGTH);
-        fMaskedPacketContextFields.add(JsonMetadataStrings.PACKET_CONTENT_LENGTH);
-        fMaskedPacketContextFields.add(JsonMetadataStrings.CURRENT_DISCARDED_EVENT_COUNT);
     }
 
     // ------------------------------------------------------------------------
@@ -214,7 +214,7 @@ public final class EventDefinition implements IDefinitionScope, IEventDefinition
         if (fPacketContext != null) {
             /* Add fields from the packet context */
             for (String fieldName : fPacketContext.getFieldNames()) {
-                if (fMaskedPacketContextFields.contains(fieldName)) {
+                if (MASKED_PACKET_CONTEXT_FIELDS.contains(fieldName)) {
                     continue;
                 }
 
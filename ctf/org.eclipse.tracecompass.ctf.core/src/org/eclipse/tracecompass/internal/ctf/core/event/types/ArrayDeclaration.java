@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Ericsson
+ * Copyright (c) 2014, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -14,7 +14,10 @@
 
 package org.eclipse.tracecompass.internal.ctf.core.event.types;
 
+import java.nio.ByteOrder;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -25,8 +28,9 @@ import org.eclipse.tracecompass.ctf.core.event.types.AbstractArrayDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.CompoundDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.Definition;
 import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDeclaration;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
 
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 
@@ -57,9 +61,10 @@ public final class ArrayDeclaration extends CompoundDeclaration {
      * ex: field &#8594; &lbrace;field&lbrack;0&rbrack;, field&lbrack;1&rbrack;, &hellip; field&lbrack;n&rbrack;&rbrace;
      * </pre>
      *
-     * TODO: investigate performance
+     * The packets may be read concurrently, so the names are immutable lists
+     * that are replaced, never modified.
      */
-    private final transient ArrayListMultimap<String, String> fChildrenNames = ArrayListMultimap.create();
+    private final transient Map<String, List<String>> fChildrenNames = new ConcurrentHashMap<>();
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -124,12 +129,11 @@ public final class ArrayDeclaration extends CompoundDeclaration {
 
     private @NonNull List<@NonNull Definition> read(@NonNull BitBuffer input, @Nullable IDefinitionScope definitionScope, String fieldName) throws CTFException {
         Builder<@NonNull Definition> definitions = new ImmutableList.Builder<>();
-        if (!fChildrenNames.containsKey(fieldName)) {
-            for (int i = 0; i < fLength; i++) {
-                fChildrenNames.put(fieldName, fieldName + '[' + i + ']');
-            }
+        List<String> elemNames = getElementNames(fChildrenNames, fieldName, fLength);
+        List<@NonNull Definition> integers = readIntegers(fElemType, input, definitionScope, elemNames, fLength);
+        if (integers != null) {
+            return integers;
         }
-        List<String> elemNames = fChildrenNames.get(fieldName);
         for (int i = 0; i < fLength; i++) {
             String name = elemNames.get(i);
             if (name == null) {
@@ -140,6 +144,79 @@ public final class ArrayDeclaration extends CompoundDeclaration {
         return definitions.build();
     }
 
+    /**
+     * Get the names of the elements of an array or a sequence from a cache,
+     * adding the missing names if the cached list is too short. The cached
+     * lists are immutable and replaced atomically, so they can be shared by
+     * threads reading packets concurrently.
+     *
+     * @param cache
+     *            the cache of the names, by field name
+     * @param fieldName
+     *            the name of the array or sequence
+     * @param length
+     *            the number of elements
+     * @return the names of the elements, at least length of them
+     */
+    static List<String> getElementNames(Map<String, List<String>> cache, String fieldName, int length) {
+        List<String> names = cache.get(fieldName);
+        if (names != null && names.size() >= length) {
+            return names;
+        }
+        Builder<String> builder = new ImmutableList.Builder<>();
+        for (int i = 0; i < length; i++) {
+            builder.add(fieldName + '[' + i + ']');
+        }
+        List<String> newNames = builder.build();
+        List<String> merged = cache.merge(fieldName, newNames, (oldNames, added) -> (oldNames.size() >= added.size()) ? oldNames : added);
+        return (merged != null) ? merged : newNames;
+    }
+
+    /**
+     * Read the elements of an array or a sequence in bulk, when they are
+     * integers that follow each other without padding, which saves looking up
+     * their declaration, alignment and byte order for each element.
+     *
+     * @param elemType
+     *            the declaration of the elements
+     * @param input
+     *            the input, aligned on the first element
+     * @param definitionScope
+     *            the scope of the elements
+     * @param elemNames
+     *            the names of the elements
+     * @param length
+     *            the number of elements
+     * @return the definitions of the elements, or null if they cannot be
+     *         read in bulk
+     * @throws CTFException
+     *             if the elements could not be read
+     */
+    static @Nullable List<@NonNull Definition> readIntegers(IDeclaration elemType, @NonNull BitBuffer input, @Nullable IDefinitionScope definitionScope, List<String> elemNames, int length) throws CTFException {
+        if (!(elemType instanceof IntegerDeclaration)) {
+            return null;
+        }
+        IntegerDeclaration elemInt = (IntegerDeclaration) elemType;
+        int bits = elemInt.getLength();
+        if (bits > Long.SIZE || bits % elemInt.getAlignment() != 0) {
+            return null;
+        }
+        long[] values = new long[length];
+        ByteOrder byteOrder = input.getByteOrder();
+        input.setByteOrder(elemInt.getByteOrder());
+        input.get(values, bits, elemInt.isSigned());
+        input.setByteOrder(byteOrder);
+        Builder<@NonNull Definition> definitions = new ImmutableList.Builder<>();
+        for (int i = 0; i < length; i++) {
+            String name = elemNames.get(i);
+            if (name == null) {
+                throw new IllegalStateException("Field has a nameless element"); //$NON-NLS-1$
+            }
+            definitions.add(new IntegerDefinition(elemInt, definitionScope, name, values[i]));
+        }
+        return definitions.build();
+    }
+
     @Override
     public int getMaximumSize() {
         long val = (long) fLength * fElemType.getMaximumSize();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Ericsson
+ * Copyright (c) 2014, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -21,6 +21,7 @@ import java.util.List;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.event.scope.IDefinitionScope;
+import org.eclipse.tracecompass.ctf.core.event.scope.ILexicalScope;
 import org.eclipse.tracecompass.ctf.core.event.types.AbstractArrayDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.CompoundDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.Definition;
@@ -64,6 +65,30 @@ public final class ByteArrayDefinition extends AbstractArrayDefinition {
 
     }
 
+    /**
+     * An fixed length string declaration, with its lexical scope so it does
+     * not need to be looked up
+     *
+     * @param declaration
+     *            the declaration
+     * @param definitionScope
+     *            the definition scope
+     * @param fieldName
+     *            the field name
+     * @param scope
+     *            the lexical scope of the definition
+     * @param content
+     *            the string content
+     */
+    public ByteArrayDefinition(CompoundDeclaration declaration,
+            @Nullable IDefinitionScope definitionScope,
+            String fieldName,
+            ILexicalScope scope,
+            byte[] content) {
+        super(declaration, definitionScope, fieldName, scope);
+        fContent = content;
+    }
+
     @Override
     public int getLength() {
         return fContent.length;
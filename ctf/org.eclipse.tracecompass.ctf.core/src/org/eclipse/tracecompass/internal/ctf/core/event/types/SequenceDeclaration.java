@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Ericsson, Ecole Polytechnique de Montreal and others
+ * Copyright (c) 2014, 2026 Ericsson, Ecole Polytechnique de Montreal and others
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -15,8 +15,9 @@ package org.eclipse.tracecompass.internal.ctf.core.event.types;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
@@ -30,10 +31,8 @@ import org.eclipse.tracecompass.ctf.core.event.types.IDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.types.IDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
 
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
-import com.google.common.collect.Multimap;
 
 /**
  * A CTF sequence declaration.
@@ -51,7 +50,7 @@ public class SequenceDeclaration extends CompoundDeclaration {
 
     private final IDeclaration fElemType;
     private final String fLengthName;
-    private final transient Multimap<String, String> fPaths = ArrayListMultimap.create();
+    private final transient Map<String, List<String>> fPaths = new ConcurrentHashMap<>();
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -130,11 +129,11 @@ public class SequenceDeclaration extends CompoundDeclaration {
             input.get(data);
             return new ByteArrayDefinition(this, definitionScope, fieldName, data);
         }
-        Collection<String> collection = fPaths.get(fieldName);
-        while (collection.size() < length) {
-            fPaths.put(fieldName, fieldName + '[' + collection.size() + ']');
+        List<String> paths = ArrayDeclaration.getElementNames(fPaths, fieldName, (int) length);
+        List<@NonNull Definition> integers = ArrayDeclaration.readIntegers(fElemType, input, definitionScope, paths, (int) length);
+        if (integers != null) {
+            return new ArrayDefinition(this, definitionScope, fieldName, integers);
         }
-        List<String> paths = (List<String>) fPaths.get(fieldName);
         Builder<@NonNull Definition> definitions = new ImmutableList.Builder<>();
         for (int i = 0; i < length; i++) {
             /* We should not have inserted any null values */
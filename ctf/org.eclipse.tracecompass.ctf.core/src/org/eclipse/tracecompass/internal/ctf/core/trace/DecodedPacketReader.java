@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.trace.CTFIOException;
+import org.eclipse.tracecompass.ctf.core.trace.ICTFPacketDescriptor;
+import org.eclipse.tracecompass.ctf.core.trace.IPacketReader;
+
+/**
+ * Packet reader returning the events of a packet that was already decoded,
+ * typically by another thread. If the decoding of the packet failed, the
+ * events decoded before the error are returned, then the error is thrown.
+ */
+@NonNullByDefault
+public final class DecodedPacketReader implements IPacketReader {
+
+    private final ICTFPacketDescriptor fPacket;
+    private final int fCpu;
+    private final List<IEventDefinition> fEvents;
+    private final @Nullable CTFException fError;
+    private int fPosition = 0;
+    private @Nullable IEventDefinition fCurrentEvent = null;
+
+    /**
+     * Constructor
+     *
+     * @param packet
+     *            the packet that was decoded
+     * @param cpu
+     *            the CPU of the packet
+     * @param events
+     *            the events of the packet, in the order they were read
+     * @param error
+     *            the error that stopped the decoding of the packet, or null if
+     *            all its events were decoded
+     */
+    public DecodedPacketReader(ICTFPacketDescriptor packet, int cpu, List<IEventDefinition> events, @Nullable CTFException error) {
+        fPacket = packet;
+        fCpu = cpu;
+        fEvents = events;
+        fError = error;
+    }
+
+    @Override
+    public int getCPU() {
+        return fCpu;
+    }
+
+    @Override
+    public boolean hasMoreEvents() {
+        return fPosition < fEvents.size() || (fError != null && fPosition == fEvents.size());
+    }
+
+    @Override
+    public IEventDefinition readNextEvent() throws CTFException {
+        if (fPosition >= fEvents.size()) {
+            CTFException error = fError;
+            fPosition = fEvents.size() + 1;
+            throw (error != null) ? error : new CTFIOException("No more events in packet at offset " + fPacket.getOffsetBytes()); //$NON-NLS-1$
+        }
+        IEventDefinition event = fEvents.get(fPosition++);
+        fCurrentEvent = event;
+        return event;
+    }
+
+    @Override
+    public ICTFPacketDescriptor getCurrentPacket() {
+        return fPacket;
+    }
+
+    @Override
+    public @Nullable ICompositeDefinition getCurrentPacketEventHeader() {
+        IEventDefinition event = fCurrentEvent;
+        return event != null ? event.getEventHeader() : null;
+    }
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.ctf.core.trace;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.trace.IPacketReader;
+
+/**
+ * Decodes the packets of a stream ahead of its reader. The packets following
+ * the one being read are decoded by tasks of an executor, so the packets of
+ * the streams of a trace, and the packets of a same stream, are decoded in
+ * parallel while the reader merges the events of the streams.
+ *
+ * The number of packets decoded ahead is bounded, the next packets are
+ * scheduled as the reader takes the decoded ones. The tasks do not wait for
+ * the reader, so the executor can be shared by the streams of many traces.
+ *
+ * This class is not thread-safe, it should only be used by the thread of the
+ * stream reader.
+ */
+@NonNullByDefault
+public final class PacketReadAhead {
+
+    /**
+     * Decoder of a packet of a stream
+     */
+    @FunctionalInterface
+    public interface IPacketDecoder {
+
+        /**
+         * Decode a packet
+         *
+         * @param packetIndex
+         *            the index of the packet in the stream
+         * @return a packet reader returning the events of the packet, or the
+         *         {@link NullPacketReader} if there is no such packet
+         * @throws CTFException
+         *             if the packet could not be read
+         */
+        IPacketReader decode(int packetIndex) throws CTFException;
+    }
+
+    private final IPacketDecoder fDecoder;
+    private final Executor fExecutor;
+    private final int fNbPackets;
+
+    /** The packets being decoded, the first one is at fFirstIndex */
+    private final Deque<CompletableFuture<IPacketReader>> fPackets = new ArrayDeque<>();
+    private int fFirstIndex = -1;
+    /** The index of a packet known to be past the end of the stream */
+    private volatile int fEndIndex = Integer.MAX_VALUE;
+
+    /**
+     * Constructor
+     *
+     * @param decoder
+     *            the decoder of the packets of the stream
+     * @param executor
+     *            the executor running the decoding tasks
+     * @param nbPackets
+     *            the number of packets to decode ahead of the packet being
+     *            read, at least 1
+     */
+    public PacketReadAhead(IPacketDecoder decoder, Executor executor, int nbPackets) {
+        fDecoder = decoder;
+        fExecutor = executor;
+        fNbPackets = Math.max(1, nbPackets);
+    }
+
+    /**
+     * Start decoding the packets from a given packet, if it is not already
+     * done
+     *
+     * @param packetIndex
+     *            the index of the next packet to read
+     */
+    public void start(int packetIndex) {
+        if (packetIndex != fFirstIndex) {
+            clear();
+            fFirstIndex = packetIndex;
+        }
+        while (fPackets.size() < fNbPackets) {
+            int index = fFirstIndex + fPackets.size();
+            if (index >= fEndIndex) {
+                fPackets.add(Objects.requireNonNull(CompletableFuture.completedFuture(NullPacketReader.INSTANCE)));
+            } else {
+                fPackets.add(CompletableFuture.supplyAsync(() -> decode(index), fExecutor));
+            }
+        }
+    }
+
+    /**
+     * Take a decoded packet, waiting for it to be decoded if needed, and
+     * schedule the decoding of the next packet
+     *
+     * @param packetIndex
+     *            the index of the packet to read
+     * @return the reader of the packet, the {@link NullPacketReader} if there
+     *         is no such packet
+     * @throws CTFException
+     *             if the packet could not be read
+     */
+    public IPacketReader take(int packetIndex) throws CTFException {
+        start(packetIndex);
+        CompletableFuture<IPacketReader> packet = Objects.requireNonNull(fPackets.poll());
+        fFirstIndex++;
+        start(fFirstIndex);
+        try {
+            return packet.join();
+        } catch (CompletionException | CancellationException e) {
+            clear();
+            Throwable cause = e.getCause();
+            if (cause instanceof CTFException) {
+                throw (CTFException) cause;
+            }
+            throw new CTFException("Failed to decode packet " + packetIndex, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Drop the packets decoded ahead, and cancel the tasks that did not start.
+     * The end of the stream is checked again on the next packets, in case
+     * packets were added to the stream.
+     */
+    public void clear() {
+        for (CompletableFuture<IPacketReader> packet : fPackets) {
+            packet.cancel(false);
+        }
+        fPackets.clear();
+        fFirstIndex = -1;
+        fEndIndex = Integer.MAX_VALUE;
+    }
+
+    private IPacketReader decode(int packetIndex) {
+        try {
+            IPacketReader packetReader = fDecoder.decode(packetIndex);
+            if (packetReader == NullPacketReader.INSTANCE) {
+                fEndIndex = Math.min(fEndIndex, packetIndex);
+            }
+            return packetReader;
+        } catch (CTFException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -17,8 +17,10 @@
 package org.eclipse.tracecompass.tmf.ctf.core.tests.event;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
 import java.util.Set;
@@ -28,6 +30,7 @@ import org.eclipse.tracecompass.internal.tmf.ctf.core.trace.iterator.CtfIterator
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventType;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEvent;
 import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEventFactory;
@@ -46,6 +49,7 @@ import org.junit.Test;
 public class CtfTmfEventTest {
 
     private static final String VALID_FIELD = "ret";
+    private static final String CONTEXT_FIELD = "context.cpu_id";
 
     private static final @NonNull CtfTestTrace testTrace = CtfTestTrace.KERNEL;
 
@@ -199,6 +203,62 @@ public class CtfTmfEventTest {
         assertNull(attrib);
     }
 
+    /**
+     * Test reading the fields of an event by name before listing them, which
+     * gives the same fields as those listed
+     */
+    @Test
+    public void testGetFieldBeforeFields() {
+        CtfTmfTrace trace = CtfTmfTestTraceUtils.getTrace(testTrace);
+        try (CtfIterator tr = (CtfIterator) trace.createIterator();) {
+            tr.advance();
+            CtfTmfEvent event = tr.getCurrentEvent();
+            assertNotNull(event);
+            ITmfEventField content = event.getContent();
+            ITmfEventField payloadField = content.getField(VALID_FIELD);
+            ITmfEventField contextField = content.getField(CONTEXT_FIELD);
+            assertNull(content.getField("abcd"));
+            assertNotNull(payloadField);
+            assertNotNull(contextField);
+            assertEquals(4132L, payloadField.getValue());
+            assertEquals(1L, contextField.getValue());
+
+            assertEquals(fixture.getContent().getFieldNames(), content.getFieldNames());
+            assertEquals(payloadField, content.getField(VALID_FIELD));
+            assertEquals(contextField, content.getField(CONTEXT_FIELD));
+            assertEquals(fixture.getContent(), content);
+        }
+        trace.dispose();
+    }
+
+    /**
+     * Test that the content is a {@link TmfEventField}, which is equal to the
+     * contents of other CTF events only, whichever side is compared
+     */
+    @Test
+    public void testContentType() {
+        ITmfEventField content = fixture.getContent();
+        assertTrue(content instanceof TmfEventField);
+        TmfEventField field = (TmfEventField) content;
+        assertEquals(Long.valueOf(4132), field.getFieldValue(Long.class, VALID_FIELD));
+
+        TmfEventField eagerField = new TmfEventField(ITmfEventField.ROOT_FIELD_ID, null, content.getFields().toArray(new ITmfEventField[0]));
+        assertEquals(eagerField.getFields(), content.getFields());
+        assertFalse(content.equals(eagerField));
+        assertFalse(eagerField.equals(content));
+    }
+
+    /**
+     * Test the getFieldValueAsLong() method
+     */
+    @Test
+    public void testGetFieldValueAsLong() {
+        assertEquals(4132L, fixture.getFieldValueAsLong(VALID_FIELD, -1L));
+        assertEquals(1L, fixture.getFieldValueAsLong(CONTEXT_FIELD, -1L));
+        assertEquals(-1L, fixture.getFieldValueAsLong("abcd", -1L));
+        assertEquals(-1L, nullEvent.getFieldValueAsLong(VALID_FIELD, -1L));
+    }
+
     /**
      * Test the toString() method
      */
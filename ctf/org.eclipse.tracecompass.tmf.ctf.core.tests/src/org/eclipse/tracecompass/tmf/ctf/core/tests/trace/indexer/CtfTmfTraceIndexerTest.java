@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.ctf.core.tests.trace.indexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.exceptions.TmfTraceException;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.ctf.core.event.CtfTmfEvent;
+import org.eclipse.tracecompass.tmf.ctf.core.tests.shared.CtfTmfTestTraceUtils;
+import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test suite for indexing CTF traces from their packets.
+ */
+public class CtfTmfTraceIndexerTest {
+
+    private static final @NonNull CtfTestTrace TEST_TRACE = CtfTestTrace.KERNEL;
+    private static final int NB_SEEKS = 100;
+
+    private static CtfTmfTrace fTrace;
+    private static List<ITmfTimestamp> fTimestamps;
+
+    /**
+     * Index the trace, and read all its events in order
+     */
+    @BeforeClass
+    public static void setUp() {
+        fTrace = CtfTmfTestTraceUtils.getTrace(TEST_TRACE);
+        fTrace.indexTrace(true);
+        fTimestamps = new ArrayList<>();
+        ITmfContext context = fTrace.seekEvent(0L);
+        ITmfEvent event = fTrace.getNext(context);
+        while (event != null) {
+            fTimestamps.add(event.getTimestamp());
+            event = fTrace.getNext(context);
+        }
+        context.dispose();
+    }
+
+    /**
+     * Dispose the trace
+     */
+    @AfterClass
+    public static void tearDown() {
+        CtfTmfTestTraceUtils.dispose(TEST_TRACE);
+    }
+
+    /**
+     * Test the number of events and the time range of the indexed trace
+     */
+    @Test
+    public void testIndex() {
+        assertFalse(fTrace.isIndexing());
+        assertEquals(TEST_TRACE.getNbEvents(), fTrace.getNbEvents());
+        assertEquals(fTimestamps.size(), fTrace.getNbEvents());
+        assertEquals(fTimestamps.get(0), fTrace.getStartTime());
+    }
+
+    /**
+     * Test seeking events by rank
+     */
+    @Test
+    public void testSeekRank() {
+        for (int i = 0; i < NB_SEEKS; i++) {
+            long rank = (fTimestamps.size() - 1L) * i / (NB_SEEKS - 1);
+            ITmfContext context = fTrace.seekEvent(rank);
+            assertEquals(rank, context.getRank());
+            ITmfEvent event = fTrace.getNext(context);
+            assertNotNull(event);
+            assertEquals(fTimestamps.get((int) rank), event.getTimestamp());
+            context.dispose();
+        }
+    }
+
+    /**
+     * Test seeking events by timestamp, at the rank of the first event at or
+     * after the timestamp
+     */
+    @Test
+    public void testSeekTimestamp() {
+        for (int i = 0; i < NB_SEEKS; i++) {
+            int rank = (fTimestamps.size() - 1) * i / (NB_SEEKS - 1);
+            ITmfTimestamp timestamp = fTimestamps.get(rank);
+            while (rank > 0 && fTimestamps.get(rank - 1).equals(timestamp)) {
+                rank--;
+            }
+            ITmfContext context = fTrace.seekEvent(timestamp);
+            assertEquals(rank, context.getRank());
+            ITmfEvent event = fTrace.getNext(context);
+            assertNotNull(event);
+            assertEquals(timestamp, event.getTimestamp());
+            context.dispose();
+        }
+    }
+
+    /**
+     * Test opening the trace again, with the index saved by the first trace
+     */
+    @Test
+    public void testRestoredIndex() {
+        assertTrue(new File(TmfTraceManager.getSupplementaryFileDir(fTrace) + "checkpoint_packets.idx").exists());
+        CtfTmfTrace trace = new CtfTmfTrace();
+        try {
+            trace.initTrace(null, fTrace.getPath(), CtfTmfEvent.class);
+            trace.indexTrace(true);
+            assertEquals(fTimestamps.size(), trace.getNbEvents());
+            assertEquals(fTrace.getTimeRange(), trace.getTimeRange());
+            for (int i = 0; i < NB_SEEKS; i++) {
+                long rank = (fTimestamps.size() - 1L) * i / (NB_SEEKS - 1);
+                ITmfContext context = trace.seekEvent(rank);
+                assertEquals(rank, context.getRank());
+                ITmfEvent event = trace.getNext(context);
+                assertNotNull(event);
+                assertEquals(fTimestamps.get((int) rank), event.getTimestamp());
+                context.dispose();
+            }
+        } catch (TmfTraceException e) {
+            fail(e.getMessage());
+        } finally {
+            trace.dispose();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.tmf.ctf.core.trace.indexer;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.CTFException;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTrace;
+import org.eclipse.tracecompass.ctf.core.trace.CTFTraceRankIndex;
+import org.eclipse.tracecompass.internal.tmf.ctf.core.Activator;
+import org.eclipse.tracecompass.tmf.core.signal.TmfTraceUpdatedSignal;
+import org.eclipse.tracecompass.tmf.core.timestamp.ITmfTimestamp;
+import org.eclipse.tracecompass.tmf.core.timestamp.TmfTimeRange;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
+import org.eclipse.tracecompass.tmf.core.trace.TmfTraceManager;
+import org.eclipse.tracecompass.tmf.core.trace.indexer.TmfBTreeTraceIndexer;
+import org.eclipse.tracecompass.tmf.core.trace.location.ITmfLocation;
+import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocation;
+import org.eclipse.tracecompass.tmf.ctf.core.context.CtfLocationInfo;
+import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
+
+/**
+ * Indexer of CTF traces, which builds the index from the packets of the trace
+ * files instead of reading all the events of the trace in order.
+ *
+ * The packet headers of the trace files are indexed in parallel, then the
+ * events of the packets are counted in parallel, which gives the ranks of the
+ * events at the beginnings of the packets, see {@link CTFTraceRankIndex}. The
+ * beginnings of the packets are the checkpoints of the index, so a seek reads
+ * at most the events between the beginnings of two packets of the trace.
+ *
+ * The checkpoints are saved in a supplementary file of the trace, so the
+ * events are only counted the first time the trace is opened. The index of a
+ * live trace, or of a trace that could not be indexed from its packets, is
+ * built by reading its events, in the B-tree index of the parent class, which
+ * then handles the queries. That index is restored from its own file when it
+ * was completed in a previous session.
+ */
+public class CtfTmfTraceIndexer extends TmfBTreeTraceIndexer {
+
+    /** The name of the file of the index built from the packets */
+    private static final String INDEX_FILE_NAME = "checkpoint_packets.idx"; //$NON-NLS-1$
+    private static final int MAGIC_NUMBER = 0x50AC3E75;
+    private static final int VERSION = 1;
+
+    private final CtfTmfTrace fCtfTrace;
+    private final Supplier<@Nullable CTFTrace> fCtfTraceSupplier;
+
+    /** The index built from the packets, null until it is built */
+    private volatile @Nullable PacketIndex fPacketIndex = null;
+    private volatile boolean fIsIndexing = false;
+    private boolean fTriedPackets = false;
+    private @Nullable Job fJob = null;
+
+    /**
+     * The checkpoints at the beginnings of the packets
+     */
+    private static final class PacketIndex {
+        /** The timestamps of the checkpoints, in nanoseconds */
+        private final long[] fTimestamps;
+        private final long[] fRanks;
+        private final long fNbEvents;
+
+        public PacketIndex(CTFTraceRankIndex rankIndex, CtfTmfTrace trace) {
+            fTimestamps = new long[rankIndex.size()];
+            fRanks = new long[rankIndex.size()];
+            for (int i = 0; i < fTimestamps.length; i++) {
+                fTimestamps[i] = trace.timestampCyclesToNanos(rankIndex.getTimestamp(i));
+                fRanks[i] = rankIndex.getRank(i);
+            }
+            fNbEvents = rankIndex.getNbEvents();
+        }
+
+        private PacketIndex(long[] timestamps, long[] ranks, long nbEvents) {
+            fTimestamps = timestamps;
+            fRanks = ranks;
+            fNbEvents = nbEvents;
+        }
+
+        /**
+         * Read an index from its file
+         *
+         * @param file
+         *            the file
+         * @return the index, or null if the file does not hold a valid index
+         * @throws IOException
+         *             if the file could not be read
+         */
+        public static @Nullable PacketIndex read(File file) throws IOException {
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                if (input.readInt() != MAGIC_NUMBER || input.readInt() != VERSION) {
+                    return null;
+                }
+                long nbEvents = input.readLong();
+                int size = input.readInt();
+                if (nbEvents < 0 || size < 0 || (long) size * 2 * Long.BYTES > file.length()) {
+                    return null;
+                }
+                long[] timestamps = new long[size];
+                long[] ranks = new long[size];
+                for (int i = 0; i < size; i++) {
+                    timestamps[i] = input.readLong();
+                    ranks[i] = input.readLong();
+                    if (ranks[i] < 0 || ranks[i] > nbEvents || (i > 0 && (timestamps[i] < timestamps[i - 1] || ranks[i] < ranks[i - 1]))) {
+                        return null;
+                    }
+                }
+                return new PacketIndex(timestamps, ranks, nbEvents);
+            }
+        }
+
+        /**
+         * Write the index to a file, through a temporary file so an
+         * interrupted write does not leave an incomplete index
+         *
+         * @param file
+         *            the file
+         * @throws IOException
+         *             if the file could not be written
+         */
+        public void write(File file) throws IOException {
+            File tmpFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath())))) {
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(VERSION);
+                output.writeLong(fNbEvents);
+                output.writeInt(fTimestamps.length);
+                for (int i = 0; i < fTimestamps.length; i++) {
+                    output.writeLong(fTimestamps[i]);
+                    output.writeLong(fRanks[i]);
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * Get the last checkpoint before a timestamp, so the events before
+         * it are before the timestamp
+         *
+         * @param timestamp
+         *            the timestamp, in nanoseconds
+         * @return the index of the checkpoint, or -1 if there is none
+         */
+        public int lowerIndex(long timestamp) {
+            int low = 0;
+            int high = fTimestamps.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (fTimestamps[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+
+        /**
+         * Get the last checkpoint at or before a rank
+         *
+         * @param rank
+         *            the rank
+         * @return the index of the checkpoint, or -1 if there is none
+         */
+        public int floorRankIndex(long rank) {
+            int low = 0;
+            int high = fRanks.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (fRanks[mid] <= rank) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param trace
+     *            the trace to index
+     * @param interval
+     *            the checkpoints interval, when the events are read
+     * @param ctfTrace
+     *            the supplier of the CTF trace of the trace, once it is
+     *            initialized
+     */
+    public CtfTmfTraceIndexer(CtfTmfTrace trace, int interval, Supplier<@Nullable CTFTrace> ctfTrace) {
+        super(trace, interval);
+        fCtfTrace = trace;
+        fCtfTraceSupplier = ctfTrace;
+    }
+
+    @Override
+    public void dispose() {
+        Job job = fJob;
+        if (job != null) {
+            job.cancel();
+        }
+        super.dispose();
+    }
+
+    @Override
+    public boolean isIndexing() {
+        return fIsIndexing || super.isIndexing();
+    }
+
+    @Override
+    public void buildIndex(long offset, TmfTimeRange range, boolean waitForCompletion) {
+        CTFTrace ctfTrace = fCtfTraceSupplier.get();
+        synchronized (this) {
+            if (fIsIndexing || fPacketIndex != null) {
+                return;
+            }
+            if (fTriedPackets || offset != 0 || ctfTrace == null || !fCtfTrace.isComplete() || isRestorable()) {
+                fTriedPackets = true;
+                super.buildIndex(offset, range, waitForCompletion);
+                return;
+            }
+            fTriedPackets = true;
+            fIsIndexing = true;
+        }
+
+        Job job = new Job("Indexing " + fCtfTrace.getName() + "...") { //$NON-NLS-1$ //$NON-NLS-2$
+            @Override
+            protected IStatus run(@Nullable IProgressMonitor monitor) {
+                try {
+                    File file = getIndexFile();
+                    PacketIndex index = readPacketIndex(file);
+                    /* If the trace changed since the index was saved, it is indexed again */
+                    if (index != null && setPacketIndex(index)) {
+                        return Status.OK_STATUS;
+                    }
+                    CTFTraceRankIndex rankIndex = CTFTraceRankIndex.build(ctfTrace, checkNotNull(ForkJoinPool.commonPool()), () -> monitor != null && monitor.isCanceled());
+                    if (rankIndex == null) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    index = new PacketIndex(rankIndex, fCtfTrace);
+                    if (setPacketIndex(index)) {
+                        savePacketIndex(index, file);
+                    } else {
+                        Activator.getDefault().logWarning("The events of trace " + fCtfTrace.getName() + " do not match its packets, they are read to index it"); //$NON-NLS-1$ //$NON-NLS-2$
+                        CtfTmfTraceIndexer.super.buildIndex(0, TmfTimeRange.ETERNITY, false);
+                    }
+                } catch (CTFException e) {
+                    Activator.getDefault().logWarning("Failed to index the packets of trace " + fCtfTrace.getName() + ", its events are read to index it", e); //$NON-NLS-1$ //$NON-NLS-2$
+                    CtfTmfTraceIndexer.super.buildIndex(0, TmfTimeRange.ETERNITY, false);
+                } finally {
+                    fIsIndexing = false;
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        fJob = job;
+        job.schedule();
+        if (waitForCompletion) {
+            try {
+                job.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Tell if the B-tree index of the parent class was completed in a previous
+     * session, so it is restored instead of indexing the packets
+     */
+    private boolean isRestorable() {
+        return !getTraceIndex().isCreatedFromScratch() && getTraceIndex().getNbEvents() > 0;
+    }
+
+    private File getIndexFile() {
+        return new File(TmfTraceManager.getSupplementaryFileDir(checkNotNull(fCtfTrace)) + INDEX_FILE_NAME);
+    }
+
+    /**
+     * Read the index saved in a previous session
+     *
+     * @return the index, or null if there is no valid index
+     */
+    private static @Nullable PacketIndex readPacketIndex(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            PacketIndex index = PacketIndex.read(file);
+            if (index == null) {
+                Activator.getDefault().logWarning("Invalid index file " + file + ", the trace is indexed again"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            return index;
+        } catch (IOException e) {
+            Activator.getDefault().logWarning("Failed to read the index file " + file + ", the trace is indexed again", e); //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+    }
+
+    /**
+     * Save the index for the next sessions, it is still used if it cannot be
+     * saved
+     */
+    private static void savePacketIndex(PacketIndex index, File file) {
+        try {
+            index.write(file);
+        } catch (IOException e) {
+            Activator.getDefault().logWarning("Failed to save the index file " + file, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Use the index built from the packets, after reading the last events of
+     * the trace to update its number of events and end time
+     *
+     * @return true if the events read match the index
+     */
+    private boolean setPacketIndex(PacketIndex index) {
+        long nbEvents = index.fNbEvents;
+        fPacketIndex = index;
+        if (nbEvents > 0) {
+            ITmfContext context = fCtfTrace.seekEvent(nbEvents - 1);
+            while (fCtfTrace.getNext(context) != null) {
+                /* Read to the end of the trace */
+            }
+            context.dispose();
+        }
+        if (fCtfTrace.getNbEvents() != nbEvents) {
+            fPacketIndex = null;
+            return false;
+        }
+        fCtfTrace.broadcast(new TmfTraceUpdatedSignal(this, fCtfTrace, fCtfTrace.getTimeRange(), nbEvents));
+        return true;
+    }
+
+    @Override
+    public synchronized void updateIndex(ITmfContext context, ITmfTimestamp timestamp) {
+        if (fPacketIndex == null) {
+            super.updateIndex(context, timestamp);
+        }
+    }
+
+    @Override
+    public synchronized ITmfContext seekIndex(ITmfTimestamp timestamp) {
+        PacketIndex index = fPacketIndex;
+        if (index == null || timestamp == null) {
+            return super.seekIndex(timestamp);
+        }
+        return restoreCheckpoint(index, index.lowerIndex(timestamp.toNanos()));
+    }
+
+    @Override
+    public ITmfContext seekIndex(long rank) {
+        PacketIndex index = fPacketIndex;
+        if (index == null || rank < 0) {
+            return super.seekIndex(rank);
+        }
+        return restoreCheckpoint(index, index.floorRankIndex(rank));
+    }
+
+    private ITmfContext restoreCheckpoint(PacketIndex index, int checkpoint) {
+        if (checkpoint < 0) {
+            ITmfContext context = fCtfTrace.seekEvent((ITmfLocation) null);
+            context.setRank(0);
+            return context;
+        }
+        ITmfContext context = fCtfTrace.seekEvent(new CtfLocation(new CtfLocationInfo(index.fTimestamps[checkpoint], 0)));
+        context.setRank(index.fRanks[checkpoint]);
+        return context;
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2015 Ericsson
+ * Copyright (c) 2011, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -17,7 +17,6 @@ package org.eclipse.tracecompass.tmf.ctf.core.event;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -30,6 +29,8 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.ctf.core.event.IEventDeclaration;
 import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
 import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IntegerDefinition;
 import org.eclipse.tracecompass.ctf.core.trace.ICTFStream;
 import org.eclipse.tracecompass.tmf.core.event.ITmfCustomAttributes;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
@@ -86,8 +87,11 @@ public class CtfTmfEvent extends TmfEvent
      */
     private final String fEventName;
 
-    /** Lazy-loaded field containing the event's payload */
-    private transient @Nullable ITmfEventField fContent;
+    /**
+     * Lazy-loaded field containing the event's payload, whose fields are
+     * themselves parsed when they are read
+     */
+    private transient @Nullable CtfTmfEventContent fContent;
 
     /** Lazy-loaded field for the type, overriding TmfEvent's field */
     private transient @Nullable CtfTmfEventType fEventType;
@@ -279,42 +283,39 @@ public class CtfTmfEvent extends TmfEvent
     }
 
     @Override
-    public synchronized ITmfEventField getContent() {
-        ITmfEventField content = fContent;
+    public ITmfEventField getContent() {
+        return getCtfContent();
+    }
+
+    private synchronized CtfTmfEventContent getCtfContent() {
+        CtfTmfEventContent content = fContent;
         if (content == null) {
-            content = new TmfEventField(
-                    ITmfEventField.ROOT_FIELD_ID, null, parseFields(fEvent));
+            content = new CtfTmfEventContent(fEvent);
             fContent = content;
         }
         return content;
     }
 
     /**
-     * Extract the field information from the structDefinition haze-inducing
-     * mess, and put them into something ITmfEventField can cope with.
+     * Get the value of an integer field of this event, without creating its
+     * event field nor boxing its value. The field is a field of the content of
+     * the event, either a field of the payload or a context field, with its
+     * prefix.
+     *
+     * @param fieldName
+     *            the name of the field, as in the content of the event
+     * @param defaultValue
+     *            the value to return if there is no integer field with this
+     *            name
+     * @return the value of the field, or the default value
+     * @since 4.6
      */
-    private static CtfTmfEventField[] parseFields(IEventDefinition eventDef) {
-        List<CtfTmfEventField> fields = new ArrayList<>();
-
-        ICompositeDefinition structFields = eventDef.getFields();
-        if (structFields != null) {
-            if (structFields.getFieldNames() != null) {
-                for (String fn : structFields.getFieldNames()) {
-                    fields.add(CtfTmfEventField.parseField(structFields.getDefinition(fn), fn));
-                }
-            }
+    public long getFieldValueAsLong(String fieldName, long defaultValue) {
+        IDefinition definition = getCtfContent().getDefinition(fieldName);
+        if (definition instanceof IntegerDefinition) {
+            return ((IntegerDefinition) definition).getValue();
         }
-        /* Add context information as CtfTmfEventField */
-        ICompositeDefinition structContext = eventDef.getContext();
-        if (structContext != null) {
-            for (String contextName : structContext.getFieldNames()) {
-                /* Prefix field name */
-                String curContextName = CtfConstants.CONTEXT_FIELD_PREFIX + contextName;
-                fields.add(CtfTmfEventField.parseField(structContext.getDefinition(contextName), curContextName));
-            }
-        }
-
-        return fields.toArray(new @NonNull CtfTmfEventField[fields.size()]);
+        return defaultValue;
     }
 
     // ------------------------------------------------------------------------
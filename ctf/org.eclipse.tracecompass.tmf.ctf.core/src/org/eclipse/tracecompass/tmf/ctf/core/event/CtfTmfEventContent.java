@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.tmf.ctf.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.ctf.core.event.IEventDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.ICompositeDefinition;
+import org.eclipse.tracecompass.ctf.core.event.types.IDefinition;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
+import org.eclipse.tracecompass.tmf.ctf.core.CtfConstants;
+
+/**
+ * The content of a CTF event, the root field of its payload and context
+ * fields.
+ *
+ * The fields are parsed from the definitions of the event only when they are
+ * read by name, so reading a few fields of an event does not create the event
+ * fields of all its other fields, nor merge its context. All the fields are
+ * parsed only when they are listed, or when the content is compared or
+ * printed, as the subfields of the {@link TmfEventField} created on demand.
+ * Like other subclasses of {@link TmfEventField}, it is only equal to the
+ * contents of other CTF events.
+ */
+final class CtfTmfEventContent extends TmfEventField {
+
+    private final IEventDefinition fEvent;
+
+    /** The fields of the payload read by name, by index in the payload */
+    private final @Nullable CtfTmfEventField @Nullable [] fPayloadFields;
+
+    /** The context of the event, once a context field is read by name */
+    private @Nullable ICompositeDefinition fContext;
+
+    /** The fields of the context read by name, by index in the context */
+    private @Nullable CtfTmfEventField @Nullable [] fContextFields;
+
+    /** Whether all the fields were created, which then handle the lookups */
+    private boolean fAllFields = false;
+
+    /**
+     * Constructor
+     *
+     * @param event
+     *            the definition of the event
+     */
+    public CtfTmfEventContent(IEventDefinition event) {
+        super(ITmfEventField.ROOT_FIELD_ID, null);
+        fEvent = event;
+        ICompositeDefinition payload = event.getFields();
+        fPayloadFields = (payload == null ? null : new @Nullable CtfTmfEventField[payload.getFieldNames().size()]);
+    }
+
+    // ------------------------------------------------------------------------
+    // Lookups of the definitions
+    // ------------------------------------------------------------------------
+
+    /**
+     * Tell if the name of a field of a composite definition is the name of an
+     * event field, which strips the leading underscore of the field names
+     */
+    private static boolean matches(String definitionName, String fieldName) {
+        if (definitionName.startsWith("_")) { //$NON-NLS-1$
+            return definitionName.length() == fieldName.length() + 1 && definitionName.startsWith(fieldName, 1);
+        }
+        return definitionName.equals(fieldName);
+    }
+
+    private static int indexOf(ICompositeDefinition definition, String fieldName) {
+        List<@NonNull String> names = definition.getFieldNames();
+        for (int i = 0; i < names.size(); i++) {
+            if (matches(names.get(i), fieldName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private @Nullable ICompositeDefinition getContext() {
+        ICompositeDefinition context = fContext;
+        if (context == null) {
+            context = fEvent.getContext();
+            if (context != null) {
+                fContextFields = new @Nullable CtfTmfEventField[context.getFieldNames().size()];
+            }
+            fContext = context;
+        }
+        return context;
+    }
+
+    /**
+     * Get the definition of a field of the payload or of the context
+     *
+     * @param fieldName
+     *            the name of the event field
+     * @return the definition, or null if there is no such field
+     */
+    synchronized @Nullable IDefinition getDefinition(String fieldName) {
+        if (fieldName.startsWith(CtfConstants.CONTEXT_FIELD_PREFIX)) {
+            String contextName = fieldName.substring(CtfConstants.CONTEXT_FIELD_PREFIX.length());
+            ICompositeDefinition context = getContext();
+            if (context != null && context.getFieldNames().contains(contextName)) {
+                return context.getDefinition(contextName);
+            }
+        }
+        ICompositeDefinition payload = fEvent.getFields();
+        if (payload != null) {
+            int index = indexOf(payload, fieldName);
+            if (index >= 0) {
+                return payload.getDefinition(payload.getFieldNames().get(index));
+            }
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // ITmfEventField
+    // ------------------------------------------------------------------------
+
+    @Override
+    public synchronized @Nullable ITmfEventField getField(String @NonNull... path) {
+        if (path.length != 1 || fAllFields) {
+            return super.getField(path);
+        }
+        String fieldName = path[0];
+        if (fieldName.startsWith(CtfConstants.CONTEXT_FIELD_PREFIX)) {
+            ITmfEventField field = getContextField(fieldName.substring(CtfConstants.CONTEXT_FIELD_PREFIX.length()));
+            if (field != null) {
+                return field;
+            }
+        }
+        return getPayloadField(fieldName);
+    }
+
+    private @Nullable ITmfEventField getPayloadField(String fieldName) {
+        ICompositeDefinition payload = fEvent.getFields();
+        CtfTmfEventField[] fields = fPayloadFields;
+        if (payload == null || fields == null) {
+            return null;
+        }
+        int index = indexOf(payload, fieldName);
+        if (index < 0) {
+            return null;
+        }
+        CtfTmfEventField field = fields[index];
+        if (field == null) {
+            String name = payload.getFieldNames().get(index);
+            field = CtfTmfEventField.parseField(payload.getDefinition(name), name);
+            fields[index] = field;
+        }
+        return field;
+    }
+
+    private @Nullable ITmfEventField getContextField(String contextName) {
+        ICompositeDefinition context = getContext();
+        CtfTmfEventField[] fields = fContextFields;
+        if (context == null || fields == null) {
+            return null;
+        }
+        int index = context.getFieldNames().indexOf(contextName);
+        if (index < 0) {
+            return null;
+        }
+        CtfTmfEventField field = fields[index];
+        if (field == null) {
+            field = CtfTmfEventField.parseField(context.getDefinition(contextName), CtfConstants.CONTEXT_FIELD_PREFIX + contextName);
+            fields[index] = field;
+        }
+        return field;
+    }
+
+    /**
+     * Create all the fields, parsing those not read yet. The payload fields
+     * come first, then the context fields, which are prefixed.
+     */
+    @Override
+    protected synchronized ITmfEventField @Nullable [] createFields() {
+        List<CtfTmfEventField> fields = new ArrayList<>();
+        ICompositeDefinition payload = fEvent.getFields();
+        CtfTmfEventField[] payloadFields = fPayloadFields;
+        if (payload != null && payloadFields != null) {
+            List<@NonNull String> names = payload.getFieldNames();
+            for (int i = 0; i < names.size(); i++) {
+                CtfTmfEventField field = payloadFields[i];
+                if (field == null) {
+                    String name = names.get(i);
+                    field = CtfTmfEventField.parseField(payload.getDefinition(name), name);
+                }
+                fields.add(field);
+            }
+        }
+        ICompositeDefinition context = getContext();
+        CtfTmfEventField[] contextFields = fContextFields;
+        if (context != null && contextFields != null) {
+            List<@NonNull String> names = context.getFieldNames();
+            for (int i = 0; i < names.size(); i++) {
+                CtfTmfEventField field = contextFields[i];
+                if (field == null) {
+                    String name = names.get(i);
+                    field = CtfTmfEventField.parseField(context.getDefinition(name), CtfConstants.CONTEXT_FIELD_PREFIX + name);
+                }
+                fields.add(field);
+            }
+        }
+        fAllFields = true;
+        return fields.toArray(new @NonNull CtfTmfEventField[fields.size()]);
+    }
+}
@@ -27,8 +27,12 @@ import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.tracecompass.internal.lttng2.kernel.core.event.matching.TcpEventMatching;
 import org.eclipse.tracecompass.internal.lttng2.kernel.core.event.matching.TcpLttngEventMatching;
 import org.eclipse.tracecompass.testtraces.ctf.CtfTestTrace;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
+import org.eclipse.tracecompass.tmf.core.event.matching.IEventMatchingKey;
 import org.eclipse.tracecompass.tmf.core.event.matching.IMatchProcessingUnit;
+import org.eclipse.tracecompass.tmf.core.event.matching.TcpEventKey;
 import org.eclipse.tracecompass.tmf.core.event.matching.TmfEventMatching;
+import org.eclipse.tracecompass.tmf.core.trace.ITmfContext;
 import org.eclipse.tracecompass.tmf.core.trace.ITmfTrace;
 import org.eclipse.tracecompass.tmf.ctf.core.tests.shared.CtfTmfTestTraceUtils;
 import org.eclipse.tracecompass.tmf.ctf.core.trace.CtfTmfTrace;
@@ -76,4 +80,33 @@ public class MatchAndSyncTest {
         }
     }
 
+    /**
+     * Test the keys of the network events of a CTF trace, read from the
+     * content of the events
+     */
+    @Test
+    public void testEventKeys() {
+        CtfTmfTrace trace = CtfTmfTestTraceUtils.getTrace(CtfTestTrace.SYNC_SRC);
+        TcpLttngEventMatching matching = new TcpLttngEventMatching();
+        try {
+            assertTrue(matching.canMatchTrace(trace));
+            int nbKeys = 0;
+            ITmfContext context = trace.seekEvent(0L);
+            ITmfEvent event = trace.getNext(context);
+            while (event != null) {
+                if (matching.getDirection(event) != null) {
+                    IEventMatchingKey key = matching.getEventKey(event);
+                    if (key != null) {
+                        assertTrue(key instanceof TcpEventKey);
+                        nbKeys++;
+                    }
+                }
+                event = trace.getNext(context);
+            }
+            context.dispose();
+            assertTrue(nbKeys > 0);
+        } finally {
+            trace.dispose();
+        }
+    }
 }
@@ -24,7 +24,7 @@ import java.util.WeakHashMap;
 import org.eclipse.tracecompass.analysis.os.linux.core.trace.IKernelAnalysisEventLayout;
 import org.eclipse.tracecompass.analysis.os.linux.core.trace.IKernelTrace;
 import org.eclipse.tracecompass.tmf.core.event.ITmfEvent;
-import org.eclipse.tracecompass.tmf.core.event.TmfEventField;
+import org.eclipse.tracecompass.tmf.core.event.ITmfEventField;
 import org.eclipse.tracecompass.tmf.core.event.matching.IEventMatchingKey;
 import org.eclipse.tracecompass.tmf.core.event.matching.ITmfMatchEventDefinition;
 import org.eclipse.tracecompass.tmf.core.event.matching.TcpEventKey;
@@ -102,7 +102,7 @@ public class TcpLttngEventMatching implements ITmfMatchEventDefinition {
             return null;
         }
 
-        TmfEventField content = (TmfEventField) event.getContent();
+        ITmfEventField content = event.getContent();
 
         Long sequence = content.getFieldValue(Long.class, layout.fieldPathTcpSeq());
         Long ack = content.getFieldValue(Long.class, layout.fieldPathTcpAckSeq());
@@ -65,4 +65,64 @@ public class HTVarIntTest {
             }
         }
     }
+
+    /**
+     * Test write and read of unsigned values, and their encoded length
+     */
+    @Test
+    public void readWriteUnsignedTest() {
+        ByteBuffer bb = ByteBuffer.allocate(128);
+        long[] values = { 0L, 1L, 127L, 128L, 16383L, 16384L, Integer.MAX_VALUE, Long.MAX_VALUE, -1L };
+        int[] lengths = { 1, 1, 1, 2, 2, 3, 5, 9, 10 };
+        for (int i = 0; i < values.length; i++) {
+            HTVarInt.writeUnsigned(bb, values[i]);
+            assertEquals(Long.toHexString(values[i]), lengths[i], bb.position());
+            assertEquals(lengths[i], HTVarInt.getEncodedLengthUnsigned(values[i]));
+            bb.position(0);
+            assertEquals(values[i], HTVarInt.readUnsigned(bb));
+            bb.position(0);
+        }
+        Random r = new Random(); // NOSONAR
+        r.setSeed(0);
+        for (int i = 1; i < Long.BYTES; i++) {
+            for (int l = 0; l < LOOP_COUNT; l++) {
+                long value = r.nextLong() >>> (i * Byte.SIZE);
+                HTVarInt.writeUnsigned(bb, value);
+                assertEquals(HTVarInt.getEncodedLengthUnsigned(value), bb.position());
+                bb.position(0);
+                assertEquals(l + " " + Long.toHexString(value), value, HTVarInt.readUnsigned(bb));
+                bb.position(0);
+            }
+        }
+    }
+
+    /**
+     * Test write and read of signed values with the zigzag encoding
+     */
+    @Test
+    public void readWriteZigZagTest() {
+        ByteBuffer bb = ByteBuffer.allocate(128);
+        long[] values = { 0L, -1L, 1L, -64L, 63L, 64L, Long.MIN_VALUE, Long.MAX_VALUE };
+        int[] lengths = { 1, 1, 1, 1, 1, 2, 10, 10 };
+        for (int i = 0; i < values.length; i++) {
+            HTVarInt.writeZigZag(bb, values[i]);
+            assertEquals(Long.toHexString(values[i]), lengths[i], bb.position());
+            assertEquals(lengths[i], HTVarInt.getEncodedLengthZigZag(values[i]));
+            bb.position(0);
+            assertEquals(values[i], HTVarInt.readZigZag(bb));
+            bb.position(0);
+        }
+        Random r = new Random(); // NOSONAR
+        r.setSeed(0);
+        for (int i = 1; i < Long.BYTES; i++) {
+            for (int l = 0; l < LOOP_COUNT; l++) {
+                long value = r.nextLong() >> (i * Byte.SIZE);
+                HTVarInt.writeZigZag(bb, value);
+                assertEquals(HTVarInt.getEncodedLengthZigZag(value), bb.position());
+                bb.position(0);
+                assertEquals(l + " " + Long.toHexString(value), value, HTVarInt.readZigZag(bb));
+                bb.position(0);
+            }
+        }
+    }
 }
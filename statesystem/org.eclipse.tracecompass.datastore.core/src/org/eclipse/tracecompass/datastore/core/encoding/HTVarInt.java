@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Ericsson
+ * Copyright (c) 2019, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -43,6 +43,11 @@ public final class HTVarInt {
         private static final long SHORT_MASK = 0x000000000000FFFFL;
         private static final long INT_MASK = 0x00000000FFFFFFFFL;
 
+        /* Bits per byte and continuation flag of the unsigned encoding */
+        private static final int UNSIGNED_BITS = 7;
+        private static final long UNSIGNED_MASK = 0x7FL;
+        private static final int CONTINUATION_BIT = 0x80;
+
         private HTVarInt() {
             // Do nothing
         }
@@ -198,4 +203,107 @@ public final class HTVarInt {
             return retVal - OFFSET;
         }
 
+        /**
+         * Calculates the size of an unsigned value encoded 7 bits per byte, in
+         * Bytes. Unlike {@link #getEncodedLengthLong(long)}, values smaller
+         * than 128 take a single byte, which suits small deltas and counts.
+         * Negative values are treated as unsigned and take 10 bytes.
+         *
+         * @param val
+         *            The value to encode
+         * @return The number of Bytes of the encoded value
+         * @since 1.4
+         */
+        public static int getEncodedLengthUnsigned(long val) {
+            int significantBits = Long.SIZE - Long.numberOfLeadingZeros(val);
+            return Math.max(1, (significantBits + UNSIGNED_BITS - 1) / UNSIGNED_BITS);
+        }
+
+        /**
+         * Writes an unsigned long to the ByteBuffer, 7 bits per byte, least
+         * significant bits first. The high bit of each byte tells if another
+         * byte follows.
+         *
+         * @param buffer
+         *            The ByteBuffer to write
+         * @param val
+         *            the value to write
+         * @since 1.4
+         */
+        public static void writeUnsigned(ByteBuffer buffer, long val) {
+            long value = val;
+            while ((value & ~UNSIGNED_MASK) != 0) {
+                buffer.put((byte) ((value & UNSIGNED_MASK) | CONTINUATION_BIT));
+                value >>>= UNSIGNED_BITS;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Reads an unsigned long written by
+         * {@link #writeUnsigned(ByteBuffer, long)} from the ByteBuffer
+         *
+         * @param buffer
+         *            the ByteBuffer to read from
+         * @return the long, decoded
+         * @since 1.4
+         */
+        public static long readUnsigned(ByteBuffer buffer) {
+            long retVal = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = buffer.get();
+                retVal |= (current & UNSIGNED_MASK) << shift;
+                shift += UNSIGNED_BITS;
+            } while ((current & CONTINUATION_BIT) != 0);
+            return retVal;
+        }
+
+        /**
+         * Calculates the size of a signed value written by
+         * {@link #writeZigZag(ByteBuffer, long)}, in Bytes
+         *
+         * @param val
+         *            The value to encode
+         * @return The number of Bytes of the encoded value
+         * @since 1.4
+         */
+        public static int getEncodedLengthZigZag(long val) {
+            return getEncodedLengthUnsigned(toZigZag(val));
+        }
+
+        /**
+         * Writes a signed long to the ByteBuffer, mapping the values of small
+         * magnitude, positive or negative, to small unsigned values first, so
+         * that they take few bytes.
+         *
+         * @param buffer
+         *            The ByteBuffer to write
+         * @param val
+         *            the value to write
+         * @since 1.4
+         */
+        public static void writeZigZag(ByteBuffer buffer, long val) {
+            writeUnsigned(buffer, toZigZag(val));
+        }
+
+        /**
+         * Reads a signed long written by {@link #writeZigZag(ByteBuffer, long)}
+         * from the ByteBuffer
+         *
+         * @param buffer
+         *            the ByteBuffer to read from
+         * @return the long, decoded
+         * @since 1.4
+         */
+        public static long readZigZag(ByteBuffer buffer) {
+            long value = readUnsigned(buffer);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static long toZigZag(long val) {
+            return (val << 1) ^ (val >> (Long.SIZE - 1));
+        }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 École Polytechnique de Montréal
+ * Copyright (c) 2017, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -692,13 +692,24 @@ public class HTNode<E extends IHTInterval> implements IHTNode<E> {
              * Just in case, should be checked before even calling this function
              */
             int objSize = newInterval.getSizeOnDisk();
-            if (objSize > getNodeFreeSpace()) {
-                throw new IllegalArgumentException("The interval to insert (" + objSize + ") is larger than available space (" + getNodeFreeSpace() + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            int freeSpace = getBlockSize() - getDataSectionEndOffset();
+            if (objSize > freeSpace) {
+                throw new IllegalArgumentException("The interval to insert (" + objSize + ") is larger than available space (" + freeSpace + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
             }
 
-            int insertPoint = Collections.binarySearch(fIntervals, newInterval, getIntervalComparator());
-            insertPoint = (insertPoint >= 0 ? insertPoint : -insertPoint - 1);
-            fIntervals.add(insertPoint, newInterval);
+            /*
+             * Intervals mostly arrive in order, in which case they are simply
+             * appended
+             */
+            int size = fIntervals.size();
+            Comparator<E> comparator = getIntervalComparator();
+            if (size == 0 || comparator.compare(fIntervals.get(size - 1), newInterval) <= 0) {
+                fIntervals.add(newInterval);
+            } else {
+                int insertPoint = Collections.binarySearch(fIntervals, newInterval, comparator);
+                insertPoint = (insertPoint >= 0 ? insertPoint : -insertPoint - 1);
+                fIntervals.add(insertPoint, newInterval);
+            }
 
             fSizeOfContentSection += objSize;
 
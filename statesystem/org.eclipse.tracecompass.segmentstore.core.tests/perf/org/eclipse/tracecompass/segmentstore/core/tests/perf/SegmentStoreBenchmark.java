@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson
+ * Copyright (c) 2016, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -59,6 +59,9 @@ public class SegmentStoreBenchmark {
 
     private static final int DEFAULT_SAMPLE = 1000;
     private static final int DEFAULT_LOOP_COUNT = 10;
+    private static final int WINDOW_QUERY_COUNT = 1000;
+    private static final long WINDOW_SIZE = 100;
+    private static final int LONG_SEGMENT_INTERVAL = 1000;
 
     private final ISegmentStore<@NonNull BasicSegment> fSegStore;
     private final String fName;
@@ -160,6 +163,56 @@ public class SegmentStoreBenchmark {
         insertIterTwice(DEFAULT_SAMPLE, fuzz, "Random");
     }
 
+    /**
+     * Add elements in order, some of them much longer than the others, then
+     * query the elements intersecting small windows, like a zoomed in chart.
+     * The long segments overlap many windows.
+     */
+    @Test
+    public void test6WindowQueries() {
+        PerformanceMeter pMinsertion = fPerf.createPerformanceMeter("Window Insertion: " + fName);
+        PerformanceMeter pMquery = fPerf.createPerformanceMeter("Window Queries: " + fName);
+        long size = getSegmentStoreSize();
+
+        for (int i = 0; i < DEFAULT_LOOP_COUNT; i++) {
+            fSegStore.clear();
+
+            pMinsertion.start();
+            for (long j = 0; j < size; j++) {
+                long length = (j % LONG_SEGMENT_INTERVAL == 0) ? size / 10 : 10;
+                fSegStore.add(new BasicSegment(j, j + length));
+            }
+            pMinsertion.stop();
+
+            if (i == 0) {
+                /*
+                 * Assert that the query returns the right number of segments,
+                 * the benchmark will be irrelevant otherwise.
+                 */
+                long start = size / 2;
+                long end = start + WINDOW_SIZE;
+                int expected = 0;
+                for (BasicSegment segment : fSegStore) {
+                    if (segment.getStart() <= end && segment.getEnd() >= start) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, iterate(fSegStore.getIntersectingElements(start, end)));
+            }
+
+            Random rng = new Random(10);
+            pMquery.start();
+            for (int j = 0; j < WINDOW_QUERY_COUNT; j++) {
+                long start = (long) (rng.nextDouble() * size);
+                iterate(fSegStore.getIntersectingElements(start, start + WINDOW_SIZE));
+            }
+            pMquery.stop();
+        }
+
+        pMinsertion.commit();
+        pMquery.commit();
+    }
+
     private static int[] randomArray(int size) {
         int[] fuzz = new int[DEFAULT_SAMPLE];
         Random rng = new Random(10);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson
+ * Copyright (c) 2016, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -24,8 +24,11 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
 import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
 import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferWriter;
@@ -38,9 +41,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
 
 /**
  * Unit tests for intersecting elements in an SegmentStore
@@ -154,6 +159,23 @@ public abstract class AbstractTestSegmentStore {
             buffer.putString(fPayload);
         }
 
+        @Override
+        public int hashCode() {
+            return Objects.hash(fStart, fEnd, fPayload);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            TestSegment other = (TestSegment) obj;
+            return fStart == other.fStart && fEnd == other.fEnd && fPayload.equals(other.fPayload);
+        }
+
     }
 
     /**
@@ -418,6 +440,36 @@ public abstract class AbstractTestSegmentStore {
         assertSegmentsEqual(SEGMENT_2_6, Iterables.getOnlyElement(intersectingElements));
     }
 
+    /**
+     * Testing method
+     * {@link ISegmentStore#getIntersectingElements(long start, long end)} with
+     * a few long segments overlapping many short ones
+     */
+    @Test
+    public void testGetIntersectingElementsOverlapping() {
+        Random random = new Random(2026);
+        List<@NonNull TestSegment> segments = new ArrayList<>(SEGMENTS);
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100000);
+            long length = (i % 100 == 0) ? random.nextInt(50000) : random.nextInt(100);
+            TestSegment segment = new TestSegment(start, start + length, "segment" + i);
+            segments.add(segment);
+            fSegmentStore.add(segment);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            long start = random.nextInt(110000);
+            long end = start + random.nextInt(1000);
+            Multiset<TestSegment> expected = HashMultiset.create();
+            for (TestSegment segment : segments) {
+                if (segment.getStart() <= end && segment.getEnd() >= start) {
+                    expected.add(segment);
+                }
+            }
+            assertEquals("[" + start + ", " + end + "]", expected, HashMultiset.create(fSegmentStore.getIntersectingElements(start, end)));
+        }
+    }
+
     /**
      * Testing method {@link ISegmentStore#getIntersectingElements(long time)}
      */
@@ -557,6 +609,45 @@ public abstract class AbstractTestSegmentStore {
         }
     }
 
+    /**
+     * Test the sorted elements of the segment stores that keep their segments
+     * in other orders, and that the orders are updated when segments are added
+     */
+    @Test
+    public void testSortedElements() {
+        ISegmentStore<@NonNull TestSegment> store = getSegmentStore();
+        Comparator<ISegment> comparator = SegmentComparators.INTERVAL_LENGTH_COMPARATOR;
+        if (store.getSortedElements(comparator) == null) {
+            return;
+        }
+        Random random = new Random(1234);
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextInt(10000);
+            store.add(new TestSegment(start, start + random.nextInt(100), "test"));
+        }
+        Comparator<ISegment> reversed = checkNotNull(SegmentComparators.INTERVAL_END_COMPARATOR.reversed());
+        for (Comparator<ISegment> order : Arrays.asList(comparator, reversed)) {
+            List<@NonNull TestSegment> expected = Lists.newArrayList(store);
+            expected.sort(order);
+            assertEquals(expected, store.getSortedElements(order));
+            assertEquals(expected, Lists.newArrayList(store.iterator(order)));
+
+            List<@NonNull TestSegment> expectedRange = new ArrayList<>();
+            for (TestSegment segment : expected) {
+                if (segment.getStart() <= 5100 && segment.getEnd() >= 5000) {
+                    expectedRange.add(segment);
+                }
+            }
+            assertEquals(expectedRange, Lists.newArrayList(store.getIntersectingElements(5000, 5100, order)));
+        }
+
+        TestSegment longest = new TestSegment(5000, 6000, "test");
+        store.add(longest);
+        List<@NonNull TestSegment> sorted = store.getSortedElements(comparator);
+        assertEquals(1001, Objects.requireNonNull(sorted).size());
+        assertEquals(longest, sorted.get(1000));
+    }
+
     private static void verifySortedIterable(Iterable<TestSegment> iterable, int expectedSize, Comparator<ISegment> comparator) {
         // check its size
         assertEquals(expectedSize, Iterables.size(iterable));
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.segmentstore.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.ArrayListStore;
+import org.eclipse.tracecompass.internal.segmentstore.core.compact.CompactSegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentCodec;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+import org.eclipse.tracecompass.segmentstore.core.SegmentComparators;
+import org.eclipse.tracecompass.segmentstore.core.SegmentStoreFactory;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+
+/**
+ * Unit tests for the {@link CompactSegmentStore}
+ */
+public class CompactSegmentStoreTest extends AbstractTestSegmentStore {
+
+    /**
+     * Codec of the test segments, with their payload string as key
+     */
+    private static final @NonNull ISegmentCodec<@NonNull TestSegment> CODEC = new ISegmentCodec<>() {
+        @Override
+        public @Nullable Object getKey(@NonNull TestSegment segment) {
+            return segment.getPayload();
+        }
+
+        @Override
+        public long getPayload(@NonNull TestSegment segment) {
+            return 0;
+        }
+
+        @Override
+        public @NonNull TestSegment decode(long start, long end, @Nullable Object key, long payload) {
+            return new TestSegment(start, end, String.valueOf(key));
+        }
+    };
+
+    @Override
+    protected ISegmentStore<@NonNull TestSegment> getSegmentStore() {
+        return new CompactSegmentStore<>(CODEC);
+    }
+
+    @Override
+    protected ISegmentStore<@NonNull TestSegment> getSegmentStore(@NonNull TestSegment @NonNull [] data) {
+        return new CompactSegmentStore<>(CODEC, data);
+    }
+
+    /**
+     * Test that many segments added out of order are read back in the same
+     * order as from an {@link ArrayListStore}
+     */
+    @Test
+    public void testManySegments() {
+        Random random = new Random(8523);
+        ISegmentStore<@NonNull TestSegment> expected = new ArrayListStore<>();
+        ISegmentStore<@NonNull TestSegment> store = getSegmentStore();
+        for (int i = 0; i < 10000; i++) {
+            long start = random.nextInt(100000);
+            TestSegment segment = new TestSegment(start, start + random.nextInt(1000), "name" + random.nextInt(20));
+            expected.add(segment);
+            store.add(segment);
+        }
+        assertEquals(expected.size(), store.size());
+        assertEquals(toList(expected), toList(store));
+        assertEquals(toList(expected.getIntersectingElements(5000, 5100)), toList(store.getIntersectingElements(5000, 5100)));
+        assertEquals(toList(expected.getIntersectingElements(77777)), toList(store.getIntersectingElements(77777)));
+    }
+
+    /**
+     * Test writing the segments to a columnar file and reopening them
+     *
+     * @throws IOException
+     *             If the temporary file could not be written
+     */
+    @Test
+    public void testColumnarFile() throws IOException {
+        Random random = new Random(8523);
+        ISegmentStore<@NonNull TestSegment> store = getSegmentStore();
+        for (int i = 0; i < 10000; i++) {
+            long start = random.nextInt(100000);
+            store.add(new TestSegment(start, start + random.nextInt(1000), "name" + random.nextInt(20)));
+        }
+        Path file = Objects.requireNonNull(Files.createTempFile("segments", ".columns"));
+        try {
+            SegmentStoreFactory.writeColumnarSegmentStore(store, CODEC, file, 2);
+            ISegmentStore<@NonNull TestSegment> columnarStore = SegmentStoreFactory.openColumnarSegmentStore(file, CODEC, 2);
+            assertEquals(store.size(), columnarStore.size());
+            assertEquals(toList(store), toList(columnarStore));
+            assertEquals(toList(store.getIntersectingElements(5000, 5100)), toList(columnarStore.getIntersectingElements(5000, 5100)));
+            assertEquals(toList(store.getIntersectingElements(77777)), toList(columnarStore.getIntersectingElements(77777)));
+            assertEquals(store.getSortedElements(SegmentComparators.INTERVAL_LENGTH_COMPARATOR), columnarStore.getSortedElements(SegmentComparators.INTERVAL_LENGTH_COMPARATOR));
+            assertEquals(toList(store.getIntersectingElements(5000, 5100, SegmentComparators.INTERVAL_END_COMPARATOR)),
+                    toList(columnarStore.getIntersectingElements(5000, 5100, SegmentComparators.INTERVAL_END_COMPARATOR)));
+            TestSegment segment = Iterables.get(store, 1234);
+            assertTrue(columnarStore.contains(segment));
+            assertFalse(columnarStore.contains(new TestSegment(segment.getStart(), segment.getEnd(), "other")));
+
+            /* The columns are released when the store is disposed */
+            columnarStore.dispose();
+            try {
+                columnarStore.iterator().next();
+                fail("The store should be disposed");
+            } catch (IllegalStateException e) {
+                // Expected
+            }
+
+            /* A key index that is not in the dictionary */
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer key = Objects.requireNonNull(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN));
+                key.putInt(0, 20);
+                channel.write(key, channel.size() - Integer.BYTES);
+            }
+            columnarStore = SegmentStoreFactory.openColumnarSegmentStore(file, CODEC, 2);
+            try {
+                toList(columnarStore);
+                fail("The key index should be rejected");
+            } catch (IllegalStateException e) {
+                // Expected
+            }
+            columnarStore.dispose();
+
+            /* An empty store */
+            SegmentStoreFactory.writeColumnarSegmentStore(getSegmentStore(), CODEC, file, 2);
+            columnarStore = SegmentStoreFactory.openColumnarSegmentStore(file, CODEC, 2);
+            assertTrue(columnarStore.isEmpty());
+            assertTrue(Iterables.isEmpty(columnarStore.getIntersectingElements(0, 100)));
+            columnarStore.dispose();
+
+            try {
+                SegmentStoreFactory.openColumnarSegmentStore(file, CODEC, 3);
+                fail("The version should not match");
+            } catch (IOException e) {
+                // Expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<String> toList(Iterable<@NonNull TestSegment> segments) {
+        List<String> list = new ArrayList<>();
+        Iterables.transform(segments, segment -> segment.getStart() + ", " + segment.getEnd() + ", " + segment.getPayload()).forEach(list::add);
+        return list;
+    }
+}
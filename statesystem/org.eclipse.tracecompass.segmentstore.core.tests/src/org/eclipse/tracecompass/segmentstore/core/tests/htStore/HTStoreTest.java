@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 École Polytechnique de Montréal
+ * Copyright (c) 2016, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -20,7 +20,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -33,6 +38,8 @@ import org.eclipse.tracecompass.segmentstore.core.tests.historytree.HistoryTreeS
 import org.junit.After;
 import org.junit.Test;
 
+import com.google.common.collect.Iterables;
+
 /**
  * Unit tests for the history tree segment store. It tests the segment store
  * specific functionalities.
@@ -219,4 +226,58 @@ public class HTStoreTest extends AbstractTestSegmentStore {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Test building a {@link HistoryTreeSegmentStore} with more segments than
+     * are buffered before the bulk insertion in the tree, arriving almost
+     * sorted by end time, like those of an analysis
+     *
+     * @throws IOException
+     *             Exception thrown by application
+     */
+    @Test
+    public void testBulkLoad() throws IOException {
+        Path dirPath = Files.createTempDirectory("tmpSegStoreDir");
+        Path filePath = Paths.get(dirPath.toString(), "tmpSegStore");
+        assertNotNull(filePath);
+        int version = 1;
+
+        Random random = new Random(42);
+        List<TestSegment> segments = new ArrayList<>();
+        long time = 1;
+        for (int i = 0; i < 50000; i++) {
+            time += random.nextInt(10);
+            segments.add(new TestSegment(time, time + random.nextInt(10000), "s"));
+        }
+        segments.sort(Comparator.comparingLong(TestSegment::getEnd));
+        for (int i = 0; i + 1 < segments.size(); i += 2) {
+            if (random.nextBoolean()) {
+                Collections.swap(segments, i, i + 1);
+            }
+        }
+
+        try {
+            HistoryTreeSegmentStoreStub<TestSegment> segmentStore = new HistoryTreeSegmentStoreStub<>(filePath, 1, TestSegment.DESERIALISER, version);
+            segmentStore.addAll(segments.subList(0, 20000));
+            // The buffered segments are visible while building
+            assertEquals(20000, segmentStore.size());
+            segments.subList(20000, segments.size()).forEach(segmentStore::add);
+            segmentStore.finishedBuilding(time + 10000);
+            segmentStore.dispose();
+
+            // Open the segment store, it should have all the segments
+            segmentStore = new HistoryTreeSegmentStoreStub<>(filePath, 1, TestSegment.DESERIALISER, version);
+            assertEquals(segments.size(), segmentStore.size());
+            for (long t = 0; t < time; t += time / 10) {
+                long start = t;
+                long end = t + 1000;
+                long expected = segments.stream().filter(s -> s.getStart() <= end && s.getEnd() >= start).count();
+                assertEquals(expected, Iterables.size(segmentStore.getIntersectingElements(start, end)));
+            }
+            segmentStore.dispose();
+        } finally {
+            Files.deleteIfExists(filePath);
+            Files.deleteIfExists(dirPath);
+        }
+    }
+
+}
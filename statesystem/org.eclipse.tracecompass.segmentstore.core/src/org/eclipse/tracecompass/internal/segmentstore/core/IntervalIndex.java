@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Index of the intervals of a segment store sorted by start times, to find the
+ * intervals intersecting a range in O(log n + k) time.
+ *
+ * The sorted array is seen as an implicit binary search tree: the intervals at
+ * even positions are the leaves, and the interval at position i, whose binary
+ * representation ends with k ones, is a node of level k whose children are at
+ * i - 2^(k-1) and i + 2^(k-1). Each node is augmented with the maximum end time
+ * of its subtree, so that the subtrees ending before the range are skipped.
+ * Only the nodes have to be stored, since the maximum end of a leaf is its own
+ * end time, so the index costs half a long per interval.
+ *
+ * The index is built for a fixed set of intervals, it must be rebuilt when
+ * intervals are added.
+ */
+public final class IntervalIndex {
+
+    /**
+     * Below this level, the nodes of a subtree are simply scanned in order
+     */
+    private static final int SCAN_LEVEL = 3;
+
+    private final int fSize;
+    private final IntToLongFunction fStarts;
+    private final IntToLongFunction fEnds;
+    /** Maximum end time of the subtree of each node, the node i is at i / 2 */
+    private final long[] fMaxEnds;
+    private final int fRootLevel;
+
+    /**
+     * Build the index of intervals
+     *
+     * @param size
+     *            The number of intervals
+     * @param starts
+     *            The start time of the interval at a position. The intervals
+     *            must be sorted by start time.
+     * @param ends
+     *            The end time of the interval at a position
+     */
+    public IntervalIndex(int size, IntToLongFunction starts, IntToLongFunction ends) {
+        fSize = size;
+        fStarts = starts;
+        fEnds = ends;
+        fMaxEnds = new long[size / 2];
+        if (size == 0) {
+            fRootLevel = -1;
+            return;
+        }
+
+        /*
+         * The last node on the path from the last leaf to the root, and the
+         * maximum end of its subtree, which is used for the nodes whose right
+         * child is past the end of the array.
+         */
+        int lastNode = (size - 1) & ~1;
+        long lastMax = ends.applyAsLong(lastNode);
+        int level = 1;
+        for (; (1L << level) <= size; level++) {
+            int childOffset = 1 << (level - 1);
+            long step = 1L << (level + 1);
+            for (long i = (1L << level) - 1; i < size; i += step) {
+                int node = (int) i;
+                long max = Math.max(ends.applyAsLong(node), getMaxEnd(node - childOffset));
+                long right = node + childOffset;
+                max = Math.max(max, right < size ? getMaxEnd((int) right) : lastMax);
+                fMaxEnds[node >> 1] = max;
+            }
+            /* Move up to the parent of the last node */
+            lastNode = ((lastNode >> level) & 1) != 0 ? lastNode - childOffset : lastNode + childOffset;
+            if (lastNode < size) {
+                lastMax = Math.max(lastMax, getMaxEnd(lastNode));
+            }
+        }
+        fRootLevel = level - 1;
+    }
+
+    private long getMaxEnd(int node) {
+        return ((node & 1) == 0) ? fEnds.applyAsLong(node) : fMaxEnds[node >> 1];
+    }
+
+    /**
+     * Get the number of intervals in this index
+     *
+     * @return The number of intervals
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Find the intervals intersecting a range, the bounds being inclusive.
+     * They are visited by ascending position.
+     *
+     * @param start
+     *            The start of the range
+     * @param end
+     *            The end of the range
+     * @param consumer
+     *            Receives the position of each intersecting interval
+     */
+    public void search(long start, long end, IntConsumer consumer) {
+        if (fRootLevel < 0 || start > end) {
+            return;
+        }
+        /*
+         * Depth-first traversal, each level has at most the node whose right
+         * child remains to visit and its left child on the stack.
+         */
+        int capacity = 2 * (fRootLevel + 1);
+        int[] nodes = new int[capacity];
+        int[] levels = new int[capacity];
+        boolean[] leftVisited = new boolean[capacity];
+        int top = 0;
+        nodes[top] = (1 << fRootLevel) - 1;
+        levels[top] = fRootLevel;
+        leftVisited[top++] = false;
+        while (top > 0) {
+            top--;
+            int node = nodes[top];
+            int level = levels[top];
+            if (level <= SCAN_LEVEL) {
+                /* Small subtree, scan its intervals */
+                int first = (node >> level) << level;
+                int last = (int) Math.min(fSize, first + (1L << (level + 1)) - 1);
+                for (int i = first; i < last && fStarts.applyAsLong(i) <= end; i++) {
+                    if (fEnds.applyAsLong(i) >= start) {
+                        consumer.accept(i);
+                    }
+                }
+            } else if (!leftVisited[top]) {
+                int left = node - (1 << (level - 1));
+                leftVisited[top++] = true;
+                /* The left child may be past the end of the array */
+                if (left >= fSize || getMaxEnd(left) >= start) {
+                    nodes[top] = left;
+                    levels[top] = level - 1;
+                    leftVisited[top++] = false;
+                }
+            } else if (node < fSize && fStarts.applyAsLong(node) <= end) {
+                if (fEnds.applyAsLong(node) >= start) {
+                    consumer.accept(node);
+                }
+                nodes[top] = node + (1 << (level - 1));
+                levels[top] = level - 1;
+                leftVisited[top++] = false;
+            }
+        }
+    }
+}
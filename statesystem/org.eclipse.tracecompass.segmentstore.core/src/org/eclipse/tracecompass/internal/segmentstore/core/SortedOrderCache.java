@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+
+/**
+ * Cache of the orders of the segments of a segment store, for the sorted
+ * queries in other orders than by start times.
+ *
+ * The permutation of the segments in an order, an array of their positions in
+ * the segment store, is computed on the first query of this order. The sorted
+ * queries then read the segments through the permutation instead of copying
+ * and sorting them. The queries of a subset of the segments sort the ranks of
+ * the segments in the order, which are integers, instead of the segments.
+ *
+ * The orders are cached by comparator instance, for the segments of a
+ * snapshot, a list of the segments sorted by start times: a query on another
+ * snapshot computes the order again. Only the orders of the last few
+ * comparators are kept. The cache should be cleared when segments are added,
+ * to release the memory of the outdated orders.
+ *
+ * @param <E>
+ *            The type of segment
+ */
+public final class SortedOrderCache<@NonNull E extends ISegment> {
+
+    /** Maximum number of orders kept, each costs up to 8 bytes per segment */
+    private static final int MAX_ORDERS = 4;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /** The orders, the most recently used last */
+    private final List<SortedOrder> fOrders = new ArrayList<>();
+    /** Whether there are orders to clear, to not lock on each segment added */
+    private volatile boolean fHasOrders = false;
+
+    /**
+     * The permutation of a snapshot of segments in an order
+     */
+    private final class SortedOrder {
+
+        private final Comparator<ISegment> fComparator;
+        private final List<E> fSegments;
+        /** The position in the snapshot of the segment of each rank */
+        private final int[] fRows;
+        /** The rank of each position, computed on the first subset query */
+        private volatile int @Nullable [] fRanks = null;
+        private final List<E> fSortedList;
+
+        public SortedOrder(Comparator<ISegment> comparator, List<E> segments) {
+            fComparator = comparator;
+            fSegments = segments;
+            fRows = sort(comparator, segments);
+            fSortedList = new SortedList(segments, fRows);
+        }
+
+        public int[] getRanks() {
+            int[] ranks = fRanks;
+            if (ranks == null) {
+                ranks = new int[fRows.length];
+                for (int i = 0; i < fRows.length; i++) {
+                    ranks[fRows[i]] = i;
+                }
+                fRanks = ranks;
+            }
+            return ranks;
+        }
+    }
+
+    /**
+     * Read-only view of the segments of a snapshot through their permutation
+     */
+    private final class SortedList extends AbstractList<E> implements RandomAccess {
+
+        private final List<E> fSegments;
+        private final int[] fRows;
+
+        public SortedList(List<E> segments, int[] rows) {
+            fSegments = segments;
+            fRows = rows;
+        }
+
+        @Override
+        public E get(int index) {
+            return fSegments.get(fRows[index]);
+        }
+
+        @Override
+        public int size() {
+            return fRows.length;
+        }
+    }
+
+    /**
+     * Get all the segments of a snapshot in an order
+     *
+     * @param order
+     *            The order of the segments
+     * @param segments
+     *            The segments, sorted by start times. It must not be modified
+     *            afterwards, and should be read in constant time by index.
+     * @return A read-only list of the segments in the order
+     */
+    public List<E> getSortedElements(Comparator<ISegment> order, List<E> segments) {
+        return getOrder(order, segments).fSortedList;
+    }
+
+    /**
+     * Get the segments of a snapshot found by a search, in an order. If the
+     * order is already cached, the ranks of the segments in the order are
+     * sorted, otherwise the segments are simply sorted.
+     *
+     * @param order
+     *            The order of the segments
+     * @param segments
+     *            The segments, sorted by start times
+     * @param search
+     *            The search, which gives the positions of the segments to
+     *            return to a consumer
+     * @return The segments found in the order
+     */
+    public List<E> getSortedElements(Comparator<ISegment> order, List<E> segments, Consumer<IntConsumer> search) {
+        SortedOrder sortedOrder = findOrder(order, segments);
+        if (sortedOrder == null) {
+            ArrayList<E> list = new ArrayList<>();
+            search.accept(row -> list.add(segments.get(row)));
+            if (list.isEmpty()) {
+                return Collections.emptyList();
+            }
+            list.sort(order);
+            return list;
+        }
+        int[] ranks = sortedOrder.getRanks();
+        int[][] found = { new int[16] };
+        int[] count = { 0 };
+        search.accept(row -> {
+            if (count[0] == found[0].length) {
+                found[0] = Arrays.copyOf(found[0], found[0].length * 2);
+            }
+            found[0][count[0]++] = ranks[row];
+        });
+        if (count[0] == 0) {
+            return Collections.emptyList();
+        }
+        int[] foundRanks = found[0];
+        Arrays.sort(foundRanks, 0, count[0]);
+        ArrayList<E> list = new ArrayList<>(count[0]);
+        for (int i = 0; i < count[0]; i++) {
+            list.add(segments.get(sortedOrder.fRows[foundRanks[i]]));
+        }
+        return list;
+    }
+
+    /**
+     * Clear the orders, after segments were added
+     */
+    public void clear() {
+        if (fHasOrders) {
+            synchronized (this) {
+                fOrders.clear();
+                fHasOrders = false;
+            }
+        }
+    }
+
+    private synchronized @Nullable SortedOrder findOrder(Comparator<ISegment> order, List<E> segments) {
+        Iterator<SortedOrder> iterator = fOrders.iterator();
+        while (iterator.hasNext()) {
+            SortedOrder sortedOrder = iterator.next();
+            if (sortedOrder.fComparator == order) {
+                if (sortedOrder.fSegments != segments) {
+                    /* The order of an outdated snapshot */
+                    iterator.remove();
+                    return null;
+                }
+                /* Move the order to the end, as the most recently used */
+                iterator.remove();
+                fOrders.add(sortedOrder);
+                return sortedOrder;
+            }
+        }
+        return null;
+    }
+
+    private synchronized SortedOrder getOrder(Comparator<ISegment> order, List<E> segments) {
+        SortedOrder sortedOrder = findOrder(order, segments);
+        if (sortedOrder == null) {
+            sortedOrder = new SortedOrder(order, segments);
+            if (fOrders.size() == MAX_ORDERS) {
+                fOrders.remove(0);
+            }
+            fOrders.add(sortedOrder);
+            fHasOrders = true;
+        }
+        return sortedOrder;
+    }
+
+    /**
+     * Get the permutation of the segments sorted in an order, by a stable merge
+     * sort of their positions. The segments are copied once, so those that are
+     * created when read are not created again for each comparison.
+     */
+    private static <T extends ISegment> int[] sort(Comparator<ISegment> order, List<T> segments) {
+        List<T> elements = new ArrayList<>(segments);
+        int size = elements.size();
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        mergeSort(order, elements, rows, new int[size], 0, size);
+        return rows;
+    }
+
+    /**
+     * Stable merge sort of the positions, that only compares the segments that
+     * are not already in order, so it is fast on nearly sorted segments
+     */
+    private static <T extends ISegment> void mergeSort(Comparator<ISegment> order, List<T> elements, int[] rows, int[] tmp, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && order.compare(elements.get(rows[j]), elements.get(row)) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(order, elements, rows, tmp, from, mid);
+        mergeSort(order, elements, rows, tmp, mid, to);
+        if (order.compare(elements.get(rows[mid - 1]), elements.get(rows[mid])) <= 0) {
+            return;
+        }
+        System.arraycopy(rows, from, tmp, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && order.compare(elements.get(tmp[left]), elements.get(tmp[right])) <= 0)) {
+                rows[i] = tmp[left++];
+            } else {
+                rows[i] = tmp[right++];
+            }
+        }
+    }
+}
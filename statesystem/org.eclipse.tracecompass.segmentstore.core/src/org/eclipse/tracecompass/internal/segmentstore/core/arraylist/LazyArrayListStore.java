@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson
+ * Copyright (c) 2016, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,7 +24,8 @@ import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.internal.segmentstore.core.IntervalIndex;
+import org.eclipse.tracecompass.internal.segmentstore.core.SortedOrderCache;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 
@@ -47,6 +48,11 @@ import com.google.common.collect.ImmutableList;
  * should be faster at building when receiving shuffled datasets than the
  * {@link ArrayListStore}.
  *
+ * The intersection queries use an {@link IntervalIndex} of the sorted
+ * segments, built on the first query after the segments were modified. The
+ * queries in other orders use the permutations of a {@link SortedOrderCache},
+ * computed on the first query of an order after the segments were modified.
+ *
  * Removal operations are not supported.
  *
  * @param <E>
@@ -69,7 +75,9 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
      */
     protected final List<E> fStore;
 
-    private @Nullable transient Iterable<E> fLastSnapshot = null;
+    private @Nullable transient List<E> fLastSnapshot = null;
+    private @Nullable transient IntervalIndex fIndex = null;
+    private final SortedOrderCache<E> fOrders = new SortedOrderCache<>();
 
     private volatile boolean fDirty = false;
     private volatile long fStart = Long.MAX_VALUE;
@@ -127,23 +135,32 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
             if (fDirty) {
                 sortStore();
             }
-            Iterable<E> lastSnapshot = fLastSnapshot;
-            if (lastSnapshot == null) {
-                lastSnapshot = ImmutableList.copyOf(fStore);
-                fLastSnapshot = lastSnapshot;
-            }
-            return checkNotNull(lastSnapshot.iterator());
+            return checkNotNull(getSnapshot().iterator());
         } finally {
             fLock.unlock();
         }
     }
 
+    /**
+     * Get a copy of the sorted backing ArrayList, kept until the segments are
+     * modified. DO NOT CALL FROM OUTSIDE OF A LOCK!
+     */
+    private List<E> getSnapshot() {
+        List<E> lastSnapshot = fLastSnapshot;
+        if (lastSnapshot == null) {
+            lastSnapshot = ImmutableList.copyOf(fStore);
+            fLastSnapshot = lastSnapshot;
+        }
+        return lastSnapshot;
+    }
+
     /**
      * Sort the backing ArrayList using the order defined by the internal
      * comparator. DO NOT CALL FROM OUTSIDE OF A LOCK!
      */
     protected void sortStore() {
         fStore.sort(COMPARATOR);
+        fIndex = null;
         fDirty = false;
     }
 
@@ -158,6 +175,8 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
             setDirtyIfNeeded(val);
             fStore.add(getInsertionPoint(val), val);
             fLastSnapshot = null;
+            fIndex = null;
+            fOrders.clear();
             fStart = Math.min(fStart, val.getStart());
             fEnd = Math.max(fEnd, val.getEnd());
             return true;
@@ -269,6 +288,8 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
         try {
             fStore.clear();
             fLastSnapshot = null;
+            fIndex = null;
+            fOrders.clear();
             fDirty = false;
         } finally {
             fLock.unlock();
@@ -287,49 +308,65 @@ public class LazyArrayListStore<@NonNull E extends ISegment> implements ISegment
         }
         try {
             if (start <= fStart && end >= fEnd) {
-                Iterable<E> lastSnapshot = fLastSnapshot;
-                if (lastSnapshot == null) {
-                    lastSnapshot = ImmutableList.copyOf(fStore);
-                    fLastSnapshot = lastSnapshot;
-                }
-                return checkNotNull(lastSnapshot);
+                return getSnapshot();
             }
-            /*
-             * Compute the index of the last Segment we will find in here,
-             * correct the negative insertion point and add 1 for array size.
-             */
-            int arraySize = Collections.binarySearch(fStore, new BasicSegment(end, Long.MAX_VALUE));
-            arraySize = (arraySize >= 0) ? arraySize + 1 : -arraySize;
-            /*
-             * Create the ArrayList as late as possible, with size = (first
-             * intersecting segment index) - (last intersecting segment index).
-             */
-            ArrayList<E> iterable = null;
-            for (E seg : fStore) {
-                if (seg.getStart() <= end && seg.getEnd() >= start) {
-                    if (iterable == null) {
-                        iterable = new ArrayList<>(arraySize);
-                    }
-                    iterable.add(seg);
-                } else if (seg.getStart() > end) {
-                    /*
-                     * Since segments are sorted by start times, there is no
-                     * point in searching segments that start too late.
-                     */
-                    break;
-                }
-                arraySize--;
+            IntervalIndex index = getIndex();
+            ArrayList<E> iterable = new ArrayList<>();
+            index.search(start, end, i -> iterable.add(fStore.get(i)));
+            if (iterable.isEmpty()) {
+                return Collections.emptyList();
             }
-            if (iterable != null) {
-                iterable.trimToSize();
-                return iterable;
+            iterable.trimToSize();
+            return iterable;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    @Override
+    public Iterable<E> getIntersectingElements(long start, long end, Comparator<ISegment> order) {
+        fLock.lock();
+        try {
+            if (fDirty) {
+                sortStore();
             }
-            return Collections.emptyList();
+            if (start <= fStart && end >= fEnd) {
+                return fOrders.getSortedElements(order, getSnapshot());
+            }
+            IntervalIndex index = getIndex();
+            return fOrders.getSortedElements(order, getSnapshot(), consumer -> index.search(start, end, consumer));
         } finally {
             fLock.unlock();
         }
     }
 
+    @Override
+    public @Nullable List<E> getSortedElements(Comparator<ISegment> order) {
+        fLock.lock();
+        try {
+            if (fDirty) {
+                sortStore();
+            }
+            return fOrders.getSortedElements(order, getSnapshot());
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Get the interval index of the sorted backing ArrayList, built on the
+     * first call after the segments were modified. DO NOT CALL FROM OUTSIDE
+     * OF A LOCK!
+     */
+    private IntervalIndex getIndex() {
+        IntervalIndex index = fIndex;
+        if (index == null) {
+            index = new IntervalIndex(fStore.size(), i -> fStore.get(i).getStart(), i -> fStore.get(i).getEnd());
+            fIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public void dispose() {
         clear();
@@ -0,0 +1,540 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core.compact;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.segmentstore.core.Activator;
+import org.eclipse.tracecompass.internal.segmentstore.core.IntervalIndex;
+import org.eclipse.tracecompass.internal.segmentstore.core.SortedOrderCache;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentCodec;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+
+/**
+ * Read-only {@link ISegmentStore} whose segments are read from a columnar
+ * file, written from a {@link CompactSegmentStore}. The columns of the file
+ * are memory-mapped, so opening the store does not read the segments, and
+ * they are created as they are read, like in the compact segment store.
+ *
+ * The file is little-endian, so it can be read by external tools:
+ *
+ * <pre>
+ * int magic number (0x05FFC01A)
+ * int file format version
+ * int version of the segments, as given by the writer
+ * int number of rows (n)
+ * int number of keys (k)
+ * int reserved
+ * long maximum end time
+ * k keys: int length in bytes, UTF-8 string
+ * padding to a multiple of 8 bytes
+ * n long start times, sorted
+ * n long end times
+ * n long payloads
+ * n int key indexes, -1 for no key
+ * </pre>
+ *
+ * The rows are sorted by start times, then end times, then the segments'
+ * natural ordering, which is the iteration order of the store. Only the keys
+ * that are strings, like the names of the segments, can be written. The
+ * queries in other orders use the permutations of a {@link SortedOrderCache},
+ * computed on the first query of an order.
+ *
+ * The columns are unmapped when the store is disposed, so that the file can be
+ * deleted right away on all platforms, and the store cannot be read anymore.
+ *
+ * @param <E>
+ *            The type of segment held in this store
+ */
+public class ColumnarSegmentStore<@NonNull E extends ISegment> implements ISegmentStore<E> {
+
+    private static final int MAGIC_NUMBER = 0x05FFC01A;
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_SIZE = 6 * Integer.BYTES + Long.BYTES;
+    private static final int NULL_KEY = -1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final @Nullable Consumer<ByteBuffer> UNMAPPER = createUnmapper();
+
+    private final ISegmentCodec<E> fCodec;
+    private final int fNbRows;
+    private final @Nullable Object[] fKeyDictionary;
+    private final LongBuffer fStartColumn;
+    private final LongBuffer fEndColumn;
+    private final LongBuffer fPayloadColumn;
+    private final IntBuffer fKeyColumn;
+    /** The mapped buffers of the columns, released by {@link #dispose()} */
+    private final ByteBuffer[] fMappedColumns;
+    /** Guards the reads of the columns against their release */
+    private final ReadWriteLock fLock = new ReentrantReadWriteLock();
+    private boolean fDisposed = false;
+    private final long fStart;
+    private final long fEnd;
+    private volatile @Nullable IntervalIndex fIndex = null;
+    private final SortedOrderCache<E> fOrders = new SortedOrderCache<>();
+    /** The rows, to read them by index in the sorted queries */
+    private final List<E> fRows = new Rows();
+
+    /**
+     * Read-only view of the rows
+     */
+    private final class Rows extends AbstractList<E> implements RandomAccess {
+        @Override
+        public E get(int row) {
+            return ColumnarSegmentStore.this.get(row);
+        }
+
+        @Override
+        public int size() {
+            return fNbRows;
+        }
+    }
+
+    /**
+     * Open a columnar segment file
+     *
+     * @param file
+     *            The file to open
+     * @param codec
+     *            The codec to create the segments from the columns
+     * @param version
+     *            The expected version of the segments
+     * @throws IOException
+     *             If the file cannot be read, is not a columnar segment file
+     *             or does not have the expected version
+     */
+    public ColumnarSegmentStore(Path file, ISegmentCodec<E> codec, int version) throws IOException {
+        fCodec = codec;
+        try (FileChannel channel = open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = checkNotNull(ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+            readFully(channel, header, 0);
+            if (header.getInt() != MAGIC_NUMBER || header.getInt() != FILE_VERSION) {
+                throw new IOException("Not a columnar segment file: " + file); //$NON-NLS-1$
+            }
+            if (header.getInt() != version) {
+                throw new IOException("Mismatching segment versions: " + file); //$NON-NLS-1$
+            }
+            int nbRows = header.getInt();
+            int nbKeys = header.getInt();
+            header.getInt();
+            long maxEnd = header.getLong();
+            if (nbRows < 0 || nbKeys < 0) {
+                throw new IOException("Invalid columnar segment file: " + file); //$NON-NLS-1$
+            }
+            long position = HEADER_SIZE;
+            @Nullable Object[] dictionary = new @Nullable Object[nbKeys];
+            ByteBuffer length = checkNotNull(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN));
+            for (int i = 0; i < nbKeys; i++) {
+                readFully(channel, length, position);
+                int size = length.getInt();
+                if (size < 0 || position + Integer.BYTES + size > channel.size()) {
+                    throw new IOException("Invalid key length in columnar segment file: " + file); //$NON-NLS-1$
+                }
+                ByteBuffer bytes = checkNotNull(ByteBuffer.allocate(size));
+                readFully(channel, bytes, position + Integer.BYTES);
+                dictionary[i] = new String(bytes.array(), StandardCharsets.UTF_8);
+                position += Integer.BYTES + size;
+            }
+            position = align(position);
+            long expectedSize = position + (long) nbRows * (3 * Long.BYTES + Integer.BYTES);
+            if (channel.size() != expectedSize) {
+                throw new IOException("Truncated columnar segment file: " + file); //$NON-NLS-1$
+            }
+            fNbRows = nbRows;
+            fKeyDictionary = dictionary;
+            ByteBuffer starts = map(channel, position, nbRows, Long.BYTES);
+            ByteBuffer ends = map(channel, position + (long) nbRows * Long.BYTES, nbRows, Long.BYTES);
+            ByteBuffer payloads = map(channel, position + 2L * nbRows * Long.BYTES, nbRows, Long.BYTES);
+            ByteBuffer keys = map(channel, position + 3L * nbRows * Long.BYTES, nbRows, Integer.BYTES);
+            fMappedColumns = new ByteBuffer[] { starts, ends, payloads, keys };
+            fStartColumn = checkNotNull(starts.asLongBuffer());
+            fEndColumn = checkNotNull(ends.asLongBuffer());
+            fPayloadColumn = checkNotNull(payloads.asLongBuffer());
+            fKeyColumn = checkNotNull(keys.asIntBuffer());
+            fStart = (nbRows > 0) ? fStartColumn.get(0) : Long.MAX_VALUE;
+            fEnd = maxEnd;
+        }
+    }
+
+    /**
+     * Write sorted columns to a columnar segment file. The file is written
+     * next to the target and moved in place, so a partial file is never read.
+     */
+    static void write(Path file, int version, long[] starts, long[] ends, long[] payloads, int[] keys, int nbRows, @Nullable Object[] dictionary, int nbKeys) throws IOException {
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < nbRows; i++) {
+            maxEnd = Math.max(maxEnd, ends[i]);
+        }
+        Path tmpFile = checkNotNull(file.resolveSibling(file.getFileName() + ".tmp")); //$NON-NLS-1$
+        try (FileChannel channel = open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = checkNotNull(ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+            buffer.putInt(MAGIC_NUMBER);
+            buffer.putInt(FILE_VERSION);
+            buffer.putInt(version);
+            buffer.putInt(nbRows);
+            buffer.putInt(nbKeys);
+            buffer.putInt(0);
+            buffer.putLong(maxEnd);
+            long position = HEADER_SIZE;
+            for (int i = 0; i < nbKeys; i++) {
+                Object key = dictionary[i];
+                if (!(key instanceof String)) {
+                    throw new IOException("Only string keys can be written to a columnar segment file: " + key); //$NON-NLS-1$
+                }
+                byte[] bytes = ((String) key).getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                    flush(channel, buffer);
+                }
+                if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                    throw new IOException("Key too long for a columnar segment file"); //$NON-NLS-1$
+                }
+                buffer.putInt(bytes.length);
+                buffer.put(bytes);
+                position += Integer.BYTES + bytes.length;
+            }
+            if (buffer.remaining() < Long.BYTES) {
+                flush(channel, buffer);
+            }
+            for (long i = position; i < align(position); i++) {
+                buffer.put((byte) 0);
+            }
+            for (long[] column : new long[][] { starts, ends, payloads }) {
+                for (int i = 0; i < nbRows; i++) {
+                    if (buffer.remaining() < Long.BYTES) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putLong(column[i]);
+                }
+            }
+            for (int i = 0; i < nbRows; i++) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush(channel, buffer);
+                }
+                buffer.putInt(keys[i]);
+            }
+            flush(channel, buffer);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static long align(long position) {
+        return (position + Long.BYTES - 1) & ~(Long.BYTES - 1L);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar segment file"); //$NON-NLS-1$
+            }
+        }
+        buffer.flip();
+    }
+
+    private static FileChannel open(Path file, OpenOption... options) throws IOException {
+        FileChannel channel = FileChannel.open(file, options);
+        if (channel == null) {
+            throw new IOException("Cannot open the columnar segment file: " + file); //$NON-NLS-1$
+        }
+        return channel;
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, int nbRows, int bytes) throws IOException {
+        return checkNotNull(channel.map(MapMode.READ_ONLY, position, (long) nbRows * bytes).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Get the function releasing a mapped buffer right away, which has no
+     * public API before Java 19, or null if it is not available. The buffers
+     * are then only released when they are garbage collected.
+     */
+    private static @Nullable Consumer<ByteBuffer> createUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+            Field field = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+            return buffer -> {
+                try {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    Activator.instance().logWarning("Cannot unmap the columnar segment file", e); //$NON-NLS-1$
+                }
+            };
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Reading
+    // ------------------------------------------------------------------------
+
+    /**
+     * Lock the columns for reading, the lock must be released once they are
+     * read
+     */
+    private Lock lockColumns() {
+        Lock lock = checkNotNull(fLock.readLock());
+        lock.lock();
+        if (fDisposed) {
+            lock.unlock();
+            throw new IllegalStateException("The columnar segment store is disposed"); //$NON-NLS-1$
+        }
+        return lock;
+    }
+
+    private E get(int row) {
+        Lock lock = lockColumns();
+        try {
+            int key = fKeyColumn.get(row);
+            if (key < NULL_KEY || key >= fKeyDictionary.length) {
+                throw new IllegalStateException("Corrupt columnar segment file, invalid key index " + key + " at row " + row); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+            return fCodec.decode(fStartColumn.get(row), fEndColumn.get(row), (key == NULL_KEY) ? null : fKeyDictionary[key], fPayloadColumn.get(row));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the index of the first segment that starts at or after a time
+     */
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = fNbRows;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (fStartColumn.get(mid) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Search the rows intersecting a range, with the columns locked
+     */
+    private void search(long start, long end, IntConsumer consumer) {
+        Lock lock = lockColumns();
+        try {
+            getIndex().search(start, end, consumer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the interval index of the rows, built on the first call. The columns
+     * must be locked.
+     */
+    private IntervalIndex getIndex() {
+        IntervalIndex index = fIndex;
+        if (index == null) {
+            index = new IntervalIndex(fNbRows, fStartColumn::get, fEndColumn::get);
+            fIndex = index;
+        }
+        return index;
+    }
+
+    private List<E> toList() {
+        List<E> list = new ArrayList<>(fNbRows);
+        for (int i = 0; i < fNbRows; i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods from Collection
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int fNext = 0;
+
+            @Override
+            public boolean hasNext() {
+                return fNext < fNbRows;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(fNext++);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return fNbRows;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return fNbRows == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        if (!(o instanceof ISegment)) {
+            return false;
+        }
+        ISegment segment = (ISegment) o;
+        Lock lock = lockColumns();
+        try {
+            for (int i = lowerBound(segment.getStart()); i < fNbRows && fStartColumn.get(i) == segment.getStart(); i++) {
+                if (fEndColumn.get(i) == segment.getEnd() && get(i).equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsAll(@Nullable Collection<?> c) {
+        if (c == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Object o : c) {
+            if (!contains(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return toList().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return toList().toArray(a);
+    }
+
+    @Override
+    public boolean add(@Nullable E e) {
+        throw new UnsupportedOperationException("A columnar segment store is read-only"); //$NON-NLS-1$
+    }
+
+    @Override
+    public boolean addAll(@Nullable Collection<? extends E> c) {
+        throw new UnsupportedOperationException("A columnar segment store is read-only"); //$NON-NLS-1$
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("A columnar segment store is read-only"); //$NON-NLS-1$
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods added by ISegmentStore
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Iterable<E> getIntersectingElements(long start, long end) {
+        if (start <= fStart && end >= fEnd) {
+            return this;
+        }
+        List<E> iterable = new ArrayList<>();
+        search(start, end, row -> iterable.add(get(row)));
+        return iterable.isEmpty() ? Collections.emptyList() : iterable;
+    }
+
+    @Override
+    public Iterable<E> getIntersectingElements(long start, long end, Comparator<ISegment> order) {
+        if (start <= fStart && end >= fEnd) {
+            return fOrders.getSortedElements(order, fRows);
+        }
+        return fOrders.getSortedElements(order, fRows, consumer -> search(start, end, consumer));
+    }
+
+    @Override
+    public @Nullable List<E> getSortedElements(Comparator<ISegment> order) {
+        return fOrders.getSortedElements(order, fRows);
+    }
+
+    @Override
+    public void dispose() {
+        Lock lock = checkNotNull(fLock.writeLock());
+        lock.lock();
+        try {
+            if (fDisposed) {
+                return;
+            }
+            fDisposed = true;
+            Consumer<ByteBuffer> unmapper = UNMAPPER;
+            if (unmapper != null) {
+                for (ByteBuffer column : fMappedColumns) {
+                    unmapper.accept(checkNotNull(column));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,541 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.segmentstore.core.compact;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.segmentstore.core.IntervalIndex;
+import org.eclipse.tracecompass.internal.segmentstore.core.SortedOrderCache;
+import org.eclipse.tracecompass.segmentstore.core.ISegment;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentCodec;
+import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
+
+/**
+ * Implementation of an {@link ISegmentStore} that keeps the segments in
+ * memory, in parallel arrays of primitives instead of one object per segment.
+ * Each segment takes its start and end times, the id of its key in a
+ * dictionary and its payload, as encoded by an {@link ISegmentCodec}. The
+ * segment objects are only created when they are read.
+ *
+ * Like the {@link org.eclipse.tracecompass.internal.segmentstore.core.arraylist.LazyArrayListStore},
+ * the segments are appended as they are added and sorted upon reading if they
+ * were not added in order. The iteration order is by ascending start times,
+ * then end times, then the segments' natural ordering
+ * ({@link ISegment#compareTo}).
+ *
+ * Since the segments are created when they are read, the store returns
+ * segments equal to the ones that were added, not the same instances.
+ *
+ * The queries in other orders use the permutations of a
+ * {@link SortedOrderCache}, computed on the first query of an order after the
+ * segments were modified.
+ *
+ * Removal operations are not supported.
+ *
+ * @param <E>
+ *            The type of segment held in this store
+ */
+public class CompactSegmentStore<@NonNull E extends ISegment> implements ISegmentStore<E> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int NULL_KEY = -1;
+
+    private final ISegmentCodec<E> fCodec;
+    private final ReentrantLock fLock = new ReentrantLock(false);
+
+    /*
+     * The columns are only written past the size of the snapshots taken for
+     * reading, and sorting replaces them, so the snapshots can be read without
+     * the lock.
+     */
+    private long[] fStarts;
+    private long[] fEnds;
+    private int[] fKeys;
+    private long[] fPayloads;
+    private int fSize = 0;
+
+    private @Nullable Object[] fDictionary;
+    private int fDictionarySize = 0;
+    private final Map<Object, Integer> fKeyIds = new HashMap<>();
+
+    private @Nullable Columns fLastSnapshot = null;
+    private final SortedOrderCache<E> fOrders = new SortedOrderCache<>();
+
+    private volatile boolean fDirty = false;
+    private volatile long fStart = Long.MAX_VALUE;
+    private volatile long fEnd = Long.MIN_VALUE;
+
+    /**
+     * Constructor
+     *
+     * @param codec
+     *            The codec of the segments
+     */
+    public CompactSegmentStore(ISegmentCodec<E> codec) {
+        fCodec = codec;
+        fStarts = new long[INITIAL_CAPACITY];
+        fEnds = new long[INITIAL_CAPACITY];
+        fKeys = new int[INITIAL_CAPACITY];
+        fPayloads = new long[INITIAL_CAPACITY];
+        fDictionary = new @Nullable Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Constructor
+     *
+     * @param codec
+     *            The codec of the segments
+     * @param array
+     *            an array of elements to add to the segment store
+     */
+    public CompactSegmentStore(ISegmentCodec<E> codec, E[] array) {
+        this(codec);
+        for (E element : array) {
+            add(element);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods from Collection
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Iterator<E> iterator() {
+        return readColumns().iterator();
+    }
+
+    @Override
+    public boolean add(@Nullable E val) {
+        if (val == null) {
+            throw new IllegalArgumentException("Cannot add null value"); //$NON-NLS-1$
+        }
+
+        fLock.lock();
+        try {
+            if (fSize == fStarts.length) {
+                int capacity = fSize * 2;
+                fStarts = Arrays.copyOf(fStarts, capacity);
+                fEnds = Arrays.copyOf(fEnds, capacity);
+                fKeys = checkNotNull(Arrays.copyOf(fKeys, capacity));
+                fPayloads = Arrays.copyOf(fPayloads, capacity);
+            }
+            long start = val.getStart();
+            long end = val.getEnd();
+            if (fSize > 0) {
+                /* Equal segments are ordered by the natural order, when sorting */
+                long previousStart = fStarts[fSize - 1];
+                if (previousStart > start || (previousStart == start && fEnds[fSize - 1] >= end)) {
+                    fDirty = true;
+                }
+            }
+            fStarts[fSize] = start;
+            fEnds[fSize] = end;
+            fKeys[fSize] = getKeyId(fCodec.getKey(val));
+            fPayloads[fSize] = fCodec.getPayload(val);
+            fSize++;
+            fLastSnapshot = null;
+            fOrders.clear();
+            fStart = Math.min(fStart, start);
+            fEnd = Math.max(fEnd, end);
+            return true;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    private int getKeyId(@Nullable Object key) {
+        if (key == null) {
+            return NULL_KEY;
+        }
+        Integer id = fKeyIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (fDictionarySize == fDictionary.length) {
+            fDictionary = checkNotNull(Arrays.copyOf(fDictionary, fDictionarySize * 2));
+        }
+        int newId = fDictionarySize;
+        fDictionary[newId] = key;
+        fDictionarySize++;
+        fKeyIds.put(key, newId);
+        return newId;
+    }
+
+    @Override
+    public int size() {
+        fLock.lock();
+        try {
+            return fSize;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+        if (!(o instanceof ISegment)) {
+            return false;
+        }
+        ISegment segment = (ISegment) o;
+        Columns columns = readColumns();
+        for (int i = columns.lowerBound(segment.getStart()); i < columns.fNbRows && columns.fStartColumn[i] == segment.getStart(); i++) {
+            if (columns.fEndColumn[i] == segment.getEnd() && columns.get(i).equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsAll(@Nullable Collection<?> c) {
+        if (c == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Object o : c) {
+            if (!contains(o)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return readColumns().toList().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return readColumns().toList().toArray(a);
+    }
+
+    @Override
+    public boolean addAll(@Nullable Collection<? extends E> c) {
+        if (c == null) {
+            throw new IllegalArgumentException();
+        }
+
+        fLock.lock();
+        try {
+            c.forEach(this::add);
+            return true;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        fLock.lock();
+        try {
+            /* New columns, the snapshots being read keep the old ones */
+            fStarts = new long[INITIAL_CAPACITY];
+            fEnds = new long[INITIAL_CAPACITY];
+            fKeys = new int[INITIAL_CAPACITY];
+            fPayloads = new long[INITIAL_CAPACITY];
+            fSize = 0;
+            fDictionary = new @Nullable Object[INITIAL_CAPACITY];
+            fDictionarySize = 0;
+            fKeyIds.clear();
+            fLastSnapshot = null;
+            fOrders.clear();
+            fDirty = false;
+            fStart = Long.MAX_VALUE;
+            fEnd = Long.MIN_VALUE;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Methods added by ISegmentStore
+    // ------------------------------------------------------------------------
+
+    @Override
+    public Iterable<E> getIntersectingElements(long start, long end) {
+        Columns columns = readColumns();
+        if (start <= fStart && end >= fEnd) {
+            return columns;
+        }
+        List<E> iterable = new ArrayList<>();
+        columns.getIndex().search(start, end, row -> iterable.add(columns.get(row)));
+        return iterable.isEmpty() ? Collections.emptyList() : iterable;
+    }
+
+    @Override
+    public Iterable<E> getIntersectingElements(long start, long end, Comparator<ISegment> order) {
+        Columns columns = readColumns();
+        if (start <= fStart && end >= fEnd) {
+            return fOrders.getSortedElements(order, columns);
+        }
+        return fOrders.getSortedElements(order, columns, consumer -> columns.getIndex().search(start, end, consumer));
+    }
+
+    @Override
+    public @Nullable List<E> getSortedElements(Comparator<ISegment> order) {
+        return fOrders.getSortedElements(order, readColumns());
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    /**
+     * Get the codec of the segments of this store
+     *
+     * @return The codec
+     */
+    public ISegmentCodec<E> getCodec() {
+        return fCodec;
+    }
+
+    /**
+     * Write the segments of this store to a columnar file, which can be
+     * reopened as a {@link ColumnarSegmentStore} without reading the segments
+     *
+     * @param file
+     *            The file to write
+     * @param version
+     *            The version of the segments, to check when the file is
+     *            reopened
+     * @throws IOException
+     *             If the file cannot be written, or if a key is not a string
+     */
+    public void write(Path file, int version) throws IOException {
+        Columns columns = readColumns();
+        ColumnarSegmentStore.write(file, version, columns.fStartColumn, columns.fEndColumn, columns.fPayloadColumn,
+                columns.fKeyColumn, columns.fNbRows, columns.fKeyDictionary, columns.fNbKeys);
+    }
+
+    // ------------------------------------------------------------------------
+    // Reading and sorting
+    // ------------------------------------------------------------------------
+
+    /**
+     * Sort the columns if needed and get a snapshot of them
+     */
+    private Columns readColumns() {
+        fLock.lock();
+        try {
+            if (fDirty) {
+                sortStore();
+            }
+            Columns columns = fLastSnapshot;
+            if (columns == null) {
+                columns = new Columns();
+                fLastSnapshot = columns;
+            }
+            return columns;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Sort the columns by start times, then end times, then natural order.
+     * The columns are replaced by sorted copies. DO NOT CALL FROM OUTSIDE OF A
+     * LOCK!
+     */
+    private void sortStore() {
+        int[] order = new int[fSize];
+        for (int i = 0; i < fSize; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, new int[fSize], 0, fSize);
+
+        long[] starts = new long[fStarts.length];
+        long[] ends = new long[fEnds.length];
+        int[] keys = new int[fKeys.length];
+        long[] payloads = new long[fPayloads.length];
+        for (int i = 0; i < fSize; i++) {
+            int index = order[i];
+            starts[i] = fStarts[index];
+            ends[i] = fEnds[index];
+            keys[i] = fKeys[index];
+            payloads[i] = fPayloads[index];
+        }
+        fStarts = starts;
+        fEnds = ends;
+        fKeys = keys;
+        fPayloads = payloads;
+        fLastSnapshot = null;
+        fDirty = false;
+    }
+
+    /**
+     * Stable merge sort of the row indexes, that only compares the rows that
+     * are not already in order, so it is fast on nearly sorted rows
+     */
+    private void mergeSort(int[] order, int[] tmp, int from, int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int row = order[i];
+                int j = i - 1;
+                while (j >= from && compareRows(order[j], row) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(order, tmp, from, mid);
+        mergeSort(order, tmp, mid, to);
+        if (compareRows(order[mid - 1], order[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, tmp, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < mid && compareRows(tmp[left], tmp[right]) <= 0)) {
+                order[i] = tmp[left++];
+            } else {
+                order[i] = tmp[right++];
+            }
+        }
+    }
+
+    private int compareRows(int row1, int row2) {
+        int ret = Long.compare(fStarts[row1], fStarts[row2]);
+        if (ret != 0) {
+            return ret;
+        }
+        ret = Long.compare(fEnds[row1], fEnds[row2]);
+        if (ret != 0) {
+            return ret;
+        }
+        return decode(row1).compareTo(decode(row2));
+    }
+
+    private E decode(int row) {
+        int key = fKeys[row];
+        return fCodec.decode(fStarts[row], fEnds[row], (key == NULL_KEY) ? null : fDictionary[key], fPayloads[row]);
+    }
+
+    /**
+     * Snapshot of the sorted columns, whose segments are created as they are
+     * read
+     */
+    private final class Columns extends AbstractList<E> implements RandomAccess {
+
+        private final long[] fStartColumn = fStarts;
+        private final long[] fEndColumn = fEnds;
+        private final int[] fKeyColumn = fKeys;
+        private final long[] fPayloadColumn = fPayloads;
+        private final @Nullable Object[] fKeyDictionary = fDictionary;
+        private final int fNbKeys = fDictionarySize;
+        private final int fNbRows = fSize;
+        private volatile @Nullable IntervalIndex fIndex = null;
+
+        @Override
+        public E get(int row) {
+            int key = fKeyColumn[row];
+            return fCodec.decode(fStartColumn[row], fEndColumn[row], (key == NULL_KEY) ? null : fKeyDictionary[key], fPayloadColumn[row]);
+        }
+
+        /**
+         * Get the index of the first segment that starts at or after a time
+         *
+         * @param time
+         *            The time
+         * @return The index of the segment, or the number of segments if they
+         *         all start before the time
+         */
+        public int lowerBound(long time) {
+            int low = 0;
+            int high = fNbRows;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (fStartColumn[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Get the interval index of the rows, built on the first call
+         *
+         * @return The interval index
+         */
+        public IntervalIndex getIndex() {
+            IntervalIndex index = fIndex;
+            if (index == null) {
+                index = new IntervalIndex(fNbRows, row -> fStartColumn[row], row -> fEndColumn[row]);
+                fIndex = index;
+            }
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return fNbRows;
+        }
+
+        public List<E> toList() {
+            List<E> list = new ArrayList<>(fNbRows);
+            for (int i = 0; i < fNbRows; i++) {
+                list.add(get(i));
+            }
+            return list;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private int fNext = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return fNext < fNbRows;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(fNext++);
+                }
+            };
+        }
+    }
+}
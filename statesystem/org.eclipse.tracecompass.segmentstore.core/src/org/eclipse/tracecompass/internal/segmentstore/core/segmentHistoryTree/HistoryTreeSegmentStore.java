@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 École Polytechnique de Montréal
+ * Copyright (c) 2017, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -14,15 +14,18 @@ package org.eclipse.tracecompass.internal.segmentstore.core.segmentHistoryTree;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.NonNullUtils;
 import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.exceptions.RangeException;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 
@@ -37,6 +40,13 @@ import com.google.common.collect.Iterables;
  * the node type for the segment store. This class can be extended in the unit
  * tests with stub history trees and nodes to test its specific functionalities.
  *
+ * The segments are added in bulk: they are buffered, and each batch is sorted
+ * in the order of the nodes of the tree before it is inserted. Since the
+ * segments of an analysis arrive almost sorted by end time, the batches fill
+ * the latest leaf node directly, instead of going through the latest branch
+ * and sorting each node one segment at a time. The buffer is flushed before
+ * any query, so the segments are visible as soon as they are added.
+ *
  * @author Loic Prieur-Drevon
  * @author Geneviève Bastien
  * @param <E>
@@ -48,6 +58,14 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
     // they are not adequate for segments stores. Do some benchmarks
     private static final int MAX_CHILDREN = 50;
     private static final int BLOCK_SIZE = 64 * 1024;
+    /** Number of segments to buffer before inserting them in the tree */
+    private static final int BULK_LOAD_SIZE = 16 * 1024;
+    /** The order of the segments in the nodes of the tree: by end, then start */
+    private static final Comparator<ISegment> NODE_ORDER = (ISegment segment1, ISegment segment2) -> {
+        int cmp = Long.compare(segment1.getEnd(), segment2.getEnd());
+        return (cmp != 0) ? cmp : Long.compare(segment1.getStart(), segment2.getStart());
+    };
+
     /**
      * The history tree that sits underneath.
      */
@@ -56,6 +74,9 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
     /** Indicates if the history tree construction is done */
     private volatile boolean fFinishedBuilding = false;
 
+    /** Segments not yet inserted in the tree, also used as lock */
+    private final List<E> fBuffer = new ArrayList<>();
+
     /**
      * Constructor for new history files. Use this when creating a new history
      * from scratch.
@@ -137,6 +158,7 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
      * @return the end time of the SHT
      */
     public long getEndTime() {
+        flush();
         return getSHT().getTreeEnd();
     }
 
@@ -148,6 +170,7 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
      *            the time at which to close latest branch and tree
      */
     public void finishedBuilding(long endTime) {
+        flush();
         getSHT().closeTree(endTime);
         fFinishedBuilding = true;
     }
@@ -170,6 +193,9 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
 
     @Override
     public void dispose() {
+        synchronized (fBuffer) {
+            fBuffer.clear();
+        }
         if (fFinishedBuilding) {
             getSHT().closeFile();
         } else {
@@ -193,10 +219,33 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
 
     @Override
     public boolean add(E interval) {
-        getSHT().insert(interval);
+        if (interval.getStart() < getStartTime()) {
+            throw new RangeException("Segment Start:" + interval.getStart() + ", Tree Start:" + getStartTime()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        synchronized (fBuffer) {
+            fBuffer.add(interval);
+            if (fBuffer.size() >= BULK_LOAD_SIZE) {
+                flush();
+            }
+        }
         return true;
     }
 
+    /**
+     * Insert the buffered segments in the tree, sorted in the order of the
+     * nodes
+     */
+    private void flush() {
+        synchronized (fBuffer) {
+            if (fBuffer.isEmpty()) {
+                return;
+            }
+            fBuffer.sort(NODE_ORDER);
+            getSHT().insertAll(fBuffer);
+            fBuffer.clear();
+        }
+    }
+
     @Override
     public boolean addAll(@Nullable Collection<? extends E> c) {
         if (c == null) {
@@ -208,11 +257,13 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
 
     @Override
     public int size() {
+        flush();
         return getSHT().size();
     }
 
     @Override
     public boolean isEmpty() {
+        flush();
         return getSHT().isEmpty();
     }
 
@@ -278,6 +329,7 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
 
     @Override
     public @Nullable Iterator<E> iterator() {
+        flush();
         return getSHT().iterator();
     }
 
@@ -293,6 +345,9 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
 
     @Override
     public void clear() {
+        synchronized (fBuffer) {
+            fBuffer.clear();
+        }
         try {
             getSHT().cleanFile();
         } catch (IOException e) {
@@ -302,11 +357,13 @@ public class HistoryTreeSegmentStore<E extends ISegment> implements ISegmentStor
 
     @Override
     public @NonNull Iterable<E> getIntersectingElements(long start, long end) {
+        flush();
         return getSHT().getIntersectingElements(start, end);
     }
 
     @Override
     public Iterable<E> getIntersectingElements(long start, long end, @Nullable Comparator<ISegment> order) {
+        flush();
         if (order == null) {
             return getSHT().getIntersectingElements(start, end);
         }
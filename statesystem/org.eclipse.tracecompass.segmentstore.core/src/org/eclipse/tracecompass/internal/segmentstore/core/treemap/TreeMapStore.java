@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 EfficiOS Inc., Alexandre Montplaisir and others.
+ * Copyright (c) 2015, 2026 EfficiOS Inc., Alexandre Montplaisir and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,14 +21,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
-import java.util.NavigableSet;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
-import org.eclipse.tracecompass.segmentstore.core.BasicSegment;
+import org.eclipse.tracecompass.internal.segmentstore.core.IntervalIndex;
 import org.eclipse.tracecompass.segmentstore.core.ISegment;
 import org.eclipse.tracecompass.segmentstore.core.ISegmentStore;
 
@@ -49,6 +48,9 @@ import com.google.common.collect.TreeMultimap;
  * that if you want several segments with the same start and end times, make
  * sure their compareTo() differentiates them.
  *
+ * The intersection queries use an {@link IntervalIndex} of a sorted snapshot
+ * of the segments, built on the first query after the segments were modified.
+ *
  * Removal operations are not supported.
  *
  * @param <E>
@@ -66,7 +68,8 @@ public class TreeMapStore<@NonNull E extends ISegment> implements ISegmentStore<
     private volatile long fStart = Long.MAX_VALUE;
     private volatile long fEnd = Long.MIN_VALUE;
 
-    private @Nullable transient Iterable<E> fLastSnapshot = null;
+    private @Nullable transient List<E> fLastSnapshot = null;
+    private @Nullable transient IntervalIndex fIndex = null;
 
     /**
      * Constructor
@@ -95,12 +98,7 @@ public class TreeMapStore<@NonNull E extends ISegment> implements ISegmentStore<
     public Iterator<E> iterator() {
         fLock.readLock().lock();
         try {
-            Iterable<E> lastSnapshot = fLastSnapshot;
-            if (lastSnapshot == null) {
-                lastSnapshot = ImmutableList.copyOf(fStartTimesIndex.values());
-                fLastSnapshot = lastSnapshot;
-            }
-            return checkNotNull(lastSnapshot.iterator());
+            return checkNotNull(getSnapshot().iterator());
         } finally {
             fLock.readLock().unlock();
         }
@@ -120,6 +118,7 @@ public class TreeMapStore<@NonNull E extends ISegment> implements ISegmentStore<
                 fStart = Math.min(fStart, val.getStart());
                 fEnd = Math.max(fEnd, val.getEnd());
                 fLastSnapshot = null;
+                fIndex = null;
             }
             return put;
         } finally {
@@ -210,6 +209,8 @@ public class TreeMapStore<@NonNull E extends ISegment> implements ISegmentStore<
             fStart = Long.MAX_VALUE;
             fEnd = Long.MIN_VALUE;
             fStartTimesIndex.clear();
+            fLastSnapshot = null;
+            fIndex = null;
         } finally {
             fLock.writeLock().unlock();
         }
@@ -223,34 +224,36 @@ public class TreeMapStore<@NonNull E extends ISegment> implements ISegmentStore<
     public Iterable<E> getIntersectingElements(long start, long end) {
         fLock.readLock().lock();
         try {
+            List<E> snapshot = getSnapshot();
             if (start <= fStart && end >= fEnd) {
-                if (fLastSnapshot == null) {
-                    fLastSnapshot = ImmutableList.copyOf(fStartTimesIndex.values());
-                }
-                return checkNotNull(fLastSnapshot);
+                return snapshot;
             }
-            List<E> iterable = new ArrayList<>();
-            /**
-             * fromElement is used to search the navigable sets of the
-             * TreeMultiMap for Segments that end after start query time.
-             */
-            E fromElement = (E) new BasicSegment(Long.MIN_VALUE, start);
-            /* Get the sets of segments for startTimes <= end */
-            for (Collection<E> col : fStartTimesIndex.asMap().headMap(end, true).values()) {
-                /*
-                 * The collections of segments are NavigableSets for
-                 * TreeMultimap, add elements from the tailSet: which will have
-                 * endTimes >= start.
-                 */
-                NavigableSet<E> nav = (NavigableSet<E>) col;
-                iterable.addAll(nav.tailSet(fromElement, true));
+            IntervalIndex index = fIndex;
+            if (index == null) {
+                index = new IntervalIndex(snapshot.size(), i -> snapshot.get(i).getStart(), i -> snapshot.get(i).getEnd());
+                fIndex = index;
             }
+            List<E> iterable = new ArrayList<>();
+            index.search(start, end, i -> iterable.add(snapshot.get(i)));
             return iterable;
         } finally {
             fLock.readLock().unlock();
         }
     }
 
+    /**
+     * Get the sorted list of the segments, which is kept until the next
+     * modification. DO NOT CALL FROM OUTSIDE OF A LOCK!
+     */
+    private List<E> getSnapshot() {
+        List<E> lastSnapshot = fLastSnapshot;
+        if (lastSnapshot == null) {
+            lastSnapshot = ImmutableList.copyOf(fStartTimesIndex.values());
+            fLastSnapshot = lastSnapshot;
+        }
+        return lastSnapshot;
+    }
+
     @Override
     public void dispose() {
         clear();
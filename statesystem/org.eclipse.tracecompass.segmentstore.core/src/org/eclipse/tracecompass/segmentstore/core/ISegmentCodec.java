@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.segmentstore.core;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Converts the segments of a type to and from the primitive columns of a
+ * compact segment store, created with
+ * {@link SegmentStoreFactory#createCompactSegmentStore(ISegmentCodec)}.
+ *
+ * Besides its start and end times, a segment is stored as a key, which is
+ * kept once per distinct value in a dictionary, and a 64 bits payload. The key
+ * is meant for the data shared by many segments, like their name, and the
+ * payload for the small data specific to each one, like a thread ID.
+ *
+ * @param <E>
+ *            The type of segment
+ * @since 3.2
+ */
+public interface ISegmentCodec<E extends ISegment> {
+
+    /**
+     * Get the key of a segment. Equal keys are stored once.
+     *
+     * @param segment
+     *            The segment
+     * @return The key, which should be immutable
+     */
+    @Nullable Object getKey(E segment);
+
+    /**
+     * Get the payload of a segment
+     *
+     * @param segment
+     *            The segment
+     * @return The payload
+     */
+    long getPayload(E segment);
+
+    /**
+     * Create a segment from its stored values. The segment created from the
+     * values of another one should be equal to it.
+     *
+     * @param start
+     *            The start time of the segment
+     * @param end
+     *            The end time of the segment
+     * @param key
+     *            The key of the segment
+     * @param payload
+     *            The payload of the segment
+     * @return The segment
+     */
+    E decode(long start, long end, @Nullable Object key, long payload);
+}
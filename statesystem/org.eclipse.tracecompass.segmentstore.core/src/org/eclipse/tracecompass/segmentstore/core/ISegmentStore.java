@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 EfficiOS Inc., Alexandre Montplaisir
+ * Copyright (c) 2015, 2026 EfficiOS Inc., Alexandre Montplaisir
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -132,6 +132,25 @@ public interface ISegmentStore<E extends ISegment> extends Collection<E> {
         return list;
     }
 
+    /**
+     * Get all the segments sorted in the specified order, as a list to read by
+     * rank, if the segment store keeps the segments in this order. The
+     * in-memory segment stores compute the permutation of their segments in
+     * an order on the first call with a comparator, and keep it until segments
+     * are added, so that the segments are read through the permutation
+     * instead of being copied and sorted for each query. The comparators are
+     * compared by identity, so the same instance should be used for each call.
+     *
+     * @param order
+     *            The desired order of the segments
+     * @return A read-only list of the segments in this order, or null if the
+     *         segment store does not keep the segments in other orders
+     * @since 3.2
+     */
+    default @Nullable List<E> getSortedElements(Comparator<ISegment> order) {
+        return null;
+    }
+
     /**
      * Retrieve all elements that inclusively cross another segment, sorted in
      * the specified order. We define this target segment by a predicate that
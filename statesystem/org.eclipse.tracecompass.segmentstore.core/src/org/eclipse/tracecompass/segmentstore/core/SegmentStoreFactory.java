@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Polytechnique
+ * Copyright (c) 2016, 2026 Polytechnique and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -24,6 +24,8 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.datastore.core.interval.IHTIntervalReader;
 import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.ArrayListStore;
 import org.eclipse.tracecompass.internal.segmentstore.core.arraylist.LazyArrayListStore;
+import org.eclipse.tracecompass.internal.segmentstore.core.compact.ColumnarSegmentStore;
+import org.eclipse.tracecompass.internal.segmentstore.core.compact.CompactSegmentStore;
 import org.eclipse.tracecompass.internal.segmentstore.core.segmentHistoryTree.HistoryTreeSegmentStore;
 import org.eclipse.tracecompass.internal.segmentstore.core.treemap.TreeMapStore;
 
@@ -69,7 +71,18 @@ public final class SegmentStoreFactory<E> {
          *
          * @since 2.0
          */
-        OnDisk
+        OnDisk,
+        /**
+         * Segment store that keeps the segments in memory in primitive
+         * arrays, ideal for very large stores of segments that can be encoded
+         * compactly. The segments are created when they are read. These kind
+         * of stores should be created using the
+         * {@link SegmentStoreFactory#createCompactSegmentStore(ISegmentCodec)}
+         * factory method
+         *
+         * @since 3.2
+         */
+        Compact
     }
 
     private SegmentStoreFactory() {
@@ -148,6 +161,75 @@ public final class SegmentStoreFactory<E> {
         return new HistoryTreeSegmentStore<>(segmentFile, segmentReader, version);
     }
 
+    /**
+     * SegmentStore factory method that creates a compact segment store, which
+     * keeps the segments in primitive arrays and creates them when they are
+     * read
+     *
+     * @param codec
+     *            The codec to convert the segments to and from their compact
+     *            representation
+     * @return an {@link ISegmentStore}
+     * @since 3.2
+     */
+    public static <E extends ISegment> ISegmentStore<E> createCompactSegmentStore(ISegmentCodec<E> codec) {
+        return new CompactSegmentStore<>(codec);
+    }
+
+    /**
+     * Write the segments of a store to a columnar file, which can be reopened
+     * with {@link #openColumnarSegmentStore(Path, ISegmentCodec, int)} without
+     * reading the segments, or read by external tools. The columns are the
+     * start and end times, key and payload of the segments, as encoded by the
+     * codec. The keys must be strings, like the names of the segments.
+     *
+     * @param store
+     *            The segment store to write. It is copied to a compact
+     *            segment store first if it is not one with the same codec.
+     * @param codec
+     *            The codec to convert the segments to their columns
+     * @param segmentFile
+     *            The file to write
+     * @param version
+     *            The version number of the segments, which must match when
+     *            the file is reopened
+     * @throws IOException
+     *             If the file cannot be written, or if a key is not a string
+     * @since 3.2
+     */
+    public static <E extends ISegment> void writeColumnarSegmentStore(ISegmentStore<E> store, ISegmentCodec<E> codec, Path segmentFile, int version) throws IOException {
+        CompactSegmentStore<E> compactStore;
+        if (store instanceof CompactSegmentStore && ((CompactSegmentStore<E>) store).getCodec() == codec) {
+            compactStore = (CompactSegmentStore<E>) store;
+        } else {
+            compactStore = new CompactSegmentStore<>(codec);
+            compactStore.addAll(store);
+        }
+        compactStore.write(segmentFile, version);
+    }
+
+    /**
+     * SegmentStore factory method that opens a read-only segment store from a
+     * columnar file written by
+     * {@link #writeColumnarSegmentStore(ISegmentStore, ISegmentCodec, Path, int)}.
+     * The file is memory-mapped, the segments are created when they are read.
+     *
+     * @param segmentFile
+     *            The columnar file
+     * @param codec
+     *            The codec to create the segments from their columns
+     * @param version
+     *            The expected version number of the segments
+     * @return an {@link ISegmentStore}
+     * @throws IOException
+     *             If the file cannot be read, or was written with another
+     *             version
+     * @since 3.2
+     */
+    public static <E extends ISegment> ISegmentStore<E> openColumnarSegmentStore(Path segmentFile, ISegmentCodec<E> codec, int version) throws IOException {
+        return new ColumnarSegmentStore<>(segmentFile, codec, version);
+    }
+
     private static Set<@NonNull SegmentStoreType> getListOfFlags(SegmentStoreType... segmentTypes) {
         Set<@NonNull SegmentStoreType> segments = new HashSet<>();
         for(@Nullable SegmentStoreType segmentType : segmentTypes ) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 École Polytechnique de Montréal
+ * Copyright (c) 2016, 2026 École Polytechnique de Montréal
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -22,6 +22,9 @@ import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jdt.annotation.NonNull;
@@ -62,6 +65,7 @@ public class HistoryTreeBackendBenchmark {
     private static final @NonNull String TEST_QUERY_RANGE_ID = "Query History Range: ";
     private static final @NonNull String TEST_2D_QUERY_ID = "2D Queries: ";
     private static final @NonNull String TEST_REVERSE_2D_QUERY_ID = "Reverse 2D Queries: ";
+    private static final @NonNull String TEST_PARALLEL_2D_QUERY_ID = "Parallel 2D Queries (%d threads): ";
     private static final @NonNull String ROOT_NODE = "root";
     private static final int QUEUE_SIZE = 10000;
     private static final long SEED = 5575784704147L;
@@ -279,6 +283,29 @@ public class HistoryTreeBackendBenchmark {
         PerformanceMeter pmReverse2DQuery = perf.createPerformanceMeter(TEST_PREFIX + TEST_REVERSE_2D_QUERY_ID + fName);
         perf.tagAsSummary(pmReverse2DQuery, TEST_REVERSE_2D_QUERY_ID + fShortName, Dimension.CPU_TIME);
 
+        /*
+         * The 2D queries of all the attributes are run with pools of
+         * increasing sizes, up to the number of processors, to see how they
+         * scale. The elapsed time is measured, as the CPU time of the calling
+         * thread does not include the workers.
+         */
+        SortedSet<Integer> parallelisms = new TreeSet<>();
+        int nbProcessors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < nbProcessors; threads *= 2) {
+            parallelisms.add(threads);
+        }
+        parallelisms.add(nbProcessors);
+        List<ForkJoinPool> pools = new ArrayList<>();
+        List<PerformanceMeter> pmParallel2DQueries = new ArrayList<>();
+        for (int threads : parallelisms) {
+            String id = String.format(TEST_PARALLEL_2D_QUERY_ID, threads);
+            PerformanceMeter pmParallel2DQuery = perf.createPerformanceMeter(TEST_PREFIX + id + fName);
+            perf.tagAsSummary(pmParallel2DQuery, id + fShortName, Dimension.ELAPSED_PROCESS);
+            pmParallel2DQueries.add(pmParallel2DQuery);
+            /* With a single thread, the tree is read on the calling thread */
+            pools.add(threads > 1 ? new ForkJoinPool(threads) : null);
+        }
+
         for (int i = 0; i < fNbLoops; i++) {
             try {
                 /* Create the state system */
@@ -361,6 +388,22 @@ public class HistoryTreeBackendBenchmark {
                 }
                 pmReverse2DQuery.stop();
 
+                /* Benchmark 2D query of all the attributes, in parallel */
+                if (backend instanceof HistoryTreeBackend) {
+                    HistoryTreeBackend htBackend = (HistoryTreeBackend) backend;
+                    for (int p = 0; p < pools.size(); p++) {
+                        htBackend.setQueryPool(pools.get(p));
+                        PerformanceMeter pmParallel2DQuery = pmParallel2DQueries.get(p);
+                        pmParallel2DQuery.start();
+                        Iterable<@NonNull ITmfStateInterval> query2d = ss.query2D(subAttributes, ss.getStartTime(), ss.getCurrentEndTime());
+                        Iterator<@NonNull ITmfStateInterval> iterator = query2d.iterator();
+                        while (iterator.hasNext()) {
+                            iterator.next();
+                        }
+                        pmParallel2DQuery.stop();
+                    }
+                }
+
                 /* Benchmark the full queries */
                 pmFullQuery.start();
                 for (int j = 0; j < QUERY_COUNT; j++) {
@@ -390,6 +433,12 @@ public class HistoryTreeBackendBenchmark {
         pmRangeQuery.commit();
         pm2DQuery.commit();
         pmReverse2DQuery.commit();
+        pmParallel2DQueries.forEach(PerformanceMeter::commit);
+        pools.forEach(pool -> {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        });
     }
 
     /**
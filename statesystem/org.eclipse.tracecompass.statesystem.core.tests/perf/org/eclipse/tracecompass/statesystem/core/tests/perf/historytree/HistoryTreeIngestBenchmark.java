@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.statesystem.core.tests.perf.historytree;
+
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.tracecompass.common.core.NonNullUtils;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
+import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Benchmarks the rate at which a state system with a history tree backend
+ * ingests intervals, from the first state change to the history file being
+ * closed. The nodes are written by the writer thread of the tree, so the
+ * elapsed time is measured.
+ */
+@RunWith(Parameterized.class)
+public class HistoryTreeIngestBenchmark {
+
+    private static final @NonNull String TEST_PREFIX = "org.eclipse.tracecompass#History Tree Ingest#";
+    private static final @NonNull String SSID = "ingest";
+    private static final int NB_ATTRIBUTES = 1000;
+    private static final int NB_STATE_CHANGES = 2000000;
+    private static final int LOOP_COUNT = 10;
+    private static final long SEED = 5575784704147L;
+
+    private final String fName;
+    private final int fQueueSize;
+
+    /**
+     * Constructor
+     *
+     * @param name
+     *            The name of the test
+     * @param queueSize
+     *            The size of the interval queue of the threaded backend, or 0
+     *            to insert the intervals on the thread of the state provider
+     */
+    public HistoryTreeIngestBenchmark(String name, int queueSize) {
+        fName = name;
+        fQueueSize = queueSize;
+    }
+
+    /**
+     * @return The arrays of parameters
+     */
+    @Parameters(name = "{index}: {0}")
+    public static Iterable<Object[]> getParameters() {
+        return Arrays.asList(new Object[][] {
+                { "Single thread backend", 0 },
+                { "Threaded backend", 10000 },
+        });
+    }
+
+    /**
+     * Benchmark the building of the state system
+     */
+    @Test
+    public void testIngest() {
+        Performance perf = Performance.getDefault();
+        PerformanceMeter pm = perf.createPerformanceMeter(TEST_PREFIX + fName);
+        perf.tagAsSummary(pm, "History Tree Ingest: " + fName, Dimension.ELAPSED_PROCESS);
+
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            File file = null;
+            try {
+                file = File.createTempFile("tmpStateSystem", null);
+                IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(SSID, NonNullUtils.checkNotNull(file), 1, 0, fQueueSize);
+                ITmfStateSystemBuilder ss = StateSystemFactory.newStateSystem(backend);
+                int[] quarks = new int[NB_ATTRIBUTES];
+                for (int j = 0; j < NB_ATTRIBUTES; j++) {
+                    quarks[j] = ss.getQuarkAbsoluteAndAdd("Threads", String.valueOf(j), "Status");
+                }
+                Random random = new Random(SEED);
+
+                long start = System.nanoTime();
+                pm.start();
+                long time = 0;
+                for (int j = 0; j < NB_STATE_CHANGES; j++) {
+                    time += random.nextInt(100) + 1;
+                    ss.modifyAttribute(time, random.nextInt(8), quarks[random.nextInt(NB_ATTRIBUTES)]);
+                }
+                ss.closeHistory(time);
+                pm.stop();
+                long elapsed = System.nanoTime() - start;
+
+                if (i == 0) {
+                    System.out.println(fName + ": " + (long) (NB_STATE_CHANGES / (elapsed / 1e9)) + " intervals/s");
+                }
+                ss.dispose();
+            } catch (IOException e) {
+                fail(e.getMessage());
+            } finally {
+                if (file != null) {
+                    file.delete();
+                }
+            }
+        }
+        pm.commit();
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Ericsson
+ * Copyright (c) 2015, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -21,6 +21,8 @@ import static org.junit.Assert.assertNotEquals;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.tracecompass.internal.statesystem.core.AttributeTree;
 import org.eclipse.tracecompass.internal.statesystem.core.StateSystem;
@@ -125,4 +127,43 @@ public class AttributeTreeTest {
             file.delete();
         }
     }
+
+    /**
+     * Test that attributes with the same name under different parents are
+     * distinct, and that the children are returned in insertion order, with
+     * enough attributes to grow the tree many times.
+     */
+    @Test
+    public void testManyAttributes() {
+        final int nbThreads = 10000;
+        IStateHistoryBackend backend = StateHistoryBackendFactory.createNullBackend("test");
+        StateSystem ss = new StateSystem(backend);
+        try {
+            AttributeTree attributeTree = new AttributeTree(ss);
+            int threadsQuark = attributeTree.getQuarkAndAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS);
+            List<Integer> expectedChildren = new ArrayList<>();
+            List<Integer> expectedDescendants = new ArrayList<>();
+            for (int i = nbThreads - 1; i >= 0; i--) {
+                int threadQuark = attributeTree.getQuarkAndAdd(threadsQuark, String.valueOf(i));
+                int statusQuark = attributeTree.getQuarkAndAdd(threadQuark, STATUS);
+                expectedChildren.add(threadQuark);
+                expectedDescendants.add(threadQuark);
+                expectedDescendants.add(statusQuark);
+            }
+            assertEquals(1 + 2 * nbThreads, attributeTree.getNbAttributes());
+            assertEquals(expectedChildren, attributeTree.getSubAttributes(threadsQuark, false));
+            assertEquals(expectedDescendants, attributeTree.getSubAttributes(threadsQuark, true));
+
+            for (int i = 0; i < nbThreads; i++) {
+                int quark = attributeTree.getQuarkDontAdd(ITmfStateSystem.ROOT_ATTRIBUTE, THREADS, String.valueOf(i), STATUS);
+                assertEquals(expectedDescendants.get(2 * (nbThreads - 1 - i) + 1).intValue(), quark);
+                assertEquals(THREADS + '/' + i + '/' + STATUS, attributeTree.getFullAttributeName(quark));
+                assertEquals(quark, attributeTree.getQuarkAndAdd(threadsQuark, String.valueOf(i), STATUS));
+            }
+            assertEquals(ITmfStateSystem.INVALID_ATTRIBUTE, attributeTree.getQuarkDontAdd(threadsQuark, STATUS));
+            assertEquals(1 + 2 * nbThreads, attributeTree.getNbAttributes());
+        } finally {
+            ss.dispose();
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 École Polytechnique de Montréal
+ * Copyright (c) 2017, 2026 École Polytechnique de Montréal and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -15,6 +15,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,8 +25,12 @@ import java.util.concurrent.TimeUnit;
 import org.eclipse.tracecompass.internal.statesystem.core.StateSystem;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateChangeBatch;
 import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
 import org.eclipse.tracecompass.statesystem.core.backend.StateHistoryBackendFactory;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue;
 import org.eclipse.tracecompass.statesystem.core.statevalue.ITmfStateValue.Type;
 import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
@@ -221,6 +226,66 @@ public class StateSystemTest {
         assertEquals(attribute3, ss.getAttributeName(quark3));
     }
 
+    /**
+     * Test that a batch of state changes gives the same history as the
+     * changes applied one by one
+     *
+     * @throws StateSystemDisposedException
+     *             Should not happen
+     */
+    @Test
+    public void testModifyAttributes() throws StateSystemDisposedException {
+        ITmfStateSystemBuilder ss = new StateSystem(StateHistoryBackendFactory.createInMemoryBackend("Test", 0));
+        int quark1 = ss.getQuarkAbsoluteAndAdd("1");
+        int quark2 = ss.getQuarkAbsoluteAndAdd("2");
+        int quark3 = ss.getQuarkAbsoluteAndAdd("3");
+
+        StateChangeBatch batch = new StateChangeBatch();
+        batch.add(quark1, 1);
+        batch.add(quark2, "a");
+        ss.modifyAttributes(10, batch);
+        batch.clear();
+        assertTrue(batch.isEmpty());
+
+        /* The same value, a new value, a change at the same time, and a new attribute */
+        batch.add(quark1, 1);
+        batch.add(quark2, "b");
+        batch.add(quark2, "c");
+        batch.add(quark3, 3L);
+        ss.modifyAttributes(20, batch);
+        batch.clear();
+
+        batch.add(quark3, 4L);
+        ss.updateOngoingStates(batch);
+        batch.clear();
+
+        /* The change with the wrong type fails, the previous change is applied */
+        batch.add(quark1, 2);
+        batch.add(quark2, 5L);
+        try {
+            ss.modifyAttributes(30, batch);
+            fail();
+        } catch (StateValueTypeException e) {
+            /* Expected */
+        }
+        ss.closeHistory(40);
+
+        assertInterval(ss.querySingleState(5, quark1), 0, 9, null);
+        assertInterval(ss.querySingleState(10, quark1), 10, 29, 1);
+        assertInterval(ss.querySingleState(30, quark1), 30, 40, 2);
+        assertInterval(ss.querySingleState(10, quark2), 10, 19, "a");
+        assertInterval(ss.querySingleState(20, quark2), 20, 40, "c");
+        assertInterval(ss.querySingleState(5, quark3), 0, 19, null);
+        assertInterval(ss.querySingleState(20, quark3), 20, 40, 4L);
+        ss.dispose();
+    }
+
+    private static void assertInterval(ITmfStateInterval interval, long start, long end, Object value) {
+        assertEquals(start, interval.getStartTime());
+        assertEquals(end, interval.getEndTime());
+        assertEquals(value, interval.getValue());
+    }
+
     private static void assertArrayContent(List<Integer> expected, List<Integer> actual) {
         // Use a temp list to remove matched object, in case there are
         // duplicates
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Ericsson and others
+ * Copyright (c) 2016, 2026 Ericsson and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -12,19 +12,40 @@
 package org.eclipse.tracecompass.statesystem.core.tests.backend;
 
 import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTCheckpoints;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HistoryTreeBackend;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateSystemFactory;
 import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
+import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+import org.eclipse.tracecompass.statesystem.core.interval.TmfStateInterval;
 import org.junit.After;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
@@ -88,6 +109,7 @@ public class HistoryTreeBackendTest extends StateHistoryBackendTestBase {
         }
         for (File historyTreeFile : fHistoryTreeFiles) {
             historyTreeFile.delete();
+            HTCheckpoints.getFile(historyTreeFile).delete();
         }
     }
 
@@ -117,4 +139,254 @@ public class HistoryTreeBackendTest extends StateHistoryBackendTestBase {
         fBackendMap.put(reOpenedBackend, historyTreeFile);
         return reOpenedBackend;
     }
+
+    /**
+     * Test that the 2D queries read in parallel on a finished tree return the
+     * same intervals as the queries read on a single thread.
+     */
+    @Test
+    public void testParallel2DQuery() {
+        final int nbAttr = 50;
+        final long duration = 10;
+        final long startTime = 0;
+        final long endTime = 5000;
+
+        List<ITmfStateInterval> intervals = new ArrayList<>();
+        for (long t = startTime + 1; t <= endTime + duration; t++) {
+            intervals.add(new TmfStateInterval(
+                    Math.max(startTime, t - duration),
+                    Math.min(endTime, t - 1),
+                    (int) t % nbAttr,
+                    t));
+        }
+        HistoryTreeBackend backend = (HistoryTreeBackend) prepareBackend(startTime, endTime, intervals);
+        assertNotNull(backend);
+        /* Make sure the tree has a few levels to split */
+        assertTrue(backend.getFileSize() > 16L * fBlockSize);
+
+        List<Integer> quarks = new ArrayList<>();
+        for (int quark = 0; quark < nbAttr; quark += 3) {
+            quarks.add(quark);
+        }
+        IntegerRangeCondition quarkCondition = IntegerRangeCondition.forDiscreteRange(quarks);
+        TimeRangeCondition[] timeConditions = {
+                TimeRangeCondition.forContinuousRange(startTime, endTime),
+                TimeRangeCondition.forContinuousRange(1000, 1100),
+                TimeRangeCondition.forDiscreteRange(Arrays.asList(10L, 2000L, 4999L))
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (TimeRangeCondition timeCondition : timeConditions) {
+                for (boolean reverse : new boolean[] { false, true }) {
+                    backend.setQueryPool(null);
+                    Set<ITmfStateInterval> expected = new HashSet<>();
+                    backend.query2D(quarkCondition, timeCondition, reverse).forEach(expected::add);
+                    assertFalse(expected.isEmpty());
+
+                    backend.setQueryPool(pool);
+                    List<ITmfStateInterval> actual = new ArrayList<>();
+                    backend.query2D(quarkCondition, timeCondition, reverse).forEach(actual::add);
+                    assertEquals(expected.size(), actual.size());
+                    assertEquals(expected, new HashSet<>(actual));
+
+                    /* Abandon a query after its first interval */
+                    Iterator<ITmfStateInterval> iterator = backend.query2D(quarkCondition, timeCondition, reverse).iterator();
+                    assertTrue(iterator.hasNext());
+                    assertTrue(expected.contains(iterator.next()));
+                }
+            }
+            assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test that the string values inserted by a state system are stored once
+     * with the history and that the queries return the same instance for equal
+     * strings.
+     *
+     * @throws IOException
+     *             If the backend cannot be created
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     * @throws AttributeNotFoundException
+     *             If the attributes are not read back
+     */
+    @Test
+    public void testSharedStrings() throws IOException, StateSystemDisposedException, AttributeNotFoundException {
+        final int nbThreads = 20;
+        final long endTime = 2000;
+
+        IStateHistoryBackend backend = getBackendForBuilding(0);
+        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+        for (long t = 0; t < endTime; t++) {
+            int quark = ssb.getQuarkAbsoluteAndAdd("Threads", String.valueOf(t % nbThreads), "Exec_name");
+            /* A new instance of the string at each state change */
+            ssb.modifyAttribute(t, new String("name-" + (t % 7)), quark);
+        }
+        ssb.closeHistory(endTime);
+
+        IStateHistoryBackend queryBackend = getBackendForQuerying(backend);
+        ITmfStateSystem ss = (queryBackend == backend) ? ssb : StateSystemFactory.newStateSystem(queryBackend, false);
+        /* The attribute tree is read back after the strings */
+        int lastQuark = ss.getQuarkAbsolute("Threads", String.valueOf(nbThreads - 1), "Exec_name");
+
+        Map<Object, Object> instances = new HashMap<>();
+        int count = 0;
+        for (ITmfStateInterval interval : ss.query2D(ss.getSubAttributes(-1, true), 0, endTime)) {
+            Object value = interval.getValue();
+            if (value != null) {
+                assertSame(instances.computeIfAbsent(value, v -> v), value);
+                count++;
+            }
+        }
+        assertEquals(7, instances.size());
+        assertTrue(count >= endTime - nbThreads);
+        assertEquals("name-" + ((endTime - 1) % 7), ss.querySingleState(endTime - 1, lastQuark).getValue());
+    }
+
+    /**
+     * Test that a history resumed after its end time, with more state changes
+     * inserted, gives the same states as the history built in one go.
+     *
+     * @throws IOException
+     *             If the backends cannot be created
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testResume() throws IOException, StateSystemDisposedException {
+        final long resumeTime = 2000;
+        final long endTime = 5000;
+
+        /* The history built in one go */
+        ITmfStateSystemBuilder expected = StateSystemFactory.newStateSystem(getBackendForBuilding(0));
+        insertStates(expected, 0, endTime);
+        expected.closeHistory(endTime);
+
+        /* The history built until the resume time, then resumed */
+        IStateHistoryBackend backend = getBackendForBuilding(0);
+        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+        insertStates(ssb, 0, resumeTime + 1);
+        ssb.closeHistory(resumeTime);
+        ssb.dispose();
+        File historyTreeFile = checkNotNull(fBackendMap.remove(backend));
+        HistoryTreeBackend resumedBackend = new HistoryTreeBackend(SSID, historyTreeFile, PROVIDER_VERSION);
+        fBackendMap.put(resumedBackend, historyTreeFile);
+
+        ITmfStateSystemBuilder resumed = StateSystemFactory.resumeStateSystem(resumedBackend);
+        assertEquals(resumeTime, resumed.getCurrentEndTime());
+        /* The states at the end of the history are the ongoing states */
+        assertEquals(expected.queryFullState(resumeTime).get(1).getValue(), resumed.queryOngoing(1));
+        insertStates(resumed, resumeTime + 1, endTime);
+        resumed.closeHistory(endTime);
+
+        IStateHistoryBackend queryBackend = getBackendForQuerying(resumedBackend);
+        ITmfStateSystem ss = (queryBackend == resumedBackend) ? resumed : StateSystemFactory.newStateSystem(queryBackend, false);
+        assertEquals(expected.getNbAttributes(), ss.getNbAttributes());
+        assertEquals(endTime, ss.getCurrentEndTime());
+        for (long t = 0; t <= endTime; t += 7) {
+            List<ITmfStateInterval> expectedStates = expected.queryFullState(t);
+            List<ITmfStateInterval> states = ss.queryFullState(t);
+            for (int quark = 0; quark < expectedStates.size(); quark++) {
+                assertEquals("t=" + t + ", quark=" + quark, expectedStates.get(quark).getValue(), states.get(quark).getValue());
+            }
+        }
+    }
+
+    /**
+     * Test that the full queries answered from the checkpoints give the same
+     * states as the full queries on the tree alone.
+     *
+     * @throws IOException
+     *             If the backend cannot be created
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testCheckpoints() throws IOException, StateSystemDisposedException {
+        final long endTime = 5000;
+
+        /* The history queried without checkpoints */
+        IStateHistoryBackend expectedBackend = getBackendForBuilding(0);
+        ((HistoryTreeBackend) expectedBackend).setCheckpoints(null);
+        ITmfStateSystemBuilder expected = StateSystemFactory.newStateSystem(expectedBackend);
+        insertCheckpointStates(expected, endTime);
+
+        IStateHistoryBackend backend = getBackendForBuilding(0);
+        ((HistoryTreeBackend) backend).setCheckpoints(new HTCheckpoints(20));
+        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+        insertCheckpointStates(ssb, endTime);
+        assertTrue(HTCheckpoints.getFile(checkNotNull(fBackendMap.get(backend))).exists());
+
+        IStateHistoryBackend queryBackend = getBackendForQuerying(backend);
+        ITmfStateSystem ss = (queryBackend == backend) ? ssb : StateSystemFactory.newStateSystem(queryBackend, false);
+        for (long t = 0; t <= endTime; t += 7) {
+            assertEquals("t=" + t, expected.queryFullState(t), ss.queryFullState(t));
+        }
+    }
+
+    /**
+     * Test that the checkpoints stay under their maximum memory, being spaced
+     * further apart, and still give the same states.
+     *
+     * @throws IOException
+     *             If the backend cannot be created
+     * @throws StateSystemDisposedException
+     *             If the state system is disposed
+     */
+    @Test
+    public void testCheckpointsMaxMemory() throws IOException, StateSystemDisposedException {
+        final long endTime = 5000;
+        final long maxMemory = 4096;
+
+        IStateHistoryBackend expectedBackend = getBackendForBuilding(0);
+        ((HistoryTreeBackend) expectedBackend).setCheckpoints(null);
+        ITmfStateSystemBuilder expected = StateSystemFactory.newStateSystem(expectedBackend);
+        insertCheckpointStates(expected, endTime);
+
+        IStateHistoryBackend backend = getBackendForBuilding(0);
+        HTCheckpoints checkpoints = new HTCheckpoints(20, maxMemory);
+        ((HistoryTreeBackend) backend).setCheckpoints(checkpoints);
+        ITmfStateSystemBuilder ssb = StateSystemFactory.newStateSystem(backend);
+        insertCheckpointStates(ssb, endTime);
+        assertTrue(checkpoints.getNbCheckpoints() > 1);
+        assertTrue(checkpoints.getMemorySize() <= maxMemory);
+
+        for (long t = 0; t <= endTime; t += 7) {
+            assertEquals("t=" + t, expected.queryFullState(t), ssb.queryFullState(t));
+        }
+    }
+
+    private static void insertCheckpointStates(ITmfStateSystemBuilder ssb, long endTime) {
+        int longQuark = ssb.getQuarkAbsoluteAndAdd("Long");
+        insertStates(ssb, 0, 100);
+        /* A long state that crosses many checkpoints */
+        ssb.modifyAttribute(100, "long", longQuark);
+        insertStates(ssb, 100, 4000);
+        ssb.modifyAttribute(4000, null, longQuark);
+        insertStates(ssb, 4000, endTime);
+        ssb.closeHistory(endTime);
+    }
+
+    /**
+     * Insert state changes of string and integer values, with an attribute
+     * that only appears after 3000
+     */
+    private static void insertStates(ITmfStateSystemBuilder ssb, long start, long end) {
+        for (long t = start; t < end; t++) {
+            int thread = (int) (t % 10);
+            int quark = ssb.getQuarkAbsoluteAndAdd("Threads", String.valueOf(thread));
+            if (thread % 2 == 0) {
+                ssb.modifyAttribute(t, "name-" + (t % 7), quark);
+            } else {
+                ssb.modifyAttribute(t, (int) (t % 13), quark);
+            }
+            if (t >= 3000 && t % 100 == 0) {
+                ssb.modifyAttribute(t, (int) t, ssb.getQuarkAbsoluteAndAdd("Late"));
+            }
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.statesystem.core.tests.backend.historytree;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTConfig;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTInterval;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNode;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNodeCache;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HT_IO;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.IHistoryTree;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.IHistoryTree.IHTNodeFactory;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.LeafNode;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test the writing of the nodes by the {@link HT_IO} class
+ */
+public class HTIOTest {
+
+    private static final int BLOCK_SIZE = 4096;
+    private static final int NB_NODES = 100;
+
+    @NonNullByDefault({})
+    private static final IHTNodeFactory FACTORY = new IHTNodeFactory() {
+        @Override
+        public HTNode createCoreNode(HTConfig config, int seqNumber, int parentSeqNumber, long start) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HTNode createLeafNode(HTConfig config, int seqNumber, int parentSeqNumber, long start) {
+            return new LeafNode(config, seqNumber, parentSeqNumber, start);
+        }
+    };
+
+    private final File fFile;
+    private final HTConfig fConfig;
+
+    /**
+     * Constructor, creating the history file
+     *
+     * @throws IOException
+     *             If the file cannot be created
+     */
+    public HTIOTest() throws IOException {
+        fFile = checkNotNull(Files.createTempFile("HTIOTest", ".ht").toFile());
+        fConfig = new HTConfig(fFile, BLOCK_SIZE, 2, 1, 0);
+    }
+
+    /**
+     * Delete the history file
+     */
+    @After
+    public void cleanup() {
+        fFile.delete();
+    }
+
+    private HTNode newNode(int seqNumber) {
+        long start = seqNumber * 10L;
+        HTNode node = new LeafNode(fConfig, seqNumber, -1, start);
+        for (int i = 0; i < 10; i++) {
+            node.addInterval(new HTInterval(start, start + i, i, i));
+        }
+        node.closeThisNode(start + 10);
+        return node;
+    }
+
+    private static void assertSameNode(HTNode expected, HTNode actual) {
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.getNodeFreeSpace(), actual.getNodeFreeSpace());
+        assertEquals(toIntervalString(expected), toIntervalString(actual));
+    }
+
+    private static String toIntervalString(HTNode node) {
+        StringWriter string = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(string)) {
+            node.debugPrintIntervals(writer);
+        }
+        return checkNotNull(string.toString());
+    }
+
+    /**
+     * Test that the written nodes can be read while they are written, even
+     * when they are not in the cache anymore, and that the file has them all
+     * once flushed.
+     *
+     * @throws IOException
+     *             If the file cannot be accessed
+     */
+    @Test
+    public void testWriteNodes() throws IOException {
+        /* A cache of 2 nodes, the other nodes must be read from the writer or the file */
+        HT_IO io = new HT_IO(fConfig, true, FACTORY, new HTNodeCache(2 * BLOCK_SIZE));
+        try {
+            for (int i = 0; i < NB_NODES; i++) {
+                HTNode node = newNode(i);
+                io.writeNode(node);
+                assertTrue(node.isOnDisk());
+            }
+            for (int i = 0; i < NB_NODES; i++) {
+                assertSameNode(newNode(i), io.readNode(i));
+            }
+            io.flushWrites();
+            assertEquals(IHistoryTree.TREE_HEADER_SIZE + (long) NB_NODES * BLOCK_SIZE, fFile.length());
+        } finally {
+            io.closeFile();
+        }
+
+        HT_IO reader = new HT_IO(fConfig, false, FACTORY, new HTNodeCache(2 * BLOCK_SIZE));
+        try {
+            for (int i = NB_NODES - 1; i >= 0; i--) {
+                assertSameNode(newNode(i), reader.readNode(i));
+            }
+        } finally {
+            reader.closeFile();
+        }
+    }
+
+    /**
+     * Test that the nodes written after the writer is closed are written by
+     * the calling thread
+     *
+     * @throws IOException
+     *             If the file cannot be accessed
+     */
+    @Test
+    public void testWriteAfterClose() throws IOException {
+        HT_IO io = new HT_IO(fConfig, true, FACTORY, new HTNodeCache(2 * BLOCK_SIZE));
+        try {
+            io.writeNode(newNode(0));
+            io.closeWriter();
+            assertEquals(IHistoryTree.TREE_HEADER_SIZE + (long) BLOCK_SIZE, fFile.length());
+            io.writeNode(newNode(1));
+            io.closeWriter();
+            assertEquals(IHistoryTree.TREE_HEADER_SIZE + 2L * BLOCK_SIZE, fFile.length());
+            assertSameNode(newNode(1), io.readNode(1));
+        } finally {
+            io.closeFile();
+        }
+    }
+
+    /**
+     * Test that a node that cannot be written is reported to the caller
+     * instead of being dropped
+     *
+     * @throws IOException
+     *             If the file cannot be accessed
+     */
+    @Test
+    public void testWriteError() throws IOException {
+        HT_IO io = new HT_IO(fConfig, true, FACTORY, new HTNodeCache(2 * BLOCK_SIZE));
+        try {
+            io.getFcOut().close();
+            try {
+                for (int i = 0; i < NB_NODES; i++) {
+                    io.writeNode(newNode(i));
+                }
+                io.flushWrites();
+                fail("The write error was not reported");
+            } catch (IllegalStateException | IOException e) {
+                /* Expected */
+            }
+        } finally {
+            io.closeFile();
+        }
+    }
+}
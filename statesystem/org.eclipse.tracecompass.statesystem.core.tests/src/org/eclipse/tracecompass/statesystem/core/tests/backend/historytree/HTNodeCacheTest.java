@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.statesystem.core.tests.backend.historytree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTConfig;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNode;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNodeCache;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.LeafNode;
+import org.junit.Test;
+
+/**
+ * Test the {@link HTNodeCache} class
+ */
+public class HTNodeCacheTest {
+
+    private static final int BLOCK_SIZE = 4096;
+    private static final HTConfig CONFIG = new HTConfig(new File("unused"), BLOCK_SIZE, 10, 1, 0);
+
+    private static @NonNull HTNode newNode(int seqNumber) {
+        return new LeafNode(CONFIG, seqNumber, -1, 0);
+    }
+
+    /**
+     * Test that loaded nodes are kept and reused
+     *
+     * @throws IOException
+     *             Exceptions thrown by the loader
+     */
+    @Test
+    public void testHitAndMiss() throws IOException {
+        HTNodeCache cache = new HTNodeCache(10 * BLOCK_SIZE);
+        Object tree = new Object();
+
+        HTNode node = cache.get(tree, 1, BLOCK_SIZE, HTNodeCacheTest::newNode);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+
+        HTNode cached = cache.get(tree, 1, BLOCK_SIZE, seq -> {
+            throw new IOException("Should not be loaded");
+        });
+        assertSame(node, cached);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        assertSame(node, cache.getIfPresent(tree, 1));
+        assertNull(cache.getIfPresent(tree, 2));
+        assertNull(cache.getIfPresent(new Object(), 1));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Test that the cache never goes over its budget
+     *
+     * @throws IOException
+     *             Exceptions thrown by the loader
+     */
+    @Test
+    public void testBudget() throws IOException {
+        HTNodeCache cache = new HTNodeCache(10 * BLOCK_SIZE);
+        Object tree = new Object();
+
+        for (int i = 0; i < 100; i++) {
+            cache.get(tree, i, BLOCK_SIZE, HTNodeCacheTest::newNode);
+            assertTrue(cache.getSize() <= cache.getMaxSize());
+        }
+        assertEquals(10 * BLOCK_SIZE, cache.getSize());
+        assertEquals(90, cache.getEvictionCount());
+    }
+
+    /**
+     * Test that nodes hit more than once survive a scan of other nodes
+     *
+     * @throws IOException
+     *             Exceptions thrown by the loader
+     */
+    @Test
+    public void testScanResistance() throws IOException {
+        HTNodeCache cache = new HTNodeCache(10 * BLOCK_SIZE);
+        Object tree = new Object();
+
+        /* The root node is read at each query */
+        HTNode root = cache.get(tree, 0, BLOCK_SIZE, HTNodeCacheTest::newNode);
+        cache.get(tree, 0, BLOCK_SIZE, HTNodeCacheTest::newNode);
+
+        /* A long scan of the leaves */
+        for (int i = 1; i < 100; i++) {
+            cache.get(tree, i, BLOCK_SIZE, HTNodeCacheTest::newNode);
+        }
+        assertSame(root, cache.getIfPresent(tree, 0));
+    }
+
+    /**
+     * Test that a tree reading many nodes does not evict all the nodes of
+     * another tree
+     *
+     * @throws IOException
+     *             Exceptions thrown by the loader
+     */
+    @Test
+    public void testPartitions() throws IOException {
+        HTNodeCache cache = new HTNodeCache(10 * BLOCK_SIZE);
+        Object quietTree = new Object();
+        Object busyTree = new Object();
+
+        for (int i = 0; i < 4; i++) {
+            cache.get(quietTree, i, BLOCK_SIZE, HTNodeCacheTest::newNode);
+        }
+        for (int i = 0; i < 100; i++) {
+            cache.get(busyTree, i, BLOCK_SIZE, HTNodeCacheTest::newNode);
+        }
+        assertEquals(4 * BLOCK_SIZE, cache.getPartitionSize(quietTree));
+        assertEquals(6 * BLOCK_SIZE, cache.getPartitionSize(busyTree));
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(cache.getIfPresent(quietTree, i));
+        }
+
+        /* Closing a tree releases its share */
+        cache.invalidate(quietTree);
+        assertEquals(0, cache.getPartitionSize(quietTree));
+        assertEquals(6 * BLOCK_SIZE, cache.getSize());
+    }
+
+    /**
+     * Test that writing a node replaces the cached version
+     *
+     * @throws IOException
+     *             Exceptions thrown by the loader
+     */
+    @Test
+    public void testPutReplaces() throws IOException {
+        HTNodeCache cache = new HTNodeCache(10 * BLOCK_SIZE);
+        Object tree = new Object();
+
+        cache.get(tree, 1, BLOCK_SIZE, HTNodeCacheTest::newNode);
+        HTNode written = newNode(1);
+        cache.put(tree, 1, BLOCK_SIZE, written);
+        assertSame(written, cache.getIfPresent(tree, 1));
+        assertEquals(BLOCK_SIZE, cache.getSize());
+    }
+}
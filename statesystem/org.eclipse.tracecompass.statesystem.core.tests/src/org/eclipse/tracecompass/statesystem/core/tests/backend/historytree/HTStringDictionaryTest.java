@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.statesystem.core.tests.backend.historytree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTStringDictionary;
+import org.junit.Test;
+
+/**
+ * Test the {@link HTStringDictionary} class
+ */
+public class HTStringDictionaryTest {
+
+    /**
+     * Test that equal strings are given the same id and instance
+     */
+    @Test
+    public void testIntern() {
+        HTStringDictionary dictionary = new HTStringDictionary();
+        String first = dictionary.intern("sched_switch");
+        assertSame(first, dictionary.intern(new String("sched_switch")));
+        dictionary.intern("sys_read");
+        assertEquals(2, dictionary.size());
+        assertEquals(0, dictionary.getId("sched_switch"));
+        assertEquals(1, dictionary.getId("sys_read"));
+        assertEquals(-1, dictionary.getId("sys_write"));
+        assertSame(first, dictionary.getString(0));
+    }
+
+    /**
+     * Test that no strings are added once the dictionary is full
+     *
+     * @throws IOException
+     *             If the dictionary cannot be read
+     */
+    @Test
+    public void testMaxSize() throws IOException {
+        HTStringDictionary dictionary = new HTStringDictionary(1000);
+        for (int i = 0; i < 100; i++) {
+            dictionary.intern("thread-" + i);
+        }
+        int size = dictionary.size();
+        assertTrue(size > 0);
+        assertTrue(size < 100);
+        String notAdded = new String("thread-99");
+        assertSame(notAdded, dictionary.intern(notAdded));
+        assertEquals(-1, dictionary.getId(notAdded));
+        assertEquals(0, dictionary.getId("thread-0"));
+        assertEquals(size, dictionary.size());
+
+        /* The dictionaries are read back whole */
+        ByteBuffer buffer = ByteBuffer.allocate(dictionary.getSerializedSize());
+        dictionary.writeTo(buffer);
+        buffer.flip();
+        assertEquals(size, HTStringDictionary.readFrom(buffer).size());
+    }
+
+    /**
+     * Test that a string not in the dictionary cannot be read
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidId() {
+        HTStringDictionary dictionary = new HTStringDictionary();
+        dictionary.intern("sched_switch");
+        dictionary.getString(1);
+    }
+
+    /**
+     * Test that a dictionary is read back with the same ids
+     *
+     * @throws IOException
+     *             If the dictionary cannot be read
+     */
+    @Test
+    public void testReadWrite() throws IOException {
+        HTStringDictionary dictionary = new HTStringDictionary();
+        for (int i = 0; i < 1000; i++) {
+            dictionary.intern("thread-" + i);
+        }
+        dictionary.intern("");
+        dictionary.intern("événement");
+
+        ByteBuffer buffer = ByteBuffer.allocate(dictionary.getSerializedSize());
+        dictionary.writeTo(buffer);
+        assertEquals(0, buffer.remaining());
+        buffer.flip();
+
+        HTStringDictionary read = HTStringDictionary.readFrom(buffer);
+        assertEquals(dictionary.size(), read.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            assertEquals(dictionary.getString(i), read.getString(i));
+        }
+    }
+
+    /**
+     * Test that truncated data is reported as an invalid dictionary
+     *
+     * @throws IOException
+     *             The expected exception
+     */
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        HTStringDictionary dictionary = new HTStringDictionary();
+        dictionary.intern("sched_switch");
+        ByteBuffer buffer = ByteBuffer.allocate(dictionary.getSerializedSize());
+        dictionary.writeTo(buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 1);
+        HTStringDictionary.readFrom(buffer);
+    }
+}
@@ -13,17 +13,23 @@ package org.eclipse.tracecompass.statesystem.core.tests.backend.historytree;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTConfig;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTInterval;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNode;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTStringDictionary;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HistoryTreeFactory;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.IHistoryTree;
 import org.eclipse.tracecompass.statesystem.core.statevalue.TmfStateValue;
 import org.eclipse.tracecompass.statesystem.core.tests.stubs.backend.HistoryTreeClassicStub;
@@ -31,6 +37,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
 /**
  * Tests the history tree
  *
@@ -87,6 +96,20 @@ public class HistoryTreeTest {
      *            option)
      */
     private HistoryTreeClassicStub setupSmallTree(int maxChildren) {
+        return setupSmallTree(maxChildren, true);
+    }
+
+    /**
+     * Setup a history tree.
+     *
+     * @param maxChildren
+     *            The max number of children per node in the tree (tree config
+     *            option)
+     * @param columnarNodes
+     *            Whether the nodes store the intervals column by column or one
+     *            after the other
+     */
+    private HistoryTreeClassicStub setupSmallTree(int maxChildren, boolean columnarNodes) {
         HistoryTreeClassicStub ht = null;
         try {
             File newFile = fTempFile;
@@ -95,7 +118,8 @@ public class HistoryTreeTest {
                     BLOCK_SIZE,
                     maxChildren, /* Number of children */
                     1, /* Provider version */
-                    1); /* Start time */
+                    1, /* Start time */
+                    columnarNodes);
             ht = new HistoryTreeClassicStub(config);
 
         } catch (IOException e) {
@@ -150,7 +174,7 @@ public class HistoryTreeTest {
         int i = 0;
         while(true) {
             HTInterval interval = new HTInterval(start + i, start + i + 1, 1, value);
-            if (interval.getSizeOnDisk(node.getNodeStart()) > node.getNodeFreeSpace()) {
+            if (node.getIntervalSize(interval) > node.getNodeFreeSpace()) {
                 break;
             }
             ht.insertInterval(interval);
@@ -191,11 +215,12 @@ public class HistoryTreeTest {
      * Test that nodes are filled
      *
      * It fills nodes with sequential intervals from one attribute only, so that
-     * leafs should be filled.
+     * leafs should be filled. The nodes store the intervals one after the
+     * other, so each interval takes its own size on disk.
      */
     @Test
     public void testSequentialFill() {
-        HistoryTreeClassicStub ht = setupSmallTree();
+        HistoryTreeClassicStub ht = setupSmallTree(3, false);
 
         HTNode node = ht.getLatestLeaf();
         assertEquals(0, node.getNodeUsagePercent());
@@ -353,4 +378,226 @@ public class HistoryTreeTest {
         assertEquals( 5, branch.get(2).getSequenceNumber());
         assertEquals( 4, branch.get(2).getParentSequenceNumber());
     }
+
+    /**
+     * Test that the nodes of a finished tree read from memory mapped buffers
+     * are the same as the nodes read from the file channel
+     *
+     * @throws IOException
+     *             If the test fails
+     */
+    @Test
+    public void testMemoryMappedRead() throws IOException {
+        long start = 1;
+        HistoryTreeClassicStub ht = setupSmallTree(2);
+        for (int i = 0; i < 4; i++) {
+            start = fillNextLeafNode(ht, start);
+            start = addValues(ht, STRING_VALUE, 1, start);
+        }
+        ht.closeTree(start);
+        int nodeCount = ht.getNodeCount();
+        ht.closeFile();
+
+        File file = fTempFile;
+        assertNotNull(file);
+        HistoryTreeClassicStub channelTree = new HistoryTreeClassicStub(file, 1);
+        HistoryTreeClassicStub mappedTree = new HistoryTreeClassicStub(file, 1);
+        try {
+            mappedTree.mapNodes();
+            assertEquals(nodeCount, mappedTree.getNodeCount());
+            IntegerRangeCondition quarks = IntegerRangeCondition.forDiscreteRange(Collections.singleton(1));
+            TimeRangeCondition times = TimeRangeCondition.forContinuousRange(1, start);
+            for (int i = 0; i < nodeCount; i++) {
+                HTNode expected = channelTree.readNode(i);
+                HTNode actual = mappedTree.readNode(i);
+                assertEquals(expected.toString(), actual.toString());
+                assertEquals(Lists.newArrayList(expected.iterable2D(quarks, times)), Lists.newArrayList(actual.iterable2D(quarks, times)));
+            }
+            mappedTree.assertIntegrity();
+        } finally {
+            channelTree.closeFile();
+            mappedTree.closeFile();
+        }
+    }
+
+    /**
+     * Test that reopening a finished tree keeps its root and its depth, the
+     * intervals inserted after its end going to its latest branch
+     *
+     * @throws IOException
+     *             If the test fails
+     */
+    @Test
+    public void testReopen() throws IOException {
+        long start = 1;
+        HistoryTreeClassicStub ht = setupSmallTree();
+        start = fillNextLeafNode(ht, start);
+        start = addValues(ht, STRING_VALUE, 1, start);
+        ht.closeTree(start);
+        int depth = ht.getDepth();
+        int nodeCount = ht.getNodeCount();
+        int rootSeqNumber = ht.getRootNode().getSequenceNumber();
+        ht.closeFile();
+
+        File file = fTempFile;
+        assertNotNull(file);
+        HistoryTreeClassicStub reopened = new HistoryTreeClassicStub(file, 1);
+        try {
+            reopened.reopenTree();
+            assertEquals(depth, reopened.getDepth());
+            long end = addValues(reopened, STRING_VALUE, 10, start + 1);
+            reopened.closeTree(end);
+            assertEquals(rootSeqNumber, reopened.getRootNode().getSequenceNumber());
+            assertEquals(nodeCount, reopened.getNodeCount());
+            reopened.assertIntegrity();
+        } finally {
+            reopened.closeFile();
+        }
+
+        HistoryTreeClassicStub read = new HistoryTreeClassicStub(file, 1);
+        try {
+            assertEquals(depth, read.getDepth());
+            assertEquals(nodeCount, read.getNodeCount());
+            assertEquals(start + 11, read.getTreeEnd());
+            read.assertIntegrity();
+        } finally {
+            read.closeFile();
+        }
+    }
+
+    /**
+     * Test that the nodes storing the intervals column by column account for
+     * the exact size of the intervals and fit more intervals than the nodes
+     * storing them one after the other.
+     *
+     * @throws IOException
+     *             If the test fails
+     */
+    @Test
+    public void testColumnarFill() throws IOException {
+        HistoryTreeClassicStub rowTree = setupSmallTree(3, false);
+        long rowEnd = fillValues(rowTree, STRING_VALUE, rowTree.getLatestLeaf(), 1);
+        rowTree.closeFile();
+
+        HistoryTreeClassicStub ht = setupSmallTree(3, true);
+        HTNode node = ht.getLatestLeaf();
+        TmfStateValue[] values = { TmfStateValue.nullValue(), INT_VALUE, LONG_VALUE, STRING_VALUE,
+                TmfStateValue.newValueString("other"), TmfStateValue.newValueDouble(1.5) };
+        long start = 1;
+        int i = 0;
+        while (true) {
+            /* Mix the attributes, values and durations */
+            HTInterval interval = new HTInterval(start, start + (i % 7), i % 3, values[i % values.length]);
+            int size = node.getIntervalSize(interval);
+            int freeSpace = node.getNodeFreeSpace();
+            if (size > freeSpace) {
+                break;
+            }
+            ht.insertInterval(interval);
+            assertEquals(freeSpace - size, node.getNodeFreeSpace());
+            start++;
+            i++;
+        }
+        /* Fill the node with the same interval as the tree with rows */
+        long end = fillValues(ht, STRING_VALUE, node, start + 7);
+        assertEquals(1, ht.getNodeCount());
+        assertTrue(i + end - start - 7 > rowEnd - 1);
+
+        /* Write the node and make sure it is read back the same */
+        ht.closeTree(end + 7);
+        ht.closeFile();
+        File file = fTempFile;
+        assertNotNull(file);
+        HistoryTreeClassicStub readTree = new HistoryTreeClassicStub(file, 1);
+        try {
+            HTNode readNode = readTree.readNode(0);
+            assertEquals(node.getNodeFreeSpace(), readNode.getNodeFreeSpace());
+            IntegerRangeCondition quarks = IntegerRangeCondition.forDiscreteRange(ImmutableList.of(0, 1, 2));
+            TimeRangeCondition times = TimeRangeCondition.forContinuousRange(1, end + 7);
+            assertEquals(Lists.newArrayList(node.iterable2D(quarks, times)), Lists.newArrayList(readNode.iterable2D(quarks, times)));
+        } finally {
+            readTree.closeFile();
+        }
+    }
+
+    /**
+     * Test that the strings that do not fit in a full string dictionary are
+     * stored inline in the nodes, and read back
+     *
+     * @throws IOException
+     *             If the test fails
+     */
+    @Test
+    public void testFullStringDictionary() throws IOException {
+        File newFile = fTempFile;
+        assertNotNull(newFile);
+        /* Room for a few strings only */
+        HTStringDictionary strings = new HTStringDictionary(400);
+        HistoryTreeClassicStub ht = new HistoryTreeClassicStub(new HTConfig(newFile, BLOCK_SIZE, 3, 1, 1, strings));
+        HTNode node = ht.getLatestLeaf();
+        long start = 1;
+        while (true) {
+            HTInterval interval = new HTInterval(start, start + 1, 0, TmfStateValue.newValueString("value-" + (start % 10)));
+            if (node.getIntervalSize(interval) > node.getNodeFreeSpace()) {
+                break;
+            }
+            int freeSpace = node.getNodeFreeSpace();
+            int size = node.getIntervalSize(interval);
+            ht.insertInterval(interval);
+            assertEquals(freeSpace - size, node.getNodeFreeSpace());
+            start++;
+        }
+        assertTrue(start > 10);
+        assertTrue(strings.size() > 0);
+        assertTrue(strings.size() < 10);
+        assertEquals(-1, strings.getId("value-9"));
+
+        ht.closeTree(start + 1);
+        ht.closeFile();
+        HistoryTreeClassicStub readTree = new HistoryTreeClassicStub(newFile, 1);
+        try {
+            HTNode readNode = readTree.readNode(0);
+            assertEquals(node.getNodeFreeSpace(), readNode.getNodeFreeSpace());
+            IntegerRangeCondition quarks = IntegerRangeCondition.forDiscreteRange(ImmutableList.of(0));
+            TimeRangeCondition times = TimeRangeCondition.forContinuousRange(1, start + 1);
+            assertEquals(Lists.newArrayList(node.iterable2D(quarks, times)), Lists.newArrayList(readNode.iterable2D(quarks, times)));
+        } finally {
+            readTree.closeFile();
+        }
+    }
+
+    /**
+     * Test that the files whose nodes store the intervals one after the other
+     * can still be read
+     *
+     * @throws IOException
+     *             If the test fails
+     */
+    @Test
+    public void testReadRowFormat() throws IOException {
+        long start = 1;
+        HistoryTreeClassicStub ht = setupSmallTree(2, false);
+        for (int i = 0; i < 3; i++) {
+            start = fillNextLeafNode(ht, start);
+            start = addValues(ht, STRING_VALUE, 1, start);
+        }
+        ht.closeTree(start);
+        int nodeCount = ht.getNodeCount();
+        ht.closeFile();
+
+        File file = fTempFile;
+        assertNotNull(file);
+        IHistoryTree readTree = HistoryTreeFactory.createFromFile(file.toPath(), 1);
+        try {
+            assertEquals(nodeCount, readTree.getNodeCount());
+            assertEquals(start, readTree.getTreeEnd());
+            HTNode leaf = readTree.readNode(0);
+            assertEquals(HTNode.NodeType.LEAF, leaf.getNodeType());
+            HTInterval interval = leaf.getRelevantInterval(1, 1);
+            assertNotNull(interval);
+            assertEquals(TEST_STRING, interval.getValue());
+        } finally {
+            readTree.closeFile();
+        }
+    }
 }
@@ -109,21 +109,23 @@ public class HistoryTreeWithBackendTest {
             // entirely fill the latest leaf with cascading intervals
             HTNode latestLeaf = backend.getHistoryTree().getLatestLeaf();
             /*
-             * Add an interval while there is still room for it or make sure the
-             * node does not get written on disk in the meantime.
+             * Add an interval while there is still room for the last one or
+             * make sure the node does not get written on disk in the meantime.
              */
-            while (interval.getSizeOnDisk() <= latestLeaf.getNodeFreeSpace() || latestLeaf.isOnDisk()) {
+            HTInterval lastInterval = new HTInterval(interval.getEndTime() + 1, time, quarkTest, time);
+            while (latestLeaf.getIntervalSize(lastInterval) <= latestLeaf.getNodeFreeSpace() || latestLeaf.isOnDisk()) {
                 backend.insertPastState(
                         Math.max(startTime, time - duration),
                         time - 1,
                         (int) time % nbAttr,
                         time);
                 time++;
+                lastInterval = new HTInterval(interval.getEndTime() + 1, time, quarkTest, time);
             }
 
             // Add an interval that does not fit in latest leaf, but starts
             // before the current branch
-            backend.insertPastState(interval.getEndTime() + 1, time, quarkTest, time);
+            backend.insertPastState(lastInterval.getStartTime(), lastInterval.getEndTime(), quarkTest, time);
 
             backend.getHistoryTree().assertIntegrity();
 
@@ -87,6 +87,12 @@ public class HistoryTreeClassicStub extends HistoryTreeClassic {
         return checkNotNull(super.getLatestBranch());
     }
 
+    @Override
+    public void mapNodes() {
+        /* Super method is not public */
+        super.mapNodes();
+    }
+
     /**
      * Get the latest leaf of the tree
      *
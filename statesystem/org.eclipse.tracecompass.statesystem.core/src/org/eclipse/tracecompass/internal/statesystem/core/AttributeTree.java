@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -31,7 +31,11 @@ import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -42,6 +46,12 @@ import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
  * Each node of this tree is both like a file and a directory in the
  * "file system".
  *
+ * The tree is stored column by column, in arrays indexed by node, instead of
+ * one object per attribute, so that it stays compact with millions of
+ * attributes. Node 0 is the root, and the node of an attribute is its quark +
+ * 1. The children of a node are linked in insertion order, and they are found
+ * by name with a single hash table keyed by parent node and name.
+ *
  * @author alexmont
  *
  */
@@ -56,11 +66,29 @@ public final class AttributeTree {
      */
     private static final String SERIALIZATION_WILDCARD = "*"; //$NON-NLS-1$
 
+    private static final int INITIAL_CAPACITY = 64;
+
+    /* Value of the child and sibling links when there is no such node */
+    private static final int NO_NODE = 0;
+
     private final StateSystem fSs;
-    private final List<Attribute> fAttributeList;
-    private final Attribute fAttributeTreeRoot;
     private final ReentrantReadWriteLock fLock = new ReentrantReadWriteLock();
 
+    /* The columns of the tree, indexed by node */
+    private int[] fParents;
+    private @NonNull String[] fNames;
+    private int[] fFirstChild;
+    private int[] fLastChild;
+    private int[] fNextSibling;
+    /* Number of nodes, including the root */
+    private int fNbNodes;
+
+    /* Open addressing table of the nodes, by parent node and name */
+    private int[] fChildTable;
+
+    /* The names are shared between the attributes that have the same name */
+    private final Map<String, String> fNamePool = new HashMap<>();
+
     /**
      * Standard constructor, create a new empty Attribute Tree
      *
@@ -69,8 +97,15 @@ public final class AttributeTree {
      */
     public AttributeTree(StateSystem ss) {
         fSs = ss;
-        fAttributeList = new ArrayList<>();
-        fAttributeTreeRoot = new Attribute(null, "root", ROOT_ATTRIBUTE); //$NON-NLS-1$
+        fParents = new int[INITIAL_CAPACITY];
+        fNames = new @NonNull String[INITIAL_CAPACITY];
+        fFirstChild = new int[INITIAL_CAPACITY];
+        fLastChild = new int[INITIAL_CAPACITY];
+        fNextSibling = new int[INITIAL_CAPACITY];
+        fChildTable = new int[INITIAL_CAPACITY * 2];
+        fParents[0] = ROOT_ATTRIBUTE;
+        fNames[0] = "root"; //$NON-NLS-1$
+        fNbNodes = 1;
     }
 
     /**
@@ -136,11 +171,11 @@ public final class AttributeTree {
                 oos.writeInt(ATTRIB_TREE_MAGIC_NUMBER);
 
                 /* Compute the serialized list of attributes and write it */
-                List<String[]> list = new ArrayList<>(fAttributeList.size());
+                List<String[]> list = new ArrayList<>(fNbNodes - 1);
                 String[] prevFullAttribute = null;
-                for (Attribute entry : fAttributeList) {
-                    String[] curFullAttribute = entry.getFullAttribute();
-                    String[] curEncodedAttribute = encodeFullAttribute(prevFullAttribute, entry.getFullAttribute());
+                for (int node = 1; node < fNbNodes; node++) {
+                    String[] curFullAttribute = getFullAttribute(node);
+                    String[] curEncodedAttribute = encodeFullAttribute(prevFullAttribute, curFullAttribute);
                     list.add(curEncodedAttribute);
                     prevFullAttribute = curFullAttribute;
                 }
@@ -217,7 +252,7 @@ public final class AttributeTree {
     public int getNbAttributes() {
         fLock.readLock().lock();
         try {
-            return fAttributeList.size();
+            return fNbNodes - 1;
         } finally {
             fLock.readLock().unlock();
         }
@@ -250,8 +285,14 @@ public final class AttributeTree {
         try {
 
             /* Get the "starting node" */
-            Attribute startingNode = getAttribute(startingNodeQuark);
-            return startingNode.getSubAttributeQuark(subPath);
+            int node = getNode(startingNodeQuark);
+            for (String name : subPath) {
+                node = name == null ? NO_NODE : getChild(node, name);
+                if (node == NO_NODE) {
+                    return INVALID_ATTRIBUTE;
+                }
+            }
+            return node - 1;
         } finally {
             fLock.readLock().unlock();
         }
@@ -276,30 +317,21 @@ public final class AttributeTree {
         fLock.writeLock().lock();
         try {
             /* Get the "starting node" */
-            Attribute prevNode = getAttribute(startingNodeQuark);
-
-            int knownQuark = prevNode.getSubAttributeQuark(subPath);
-            if (knownQuark == INVALID_ATTRIBUTE) {
-                /*
-                 * The attribute was not in the table previously, and we want to add it
-                 */
-                for (String curDirectory : subPath) {
-                    Attribute nextNode = prevNode.getSubAttributeNode(curDirectory);
-                    if (nextNode == null) {
-                        /* This is where we need to start adding */
-                        nextNode = new Attribute(prevNode, checkNotNull(curDirectory), fAttributeList.size());
-                        prevNode.addSubAttribute(nextNode);
-                        fAttributeList.add(nextNode);
-                        fSs.addEmptyAttribute();
-                    }
-                    prevNode = nextNode;
+            int node = getNode(startingNodeQuark);
+            for (String curDirectory : subPath) {
+                String name = checkNotNull(curDirectory);
+                int nextNode = getChild(node, name);
+                if (nextNode == NO_NODE) {
+                    /*
+                     * The attribute was not in the table previously, and we
+                     * want to add it
+                     */
+                    nextNode = addChild(node, name);
+                    fSs.addEmptyAttribute();
                 }
-                return fAttributeList.size() - 1;
+                node = nextNode;
             }
-            /*
-             * The attribute already existed, return the quark of that attribute
-             */
-            return knownQuark;
+            return node - 1;
         } finally {
             fLock.writeLock().unlock();
         }
@@ -323,10 +355,10 @@ public final class AttributeTree {
         try {
             List<@NonNull Integer> listOfChildren = new ArrayList<>();
             /* Set up the node from which we'll start the search */
-            Attribute startingAttribute = getAttribute(attributeQuark);
+            int startingNode = getNode(attributeQuark);
 
             /* Iterate through the sub-attributes and add them to the list */
-            addSubAttributes(listOfChildren, startingAttribute, recursive);
+            addSubAttributes(listOfChildren, startingNode, recursive);
 
             return listOfChildren;
         } finally {
@@ -334,11 +366,102 @@ public final class AttributeTree {
         }
     }
 
-    private Attribute getAttribute(int startingNodeQuark) {
-        if (startingNodeQuark == ROOT_ATTRIBUTE) {
-            return fAttributeTreeRoot;
+    /**
+     * Get the node of an attribute
+     *
+     * @param quark
+     *            The quark of the attribute, or
+     *            {@link ITmfStateSystem#ROOT_ATTRIBUTE}
+     * @return The node of the attribute
+     * @throws IndexOutOfBoundsException
+     *             If the quark is out of range
+     */
+    private int getNode(int quark) {
+        if (quark == ROOT_ATTRIBUTE) {
+            return 0;
         }
-        return fAttributeList.get(startingNodeQuark);
+        return Objects.checkIndex(quark, fNbNodes - 1) + 1;
+    }
+
+    private static int hash(int parent, String name) {
+        int h = name.hashCode() * 31 + parent;
+        /* Spread the bits, the table size is a power of 2 */
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find a child of a node by its name
+     *
+     * @param parent
+     *            The parent node
+     * @param name
+     *            The name of the child
+     * @return The child node, or {@link #NO_NODE} if there is none
+     */
+    private int getChild(int parent, String name) {
+        int[] table = fChildTable;
+        int mask = table.length - 1;
+        int parentQuark = parent - 1;
+        for (int i = hash(parent, name) & mask;; i = (i + 1) & mask) {
+            int node = table[i];
+            if (node == NO_NODE) {
+                return NO_NODE;
+            }
+            if (fParents[node] == parentQuark && fNames[node].equals(name)) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Add a child at the end of the children of a node
+     *
+     * @param parent
+     *            The parent node
+     * @param name
+     *            The name of the new child, which the parent does not have yet
+     * @return The new node
+     */
+    private int addChild(int parent, String name) {
+        int node = fNbNodes;
+        if (node == fParents.length) {
+            int capacity = node * 2;
+            fParents = Arrays.copyOf(fParents, capacity);
+            fNames = Arrays.copyOf(fNames, capacity);
+            fFirstChild = Arrays.copyOf(fFirstChild, capacity);
+            fLastChild = Arrays.copyOf(fLastChild, capacity);
+            fNextSibling = Arrays.copyOf(fNextSibling, capacity);
+        }
+        fParents[node] = parent - 1;
+        fNames[node] = checkNotNull(fNamePool.computeIfAbsent(name, n -> n));
+        if (fFirstChild[parent] == NO_NODE) {
+            fFirstChild[parent] = node;
+        } else {
+            fNextSibling[fLastChild[parent]] = node;
+        }
+        fLastChild[parent] = node;
+        fNbNodes = node + 1;
+
+        /* Keep the table at most half full */
+        if (fNbNodes * 2 > fChildTable.length) {
+            fChildTable = new int[fChildTable.length * 2];
+            for (int i = 1; i < fNbNodes; i++) {
+                insertInTable(i);
+            }
+        } else {
+            insertInTable(node);
+        }
+        return node;
+    }
+
+    private void insertInTable(int node) {
+        int[] table = fChildTable;
+        int mask = table.length - 1;
+        int i = hash(fParents[node] + 1, fNames[node]) & mask;
+        while (table[i] != NO_NODE) {
+            i = (i + 1) & mask;
+        }
+        table[i] = node;
     }
 
     /**
@@ -358,16 +481,16 @@ public final class AttributeTree {
         }
         fLock.readLock().lock();
         try {
-            return fAttributeList.get(quark).getParentAttributeQuark();
+            return fParents[getNode(quark)];
         } finally {
             fLock.readLock().unlock();
         }
     }
 
-    private void addSubAttributes(List<Integer> list, Attribute curAttribute,
+    private void addSubAttributes(List<Integer> list, int curNode,
             boolean recursive) {
-        for (Attribute childNode : curAttribute.getSubAttributes()) {
-            list.add(childNode.getQuark());
+        for (int childNode = fFirstChild[curNode]; childNode != NO_NODE; childNode = fNextSibling[childNode]) {
+            list.add(childNode - 1);
             if (recursive) {
                 addSubAttributes(list, childNode, true);
             }
@@ -386,7 +509,7 @@ public final class AttributeTree {
     public @NonNull String getAttributeName(int quark) {
         fLock.readLock().lock();
         try {
-            return fAttributeList.get(quark).getName();
+            return fNames[Objects.checkIndex(quark, fNbNodes - 1) + 1];
         } finally {
             fLock.readLock().unlock();
         }
@@ -404,7 +527,7 @@ public final class AttributeTree {
     public @NonNull String getFullAttributeName(int quark) {
         fLock.readLock().lock();
         try {
-            return fAttributeList.get(quark).getFullAttributeName();
+            return checkNotNull(String.join("/", getFullAttribute(Objects.checkIndex(quark, fNbNodes - 1) + 1))); //$NON-NLS-1$
         } finally {
             fLock.readLock().unlock();
         }
@@ -423,12 +546,24 @@ public final class AttributeTree {
     public String @NonNull [] getFullAttributePathArray(int quark) {
         fLock.readLock().lock();
         try {
-            return fAttributeList.get(quark).getFullAttribute();
+            return getFullAttribute(Objects.checkIndex(quark, fNbNodes - 1) + 1);
         } finally {
             fLock.readLock().unlock();
         }
     }
 
+    private @NonNull String @NonNull [] getFullAttribute(int node) {
+        int depth = 0;
+        for (int curNode = node; curNode != 0; curNode = fParents[curNode] + 1) {
+            depth++;
+        }
+        @NonNull String[] path = new @NonNull String[depth];
+        for (int curNode = node; curNode != 0; curNode = fParents[curNode] + 1) {
+            path[--depth] = fNames[curNode];
+        }
+        return path;
+    }
+
     /**
      * Debug-print all the attributes in the tree.
      *
@@ -438,10 +573,24 @@ public final class AttributeTree {
     public void debugPrint(PrintWriter writer) {
         fLock.readLock().lock();
         try {
-            fAttributeTreeRoot.debugPrint(writer);
+            /* Only used for debugging, shouldn't be externalized */
+            writer.println("------------------------------"); //$NON-NLS-1$
+            writer.println("Attribute tree: (quark)\n"); //$NON-NLS-1$
+            debugPrintNode(writer, 0, 0);
+            writer.print('\n');
         } finally {
             fLock.readLock().unlock();
         }
     }
 
+    private void debugPrintNode(PrintWriter writer, int node, int depth) {
+        writer.println(fNames[node] + " (" + (node - 1) + ')'); //$NON-NLS-1$
+        for (int childNode = fFirstChild[node]; childNode != NO_NODE; childNode = fNextSibling[childNode]) {
+            for (int j = 0; j <= depth; j++) {
+                writer.print("  "); //$NON-NLS-1$
+            }
+            debugPrintNode(writer, childNode, depth + 1);
+        }
+    }
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2017 Ericsson and others
+ * Copyright (c) 2012, 2026 Ericsson and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -37,6 +37,7 @@ import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.ScopeLog;
 import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
 import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.StateChangeBatch;
 import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
 import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
@@ -109,6 +110,29 @@ public class StateSystem implements ITmfStateSystemBuilder {
      */
     public StateSystem(@NonNull IStateHistoryBackend backend, boolean newFile)
             throws IOException {
+        this(backend, newFile, false);
+    }
+
+    /**
+     * General constructor, which can also resume the building of an existing
+     * history. In that case, the state changes after the end time of the
+     * history can be inserted, and the history is closed again with
+     * {@link #closeHistory(long)}.
+     *
+     * @param backend
+     *            The "state history storage" back-end to use.
+     * @param newFile
+     *            Put true if this is a new history started from scratch. It is
+     *            used to tell the state system where to get its attribute tree.
+     * @param resume
+     *            Put true to resume the building of the existing history,
+     *            when newFile is false
+     * @throws IOException
+     *             If there was a problem creating the new history file, or
+     *             reopening the existing one
+     */
+    public StateSystem(@NonNull IStateHistoryBackend backend, boolean newFile, boolean resume)
+            throws IOException {
         this.backend = backend;
         this.transState = new TransientState(backend);
 
@@ -117,9 +141,39 @@ public class StateSystem implements ITmfStateSystemBuilder {
         } else {
             /* We're opening an existing file */
             this.attributeTree = new AttributeTree(this, backend.supplyAttributeTreeReader());
-            transState.setInactive();
-            finishedLatch.countDown(); /* The history is already built */
+            if (resume) {
+                resumeHistory();
+            } else {
+                transState.setInactive();
+                finishedLatch.countDown(); /* The history is already built */
+            }
+        }
+    }
+
+    /**
+     * Reopen the history of the backend, and restore the ongoing state from
+     * the states at its end.
+     */
+    private void resumeHistory() throws IOException {
+        long endTime = backend.getEndTime();
+        int nbAttributes = getNbAttributes();
+        List<@Nullable ITmfStateInterval> endStates = new ArrayList<>(Collections.nCopies(nbAttributes, null));
+        try {
+            backend.doQuery(endStates, endTime);
+        } catch (TimeRangeException | StateSystemDisposedException e) {
+            throw new IOException("Cannot read the state at the end of the history", e); //$NON-NLS-1$
+        }
+        List<@Nullable Object> values = new ArrayList<>(nbAttributes);
+        for (ITmfStateInterval interval : endStates) {
+            values.add(interval == null ? null : interval.getValue());
         }
+
+        /*
+         * The attribute tree was read, the backend can now overwrite it. The
+         * states ongoing at the end of the history start again right after.
+         */
+        backend.resumeBuilding();
+        transState.resumeOngoingState(values, endTime + 1);
     }
 
     @Override
@@ -373,6 +427,12 @@ public class StateSystem implements ITmfStateSystemBuilder {
         transState.processStateChange(t, value, attributeQuark);
     }
 
+    @Override
+    public void modifyAttributes(long t, StateChangeBatch batch)
+            throws TimeRangeException, StateValueTypeException {
+        transState.processStateChanges(t, batch);
+    }
+
     @Override
     public void pushAttribute(long t, Object value, int attributeQuark)
             throws TimeRangeException, StateValueTypeException {
@@ -529,6 +589,11 @@ public class StateSystem implements ITmfStateSystemBuilder {
         transState.changeOngoingStateValue(attributeQuark, newValue);
     }
 
+    @Override
+    public void updateOngoingStates(StateChangeBatch batch) {
+        transState.changeOngoingStateValues(batch);
+    }
+
     /**
      * Modify the whole "ongoing state" (state values + start times). This can
      * be used when "seeking" a state system to a different point in the trace
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -17,8 +17,11 @@
 
 package org.eclipse.tracecompass.internal.statesystem.core;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -32,6 +35,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
+import org.eclipse.tracecompass.statesystem.core.StateChangeBatch;
 import org.eclipse.tracecompass.statesystem.core.backend.IStateHistoryBackend;
 import org.eclipse.tracecompass.statesystem.core.exceptions.StateValueTypeException;
 import org.eclipse.tracecompass.statesystem.core.exceptions.TimeRangeException;
@@ -55,6 +59,8 @@ public class TransientState {
 
     private static final Logger LOGGER = TraceCompassLog.getLogger(TransientState.class);
 
+    private static final int INITIAL_CAPACITY = 16;
+
     /* Indicates where to insert state changes that we generate */
     private final IStateHistoryBackend fBackend;
 
@@ -63,10 +69,24 @@ public class TransientState {
     private volatile boolean fIsActive;
     private volatile long fLatestTime;
 
-    /* A method accessing these arrays will have to go through the lock */
-    private List<@Nullable Object> fOngoingStateInfo;
-    private List<Long> fOngoingStateStartTimes;
-    private List<@Nullable Class<?>> fStateValueTypes;
+    /*
+     * The ongoing state, one column per field, indexed by quark. The start
+     * times are kept unboxed, as there can be millions of attributes. A method
+     * accessing these arrays will have to go through the lock.
+     */
+    private @Nullable Object[] fOngoingStateInfo;
+    private long[] fOngoingStateStartTimes;
+    private @Nullable Class<?>[] fStateValueTypes;
+    private int fSize;
+
+    /*
+     * The intervals closed by the state changes being processed, to insert in
+     * the backend once they are all processed. Only used with the write lock.
+     */
+    private long[] fClosedStartTimes = new long[INITIAL_CAPACITY];
+    private int[] fClosedQuarks = new int[INITIAL_CAPACITY];
+    private @Nullable Object[] fClosedValues = new @Nullable Object[INITIAL_CAPACITY];
+    private int fNbClosed = 0;
 
     /**
      * Constructor
@@ -77,9 +97,10 @@ public class TransientState {
     public TransientState(IStateHistoryBackend backend) {
         fBackend = backend;
         fIsActive = true;
-        fOngoingStateInfo = new ArrayList<>();
-        fOngoingStateStartTimes = new ArrayList<>();
-        fStateValueTypes = new ArrayList<>();
+        fOngoingStateInfo = new @Nullable Object[INITIAL_CAPACITY];
+        fOngoingStateStartTimes = new long[INITIAL_CAPACITY];
+        fStateValueTypes = new @Nullable Class<?>[INITIAL_CAPACITY];
+        fSize = 0;
 
         fLatestTime = backend.getStartTime();
     }
@@ -105,7 +126,7 @@ public class TransientState {
     public @Nullable Object getOngoingStateValue(int quark) {
         fRWLock.readLock().lock();
         try {
-            return fOngoingStateInfo.get(quark);
+            return fOngoingStateInfo[Objects.checkIndex(quark, fSize)];
         } finally {
             fRWLock.readLock().unlock();
         }
@@ -119,7 +140,7 @@ public class TransientState {
     public List<@Nullable Object> getOngoingStateValues() {
         fRWLock.readLock().lock();
         try {
-            return new ArrayList<>(fOngoingStateInfo);
+            return new ArrayList<>(Arrays.asList(fOngoingStateInfo).subList(0, fSize));
         } finally {
             fRWLock.readLock().unlock();
         }
@@ -137,7 +158,7 @@ public class TransientState {
     public long getOngoingStartTime(int quark) {
         fRWLock.readLock().lock();
         try {
-            return fOngoingStateStartTimes.get(quark);
+            return fOngoingStateStartTimes[Objects.checkIndex(quark, fSize)];
         } finally {
             fRWLock.readLock().unlock();
         }
@@ -157,7 +178,28 @@ public class TransientState {
     public void changeOngoingStateValue(int quark, @Nullable Object newValue) {
         fRWLock.writeLock().lock();
         try {
-            fOngoingStateInfo.set(quark, newValue);
+            fOngoingStateInfo[Objects.checkIndex(quark, fSize)] = newValue;
+        } finally {
+            fRWLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Modify the current state of the attributes of a batch, in order. This
+     * will not update the "ongoing state start times" in any way, so be
+     * careful when using this.
+     *
+     * @param batch
+     *            The state values the attributes should have
+     * @throws IndexOutOfBoundsException
+     *             If a quark is out of range
+     */
+    public void changeOngoingStateValues(StateChangeBatch batch) {
+        fRWLock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                fOngoingStateInfo[Objects.checkIndex(batch.getQuark(i), fSize)] = batch.getValue(i);
+            }
         } finally {
             fRWLock.writeLock().unlock();
         }
@@ -177,8 +219,9 @@ public class TransientState {
     public ITmfStateInterval getOngoingInterval(int quark) {
         fRWLock.readLock().lock();
         try {
-            return new TmfStateInterval(fOngoingStateStartTimes.get(quark), fLatestTime,
-                    quark, fOngoingStateInfo.get(quark));
+            Objects.checkIndex(quark, fSize);
+            return new TmfStateInterval(fOngoingStateStartTimes[quark], fLatestTime,
+                    quark, fOngoingStateInfo[quark]);
         } finally {
             fRWLock.readLock().unlock();
         }
@@ -201,11 +244,11 @@ public class TransientState {
     public @Nullable ITmfStateInterval getIntervalAt(long time, int quark) {
         fRWLock.readLock().lock();
         try {
-            if (!isActive() || time < fOngoingStateStartTimes.get(quark)) {
+            if (!isActive() || time < fOngoingStateStartTimes[Objects.checkIndex(quark, fSize)]) {
                 return null;
             }
-            return new TmfStateInterval(fOngoingStateStartTimes.get(quark),
-                    fLatestTime, quark, fOngoingStateInfo.get(quark));
+            return new TmfStateInterval(fOngoingStateStartTimes[quark],
+                    fLatestTime, quark, fOngoingStateInfo[quark]);
         } finally {
             fRWLock.readLock().unlock();
         }
@@ -227,22 +270,57 @@ public class TransientState {
 
         fRWLock.writeLock().lock();
         try {
-            fOngoingStateInfo = new ArrayList<>(size);
-            fOngoingStateStartTimes = new ArrayList<>(size);
-            fStateValueTypes = new ArrayList<>(size);
+            fOngoingStateInfo = new @Nullable Object[Math.max(size, INITIAL_CAPACITY)];
+            fOngoingStateStartTimes = new long[fOngoingStateInfo.length];
+            fStateValueTypes = new @Nullable Class<?>[fOngoingStateInfo.length];
+            fSize = size;
 
-            for (ITmfStateInterval interval : newStateIntervals) {
+            for (int i = 0; i < size; i++) {
+                ITmfStateInterval interval = newStateIntervals.get(i);
                 Object value = interval.getValue();
-                fOngoingStateInfo.add(value);
-                fOngoingStateStartTimes.add(interval.getStartTime());
+                fOngoingStateInfo[i] = value;
+                fOngoingStateStartTimes[i] = interval.getStartTime();
                 Class<?> objectClass = value != null ? value.getClass() : null;
-                fStateValueTypes.add(objectClass);
+                fStateValueTypes[i] = objectClass;
             }
         } finally {
             fRWLock.writeLock().unlock();
         }
     }
 
+    /**
+     * Restore the ongoing state when the building of an existing history is
+     * resumed. The states until the end of the history are already stored, so
+     * the ongoing state of every attribute starts at the resume time.
+     *
+     * @param values
+     *            The values of the attributes at the end of the history, by
+     *            quark
+     * @param resumeTime
+     *            The time from which the history is built again
+     */
+    public void resumeOngoingState(List<@Nullable Object> values, long resumeTime) {
+        final int size = values.size();
+
+        fRWLock.writeLock().lock();
+        try {
+            fOngoingStateInfo = new @Nullable Object[Math.max(size, INITIAL_CAPACITY)];
+            fOngoingStateStartTimes = new long[fOngoingStateInfo.length];
+            fStateValueTypes = new @Nullable Class<?>[fOngoingStateInfo.length];
+            fSize = size;
+            for (int i = 0; i < size; i++) {
+                Object value = values.get(i);
+                fOngoingStateInfo[i] = value;
+                fOngoingStateStartTimes[i] = resumeTime;
+                fStateValueTypes[i] = value != null ? value.getClass() : null;
+            }
+            fLatestTime = resumeTime;
+            fIsActive = true;
+        } finally {
+            fRWLock.writeLock().unlock();
+        }
+    }
+
     /**
      * Add an "empty line" to both "ongoing..." vectors. This is needed so the
      * Ongoing... tables can stay in sync with the number of attributes in the
@@ -257,10 +335,18 @@ public class TransientState {
              * covering for all timestamps). A null interval will then get added
              * at the first state change.
              */
-            fOngoingStateInfo.add(null);
-            fStateValueTypes.add(null);
+            int size = fSize;
+            if (size == fOngoingStateStartTimes.length) {
+                int capacity = size * 2;
+                fOngoingStateInfo = checkNotNull(Arrays.copyOf(fOngoingStateInfo, capacity));
+                fOngoingStateStartTimes = Arrays.copyOf(fOngoingStateStartTimes, capacity);
+                fStateValueTypes = checkNotNull(Arrays.copyOf(fStateValueTypes, capacity));
+            }
+            fOngoingStateInfo[size] = null;
+            fStateValueTypes[size] = null;
 
-            fOngoingStateStartTimes.add(fBackend.getStartTime());
+            fOngoingStateStartTimes[size] = fBackend.getStartTime();
+            fSize = size + 1;
         } finally {
             fRWLock.writeLock().unlock();
         }
@@ -291,56 +377,16 @@ public class TransientState {
 
         fRWLock.writeLock().lock();
         try {
-            Class<?> expectedSvType = fStateValueTypes.get(quark);
-
-            /*
-             * Make sure the state value type we're inserting is the same as the
-             * one registered for this attribute.
-             */
-            if (expectedSvType == null) {
-                /*
-                 * The value hasn't been used yet, set it to the value we're
-                 * currently inserting (which might be null/-1 again).
-                 */
-                fStateValueTypes.set(quark, value != null ? value.getClass() : null);
-            } else if ((value != null) && (value.getClass() != expectedSvType)) {
-                /*
-                 * We authorize inserting null values in any type of attribute,
-                 * but for every other types, it needs to match our
-                 * expectations!
-                 */
-                throw new StateValueTypeException(fBackend.getSSID() + " Quark:" + quark + ", Type:" + value.getClass() + ", Expected:" + expectedSvType); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-            }
-
-            if (Objects.equals(fOngoingStateInfo.get(quark), value) && !fBackend.canInsertBackwards()) {
-                /*
-                 * This is the case where the new value and the one already
-                 * present in the Builder are the same. We do not need to create
-                 * an interval, we'll just keep the current one going.
-                 */
+            if (!applyStateChange(eventTime, value, quark)) {
                 return;
             }
-
-            if (fOngoingStateStartTimes.get(quark) < eventTime) {
-                /*
-                 * These two conditions are necessary to create an interval and
-                 * update ongoingStateInfo.
-                 */
-                fBackend.insertPastState(fOngoingStateStartTimes.get(quark),
-                        eventTime - 1, /* End Time */
-                        quark, /* attribute quark */
-                        fOngoingStateInfo.get(quark)); /* StateValue */
-
-                fOngoingStateStartTimes.set(quark, eventTime);
-                fOngoingStateInfo.set(quark, value);
-            } else if (fOngoingStateStartTimes.get(quark) == eventTime || !fBackend.canInsertBackwards()) {
-                fOngoingStateInfo.set(quark, value);
-            } else {
-                fBackend.insertPastState(fOngoingStateStartTimes.get(quark),
+            if (fNbClosed > 0) {
+                fNbClosed = 0;
+                fBackend.insertPastState(fClosedStartTimes[0],
                         eventTime - 1, /* End Time */
-                        quark, /* attribute quark */
-                        value); /* StateValue */
-                fOngoingStateStartTimes.set(quark, eventTime);
+                        fClosedQuarks[0], /* attribute quark */
+                        fClosedValues[0]); /* StateValue */
+                fClosedValues[0] = null;
             }
 
             /* Update the Transient State's lastestTime, if needed */
@@ -353,6 +399,129 @@ public class TransientState {
         }
     }
 
+    /**
+     * Process a batch of state changes at the same time. The intervals they
+     * close are inserted in the history together.
+     *
+     * @param eventTime
+     *            The timestamp associated with the state changes
+     * @param batch
+     *            The state changes, processed in order
+     * @throws TimeRangeException
+     *             If 'eventTime' is invalid
+     * @throws IndexOutOfBoundsException
+     *             If a quark is out of range
+     * @throws StateValueTypeException
+     *             If a state value to be inserted is of a different type of
+     *             what was inserted so far for its attribute. The changes
+     *             before it are processed.
+     */
+    public void processStateChanges(long eventTime, StateChangeBatch batch)
+            throws TimeRangeException, StateValueTypeException {
+        if (!this.fIsActive) {
+            return;
+        }
+
+        fRWLock.writeLock().lock();
+        try {
+            boolean changed = false;
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    changed |= applyStateChange(eventTime, batch.getValue(i), batch.getQuark(i));
+                }
+            } finally {
+                /* The ongoing states are already replaced */
+                int nbClosed = fNbClosed;
+                fNbClosed = 0;
+                if (nbClosed > 0) {
+                    fBackend.insertPastStates(fClosedStartTimes, eventTime - 1,
+                            fClosedQuarks, fClosedValues, nbClosed);
+                    Arrays.fill(fClosedValues, 0, nbClosed, null);
+                }
+            }
+
+            /* Update the Transient State's lastestTime, if needed */
+            if (changed && fLatestTime < eventTime) {
+                fLatestTime = eventTime;
+            }
+
+        } finally {
+            fRWLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a state change to the ongoing state. The interval it closes, if
+     * any, is added to the closed intervals to insert in the backend. Must be
+     * called with the write lock.
+     *
+     * @return <code>false</code> if the value did not change, so the ongoing
+     *         state is kept
+     */
+    private boolean applyStateChange(long eventTime, @Nullable Object value, int quark)
+            throws StateValueTypeException {
+        Class<?> expectedSvType = fStateValueTypes[Objects.checkIndex(quark, fSize)];
+
+        /*
+         * Make sure the state value type we're inserting is the same as the
+         * one registered for this attribute.
+         */
+        if (expectedSvType == null) {
+            /*
+             * The value hasn't been used yet, set it to the value we're
+             * currently inserting (which might be null/-1 again).
+             */
+            fStateValueTypes[quark] = value != null ? value.getClass() : null;
+        } else if ((value != null) && (value.getClass() != expectedSvType)) {
+            /*
+             * We authorize inserting null values in any type of attribute,
+             * but for every other types, it needs to match our
+             * expectations!
+             */
+            throw new StateValueTypeException(fBackend.getSSID() + " Quark:" + quark + ", Type:" + value.getClass() + ", Expected:" + expectedSvType); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        }
+
+        if (Objects.equals(fOngoingStateInfo[quark], value) && !fBackend.canInsertBackwards()) {
+            /*
+             * This is the case where the new value and the one already
+             * present in the Builder are the same. We do not need to create
+             * an interval, we'll just keep the current one going.
+             */
+            return false;
+        }
+
+        long startTime = fOngoingStateStartTimes[quark];
+        if (startTime < eventTime) {
+            /*
+             * These two conditions are necessary to create an interval and
+             * update ongoingStateInfo.
+             */
+            addClosedInterval(startTime, quark, fOngoingStateInfo[quark]);
+
+            fOngoingStateStartTimes[quark] = eventTime;
+            fOngoingStateInfo[quark] = value;
+        } else if (startTime == eventTime || !fBackend.canInsertBackwards()) {
+            fOngoingStateInfo[quark] = value;
+        } else {
+            addClosedInterval(startTime, quark, value);
+            fOngoingStateStartTimes[quark] = eventTime;
+        }
+        return true;
+    }
+
+    private void addClosedInterval(long startTime, int quark, @Nullable Object value) {
+        int index = fNbClosed;
+        if (index == fClosedQuarks.length) {
+            fClosedStartTimes = Arrays.copyOf(fClosedStartTimes, index * 2);
+            fClosedQuarks = checkNotNull(Arrays.copyOf(fClosedQuarks, index * 2));
+            fClosedValues = checkNotNull(Arrays.copyOf(fClosedValues, index * 2));
+        }
+        fClosedStartTimes[index] = startTime;
+        fClosedQuarks[index] = quark;
+        fClosedValues[index] = value;
+        fNbClosed = index + 1;
+    }
+
     /**
      * Run a "get state at time" query on the Transient State only.
      *
@@ -368,7 +537,7 @@ public class TransientState {
             if (!this.fIsActive) {
                 return;
             }
-            if (stateInfo.size() > fOngoingStateInfo.size()) {
+            if (stateInfo.size() > fSize) {
                 throw new IllegalArgumentException();
             }
 
@@ -439,8 +608,8 @@ public class TransientState {
 
         fRWLock.writeLock().lock();
         try {
-            for (int i = 0; i < fOngoingStateInfo.size(); i++) {
-                if (fOngoingStateStartTimes.get(i) > endTime) {
+            for (int i = 0; i < fSize; i++) {
+                if (fOngoingStateStartTimes[i] > endTime) {
                     /*
                      * Handle the cases where trace end > timestamp of last
                      * state change. This can happen when inserting "future"
@@ -449,10 +618,10 @@ public class TransientState {
                     continue;
                 }
                 try {
-                    fBackend.insertPastState(fOngoingStateStartTimes.get(i),
+                    fBackend.insertPastState(fOngoingStateStartTimes[i],
                             endTime, /* End Time */
                             i, /* attribute quark */
-                            fOngoingStateInfo.get(i)); /* StateValue */
+                            fOngoingStateInfo[i]); /* StateValue */
 
                 } catch (TimeRangeException e) {
                     /*
@@ -463,8 +632,11 @@ public class TransientState {
                 }
             }
 
-            fOngoingStateInfo.clear();
-            fOngoingStateStartTimes.clear();
+            /* Release the columns, they can be big */
+            fOngoingStateInfo = new @Nullable Object[0];
+            fOngoingStateStartTimes = new long[0];
+            fStateValueTypes = new @Nullable Class<?>[0];
+            fSize = 0;
             this.fIsActive = false;
 
         } finally {
@@ -504,10 +676,10 @@ public class TransientState {
             return;
         }
         writer.println("\nAttribute\tStateValue\tValid since time"); //$NON-NLS-1$
-        for (int i = 0; i < fOngoingStateInfo.size(); i++) {
+        for (int i = 0; i < fSize; i++) {
             writer.format("%d\t\t", i); //$NON-NLS-1$
-            writer.print(String.valueOf(fOngoingStateInfo.get(i)) + "\t\t"); //$NON-NLS-1$
-            writer.println(fOngoingStateStartTimes.get(i).toString());
+            writer.print(String.valueOf(fOngoingStateInfo[i]) + "\t\t"); //$NON-NLS-1$
+            writer.println(fOngoingStateStartTimes[i]);
         }
         writer.println('\n');
     }
@@ -0,0 +1,559 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
+
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.internal.statesystem.core.Activator;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * Periodic checkpoints of the full state of a history tree, used to answer the
+ * full queries without collecting every interval crossing the queried time on
+ * the branch of the tree.
+ *
+ * A checkpoint holds, for every attribute, the interval that intersects the
+ * time of the checkpoint. A full query at time t restores the state from the
+ * first checkpoint after t, where every interval that also starts before t is
+ * the answer, and only has to read, in the nodes of the branch, the intervals
+ * that end between t and the checkpoint.
+ *
+ * A checkpoint is taken every time a number of intervals, at least the number
+ * of attributes, has been inserted, so the checkpoints are closer in time
+ * where the trace is dense. The intervals of a checkpoint are only known once
+ * they are closed, so its entries are filled as the intervals are inserted.
+ * The checkpoints keep their intervals in memory, outside of the node cache,
+ * so they are bounded by an estimate of the memory they use: when it goes over
+ * the maximum, every other checkpoint is dropped and the spacing is doubled.
+ *
+ * Once the tree is finished, the checkpoints are saved next to the history
+ * file, with the {@link #FILE_EXTENSION} extension, and a checksum of their
+ * content. They can be disabled with the {@link #CHECKPOINTS_PREFERENCE}
+ * preference of the state system plug-in.
+ *
+ * This class is not thread-safe: it is built by the thread inserting the
+ * intervals, then only read once the tree is finished.
+ */
+public final class HTCheckpoints {
+
+    /**
+     * Preference key to enable the full state checkpoints of the history
+     * trees
+     */
+    public static final String CHECKPOINTS_PREFERENCE = "historyTreeCheckpoints"; //$NON-NLS-1$
+
+    /** Extension added to the name of the history file for the checkpoints */
+    public static final String FILE_EXTENSION = ".ckpt"; //$NON-NLS-1$
+
+    /** Default minimum number of intervals between two checkpoints */
+    public static final int DEFAULT_MIN_SPACING = 4096;
+
+    /**
+     * Default maximum memory used by the checkpoints of a tree, in bytes: an
+     * eighth of the default node cache
+     */
+    public static final long DEFAULT_MAX_MEMORY = HTNodeCache.DEFAULT_CACHE_SIZE / 8;
+
+    /* Estimated memory used by a row, without its entries */
+    private static final int ROW_OVERHEAD = 16 + Long.BYTES;
+    /* Estimated memory used by an entry, the reference to its interval */
+    private static final int ENTRY_SIZE = 8;
+    /* Estimated memory used by an interval only referenced by the checkpoints */
+    private static final int INTERVAL_SIZE = 64;
+
+    private static final int MAGIC_NUMBER = 0x05FFCC01;
+    private static final int FILE_VERSION = 2;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES + 3 * Long.BYTES + 3 * Integer.BYTES;
+
+    private static final byte ENTRY_NULL = 0;
+    private static final byte ENTRY_SAME = 1;
+    private static final byte ENTRY_INTERVAL = 2;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] fTimes = new long[INITIAL_CAPACITY];
+    private @Nullable HTInterval[][] fRows = new @Nullable HTInterval[INITIAL_CAPACITY][];
+    private int fNbCheckpoints = 0;
+    private final long fMaxMemory;
+    private long fMemorySize = 0;
+
+    /** Index of the first checkpoint not yet filled, per attribute */
+    private int[] fPending = new int[0];
+    /** First checkpoint not yet filled for the attributes not seen yet */
+    private int fPendingBase = 0;
+    private int fNbAttributes = 0;
+
+    private long fMinSpacing;
+    private long fSinceLastCheckpoint = 0;
+    private long fMaxEndTime = Long.MIN_VALUE;
+
+    /**
+     * Constructor, with the default maximum memory
+     *
+     * @param minSpacing
+     *            The minimum number of intervals between two checkpoints
+     */
+    public HTCheckpoints(long minSpacing) {
+        this(minSpacing, DEFAULT_MAX_MEMORY);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param minSpacing
+     *            The minimum number of intervals between two checkpoints
+     * @param maxMemory
+     *            The maximum memory used by the checkpoints, in bytes, as
+     *            estimated by {@link #getMemorySize()}
+     */
+    public HTCheckpoints(long minSpacing, long maxMemory) {
+        if (minSpacing <= 0) {
+            throw new IllegalArgumentException("The spacing of the checkpoints must be positive: " + minSpacing); //$NON-NLS-1$
+        }
+        if (maxMemory <= 0) {
+            throw new IllegalArgumentException("The memory of the checkpoints must be positive: " + maxMemory); //$NON-NLS-1$
+        }
+        fMinSpacing = minSpacing;
+        fMaxMemory = maxMemory;
+    }
+
+    /**
+     * Whether the history trees should build checkpoints, as set by the
+     * {@link #CHECKPOINTS_PREFERENCE} preference. This is enabled by default.
+     *
+     * @return <code>true</code> if the checkpoints should be built
+     */
+    public static boolean isEnabled() {
+        IPreferencesService preferences = Platform.isRunning() ? Platform.getPreferencesService() : null;
+        if (preferences == null) {
+            return true;
+        }
+        return preferences.getBoolean(Activator.PLUGIN_ID, CHECKPOINTS_PREFERENCE, true, null);
+    }
+
+    /**
+     * Get the file where the checkpoints of a history file are saved
+     *
+     * @param historyFile
+     *            The history file
+     * @return The checkpoints file
+     */
+    public static File getFile(File historyFile) {
+        return new File(historyFile.getPath() + FILE_EXTENSION);
+    }
+
+    // ------------------------------------------------------------------------
+    // Building
+    // ------------------------------------------------------------------------
+
+    /**
+     * Record an interval that was inserted in the tree. The intervals of an
+     * attribute must be recorded in order.
+     *
+     * @param interval
+     *            The interval
+     */
+    public void intervalInserted(HTInterval interval) {
+        int quark = interval.getAttribute();
+        if (quark >= fPending.length) {
+            int oldLength = fPending.length;
+            fPending = Arrays.copyOf(fPending, Math.max(quark + 1, oldLength * 2));
+            Arrays.fill(fPending, oldLength, fPending.length, fPendingBase);
+        }
+
+        /* Fill the checkpoints this interval intersects */
+        long end = interval.getEndTime();
+        int index = fPending[quark];
+        boolean used = false;
+        while (index < fNbCheckpoints && fTimes[index] <= end) {
+            if (fTimes[index] >= interval.getStartTime()) {
+                setEntry(index, quark, interval);
+                used = true;
+            }
+            index++;
+        }
+        fPending[quark] = index;
+        if (used) {
+            /* The interval is kept in memory once evicted from the cache */
+            fMemorySize += INTERVAL_SIZE;
+        }
+
+        fNbAttributes = Math.max(fNbAttributes, quark + 1);
+        fMaxEndTime = Math.max(fMaxEndTime, end);
+        fSinceLastCheckpoint++;
+        if (fSinceLastCheckpoint >= Math.max(fMinSpacing, fNbAttributes)) {
+            addCheckpoint(fMaxEndTime + 1);
+        }
+    }
+
+    private void addCheckpoint(long time) {
+        if (fNbCheckpoints > 0 && time <= fTimes[fNbCheckpoints - 1]) {
+            return;
+        }
+        addRow(time, new @Nullable HTInterval[fNbAttributes]);
+        fSinceLastCheckpoint = 0;
+        while (fMemorySize > fMaxMemory && fNbCheckpoints > 1) {
+            dropEveryOtherCheckpoint();
+        }
+    }
+
+    private void setEntry(int index, int quark, HTInterval interval) {
+        @Nullable HTInterval[] row = checkNotNull(fRows[index]);
+        if (quark >= row.length) {
+            int newLength = Math.max(quark + 1, fNbAttributes);
+            fMemorySize += (long) (newLength - row.length) * ENTRY_SIZE;
+            row = checkNotNull(Arrays.copyOf(row, newLength));
+            fRows[index] = row;
+        }
+        row[quark] = interval;
+    }
+
+    private void dropEveryOtherCheckpoint() {
+        int kept = 0;
+        for (int i = 0; i < fNbCheckpoints; i += 2) {
+            fTimes[kept] = fTimes[i];
+            fRows[kept] = fRows[i];
+            kept++;
+        }
+        Arrays.fill(fRows, kept, fNbCheckpoints, null);
+        fNbCheckpoints = kept;
+        fMemorySize = computeMemorySize();
+
+        /* The first checkpoint kept at or after the pending one */
+        for (int quark = 0; quark < fPending.length; quark++) {
+            fPending[quark] = (fPending[quark] + 1) / 2;
+        }
+        fPendingBase = (fPendingBase + 1) / 2;
+        fMinSpacing *= 2;
+    }
+
+    /**
+     * Finish building the checkpoints, when the tree is closed. The
+     * checkpoints after the end time, which will never be filled, are
+     * dropped.
+     *
+     * @param endTime
+     *            The end time of the tree
+     */
+    public void finishBuilding(long endTime) {
+        while (fNbCheckpoints > 0 && fTimes[fNbCheckpoints - 1] > endTime) {
+            fNbCheckpoints--;
+            fRows[fNbCheckpoints] = null;
+        }
+        fMemorySize = computeMemorySize();
+        fPending = new int[0];
+        fPendingBase = fNbCheckpoints;
+    }
+
+    /*
+     * Estimate the memory used by the rows and by the intervals they hold, an
+     * interval being counted once for the consecutive rows it is in.
+     */
+    private long computeMemorySize() {
+        long size = 0;
+        for (int i = 0; i < fNbCheckpoints; i++) {
+            @Nullable HTInterval[] row = checkNotNull(fRows[i]);
+            size += ROW_OVERHEAD + (long) row.length * ENTRY_SIZE;
+            for (int quark = 0; quark < row.length; quark++) {
+                HTInterval interval = row[quark];
+                if (interval != null && !isSameAsPrevious(i, quark, interval)) {
+                    size += INTERVAL_SIZE;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Resume building the checkpoints when new intervals are inserted after
+     * the end of the tree. The existing checkpoints are complete, only new
+     * ones will be filled.
+     *
+     * @param endTime
+     *            The current end time of the tree
+     */
+    public void resumeBuilding(long endTime) {
+        fPending = new int[0];
+        fPendingBase = fNbCheckpoints;
+        fMaxEndTime = endTime;
+        fSinceLastCheckpoint = 0;
+    }
+
+    // ------------------------------------------------------------------------
+    // Queries
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the number of checkpoints
+     *
+     * @return The number of checkpoints
+     */
+    public int getNbCheckpoints() {
+        return fNbCheckpoints;
+    }
+
+    /**
+     * Get the estimated memory used by the checkpoints, which is kept under
+     * the maximum given at construction
+     *
+     * @return The estimated memory, in bytes
+     */
+    public long getMemorySize() {
+        return fMemorySize;
+    }
+
+    /**
+     * Get the first checkpoint after a time
+     *
+     * @param t
+     *            The time
+     * @return The index of the first checkpoint whose time is greater than t,
+     *         or -1 if there is none
+     */
+    public int getCheckpointAfter(long t) {
+        int index = Arrays.binarySearch(fTimes, 0, fNbCheckpoints, t);
+        index = (index >= 0) ? index + 1 : -index - 1;
+        return (index < fNbCheckpoints) ? index : -1;
+    }
+
+    /**
+     * Get the time of a checkpoint
+     *
+     * @param index
+     *            The index of the checkpoint
+     * @return The time of the checkpoint
+     */
+    public long getTime(int index) {
+        return fTimes[index];
+    }
+
+    /**
+     * Fill a full state with the intervals of a checkpoint that also
+     * intersect an earlier time. The other attributes must be found in the
+     * intervals ending between that time and the time of the checkpoint.
+     *
+     * @param index
+     *            The index of a checkpoint after t
+     * @param stateInfo
+     *            The full state to fill, as many entries as there are
+     *            attributes
+     * @param t
+     *            The time of the full state
+     */
+    public void restoreState(int index, List<ITmfStateInterval> stateInfo, long t) {
+        @Nullable HTInterval[] row = checkNotNull(fRows[index]);
+        int length = Math.min(row.length, stateInfo.size());
+        for (int quark = 0; quark < length; quark++) {
+            HTInterval interval = row[quark];
+            if (interval != null && interval.getStartTime() <= t) {
+                stateInfo.set(quark, interval);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Persistence
+    // ------------------------------------------------------------------------
+
+    /**
+     * Save the checkpoints to a file. An entry that is the same interval as
+     * in the previous checkpoint is only written once. The header identifies
+     * the tree the checkpoints were built for and has a checksum of the
+     * checkpoints.
+     *
+     * @param file
+     *            The file to write
+     * @param treeStart
+     *            The start time of the tree
+     * @param treeEnd
+     *            The end time of the tree
+     * @param nodeCount
+     *            The number of nodes of the tree
+     * @throws IOException
+     *             If the file cannot be written
+     */
+    public void writeTo(File file, long treeStart, long treeEnd, int nodeCount) throws IOException {
+        long size = HEADER_SIZE;
+        for (int i = 0; i < fNbCheckpoints; i++) {
+            @Nullable HTInterval[] row = checkNotNull(fRows[i]);
+            size += Long.BYTES + Integer.BYTES;
+            for (int quark = 0; quark < row.length; quark++) {
+                size += Byte.BYTES;
+                HTInterval interval = row[quark];
+                if (interval != null && !isSameAsPrevious(i, quark, interval)) {
+                    size += interval.getSizeOnDisk(treeStart);
+                }
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("The checkpoints are too large to be saved: " + size); //$NON-NLS-1$
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < fNbCheckpoints; i++) {
+            @Nullable HTInterval[] row = checkNotNull(fRows[i]);
+            buffer.putLong(fTimes[i]);
+            buffer.putInt(row.length);
+            for (int quark = 0; quark < row.length; quark++) {
+                HTInterval interval = row[quark];
+                if (interval == null) {
+                    buffer.put(ENTRY_NULL);
+                } else if (isSameAsPrevious(i, quark, interval)) {
+                    buffer.put(ENTRY_SAME);
+                } else {
+                    buffer.put(ENTRY_INTERVAL);
+                    interval.writeInterval(buffer, treeStart);
+                }
+            }
+        }
+
+        buffer.flip();
+        buffer.putInt(MAGIC_NUMBER);
+        buffer.putInt(FILE_VERSION);
+        buffer.putLong(treeStart);
+        buffer.putLong(treeEnd);
+        buffer.putLong(fMinSpacing);
+        buffer.putInt(nodeCount);
+        buffer.putInt(fNbCheckpoints);
+        buffer.putInt(checksum(buffer));
+        buffer.rewind();
+
+        try (FileOutputStream fos = new FileOutputStream(file, false);
+                FileChannel fc = fos.getChannel()) {
+            while (buffer.hasRemaining()) {
+                fc.write(buffer);
+            }
+        }
+    }
+
+    private boolean isSameAsPrevious(int index, int quark, HTInterval interval) {
+        if (index == 0) {
+            return false;
+        }
+        @Nullable HTInterval[] previous = checkNotNull(fRows[index - 1]);
+        return quark < previous.length && previous[quark] == interval;
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(HEADER_SIZE);
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Read the checkpoints saved for a tree. If they use more memory than the
+     * default maximum, every other checkpoint is dropped as they are read.
+     *
+     * @param file
+     *            The checkpoints file
+     * @param treeStart
+     *            The start time of the tree
+     * @param treeEnd
+     *            The end time of the tree
+     * @param nodeCount
+     *            The number of nodes of the tree
+     * @return The checkpoints, or <code>null</code> if the file does not
+     *         exist, was not saved for this tree or is corrupted
+     */
+    public static @Nullable HTCheckpoints readFrom(File file, long treeStart, long treeEnd, int nodeCount) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileInputStream fis = new FileInputStream(file);
+                FileChannel fc = fis.getChannel()) {
+            if (fc.size() < HEADER_SIZE || fc.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) fc.size());
+            while (buffer.hasRemaining()) {
+                if (fc.read(buffer) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+
+            if (buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != FILE_VERSION) {
+                return null;
+            }
+            long fileTreeStart = buffer.getLong();
+            long fileTreeEnd = buffer.getLong();
+            long minSpacing = buffer.getLong();
+            int fileNodeCount = buffer.getInt();
+            int nbCheckpoints = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (fileTreeStart != treeStart || fileTreeEnd != treeEnd || fileNodeCount != nodeCount
+                    || minSpacing <= 0 || nbCheckpoints < 0) {
+                /* The tree was modified since the checkpoints were saved */
+                return null;
+            }
+            if (checksum != checksum(buffer)) {
+                throw new IOException("Wrong checksum"); //$NON-NLS-1$
+            }
+
+            HTCheckpoints checkpoints = new HTCheckpoints(minSpacing);
+            @Nullable HTInterval[] previous = new @Nullable HTInterval[0];
+            for (int i = 0; i < nbCheckpoints; i++) {
+                long time = buffer.getLong();
+                @Nullable HTInterval[] row = new @Nullable HTInterval[buffer.getInt()];
+                for (int quark = 0; quark < row.length; quark++) {
+                    byte type = buffer.get();
+                    if (type == ENTRY_SAME && quark < previous.length) {
+                        row[quark] = previous[quark];
+                    } else if (type == ENTRY_INTERVAL) {
+                        row[quark] = HTInterval.readFrom(buffer, treeStart);
+                        checkpoints.fMemorySize += INTERVAL_SIZE;
+                    } else if (type != ENTRY_NULL) {
+                        return null;
+                    }
+                }
+                checkpoints.addRow(time, row);
+                previous = row;
+                while (checkpoints.fMemorySize > checkpoints.fMaxMemory && checkpoints.fNbCheckpoints > 1) {
+                    checkpoints.dropEveryOtherCheckpoint();
+                }
+            }
+            checkpoints.fPendingBase = checkpoints.fNbCheckpoints;
+            return checkpoints;
+        } catch (IOException | RuntimeException e) {
+            /* The checkpoints are an optimization, the tree can do without */
+            Activator.getDefault().logWarning("Ignoring the invalid checkpoints file " + file.getName() + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+            return null;
+        }
+    }
+
+    private void addRow(long time, @Nullable HTInterval[] row) {
+        if (fNbCheckpoints == fTimes.length) {
+            fTimes = Arrays.copyOf(fTimes, fNbCheckpoints * 2);
+            fRows = checkNotNull(Arrays.copyOf(fRows, fNbCheckpoints * 2));
+        }
+        fTimes[fNbCheckpoints] = time;
+        fRows[fNbCheckpoints] = row;
+        fNbCheckpoints++;
+        fMemorySize += ROW_OVERHEAD + (long) row.length * ENTRY_SIZE;
+    }
+}
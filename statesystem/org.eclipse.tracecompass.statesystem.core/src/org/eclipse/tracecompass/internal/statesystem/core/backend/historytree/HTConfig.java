@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -16,6 +16,8 @@ package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
 
 import java.io.File;
 
+import org.eclipse.jdt.annotation.Nullable;
+
 /**
  * Configuration object for the {@link IHistoryTree}.
  *
@@ -31,6 +33,7 @@ public final class HTConfig {
     private final int maxChildren;
     private final int providerVersion;
     private final long treeStart;
+    private final @Nullable HTStringDictionary stringDictionary;
 
     /**
      * Full constructor.
@@ -49,14 +52,71 @@ public final class HTConfig {
      *            uselessly.
      * @param startTime
      *            The start time of the history
+     * @param stringDictionary
+     *            The dictionary of the string values if the intervals of the
+     *            nodes are stored column by column, or <code>null</code> if
+     *            they are stored one after the other as in the files before
+     *            that format
      */
     public HTConfig(File newStateFile, int blockSize, int maxChildren,
-            int providerVersion, long startTime) {
+            int providerVersion, long startTime, @Nullable HTStringDictionary stringDictionary) {
         this.stateFile = newStateFile;
         this.blockSize = blockSize;
         this.maxChildren = maxChildren;
         this.providerVersion = providerVersion;
         this.treeStart = startTime;
+        this.stringDictionary = stringDictionary;
+    }
+
+    /**
+     * Constructor for a new history.
+     *
+     * @param newStateFile
+     *            The name of the history file
+     * @param blockSize
+     *            The size of each "block" on disk. One node will always fit in
+     *            one block.
+     * @param maxChildren
+     *            The maximum number of children allowed per core (non-leaf)
+     *            node.
+     * @param providerVersion
+     *            The version of the state provider. If a file already exists,
+     *            and their versions match, the history file will not be rebuilt
+     *            uselessly.
+     * @param startTime
+     *            The start time of the history
+     * @param columnarNodes
+     *            Whether the intervals of the nodes are stored column by
+     *            column, with a new string dictionary, or one after the other
+     *            as in the files before that format
+     */
+    public HTConfig(File newStateFile, int blockSize, int maxChildren,
+            int providerVersion, long startTime, boolean columnarNodes) {
+        this(newStateFile, blockSize, maxChildren, providerVersion, startTime,
+                columnarNodes ? new HTStringDictionary() : null);
+    }
+
+    /**
+     * Constructor for a new history, whose nodes use the columnar format.
+     *
+     * @param newStateFile
+     *            The name of the history file
+     * @param blockSize
+     *            The size of each "block" on disk. One node will always fit in
+     *            one block.
+     * @param maxChildren
+     *            The maximum number of children allowed per core (non-leaf)
+     *            node.
+     * @param providerVersion
+     *            The version of the state provider. If a file already exists,
+     *            and their versions match, the history file will not be rebuilt
+     *            uselessly.
+     * @param startTime
+     *            The start time of the history
+     */
+    public HTConfig(File newStateFile, int blockSize, int maxChildren,
+            int providerVersion, long startTime) {
+        this(newStateFile, blockSize, maxChildren, providerVersion, startTime, true);
     }
 
     /**
@@ -124,4 +184,26 @@ public final class HTConfig {
     public long getTreeStart() {
         return treeStart;
     }
+
+    /**
+     * Get whether the intervals of the nodes are stored column by column.
+     *
+     * @return <code>true</code> for the columnar node format,
+     *         <code>false</code> for the format with one interval after the
+     *         other
+     */
+    public boolean hasColumnarNodes() {
+        return stringDictionary != null;
+    }
+
+    /**
+     * Get the dictionary of the string values of the history, used by the
+     * columnar node format.
+     *
+     * @return The string dictionary, or <code>null</code> if the nodes are not
+     *         columnar
+     */
+    public @Nullable HTStringDictionary getStringDictionary() {
+        return stringDictionary;
+    }
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 Ericsson, École Polytechnique de Montréal
+ * Copyright (c) 2012, 2026 Ericsson, École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
  * All rights reserved. This program and the accompanying materials are
@@ -47,12 +47,15 @@ public final class HTInterval implements ITmfStateInterval {
     private static final String errMsg = "Invalid interval data. Maybe your file is corrupt?"; //$NON-NLS-1$
 
     /* 'Byte' equivalent for state values types */
-    private static final byte TYPE_NULL = -1;
-    private static final byte TYPE_INTEGER = 0;
-    private static final byte TYPE_STRING = 1;
-    private static final byte TYPE_LONG = 2;
-    private static final byte TYPE_DOUBLE = 3;
-    private static final byte TYPE_CUSTOM = 20;
+    static final byte TYPE_NULL = -1;
+    static final byte TYPE_INTEGER = 0;
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_LONG = 2;
+    static final byte TYPE_DOUBLE = 3;
+    static final byte TYPE_CUSTOM = 20;
+
+    /* Size of the intervals read from a columnar node, computed on demand */
+    private static final int UNKNOWN_SIZE = -1;
 
     private final long fStart;
     private final long fDuration;
@@ -143,7 +146,7 @@ public final class HTInterval implements ITmfStateInterval {
      * {@link #computeStringsEntrySize()} and do an extra copy.
      */
     private HTInterval(long intervalStart, long intervalEnd, int attribute,
-            Object value, int size) throws TimeRangeException {
+            @Nullable Object value, int size) throws TimeRangeException {
         if (intervalStart > intervalEnd) {
             throw new TimeRangeException("Start:" + intervalStart + ", End:" + intervalEnd); //$NON-NLS-1$ //$NON-NLS-2$
         }
@@ -155,6 +158,28 @@ public final class HTInterval implements ITmfStateInterval {
         fSizeOnDisk = size;
     }
 
+    /**
+     * Factory method for the intervals read from a node where they are stored
+     * column by column. The value is already unboxed, and the size the
+     * interval would take in a row will only be computed if requested.
+     *
+     * @param intervalStart
+     *            Start time of the interval
+     * @param intervalEnd
+     *            End time of the interval
+     * @param attribute
+     *            Attribute (quark) of the interval
+     * @param value
+     *            The unboxed state value
+     * @return The interval object
+     * @throws TimeRangeException
+     *             If the start time or end time are invalid
+     */
+    static HTInterval createFromColumns(long intervalStart, long intervalEnd, int attribute,
+            @Nullable Object value) throws TimeRangeException {
+        return new HTInterval(intervalStart, intervalEnd, attribute, value, UNKNOWN_SIZE);
+    }
+
     /**
      * Reader factory method. Builds the interval using an already-allocated
      * ByteBuffer, which normally comes from a NIO FileChannel.
@@ -338,6 +363,9 @@ public final class HTInterval implements ITmfStateInterval {
      * @return The interval size
      */
     public int getSizeOnDisk() {
+        if (fSizeOnDisk == UNKNOWN_SIZE) {
+            fSizeOnDisk = computeSizeOnDisk(fStateValue, 0);
+        }
         return fSizeOnDisk;
     }
 
@@ -0,0 +1,408 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.datastore.core.encoding.HTVarInt;
+import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferReader;
+import org.eclipse.tracecompass.datastore.core.serialization.ISafeByteBufferWriter;
+import org.eclipse.tracecompass.datastore.core.serialization.SafeByteBufferFactory;
+import org.eclipse.tracecompass.internal.provisional.statesystem.core.statevalue.CustomStateValue;
+
+/**
+ * The interval section of a node in the columnar format. Instead of writing
+ * each interval in full, the intervals of the node, sorted by end times, are
+ * written one column after the other:
+ *
+ * <ul>
+ * <li>the end times: the first one relative to the node start, with
+ * {@link HTVarInt#writeLong}, then the difference with the previous end
+ * time</li>
+ * <li>the durations</li>
+ * <li>the attributes, as runs of (attribute, number of consecutive intervals
+ * with that attribute)</li>
+ * <li>the value types, one byte per interval</li>
+ * <li>the values: the integers and longs with the zigzag encoding, the doubles
+ * on 8 bytes, the strings as their id in the {@link HTStringDictionary} of the
+ * tree, or inline as their UTF-8 length and bytes when the dictionary is full,
+ * and the custom values serialized after their size</li>
+ * </ul>
+ *
+ * Except where noted, the numbers use the unsigned variable length encoding of
+ * {@link HTVarInt}. The size of the section is updated as intervals are added,
+ * so that the node knows exactly how much space is left.
+ *
+ * This class is not thread-safe, the node protects the accesses with its lock.
+ */
+final class HTIntervalColumns {
+
+    private static final String ERROR_MESSAGE = "Invalid interval data. Maybe your file is corrupt?"; //$NON-NLS-1$
+
+    /** Type of the strings that are not in the dictionary, which was full */
+    private static final byte TYPE_INLINE_STRING = 21;
+
+    private final HTStringDictionary fStrings;
+
+    /*
+     * Number of consecutive intervals at the end of the node with the same
+     * attribute, or -1 if it needs to be computed again. The intervals are
+     * mostly appended, this saves going through the last run each time.
+     */
+    private int fLastRunLength = -1;
+
+    /**
+     * Constructor
+     *
+     * @param strings
+     *            The string dictionary of the tree
+     */
+    public HTIntervalColumns(HTStringDictionary strings) {
+        fStrings = strings;
+    }
+
+    // ------------------------------------------------------------------------
+    // Size of the intervals
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get by how much the section would grow if an interval was inserted at a
+     * given position.
+     *
+     * @param intervals
+     *            The intervals of the node, sorted
+     * @param index
+     *            The position where the interval would be inserted
+     * @param interval
+     *            The interval to insert
+     * @param nodeStart
+     *            The start time of the node
+     * @return The number of bytes the section would grow
+     */
+    public int getSizeIncrease(List<HTInterval> intervals, int index, HTInterval interval, long nodeStart) {
+        return getEndSizeIncrease(intervals, index, interval.getEndTime(), nodeStart)
+                + HTVarInt.getEncodedLengthUnsigned(interval.getEndTime() - interval.getStartTime())
+                + getAttributeSizeIncrease(intervals, index, interval.getAttribute())
+                + Byte.BYTES
+                + getValueSize(interval.getValue());
+    }
+
+    private static int getEndSizeIncrease(List<HTInterval> intervals, int index, long end, long nodeStart) {
+        if (intervals.isEmpty()) {
+            return HTVarInt.getEncodedLengthLong(end - nodeStart);
+        }
+        if (index == 0) {
+            /* The interval becomes the first one */
+            long first = intervals.get(0).getEndTime();
+            return HTVarInt.getEncodedLengthLong(end - nodeStart)
+                    + HTVarInt.getEncodedLengthUnsigned(first - end)
+                    - HTVarInt.getEncodedLengthLong(first - nodeStart);
+        }
+        long previous = intervals.get(index - 1).getEndTime();
+        int increase = HTVarInt.getEncodedLengthUnsigned(end - previous);
+        if (index < intervals.size()) {
+            long next = intervals.get(index).getEndTime();
+            increase += HTVarInt.getEncodedLengthUnsigned(next - end) - HTVarInt.getEncodedLengthUnsigned(next - previous);
+        }
+        return increase;
+    }
+
+    private int getAttributeSizeIncrease(List<HTInterval> intervals, int index, int attribute) {
+        boolean sameAsPrevious = index > 0 && intervals.get(index - 1).getAttribute() == attribute;
+        boolean sameAsNext = index < intervals.size() && intervals.get(index).getAttribute() == attribute;
+        if (sameAsPrevious || sameAsNext) {
+            /* The interval extends a run */
+            int length = (sameAsPrevious ? getRunLengthBefore(intervals, index) : 0)
+                    + (sameAsNext ? getRunLengthFrom(intervals, index) : 0);
+            return HTVarInt.getEncodedLengthUnsigned(length + 1L) - HTVarInt.getEncodedLengthUnsigned(length);
+        }
+        int increase = HTVarInt.getEncodedLengthUnsigned(attribute) + HTVarInt.getEncodedLengthUnsigned(1);
+        if (index > 0 && index < intervals.size()) {
+            int splitAttribute = intervals.get(index - 1).getAttribute();
+            if (splitAttribute == intervals.get(index).getAttribute()) {
+                /* The interval splits a run in two */
+                int before = getRunLengthBefore(intervals, index);
+                int after = getRunLengthFrom(intervals, index);
+                increase += HTVarInt.getEncodedLengthUnsigned(splitAttribute)
+                        + HTVarInt.getEncodedLengthUnsigned(before)
+                        + HTVarInt.getEncodedLengthUnsigned(after)
+                        - HTVarInt.getEncodedLengthUnsigned(before + after);
+            }
+        }
+        return increase;
+    }
+
+    private int getRunLengthBefore(List<HTInterval> intervals, int index) {
+        if (index == intervals.size()) {
+            if (fLastRunLength < 0) {
+                fLastRunLength = countRunBefore(intervals, index);
+            }
+            return fLastRunLength;
+        }
+        return countRunBefore(intervals, index);
+    }
+
+    private static int countRunBefore(List<HTInterval> intervals, int index) {
+        int attribute = intervals.get(index - 1).getAttribute();
+        int i = index - 1;
+        while (i > 0 && intervals.get(i - 1).getAttribute() == attribute) {
+            i--;
+        }
+        return index - i;
+    }
+
+    private static int getRunLengthFrom(List<HTInterval> intervals, int index) {
+        int attribute = intervals.get(index).getAttribute();
+        int i = index + 1;
+        while (i < intervals.size() && intervals.get(i).getAttribute() == attribute) {
+            i++;
+        }
+        return i - index;
+    }
+
+    private int getValueSize(@Nullable Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Integer) {
+            return HTVarInt.getEncodedLengthZigZag((int) value);
+        } else if (value instanceof Long) {
+            return HTVarInt.getEncodedLengthZigZag((long) value);
+        } else if (value instanceof Double) {
+            return Double.BYTES;
+        } else if (value instanceof CustomStateValue) {
+            return Short.BYTES + ((CustomStateValue) value).getSerializedSize();
+        }
+        int id = getStringId(value);
+        if (id < 0) {
+            int length = String.valueOf(value).getBytes(StandardCharsets.UTF_8).length;
+            return HTVarInt.getEncodedLengthUnsigned(length) + length;
+        }
+        return HTVarInt.getEncodedLengthUnsigned(id);
+    }
+
+    /**
+     * Get the id of a string value in the dictionary, or -1 if it is not in
+     * the dictionary because the dictionary is full
+     */
+    private int getStringId(Object value) {
+        String string = String.valueOf(value);
+        int id = fStrings.getId(string);
+        if (id < 0) {
+            /* The tree normally interns the values before inserting them */
+            fStrings.intern(string);
+            id = fStrings.getId(string);
+        }
+        return id;
+    }
+
+    /**
+     * Update the section after an interval was inserted in the node, with the
+     * size returned by {@link #getSizeIncrease}.
+     *
+     * @param intervals
+     *            The intervals of the node, including the new one
+     * @param index
+     *            The position where the interval was inserted
+     * @param interval
+     *            The inserted interval
+     */
+    public void intervalAdded(List<HTInterval> intervals, int index, HTInterval interval) {
+        if (index != intervals.size() - 1) {
+            /* Inserted before the end, the last run may have changed */
+            fLastRunLength = -1;
+        } else if (index == 0 || intervals.get(index - 1).getAttribute() != interval.getAttribute()) {
+            fLastRunLength = 1;
+        } else if (fLastRunLength >= 0) {
+            fLastRunLength++;
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Write the intervals of a node, column by column
+     *
+     * @param intervals
+     *            The intervals of the node, sorted
+     * @param nodeStart
+     *            The start time of the node
+     * @param buffer
+     *            The buffer of the node, positioned after the headers
+     */
+    public void write(List<HTInterval> intervals, long nodeStart, ByteBuffer buffer) {
+        /* The end times */
+        long previous = nodeStart;
+        for (int i = 0; i < intervals.size(); i++) {
+            long end = intervals.get(i).getEndTime();
+            if (i == 0) {
+                HTVarInt.writeLong(buffer, end - nodeStart);
+            } else {
+                HTVarInt.writeUnsigned(buffer, end - previous);
+            }
+            previous = end;
+        }
+
+        /* The durations */
+        for (HTInterval interval : intervals) {
+            HTVarInt.writeUnsigned(buffer, interval.getEndTime() - interval.getStartTime());
+        }
+
+        /* The attribute runs */
+        int i = 0;
+        while (i < intervals.size()) {
+            int length = getRunLengthFrom(intervals, i);
+            HTVarInt.writeUnsigned(buffer, intervals.get(i).getAttribute());
+            HTVarInt.writeUnsigned(buffer, length);
+            i += length;
+        }
+
+        /* The value types, then the values */
+        for (HTInterval interval : intervals) {
+            buffer.put(getType(interval.getValue()));
+        }
+        for (HTInterval interval : intervals) {
+            writeValue(buffer, interval.getValue());
+        }
+    }
+
+    private byte getType(@Nullable Object value) {
+        if (value == null) {
+            return HTInterval.TYPE_NULL;
+        } else if (value instanceof Integer) {
+            return HTInterval.TYPE_INTEGER;
+        } else if (value instanceof Long) {
+            return HTInterval.TYPE_LONG;
+        } else if (value instanceof Double) {
+            return HTInterval.TYPE_DOUBLE;
+        } else if (value instanceof CustomStateValue) {
+            return HTInterval.TYPE_CUSTOM;
+        }
+        return (getStringId(value) < 0) ? TYPE_INLINE_STRING : HTInterval.TYPE_STRING;
+    }
+
+    private void writeValue(ByteBuffer buffer, @Nullable Object value) {
+        if (value == null) {
+            return;
+        } else if (value instanceof Integer) {
+            HTVarInt.writeZigZag(buffer, (int) value);
+        } else if (value instanceof Long) {
+            HTVarInt.writeZigZag(buffer, (long) value);
+        } else if (value instanceof Double) {
+            buffer.putDouble((double) value);
+        } else if (value instanceof CustomStateValue) {
+            int size = ((CustomStateValue) value).getSerializedSize();
+            buffer.putShort((short) size);
+            ISafeByteBufferWriter safeBuffer = SafeByteBufferFactory.wrapWriter(buffer, size);
+            ((CustomStateValue) value).serialize(safeBuffer);
+        } else {
+            int id = getStringId(value);
+            if (id < 0) {
+                byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+                HTVarInt.writeUnsigned(buffer, bytes.length);
+                buffer.put(bytes);
+            } else {
+                HTVarInt.writeUnsigned(buffer, id);
+            }
+        }
+    }
+
+    /**
+     * Read the intervals of a node written by {@link #write}. The string values
+     * are the instances of the dictionary.
+     *
+     * @param buffer
+     *            The buffer of the node, positioned after the headers
+     * @param count
+     *            The number of intervals in the node
+     * @param nodeStart
+     *            The start time of the node
+     * @param intervals
+     *            The list where to add the intervals, in order
+     * @throws IOException
+     *             If the data is not valid
+     */
+    public void read(ByteBuffer buffer, int count, long nodeStart, List<HTInterval> intervals) throws IOException {
+        try {
+            /* The end times and durations */
+            long[] ends = new long[count];
+            long previous = nodeStart;
+            for (int i = 0; i < count; i++) {
+                ends[i] = previous + ((i == 0) ? HTVarInt.readLong(buffer) : HTVarInt.readUnsigned(buffer));
+                previous = ends[i];
+            }
+            long[] durations = new long[count];
+            for (int i = 0; i < count; i++) {
+                durations[i] = HTVarInt.readUnsigned(buffer);
+            }
+
+            /* The attribute runs */
+            int[] attributes = new int[count];
+            int i = 0;
+            while (i < count) {
+                int attribute = (int) HTVarInt.readUnsigned(buffer);
+                int length = (int) HTVarInt.readUnsigned(buffer);
+                if (length <= 0 || length > count - i) {
+                    throw new IOException(ERROR_MESSAGE);
+                }
+                for (int j = 0; j < length; j++) {
+                    attributes[i++] = attribute;
+                }
+            }
+
+            /* The value types, then the values */
+            byte[] types = new byte[count];
+            buffer.get(types);
+            for (i = 0; i < count; i++) {
+                Object value = readValue(buffer, types[i]);
+                intervals.add(HTInterval.createFromColumns(ends[i] - durations[i], ends[i], attributes[i], value));
+            }
+        } catch (RuntimeException e) {
+            /* Buffer underflows, invalid times or string ids, etc. */
+            throw new IOException(ERROR_MESSAGE, e);
+        }
+        fLastRunLength = -1;
+    }
+
+    private @Nullable Object readValue(ByteBuffer buffer, byte type) throws IOException {
+        switch (type) {
+        case HTInterval.TYPE_NULL:
+            return null;
+        case HTInterval.TYPE_INTEGER:
+            return (int) HTVarInt.readZigZag(buffer);
+        case HTInterval.TYPE_LONG:
+            return HTVarInt.readZigZag(buffer);
+        case HTInterval.TYPE_DOUBLE:
+            return buffer.getDouble();
+        case HTInterval.TYPE_STRING:
+            return fStrings.getString((int) HTVarInt.readUnsigned(buffer));
+        case TYPE_INLINE_STRING: {
+            byte[] bytes = new byte[(int) HTVarInt.readUnsigned(buffer)];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        case HTInterval.TYPE_CUSTOM: {
+            short valueSize = buffer.getShort();
+            ISafeByteBufferReader safeBuffer = SafeByteBufferFactory.wrapReader(buffer, valueSize);
+            return CustomStateValue.readSerializedValue(safeBuffer);
+        }
+        default:
+            /* Unknown data, better to not make anything up... */
+            throw new IOException(ERROR_MESSAGE);
+        }
+    }
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2019 Ericsson, École Polytechnique de Montréal, and others
+ * Copyright (c) 2010, 2026 Ericsson, École Polytechnique de Montréal, and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -30,6 +30,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.ScopeLog;
@@ -146,6 +147,9 @@ public abstract class HTNode {
     /* Vector containing all the intervals contained in this node */
     private final List<HTInterval> fIntervals;
 
+    /* The columnar interval section, or null if the intervals are in rows */
+    private final @Nullable HTIntervalColumns fColumns;
+
     /* Lock used to protect the accesses to intervals, nodeEnd and such */
     private final ReentrantReadWriteLock fRwl = new ReentrantReadWriteLock(false);
 
@@ -176,9 +180,11 @@ public abstract class HTNode {
         fSequenceNumber = seqNumber;
         fParentSequenceNumber = parentSeqNumber;
 
-        fSizeOfIntervalSection = 0;
         fIsOnDisk = false;
         fIntervals = new ArrayList<>();
+        HTStringDictionary strings = config.getStringDictionary();
+        fColumns = (strings == null) ? null : new HTIntervalColumns(strings);
+        fSizeOfIntervalSection = 0;
     }
 
     /**
@@ -227,6 +233,29 @@ public abstract class HTNode {
      *             If there was an error writing
      */
     public final void writeSelf(FileChannel channel) throws IOException {
+        final int blockSize = fConfig.getBlockSize();
+        ByteBuffer buffer = allocateNode(fConfig);
+        serialize(buffer);
+
+        /* Finally, write everything in the Buffer to disk */
+        buffer.flip();
+        int res = channel.write(buffer);
+        if (res != blockSize) {
+            throw new IllegalStateException("Wrong size of block written: Actual: " + res + ", Expected: " + blockSize); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        fIsOnDisk = true;
+    }
+
+    /**
+     * Write the block of this node in a buffer, as it is written on disk.
+     *
+     * @param buffer
+     *            The buffer to write to, cleared and with the byte order and
+     *            capacity of the buffers returned by
+     *            {@link #allocateNode(HTConfig)}. Its position is at the end
+     *            of the block after this call.
+     */
+    public final void serialize(ByteBuffer buffer) {
         /*
          * Yes, we are taking the *read* lock here, because we are reading the
          * information in the node to write it to disk.
@@ -235,8 +264,6 @@ public abstract class HTNode {
         try {
             final int blockSize = fConfig.getBlockSize();
 
-            ByteBuffer buffer = allocateNode(fConfig);
-
             /* Write the common header part */
             buffer.put(getNodeType().toByte());
             buffer.putLong(fNodeStart);
@@ -251,8 +278,13 @@ public abstract class HTNode {
             writeSpecificHeader(buffer);
 
             /* Back to us, we write the intervals */
-            for (HTInterval interval : fIntervals) {
-                interval.writeInterval(buffer, fNodeStart);
+            HTIntervalColumns columns = fColumns;
+            if (columns != null) {
+                columns.write(fIntervals, fNodeStart, buffer);
+            } else {
+                for (HTInterval interval : fIntervals) {
+                    interval.writeInterval(buffer, fNodeStart);
+                }
             }
             if (blockSize - buffer.position() != getNodeFreeSpace()) {
                 throw new IllegalStateException("Wrong free space: Actual: " + (blockSize - buffer.position()) + ", Expected: " + getNodeFreeSpace()); //$NON-NLS-1$ //$NON-NLS-2$
@@ -263,17 +295,16 @@ public abstract class HTNode {
             while (buffer.position() < blockSize) {
                 buffer.put((byte) 0);
             }
-
-            /* Finally, write everything in the Buffer to disk */
-            buffer.flip();
-            int res = channel.write(buffer);
-            if (res != blockSize) {
-                throw new IllegalStateException("Wrong size of block written: Actual: " + res + ", Expected: " + blockSize); //$NON-NLS-1$ //$NON-NLS-2$
-            }
-
         } finally {
             fRwl.readLock().unlock();
         }
+    }
+
+    /**
+     * Mark this node as written, when it is handed to a writer that will write
+     * it later. The node must be closed and not change anymore.
+     */
+    void setOnDisk() {
         fIsOnDisk = true;
     }
 
@@ -360,41 +391,77 @@ public abstract class HTNode {
     public void addInterval(HTInterval newInterval) {
         fRwl.writeLock().lock();
         try {
+            /* Find the insert position to keep the list sorted */
+            int index = getInsertIndex(newInterval);
+
             /*
              * Just in case, should be checked before even calling this function
              */
-            int newSizeOnDisk = newInterval.getSizeOnDisk(fNodeStart);
+            int newSizeOnDisk = getIntervalSize(index, newInterval);
             if (newSizeOnDisk > getNodeFreeSpace()) {
                 // Could be an IO exception, but that would change the API
                 throw new IllegalStateException("Insufficient disk space."); //$NON-NLS-1$
             }
 
-            /* Find the insert position to keep the list sorted */
-            int index = 0;
-            if (fIntervals.isEmpty()) {
-                index = 0;
-            } else if (NODE_ORDER.compare(fIntervals.get(fIntervals.size() - 1), newInterval) <= 0) {
-                index = fIntervals.size();
+            fIntervals.add(index, newInterval);
+            HTIntervalColumns columns = fColumns;
+            if (columns != null) {
+                columns.intervalAdded(fIntervals, index, newInterval);
             } else {
-                index = Collections.binarySearch(fIntervals, newInterval, NODE_ORDER);
-                /*
-                 * Interval should not already be in the node, binarySearch will
-                 * return (-insertionPoint - 1).
-                 */
-                index = -index - 1;
+                newInterval.setSizeOnDisk(newSizeOnDisk);
             }
-            newInterval.setSizeOnDisk(newSizeOnDisk);
-            fIntervals.add(index, newInterval);
             fNodeEnd = Long.max(fNodeEnd, newInterval.getEndTime());
             fMinQuark = Integer.min(fMinQuark, newInterval.getAttribute());
             fMaxQuark = Integer.max(fMaxQuark, newInterval.getAttribute());
-            fSizeOfIntervalSection += newInterval.getSizeOnDisk();
+            fSizeOfIntervalSection += newSizeOnDisk;
 
         } finally {
             fRwl.writeLock().unlock();
         }
     }
 
+    /**
+     * Get the number of bytes an interval would take on disk if it was added
+     * to this node. With the columnar format, this depends on the intervals
+     * already in the node.
+     *
+     * @param interval
+     *            The interval to add
+     * @return The number of bytes the node would use for this interval
+     */
+    public int getIntervalSize(HTInterval interval) {
+        fRwl.readLock().lock();
+        try {
+            return getIntervalSize(getInsertIndex(interval), interval);
+        } finally {
+            fRwl.readLock().unlock();
+        }
+    }
+
+    private int getIntervalSize(int index, HTInterval interval) {
+        /* Should only be called by methods with the lock taken */
+        HTIntervalColumns columns = fColumns;
+        if (columns != null) {
+            return columns.getSizeIncrease(fIntervals, index, interval, fNodeStart);
+        }
+        return interval.getSizeOnDisk(fNodeStart);
+    }
+
+    private int getInsertIndex(HTInterval interval) {
+        /* Should only be called by methods with the lock taken */
+        if (fIntervals.isEmpty()) {
+            return 0;
+        } else if (NODE_ORDER.compare(fIntervals.get(fIntervals.size() - 1), interval) <= 0) {
+            return fIntervals.size();
+        }
+        int index = Collections.binarySearch(fIntervals, interval, NODE_ORDER);
+        /*
+         * Interval should not already be in the node, binarySearch will return
+         * (-insertionPoint - 1).
+         */
+        return -index - 1;
+    }
+
     /**
      * We've received word from the containerTree that newest nodes now exist to
      * our right. (Puts isDone = true and sets the endtime)
@@ -419,6 +486,20 @@ public abstract class HTNode {
         }
     }
 
+    /**
+     * Reopen this node after it was closed and written, so that intervals can
+     * be added to it again, when the building of a finished tree is resumed.
+     * It must be closed and written again afterwards.
+     */
+    public void reopenThisNode() {
+        fRwl.writeLock().lock();
+        try {
+            fIsOnDisk = false;
+        } finally {
+            fRwl.writeLock().unlock();
+        }
+    }
+
     /**
      * The method to fill up the stateInfo (passed on from the Current State
      * Tree when it does a query on the SHT). We'll replace the data in that
@@ -434,10 +515,31 @@ public abstract class HTNode {
      */
     public void writeInfoFromNode(List<ITmfStateInterval> stateInfo, long t)
             throws TimeRangeException {
+        writeInfoFromNode(stateInfo, t, Long.MAX_VALUE);
+    }
+
+    /**
+     * Fill up the stateInfo with the intervals of this node that intersect t
+     * and end before a time. This is used when the intervals that end later
+     * are already known, from a checkpoint for example.
+     *
+     * @param stateInfo
+     *            The same stateInfo that comes from SHT's doQuery()
+     * @param t
+     *            The timestamp for which the query is for. Only return
+     *            intervals that intersect t.
+     * @param endBound
+     *            Only return intervals that end before this time
+     * @throws TimeRangeException
+     *             If 't' is invalid
+     */
+    public void writeInfoFromNode(List<ITmfStateInterval> stateInfo, long t, long endBound)
+            throws TimeRangeException {
         /* This is from a state system query, we are "reading" this node */
         fRwl.readLock().lock();
         try {
-            for (int i = getStartIndexFor(t); i < fIntervals.size(); i++) {
+            int endIndex = (endBound == Long.MAX_VALUE) ? fIntervals.size() : getStartIndexFor(endBound);
+            for (int i = getStartIndexFor(t); i < endIndex; i++) {
                 /*
                  * Now we only have to compare the Start times, since we now the
                  * End times necessarily fit.
@@ -801,10 +903,17 @@ public abstract class HTNode {
          * At this point, we should be done reading the header and 'buffer'
          * should only have the intervals left
          */
-        for (int i = 0; i < intervalCount; i++) {
-            HTInterval interval = HTInterval.readFrom(buffer, start);
-            newNode.fIntervals.add(interval);
-            newNode.fSizeOfIntervalSection += interval.getSizeOnDisk();
+        HTIntervalColumns columns = newNode.fColumns;
+        if (columns != null) {
+            int sectionStart = buffer.position();
+            columns.read(buffer, intervalCount, start, newNode.fIntervals);
+            newNode.fSizeOfIntervalSection = buffer.position() - sectionStart;
+        } else {
+            for (int i = 0; i < intervalCount; i++) {
+                HTInterval interval = HTInterval.readFrom(buffer, start);
+                newNode.fIntervals.add(interval);
+                newNode.fSizeOfIntervalSection += interval.getSizeOnDisk();
+            }
         }
 
         /* Assign the node's other information we have read previously */
@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
+import org.eclipse.tracecompass.internal.statesystem.core.Activator;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Byte-bounded cache of history tree nodes, shared by all the history trees of
+ * the application.
+ *
+ * The cache is split in one partition per history tree, so that a tree being
+ * queried heavily cannot flush the nodes of all the other trees. When the total
+ * size goes over the budget, nodes are evicted from the partition that uses
+ * the most memory, so every open tree is guaranteed a fair share of the cache.
+ *
+ * Each partition uses a segmented LRU policy: new nodes enter a probation
+ * segment and are promoted to a protected segment when they are hit again.
+ * Victims are taken from the probation segment first, so the nodes near the
+ * root, which are read by every query, survive long scans of the leaves done
+ * by zoomed-out 2D queries.
+ *
+ * The budget can be set with the {@link #CACHE_SIZE_PREFERENCE} preference of
+ * the state system plug-in, in bytes of node blocks.
+ */
+public final class HTNodeCache {
+
+    private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(HTNodeCache.class);
+
+    /**
+     * Preference key for the size of the default node cache, in bytes
+     */
+    public static final String CACHE_SIZE_PREFERENCE = "historyTreeNodeCacheSize"; //$NON-NLS-1$
+
+    /** Default budget of the node cache: 512 nodes of the default size */
+    public static final long DEFAULT_CACHE_SIZE = 32L * 1024 * 1024;
+
+    /** Ratio of a partition that can be used by the protected segment */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /** Log the cache statistics every time this many misses happen */
+    private static final long STATS_LOG_INTERVAL = 1000;
+
+    private static @Nullable HTNodeCache fDefaultInstance = null;
+
+    /**
+     * Loader of a node that is not in the cache, typically reading it from
+     * disk.
+     */
+    @FunctionalInterface
+    public interface INodeLoader {
+        /**
+         * Load the node with this sequence number
+         *
+         * @param seqNumber
+         *            The sequence number of the node
+         * @return The node
+         * @throws IOException
+         *             If the node cannot be read
+         */
+        @NonNull HTNode load(int seqNumber) throws IOException;
+    }
+
+    private final long fMaxSize;
+    private final Map<Object, Partition> fPartitions = new ConcurrentHashMap<>();
+    private final AtomicLong fSize = new AtomicLong();
+
+    private final AtomicLong fHits = new AtomicLong();
+    private final AtomicLong fMisses = new AtomicLong();
+    private final AtomicLong fEvictions = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param maxSize
+     *            The maximum size of the cache, in bytes of node blocks
+     */
+    public HTNodeCache(long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The node cache size must be positive: " + maxSize); //$NON-NLS-1$
+        }
+        fMaxSize = maxSize;
+    }
+
+    /**
+     * Get the cache shared by all the history trees. Its size is read from
+     * the preferences the first time it is used.
+     *
+     * @return The default node cache
+     */
+    public static synchronized HTNodeCache getDefault() {
+        HTNodeCache cache = fDefaultInstance;
+        if (cache == null) {
+            cache = new HTNodeCache(readCacheSizePreference());
+            fDefaultInstance = cache;
+        }
+        return cache;
+    }
+
+    private static long readCacheSizePreference() {
+        IPreferencesService preferences = Platform.isRunning() ? Platform.getPreferencesService() : null;
+        if (preferences == null) {
+            return DEFAULT_CACHE_SIZE;
+        }
+        long size = preferences.getLong(Activator.PLUGIN_ID, CACHE_SIZE_PREFERENCE, DEFAULT_CACHE_SIZE, null);
+        return (size > 0) ? size : DEFAULT_CACHE_SIZE;
+    }
+
+    // ------------------------------------------------------------------------
+    // Cache operations
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get a node from the cache, loading it if it is not present.
+     *
+     * @param owner
+     *            The owner of the partition, typically the tree's I/O object
+     * @param seqNumber
+     *            The sequence number of the node
+     * @param weight
+     *            The weight of the node in the cache, in bytes
+     * @param loader
+     *            The loader to use on a cache miss
+     * @return The node
+     * @throws IOException
+     *             Exceptions thrown by the loader
+     */
+    public @NonNull HTNode get(Object owner, int seqNumber, int weight, INodeLoader loader) throws IOException {
+        Partition partition = getPartition(owner);
+        HTNode node = partition.get(seqNumber);
+        if (node != null) {
+            fHits.incrementAndGet();
+            return node;
+        }
+        long misses = fMisses.incrementAndGet();
+        TraceCompassLogUtils.traceInstant(LOGGER, Level.FINEST, "HTNodeCache:CacheMiss", "seqNum", seqNumber); //$NON-NLS-1$ //$NON-NLS-2$
+        if (misses % STATS_LOG_INTERVAL == 0) {
+            logStatistics();
+        }
+        /* Read outside the lock, concurrent misses on other nodes can proceed */
+        node = loader.load(seqNumber);
+        return put(owner, seqNumber, weight, node, false);
+    }
+
+    /**
+     * Get a node from the cache only if it is present. A miss is not counted
+     * in the statistics, as this is used to probe the cache.
+     *
+     * @param owner
+     *            The owner of the partition
+     * @param seqNumber
+     *            The sequence number of the node
+     * @return The node, or <code>null</code> if it is not in the cache
+     */
+    public @Nullable HTNode getIfPresent(Object owner, int seqNumber) {
+        Partition partition = fPartitions.get(owner);
+        if (partition == null) {
+            return null;
+        }
+        HTNode node = partition.get(seqNumber);
+        if (node != null) {
+            fHits.incrementAndGet();
+        }
+        return node;
+    }
+
+    /**
+     * Add or replace a node in the cache, like when the node is written to
+     * disk.
+     *
+     * @param owner
+     *            The owner of the partition
+     * @param seqNumber
+     *            The sequence number of the node
+     * @param weight
+     *            The weight of the node in the cache, in bytes
+     * @param node
+     *            The node to add
+     */
+    public void put(Object owner, int seqNumber, int weight, @NonNull HTNode node) {
+        put(owner, seqNumber, weight, node, true);
+    }
+
+    private @NonNull HTNode put(Object owner, int seqNumber, int weight, @NonNull HTNode node, boolean replace) {
+        HTNode cached = getPartition(owner).put(seqNumber, weight, node, replace);
+        evictIfNeeded();
+        return cached;
+    }
+
+    /**
+     * Remove all the nodes of a partition, for instance when the tree's file
+     * is closed.
+     *
+     * @param owner
+     *            The owner of the partition
+     */
+    public void invalidate(Object owner) {
+        Partition partition = fPartitions.remove(owner);
+        if (partition != null) {
+            partition.clear();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Eviction
+    // ------------------------------------------------------------------------
+
+    private void evictIfNeeded() {
+        while (fSize.get() > fMaxSize) {
+            Partition largest = null;
+            long largestSize = 0;
+            for (Partition partition : fPartitions.values()) {
+                long size = partition.getSize();
+                if (size > largestSize) {
+                    largest = partition;
+                    largestSize = size;
+                }
+            }
+            if (largest == null || !largest.evictOne()) {
+                return;
+            }
+        }
+    }
+
+    private Partition getPartition(Object owner) {
+        return fPartitions.computeIfAbsent(owner, o -> new Partition());
+    }
+
+    // ------------------------------------------------------------------------
+    // Statistics
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the maximum size of this cache
+     *
+     * @return The budget of the cache, in bytes
+     */
+    public long getMaxSize() {
+        return fMaxSize;
+    }
+
+    /**
+     * Get the current size of this cache
+     *
+     * @return The sum of the weights of the cached nodes, in bytes
+     */
+    public long getSize() {
+        return fSize.get();
+    }
+
+    /**
+     * Get the number of cache hits since the creation of the cache
+     *
+     * @return The number of hits
+     */
+    public long getHitCount() {
+        return fHits.get();
+    }
+
+    /**
+     * Get the number of cache misses since the creation of the cache
+     *
+     * @return The number of misses
+     */
+    public long getMissCount() {
+        return fMisses.get();
+    }
+
+    /**
+     * Get the number of nodes evicted since the creation of the cache
+     *
+     * @return The number of evictions
+     */
+    public long getEvictionCount() {
+        return fEvictions.get();
+    }
+
+    /**
+     * Get the size used by a partition of the cache
+     *
+     * @param owner
+     *            The owner of the partition
+     * @return The sum of the weights of the nodes in this partition, in bytes
+     */
+    @VisibleForTesting
+    public long getPartitionSize(Object owner) {
+        Partition partition = fPartitions.get(owner);
+        return (partition == null) ? 0 : partition.getSize();
+    }
+
+    /**
+     * Log the current statistics of the cache as a counter event
+     */
+    public void logStatistics() {
+        TraceCompassLogUtils.traceCounter(LOGGER, Level.FINE, "HTNodeCache", //$NON-NLS-1$
+                "hits", fHits.get(), //$NON-NLS-1$
+                "misses", fMisses.get(), //$NON-NLS-1$
+                "evictions", fEvictions.get(), //$NON-NLS-1$
+                "size", fSize.get(), //$NON-NLS-1$
+                "partitions", fPartitions.size()); //$NON-NLS-1$
+    }
+
+    // ------------------------------------------------------------------------
+    // Partition
+    // ------------------------------------------------------------------------
+
+    private static final class CacheEntry {
+        private final @NonNull HTNode fNode;
+        private final int fWeight;
+
+        public CacheEntry(@NonNull HTNode node, int weight) {
+            fNode = node;
+            fWeight = weight;
+        }
+    }
+
+    /**
+     * The segmented LRU of one tree. Both segments are access-ordered maps,
+     * the eldest entry being the least recently used.
+     */
+    private final class Partition {
+
+        private final LinkedHashMap<Integer, CacheEntry> fProbation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Integer, CacheEntry> fProtected = new LinkedHashMap<>(16, 0.75f, true);
+        private long fProbationSize = 0;
+        private long fProtectedSize = 0;
+
+        public synchronized @Nullable HTNode get(int seqNumber) {
+            CacheEntry entry = fProtected.get(seqNumber);
+            if (entry != null) {
+                return entry.fNode;
+            }
+            entry = fProbation.remove(seqNumber);
+            if (entry == null) {
+                return null;
+            }
+            /* Second hit, promote the node to the protected segment */
+            fProbationSize -= entry.fWeight;
+            fProtected.put(seqNumber, entry);
+            fProtectedSize += entry.fWeight;
+            demoteProtected();
+            return entry.fNode;
+        }
+
+        public synchronized @NonNull HTNode put(int seqNumber, int weight, @NonNull HTNode node, boolean replace) {
+            CacheEntry existing = fProtected.get(seqNumber);
+            LinkedHashMap<Integer, CacheEntry> segment = fProtected;
+            if (existing == null) {
+                existing = fProbation.get(seqNumber);
+                segment = fProbation;
+            }
+            if (existing != null && !replace) {
+                /* Another thread loaded the same node concurrently */
+                return existing.fNode;
+            }
+            if (existing != null) {
+                segment.remove(seqNumber);
+                removed(segment, existing);
+            }
+            fProbation.put(seqNumber, new CacheEntry(node, weight));
+            fProbationSize += weight;
+            fSize.addAndGet(weight);
+            return node;
+        }
+
+        /**
+         * Move the least recently used protected entries back in probation
+         * when the protected segment is over its share of the partition.
+         */
+        private void demoteProtected() {
+            long maxProtected = (long) (PROTECTED_RATIO * fMaxSize / Math.max(1, fPartitions.size()));
+            Iterator<Entry<Integer, CacheEntry>> iterator = fProtected.entrySet().iterator();
+            while (fProtectedSize > maxProtected && fProtected.size() > 1 && iterator.hasNext()) {
+                Entry<Integer, CacheEntry> eldest = iterator.next();
+                iterator.remove();
+                CacheEntry entry = eldest.getValue();
+                fProtectedSize -= entry.fWeight;
+                fProbation.put(eldest.getKey(), entry);
+                fProbationSize += entry.fWeight;
+            }
+        }
+
+        public synchronized boolean evictOne() {
+            LinkedHashMap<Integer, CacheEntry> segment = fProbation.isEmpty() ? fProtected : fProbation;
+            Iterator<CacheEntry> iterator = segment.values().iterator();
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            CacheEntry victim = iterator.next();
+            iterator.remove();
+            removed(segment, victim);
+            fEvictions.incrementAndGet();
+            return true;
+        }
+
+        private void removed(LinkedHashMap<Integer, CacheEntry> segment, CacheEntry entry) {
+            if (segment == fProbation) {
+                fProbationSize -= entry.fWeight;
+            } else {
+                fProtectedSize -= entry.fWeight;
+            }
+            fSize.addAndGet(-entry.fWeight);
+        }
+
+        public synchronized long getSize() {
+            return fProbationSize + fProtectedSize;
+        }
+
+        public synchronized void clear() {
+            fSize.addAndGet(-(fProbationSize + fProtectedSize));
+            fProbation.clear();
+            fProtected.clear();
+            fProbationSize = 0;
+            fProtectedSize = 0;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
+import org.eclipse.tracecompass.internal.statesystem.core.Activator;
+
+/**
+ * Writer stage of a history tree. The nodes closed by the thread building the
+ * tree are queued here and written to the file by a separate thread, so that
+ * the building thread does not wait for the disk.
+ *
+ * The writer serializes the nodes in its own buffers. The nodes waiting in the
+ * queue are taken together, and the ones with consecutive sequence numbers are
+ * written with a single gathering write. Until a node is written, it can still
+ * be obtained from the writer. If a write fails, the writer thread stops and
+ * the error is thrown to the building thread by the next call to the writer.
+ */
+class HTNodeWriter implements Runnable {
+
+    private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(HTNodeWriter.class);
+
+    /** Maximum number of nodes written at once */
+    private static final int MAX_BATCH_SIZE = 16;
+
+    /**
+     * Maximum number of nodes waiting to be written. The building thread only
+     * waits when the writer is that far behind, to bound the memory used.
+     */
+    private static final int MAX_PENDING_NODES = 1024;
+
+    /** Sequence number queued to stop the writer thread */
+    private static final int STOP = -1;
+
+    /**
+     * Time to wait for room in the queue before checking again that the
+     * writer thread is still running
+     */
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final HTConfig fConfig;
+    private final FileChannel fChannel;
+    private final BlockingQueue<Integer> fQueue = new LinkedBlockingQueue<>(MAX_PENDING_NODES);
+    private final Map<Integer, HTNode> fPendingNodes = new ConcurrentHashMap<>();
+    private final Thread fThread;
+
+    /* The first error of the writer thread, which stops it */
+    private volatile @Nullable IOException fError = null;
+
+    /* The buffers of the writer, one per node of a batch, only used by the writer thread */
+    private final ByteBuffer[] fBuffers = new ByteBuffer[MAX_BATCH_SIZE];
+
+    /**
+     * Constructor, which starts the writer thread
+     *
+     * @param config
+     *            The configuration of the tree
+     * @param channel
+     *            The channel to write to. Its position is changed by the
+     *            writer, under the lock of the channel.
+     */
+    public HTNodeWriter(HTConfig config, FileChannel channel) {
+        fConfig = config;
+        fChannel = channel;
+        fThread = new Thread(this, "History Tree Writer: " + config.getStateFile().getName()); //$NON-NLS-1$
+        fThread.setDaemon(true);
+        fThread.start();
+    }
+
+    /**
+     * Queue a closed node to be written. If the writer thread is not running
+     * anymore, the node is written by the calling thread.
+     *
+     * @param node
+     *            The node, which must not change anymore
+     * @throws IOException
+     *             If this node or a previously queued node could not be
+     *             written
+     */
+    public void write(HTNode node) throws IOException {
+        checkError();
+        int seqNumber = node.getSequenceNumber();
+        fPendingNodes.put(seqNumber, node);
+        node.setOnDisk();
+        try {
+            while (fThread.isAlive()) {
+                if (fQueue.offer(seqNumber, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        /* The writer thread is gone, write the node on this thread instead */
+        writePendingNodes();
+    }
+
+    /**
+     * Get a node that was queued but is not written yet
+     *
+     * @param seqNumber
+     *            The sequence number of the node
+     * @return The node, or <code>null</code> if it is not waiting to be
+     *         written
+     */
+    public @Nullable HTNode getPendingNode(int seqNumber) {
+        return fPendingNodes.get(seqNumber);
+    }
+
+    /**
+     * Wait for all the queued nodes to be written
+     *
+     * @throws IOException
+     *             If a queued node could not be written
+     */
+    public void flush() throws IOException {
+        synchronized (fPendingNodes) {
+            while (!fPendingNodes.isEmpty() && fThread.isAlive() && fError == null) {
+                try {
+                    fPendingNodes.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        checkError();
+        if (!fThread.isAlive()) {
+            writePendingNodes();
+        }
+    }
+
+    /**
+     * Write the queued nodes and stop the writer thread. Nodes written after
+     * this are written by the calling thread.
+     *
+     * @throws IOException
+     *             If a queued node could not be written
+     */
+    public void close() throws IOException {
+        try {
+            while (fThread.isAlive() && !fQueue.offer(STOP, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                /* Wait for the writer to make room, unless it stopped */
+            }
+            fThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkError();
+        writePendingNodes();
+    }
+
+    private void checkError() throws IOException {
+        IOException error = fError;
+        if (error != null) {
+            throw new IOException("A history tree node could not be written", error); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Write the nodes the writer thread did not write, on the calling thread
+     */
+    private void writePendingNodes() throws IOException {
+        synchronized (fChannel) {
+            List<Integer> seqNumbers = new ArrayList<>(fPendingNodes.keySet());
+            seqNumbers.sort(null);
+            for (Integer seqNumber : seqNumbers) {
+                HTNode node = fPendingNodes.get(seqNumber);
+                if (node != null) {
+                    IHistoryTree.seekFCToNodePos(fChannel, fConfig.getBlockSize(), seqNumber);
+                    node.writeSelf(fChannel);
+                    fPendingNodes.remove(seqNumber, node);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        List<Integer> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(fQueue.take());
+            } catch (InterruptedException e) {
+                Activator.getDefault().logError("History tree writer interrupted", e); //$NON-NLS-1$
+                break;
+            }
+            fQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            stop = batch.remove(Integer.valueOf(STOP));
+            try {
+                writeNodes(batch);
+            } catch (IOException e) {
+                /*
+                 * Keep the nodes pending, so that they can still be read, and
+                 * report the error to the building thread
+                 */
+                fError = e;
+                stop = true;
+            }
+            batch.clear();
+        }
+        /* Do not leave flush() waiting for nodes that will not be written */
+        synchronized (fPendingNodes) {
+            fPendingNodes.notifyAll();
+        }
+    }
+
+    private void writeNodes(List<Integer> seqNumbers) throws IOException {
+        /* A node queued more than once is written in its latest version */
+        seqNumbers.sort(null);
+        List<HTNode> nodes = new ArrayList<>(seqNumbers.size());
+        for (int i = 0; i < seqNumbers.size(); i++) {
+            HTNode node = fPendingNodes.get(seqNumbers.get(i));
+            if (node != null && (i == 0 || !seqNumbers.get(i).equals(seqNumbers.get(i - 1)))) {
+                nodes.add(node);
+            }
+        }
+
+        /* Write the runs of consecutive nodes */
+        int start = 0;
+        while (start < nodes.size()) {
+            int end = start + 1;
+            while (end < nodes.size() && nodes.get(end).getSequenceNumber() == nodes.get(end - 1).getSequenceNumber() + 1) {
+                end++;
+            }
+            List<HTNode> run = nodes.subList(start, end);
+            writeRun(run);
+            synchronized (fPendingNodes) {
+                for (HTNode node : run) {
+                    /* Unless a newer version of the node was queued meanwhile */
+                    fPendingNodes.remove(node.getSequenceNumber(), node);
+                }
+                fPendingNodes.notifyAll();
+            }
+            start = end;
+        }
+    }
+
+    private void writeRun(List<HTNode> nodes) throws IOException {
+        int blockSize = fConfig.getBlockSize();
+        for (int i = 0; i < nodes.size(); i++) {
+            ByteBuffer buffer = fBuffers[i];
+            if (buffer == null) {
+                buffer = ByteBuffer.allocateDirect(blockSize);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                fBuffers[i] = buffer;
+            }
+            buffer.clear();
+            nodes.get(i).serialize(buffer);
+            buffer.flip();
+        }
+
+        int firstSeqNumber = nodes.get(0).getSequenceNumber();
+        long remaining = (long) nodes.size() * blockSize;
+        synchronized (fChannel) {
+            IHistoryTree.seekFCToNodePos(fChannel, blockSize, firstSeqNumber);
+            while (remaining > 0) {
+                remaining -= fChannel.write(fBuffers, 0, nodes.size());
+            }
+        }
+        TraceCompassLogUtils.traceInstant(LOGGER, Level.FINEST, "HTNodeWriter:WroteNodes", "first", firstSeqNumber, "count", nodes.size()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+}
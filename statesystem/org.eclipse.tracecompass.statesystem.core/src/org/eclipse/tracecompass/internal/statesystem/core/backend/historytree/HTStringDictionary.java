@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.tracecompass.datastore.core.encoding.HTVarInt;
+
+/**
+ * Dictionary of the string values of a history tree. Each distinct string is
+ * given an id, which is what the nodes store, and the strings read from the
+ * nodes are the instances of the dictionary, shared by all the intervals with
+ * that value.
+ *
+ * The dictionary is saved in the history file with the tree. Strings are only
+ * added by the thread building the tree, but they can be read concurrently by
+ * the queries.
+ *
+ * The dictionary stays in memory as long as the history is open, so its size
+ * is bounded: once the strings it holds take about its maximum size, the new
+ * strings are not added anymore and the nodes store them inline.
+ */
+public final class HTStringDictionary {
+
+    /** Default maximum size of a dictionary, in bytes */
+    public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Approximate memory used by each string besides its characters: the
+     * string and its array, the map entry and the id
+     */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final long fMaxSize;
+    /** Approximate memory used by the strings of the dictionary */
+    private long fMemorySize = 0;
+    /** Size of the strings when written, without the number of strings */
+    private int fSerializedSize = 0;
+
+    private final Map<String, Integer> fIds = new ConcurrentHashMap<>();
+
+    /*
+     * The strings by id. A new string is set in the array before the size is
+     * increased, and the array is replaced with a bigger copy when full, so
+     * readers reading the size first always see the strings below it.
+     */
+    private volatile String[] fStrings = new String[INITIAL_CAPACITY];
+    private volatile int fSize = 0;
+
+    /**
+     * Constructor, for a dictionary of the default maximum size
+     */
+    public HTStringDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxSize
+     *            The maximum size of the dictionary in memory, in bytes
+     */
+    public HTStringDictionary(long maxSize) {
+        fMaxSize = maxSize;
+    }
+
+    /**
+     * Get the instance of a string in the dictionary, adding it if it is not
+     * there yet and the dictionary is not full.
+     *
+     * @param string
+     *            The string
+     * @return The instance of this string kept by the dictionary, or the
+     *         string itself if it is not in the dictionary and the dictionary
+     *         is full
+     */
+    public synchronized String intern(String string) {
+        Integer id = fIds.get(string);
+        if (id != null) {
+            return fStrings[id];
+        }
+        int length = string.getBytes(StandardCharsets.UTF_8).length;
+        if (fMemorySize + length + ENTRY_OVERHEAD > fMaxSize) {
+            return string;
+        }
+        add(string, length);
+        return string;
+    }
+
+    private void add(String string, int length) {
+        int size = fSize;
+        String[] strings = fStrings;
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, size * 2);
+            fStrings = strings;
+        }
+        strings[size] = string;
+        fIds.put(string, size);
+        fMemorySize += length + ENTRY_OVERHEAD;
+        fSerializedSize += HTVarInt.getEncodedLengthUnsigned(length) + length;
+        fSize = size + 1;
+    }
+
+    /**
+     * Get the id of a string of the dictionary
+     *
+     * @param string
+     *            The string
+     * @return The id of the string, or -1 if it is not in the dictionary
+     */
+    public int getId(String string) {
+        Integer id = fIds.get(string);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Get the string with an id
+     *
+     * @param id
+     *            The id of the string
+     * @return The string
+     * @throws IndexOutOfBoundsException
+     *             If no string has that id
+     */
+    public String getString(int id) {
+        int size = fSize;
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No string with id " + id + " in a dictionary of size " + size); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return fStrings[id];
+    }
+
+    /**
+     * Get the number of strings in the dictionary
+     *
+     * @return The number of strings
+     */
+    public int size() {
+        return fSize;
+    }
+
+    // ------------------------------------------------------------------------
+    // Serialization
+    // ------------------------------------------------------------------------
+
+    /**
+     * Get the number of bytes needed to write the dictionary
+     *
+     * @return The size of the dictionary on disk
+     */
+    public synchronized int getSerializedSize() {
+        return HTVarInt.getEncodedLengthUnsigned(fSize) + fSerializedSize;
+    }
+
+    /**
+     * Write the dictionary: the number of strings, then the length and UTF-8
+     * bytes of each string, by order of id.
+     *
+     * @param buffer
+     *            The buffer to write to, with at least
+     *            {@link #getSerializedSize()} bytes remaining
+     */
+    public synchronized void writeTo(ByteBuffer buffer) {
+        int size = fSize;
+        HTVarInt.writeUnsigned(buffer, size);
+        for (int i = 0; i < size; i++) {
+            byte[] bytes = fStrings[i].getBytes(StandardCharsets.UTF_8);
+            HTVarInt.writeUnsigned(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Read a dictionary written by {@link #writeTo}. All its strings are read,
+     * even if they take more than the default maximum size.
+     *
+     * @param buffer
+     *            The buffer to read from
+     * @return The dictionary
+     * @throws IOException
+     *             If the data is not a valid dictionary
+     */
+    public static HTStringDictionary readFrom(ByteBuffer buffer) throws IOException {
+        HTStringDictionary dictionary = new HTStringDictionary();
+        try {
+            int size = (int) HTVarInt.readUnsigned(buffer);
+            for (int i = 0; i < size; i++) {
+                byte[] bytes = new byte[(int) HTVarInt.readUnsigned(buffer)];
+                buffer.get(bytes);
+                String string = new String(bytes, StandardCharsets.UTF_8);
+                if (dictionary.getId(string) >= 0) {
+                    throw new IOException("Duplicate strings in the dictionary"); //$NON-NLS-1$
+                }
+                dictionary.add(string, bytes.length);
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid string dictionary. Maybe your file is corrupt?", e); //$NON-NLS-1$
+        }
+        return dictionary;
+    }
+}
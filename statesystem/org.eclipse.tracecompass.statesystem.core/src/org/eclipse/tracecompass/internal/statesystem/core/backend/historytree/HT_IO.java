@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2018 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -16,19 +16,21 @@ package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Deque;
 import java.util.Iterator;
-import java.util.Objects;
-import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
@@ -36,15 +38,12 @@ import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.internal.statesystem.core.Activator;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.IHistoryTree.IHTNodeFactory;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-
 /**
  * This class abstracts inputs/outputs of the HistoryTree nodes.
  *
  * It contains all the methods and descriptors to handle reading/writing nodes
- * to the tree-file on disk and all the caching mechanisms.
+ * to the tree-file on disk and all the caching mechanisms. The nodes are kept
+ * in a partition of a {@link HTNodeCache}, which is shared with the other trees.
  *
  * This abstraction is mainly for code isolation/clarification purposes. Every
  * HistoryTree must contain 1 and only 1 HT_IO element.
@@ -55,72 +54,11 @@ public class HT_IO {
 
     private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(HT_IO.class);
 
-    // ------------------------------------------------------------------------
-    // Global cache of nodes
-    // ------------------------------------------------------------------------
-
-    private static final class CacheKey {
-
-        public final HT_IO fStateHistory;
-        public final int fSeqNumber;
-
-        public CacheKey(HT_IO stateHistory, int seqNumber) {
-            fStateHistory = stateHistory;
-            fSeqNumber = seqNumber;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(fStateHistory.fConfig.getStateFile().getAbsolutePath(), fSeqNumber);
-        }
-
-        @Override
-        public boolean equals(@Nullable Object obj) {
-            if (this == obj) {
-                return true;
-            }
-            if (obj == null) {
-                return false;
-            }
-            if (getClass() != obj.getClass()) {
-                return false;
-            }
-            CacheKey other = (CacheKey) obj;
-            return (fStateHistory.equals(other.fStateHistory) &&
-                    fSeqNumber == other.fSeqNumber);
-        }
-    }
-
-    private static final int CACHE_SIZE = 200;
-
-    private static final class HTNodeCacheLoader extends CacheLoader<CacheKey, HTNode> {
-        @Override
-        public HTNode load(CacheKey key) throws IOException {
-            HT_IO io = key.fStateHistory;
-            int seqNb = key.fSeqNumber;
-
-            TraceCompassLogUtils.traceInstant(LOGGER, Level.FINEST, "Ht_Io:CacheMiss", "seqNum", seqNb); //$NON-NLS-1$ //$NON-NLS-2$
-
-            HTConfig config = io.fConfig;
-            /* Allocate buffer */
-            ByteBuffer buffer = HTNode.allocateNode(config);
-            /* read buffer */
-            int res = -1;
-            synchronized (io) {
-                res = HTNode.readToBuffer(io.fFileChannelIn, seqNb, config.getBlockSize(), buffer);
-            }
-            if (res != config.getBlockSize()) {
-                throw new IOException("Expected " + config.getBlockSize() + " block size, but got " + res); //$NON-NLS-1$//$NON-NLS-2$
-            }
-            buffer.flip();
-            return HTNode.parseNode(config, buffer, key.fStateHistory.fNodeFactory);
-        }
-    }
-
-    private static final HTNodeCacheLoader NODE_LOADER = new HTNodeCacheLoader();
-
-    private static final LoadingCache<CacheKey, HTNode> NODE_CACHE = CacheBuilder.newBuilder()
-            .maximumSize(CACHE_SIZE).build(NODE_LOADER);
+    /**
+     * Preference key to read the finished history tree files through memory
+     * mapped buffers instead of the file channel
+     */
+    public static final String MEMORY_MAP_PREFERENCE = "historyTreeMemoryMapped"; //$NON-NLS-1$
 
     // ------------------------------------------------------------------------
     // Instance fields
@@ -131,12 +69,25 @@ public class HT_IO {
 
     /* Fields related to the file I/O */
     private final FileInputStream fFileInputStream;
-    private final FileOutputStream fFileOutputStream;
     private final FileChannel fFileChannelIn;
     private final FileChannel fFileChannelOut;
 
     private final IHTNodeFactory fNodeFactory;
 
+    /* Cache in which this tree has its own partition */
+    private final HTNodeCache fNodeCache;
+
+    /*
+     * Read-only mappings of the node section of a finished file, null if the
+     * nodes are read from the file channel. Each segment holds a whole number
+     * of blocks.
+     */
+    private volatile ByteBuffer @Nullable [] fMappedSegments = null;
+    private int fBlocksPerSegment = 0;
+
+    /* The writer of the nodes, started when the first node is written */
+    private volatile @Nullable HTNodeWriter fWriter = null;
+
     // ------------------------------------------------------------------------
     // Methods
     // ------------------------------------------------------------------------
@@ -155,7 +106,27 @@ public class HT_IO {
      *             An exception can be thrown when file cannot be accessed
      */
     public HT_IO(HTConfig config, boolean newFile, IHTNodeFactory nodeFactory) throws IOException {
+        this(config, newFile, nodeFactory, HTNodeCache.getDefault());
+    }
+
+    /**
+     * Constructor with a specific node cache
+     *
+     * @param config
+     *            The configuration object for the StateHistoryTree
+     * @param newFile
+     *            Flag indicating that the file must be created from scratch
+     * @param nodeFactory
+     *            The factory to create new nodes for this tree
+     * @param nodeCache
+     *            The cache in which to keep the nodes of this tree
+     *
+     * @throws IOException
+     *             An exception can be thrown when file cannot be accessed
+     */
+    public HT_IO(HTConfig config, boolean newFile, IHTNodeFactory nodeFactory, HTNodeCache nodeCache) throws IOException {
         fConfig = config;
+        fNodeCache = nodeCache;
 
         File historyTreeFile = config.getStateFile();
         if (newFile) {
@@ -173,18 +144,15 @@ public class HT_IO {
                 throw new IOException("Cannot create new file at " + //$NON-NLS-1$
                         historyTreeFile.getName());
             }
-            fFileInputStream = new FileInputStream(historyTreeFile);
-            fFileOutputStream = new FileOutputStream(historyTreeFile, false);
-        } else {
-            /*
-             * We want to open an existing file, make sure we don't squash the
-             * existing content when opening the fos!
-             */
-            fFileInputStream = new FileInputStream(historyTreeFile);
-            fFileOutputStream = new FileOutputStream(historyTreeFile, true);
         }
+        /*
+         * The existing content of the file is kept. The channel is not opened
+         * in append mode, so that a reopened tree can overwrite what follows
+         * its nodes and rewrite its latest nodes in place.
+         */
+        fFileInputStream = new FileInputStream(historyTreeFile);
         fFileChannelIn = fFileInputStream.getChannel();
-        fFileChannelOut = fFileOutputStream.getChannel();
+        fFileChannelOut = FileChannel.open(historyTreeFile.toPath(), StandardOpenOption.WRITE);
         fNodeFactory = nodeFactory;
     }
 
@@ -202,16 +170,11 @@ public class HT_IO {
     public @NonNull HTNode readNode(int seqNumber) throws ClosedChannelException {
         /* Do a cache lookup. If it's not present it will be loaded from disk */
         TraceCompassLogUtils.traceInstant(LOGGER, Level.FINEST, "Ht_Io:CacheLookup", "seqNum", seqNumber); //$NON-NLS-1$ //$NON-NLS-2$
-        CacheKey key = new CacheKey(this, seqNumber);
         try {
-            return Objects.requireNonNull(NODE_CACHE.get(key));
-
-        } catch (ExecutionException e) {
-            /* Get the inner exception that was generated */
-            Throwable cause = e.getCause();
-            if (cause instanceof ClosedChannelException) {
-                throw (ClosedChannelException) cause;
-            }
+            return fNodeCache.get(this, seqNumber, fConfig.getBlockSize(), this::readNodeFromDisk);
+        } catch (ClosedChannelException e) {
+            throw e;
+        } catch (IOException e) {
             /*
              * Other types of IOExceptions shouldn't happen at this point
              * though.
@@ -221,6 +184,104 @@ public class HT_IO {
         }
     }
 
+    private @NonNull HTNode readNodeFromDisk(int seqNb) throws IOException {
+        ByteBuffer[] segments = fMappedSegments;
+        if (segments != null) {
+            return readMappedNode(segments, seqNb);
+        }
+
+        /* The node may have been evicted before the writer wrote it */
+        HTNodeWriter writer = fWriter;
+        if (writer != null) {
+            HTNode node = writer.getPendingNode(seqNb);
+            if (node != null) {
+                return node;
+            }
+        }
+
+        /* Allocate buffer */
+        ByteBuffer buffer = HTNode.allocateNode(fConfig);
+        /* read buffer */
+        int res = -1;
+        synchronized (this) {
+            res = HTNode.readToBuffer(fFileChannelIn, seqNb, fConfig.getBlockSize(), buffer);
+        }
+        if (res != fConfig.getBlockSize()) {
+            throw new IOException("Expected " + fConfig.getBlockSize() + " block size, but got " + res); //$NON-NLS-1$//$NON-NLS-2$
+        }
+        buffer.flip();
+        return HTNode.parseNode(fConfig, buffer, fNodeFactory);
+    }
+
+    private @NonNull HTNode readMappedNode(ByteBuffer[] segments, int seqNb) throws IOException {
+        int segment = seqNb / fBlocksPerSegment;
+        if (seqNb < 0 || segment >= segments.length) {
+            throw new IOException("Node " + seqNb + " is not in the mapped file"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        int blockSize = fConfig.getBlockSize();
+        int offset = (seqNb % fBlocksPerSegment) * blockSize;
+        /*
+         * Work on a view of the segment, the position and limit of the views
+         * are independent, so no lock is needed.
+         */
+        ByteBuffer buffer = segments[segment].duplicate();
+        buffer.position(offset);
+        buffer.limit(offset + blockSize);
+        buffer = buffer.slice();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return HTNode.parseNode(fConfig, buffer, fNodeFactory);
+    }
+
+    /**
+     * Map the node section of the file in memory. The file must not be
+     * modified anymore, so this should only be called once the tree is
+     * closed. Subsequent reads of nodes that are not in the cache will decode
+     * them directly from the mapped memory, without taking a lock.
+     *
+     * @param nodeCount
+     *            The number of nodes in the file
+     * @throws IOException
+     *             If the file cannot be mapped
+     */
+    public synchronized void mapNodes(int nodeCount) throws IOException {
+        int blockSize = fConfig.getBlockSize();
+        int blocksPerSegment = Integer.MAX_VALUE / blockSize;
+        int nbSegments = (nodeCount + blocksPerSegment - 1) / blocksPerSegment;
+        ByteBuffer[] segments = new ByteBuffer[nbSegments];
+        for (int i = 0; i < nbSegments; i++) {
+            long position = IHistoryTree.TREE_HEADER_SIZE + (long) i * blocksPerSegment * blockSize;
+            int nbBlocks = Math.min(blocksPerSegment, nodeCount - i * blocksPerSegment);
+            segments[i] = fFileChannelIn.map(MapMode.READ_ONLY, position, (long) nbBlocks * blockSize);
+        }
+        fBlocksPerSegment = blocksPerSegment;
+        fMappedSegments = segments;
+        TraceCompassLogUtils.traceInstant(LOGGER, Level.FINE, "Ht_Io:MappedNodes", "nodeCount", nodeCount, "segments", nbSegments); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    }
+
+    /**
+     * Stop reading the nodes through the mapped buffers, before the tree is
+     * modified again.
+     */
+    public synchronized void unmapNodes() {
+        fMappedSegments = null;
+    }
+
+    /**
+     * Whether the finished history tree files should be read through memory
+     * mapped buffers, as set by the {@link #MEMORY_MAP_PREFERENCE} preference.
+     * This is disabled by default, as a mapped file cannot be deleted on some
+     * platforms until the mapping is garbage collected.
+     *
+     * @return <code>true</code> if the finished files should be memory mapped
+     */
+    public static boolean isMemoryMapEnabled() {
+        IPreferencesService preferences = Platform.isRunning() ? Platform.getPreferencesService() : null;
+        if (preferences == null) {
+            return false;
+        }
+        return preferences.getBoolean(Activator.PLUGIN_ID, MEMORY_MAP_PREFERENCE, false, null);
+    }
+
     /**
      * Read a node from a file on disk
      *
@@ -241,8 +302,7 @@ public class HT_IO {
         Iterator<Integer> iterator = queue.iterator();
         while (iterator.hasNext()) {
             Integer seqNumber = iterator.next();
-            CacheKey key = new CacheKey(this, seqNumber);
-            HTNode node = NODE_CACHE.getIfPresent(key);
+            HTNode node = fNodeCache.getIfPresent(this, seqNumber);
             if (node != null) {
                 iterator.remove();
                 return node;
@@ -253,27 +313,74 @@ public class HT_IO {
     }
 
     /**
-     * Write the given node to disk.
+     * Write the given node to disk. The node is queued to the writer thread of
+     * this tree, call {@link #flushWrites()} to wait until it is actually
+     * written.
      *
      * @param node
-     *            The node to write.
+     *            The node to write. It must be closed.
+     * @throws IllegalStateException
+     *             If this node or a previously written node could not be
+     *             written to the file
      */
     public void writeNode(HTNode node) {
-        try {
-            int seqNumber = node.getSequenceNumber();
+        int seqNumber = node.getSequenceNumber();
 
-            /* "Write-back" the node into the cache */
-            CacheKey key = new CacheKey(this, seqNumber);
-            NODE_CACHE.put(key, node);
+        /* "Write-back" the node into the cache */
+        fNodeCache.put(this, seqNumber, fConfig.getBlockSize(), node);
 
-            /* Position ourselves at the start of the node and write it */
-            synchronized (this) {
-                IHistoryTree.seekFCToNodePos(fFileChannelOut, fConfig.getBlockSize(), seqNumber);
-                node.writeSelf(fFileChannelOut);
-            }
+        try {
+            getWriter().write(node);
         } catch (IOException e) {
-            /* If we were able to open the file, we should be fine now... */
             Activator.getDefault().logError(e.getMessage(), e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HTNodeWriter getWriter() {
+        HTNodeWriter writer = fWriter;
+        if (writer == null) {
+            synchronized (this) {
+                writer = fWriter;
+                if (writer == null) {
+                    writer = new HTNodeWriter(fConfig, fFileChannelOut);
+                    fWriter = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Wait for the nodes passed to {@link #writeNode(HTNode)} to be written to
+     * the file. This must be done before writing other data to the file.
+     *
+     * @throws IOException
+     *             If a node could not be written
+     */
+    public void flushWrites() throws IOException {
+        HTNodeWriter writer = fWriter;
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Write the nodes passed to {@link #writeNode(HTNode)} to the file and
+     * stop the writer thread of this tree, once the tree is closed. A new
+     * writer is started if nodes are written again.
+     *
+     * @throws IOException
+     *             If a node could not be written
+     */
+    public synchronized void closeWriter() throws IOException {
+        HTNodeWriter writer = fWriter;
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                fWriter = null;
+            }
         }
     }
 
@@ -286,6 +393,16 @@ public class HT_IO {
         return fFileChannelOut;
     }
 
+    /**
+     * Whether nodes can still be written to the file. The output channel is
+     * closed once the tree is closed.
+     *
+     * @return <code>true</code> if the output channel is open
+     */
+    public boolean isWritable() {
+        return fFileChannelOut.isOpen();
+    }
+
     /**
      * Retrieve the input stream with which to write the attribute tree.
      *
@@ -295,12 +412,30 @@ public class HT_IO {
      * @return The correctly-seeked input stream
      */
     public FileInputStream supplyATReader(int nodeOffset) {
+        return supplyATReader(nodeOffset, 0);
+    }
+
+    /**
+     * Retrieve the input stream with which to write the attribute tree, when
+     * other data is written between the nodes and the attribute tree.
+     *
+     * @param nodeOffset
+     *            The offset in the file, in number of nodes. This should be
+     *            after all the nodes.
+     * @param byteOffset
+     *            The number of bytes to skip after the nodes
+     * @return The correctly-seeked input stream
+     */
+    public FileInputStream supplyATReader(int nodeOffset, long byteOffset) {
         try {
             /*
              * Position ourselves at the start of the Mapping section in the
              * file (which is right after the Blocks)
              */
             IHistoryTree.seekFCToNodePos(fFileChannelIn, fConfig.getBlockSize(), nodeOffset);
+            if (byteOffset > 0) {
+                fFileChannelIn.position(fFileChannelIn.position() + byteOffset);
+            }
         } catch (IOException e) {
             Activator.getDefault().logError(e.getMessage(), e);
         }
@@ -311,9 +446,16 @@ public class HT_IO {
      * Close all file channels and streams.
      */
     public synchronized void closeFile() {
+        try {
+            closeWriter();
+        } catch (IOException e) {
+            Activator.getDefault().logError(e.getMessage(), e);
+        }
+        fMappedSegments = null;
+        fNodeCache.invalidate(this);
         try {
             fFileInputStream.close();
-            fFileOutputStream.close();
+            fFileChannelOut.close();
         } catch (IOException e) {
             Activator.getDefault().logError(e.getMessage(), e);
         }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -24,10 +24,12 @@ import java.nio.channels.ClosedChannelException;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils;
 import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLog;
@@ -62,6 +64,21 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
     /** Indicates if the history tree construction is done */
     private volatile boolean fFinishedBuilding = false;
 
+    /**
+     * Pool used to run the 2D queries on the finished tree in parallel, or
+     * null to run them on the calling thread, the default
+     */
+    private volatile @Nullable ForkJoinPool fQueryPool = null;
+
+    /**
+     * Checkpoints of the full state used by the full queries once the tree is
+     * finished, or null if there are none
+     */
+    private volatile @Nullable HTCheckpoints fCheckpoints;
+
+    /** Whether the checkpoints of an existing file still have to be read */
+    private volatile boolean fCheckpointsToRead = false;
+
     /**
      * Indicates if the history tree construction is done
      *
@@ -114,6 +131,7 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
         final HTConfig conf = new HTConfig(newStateFile, blockSize, maxChildren,
                 providerVersion, startTime);
         fSht = initializeSHT(conf);
+        fCheckpoints = HTCheckpoints.isEnabled() ? new HTCheckpoints(HTCheckpoints.DEFAULT_MIN_SPACING) : null;
     }
 
     /**
@@ -160,6 +178,9 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
         fSsid = ssid;
         fSht = initializeSHT(existingStateFile, providerVersion);
         fFinishedBuilding = true;
+        /* The checkpoints are read by the first full query */
+        fCheckpoints = null;
+        fCheckpointsToRead = HTCheckpoints.isEnabled();
     }
 
     /**
@@ -230,15 +251,107 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
                 quark, value);
 
         /* Start insertions at the "latest leaf" */
+        insertInterval(interval);
+    }
+
+    /**
+     * Insert an interval in the history tree, and record it in the
+     * checkpoints. This is called by the thread building the tree.
+     *
+     * @param interval
+     *            The interval to insert
+     * @throws TimeRangeException
+     *             If the start or end time of the interval are invalid
+     */
+    protected final void insertInterval(@NonNull HTInterval interval) throws TimeRangeException {
         getSHT().insertInterval(interval);
+        HTCheckpoints checkpoints = fCheckpoints;
+        if (checkpoints != null) {
+            checkpoints.intervalInserted(interval);
+        }
     }
 
     @Override
     public void finishedBuilding(long endTime) {
         getSHT().closeTree(endTime);
+        saveCheckpoints(endTime);
         fFinishedBuilding = true;
     }
 
+    /**
+     * Finish building the checkpoints and save them next to the history file,
+     * once the tree is closed.
+     *
+     * @param endTime
+     *            The end time of the tree
+     */
+    protected final void saveCheckpoints(long endTime) {
+        HTCheckpoints checkpoints = fCheckpoints;
+        if (checkpoints == null) {
+            return;
+        }
+        checkpoints.finishBuilding(endTime);
+        IHistoryTree sht = getSHT();
+        try {
+            checkpoints.writeTo(HTCheckpoints.getFile(sht.supplyATWriterFile()), sht.getTreeStart(), sht.getTreeEnd(), sht.getNodeCount());
+        } catch (IOException e) {
+            /* They can still be used until the history is closed */
+            Activator.getDefault().logWarning("Failed to save the checkpoints of " + fSsid, e); //$NON-NLS-1$
+        }
+    }
+
+    @Override
+    public void resumeBuilding() throws IOException {
+        getSHT().reopenTree();
+        fFinishedBuilding = false;
+        /* The checkpoints will be saved again with the new end time */
+        HTCheckpoints checkpoints = getCheckpoints();
+        deleteCheckpointsFile();
+        if (checkpoints == null && HTCheckpoints.isEnabled()) {
+            checkpoints = new HTCheckpoints(HTCheckpoints.DEFAULT_MIN_SPACING);
+            fCheckpoints = checkpoints;
+        }
+        if (checkpoints != null) {
+            checkpoints.resumeBuilding(getSHT().getTreeEnd());
+        }
+    }
+
+    /**
+     * Set the checkpoints used by the full queries once the tree is finished.
+     * By default, they are built unless the
+     * {@link HTCheckpoints#CHECKPOINTS_PREFERENCE} preference is disabled. To
+     * be built, they must be set before the first interval is inserted.
+     *
+     * @param checkpoints
+     *            The checkpoints, or <code>null</code> to query the tree
+     *            without checkpoints
+     */
+    public void setCheckpoints(@Nullable HTCheckpoints checkpoints) {
+        fCheckpoints = checkpoints;
+        fCheckpointsToRead = false;
+    }
+
+    private @Nullable HTCheckpoints getCheckpoints() {
+        if (fCheckpointsToRead) {
+            synchronized (this) {
+                if (fCheckpointsToRead) {
+                    IHistoryTree sht = getSHT();
+                    fCheckpoints = HTCheckpoints.readFrom(HTCheckpoints.getFile(sht.supplyATWriterFile()),
+                            sht.getTreeStart(), sht.getTreeEnd(), sht.getNodeCount());
+                    fCheckpointsToRead = false;
+                }
+            }
+        }
+        return fCheckpoints;
+    }
+
+    private void deleteCheckpointsFile() {
+        File file = HTCheckpoints.getFile(getSHT().supplyATWriterFile());
+        if (file.exists() && !file.delete()) {
+            Activator.getDefault().logWarning("Failed to delete " + file.getName()); //$NON-NLS-1$
+        }
+    }
+
     @Override
     public FileInputStream supplyAttributeTreeReader() {
         return getSHT().supplyATReader();
@@ -257,6 +370,7 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
     @Override
     public void removeFiles() {
         getSHT().deleteFile();
+        deleteCheckpointsFile();
     }
 
     @Override
@@ -272,6 +386,7 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
              * future (.deleteFile() will close the file first)
              */
             getSHT().deleteFile();
+            deleteCheckpointsFile();
         }
     }
 
@@ -280,6 +395,11 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
             throws TimeRangeException, StateSystemDisposedException {
         checkValidTime(t);
 
+        HTCheckpoints checkpoints = fFinishedBuilding ? getCheckpoints() : null;
+        if (checkpoints != null && queryFromCheckpoint(checkpoints, stateInfo, t)) {
+            return;
+        }
+
         /* Queue is a stack of nodes containing nodes intersecting t */
         Deque<Integer> queue = new ArrayDeque<>();
 
@@ -307,6 +427,39 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
          */
     }
 
+    /**
+     * Fill the full state from the first checkpoint after t, then with the
+     * intervals of the branch that end before the checkpoint.
+     *
+     * @return false if some attributes were not found, then the full state
+     *         must be queried from the tree
+     */
+    private boolean queryFromCheckpoint(HTCheckpoints checkpoints, List<ITmfStateInterval> stateInfo, long t)
+            throws StateSystemDisposedException {
+        int index = checkpoints.getCheckpointAfter(t);
+        if (index < 0) {
+            return false;
+        }
+        long checkpointTime = checkpoints.getTime(index);
+        checkpoints.restoreState(index, stateInfo, t);
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(getSHT().getRootNode().getSequenceNumber());
+        try {
+            while (!queue.isEmpty()) {
+                int sequenceNumber = queue.pop();
+                HTNode currentNode = getSHT().readNode(sequenceNumber);
+                if (currentNode.getNodeType() == HTNode.NodeType.CORE) {
+                    queue.addAll(((ParentNode) currentNode).selectNextChildren(t));
+                }
+                currentNode.writeInfoFromNode(stateInfo, t, checkpointTime);
+            }
+        } catch (ClosedChannelException e) {
+            throw new StateSystemDisposedException(e);
+        }
+        return !stateInfo.contains(null);
+    }
+
     @Override
     public ITmfStateInterval doSingularQuery(long t, int attributeQuark)
             throws TimeRangeException, StateSystemDisposedException {
@@ -361,10 +514,31 @@ public class HistoryTreeBackend implements IStateHistoryBackend {
                 "ssid", getSSID(), //$NON-NLS-1$
                 "quarks", quarks, //$NON-NLS-1$
                 "timeCondition", times).build()) { //$NON-NLS-1$
+            ForkJoinPool pool = fQueryPool;
+            if (pool != null && fFinishedBuilding) {
+                /*
+                 * The bounds of the nodes do not change anymore, the subtrees
+                 * can be read in parallel
+                 */
+                return () -> new HistoryTreeBackendParallelIterator(getSHT(), quarks, times, reverse, pool, log);
+            }
             return () -> new HistoryTreeBackendIterator(getSHT(), quarks, times, reverse, log);
         }
     }
 
+    /**
+     * Set the pool used to read the subtrees in parallel for the 2D queries
+     * once the tree is finished. By default, the 2D queries are read on the
+     * calling thread.
+     *
+     * @param pool
+     *            The pool to use, or <code>null</code> to read the tree on the
+     *            calling thread
+     */
+    public void setQueryPool(@Nullable ForkJoinPool pool) {
+        fQueryPool = pool;
+    }
+
     /**
      * Return the size of the tree history file
      *
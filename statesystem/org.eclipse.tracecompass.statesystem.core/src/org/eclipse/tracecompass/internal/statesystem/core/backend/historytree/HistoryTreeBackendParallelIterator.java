@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.internal.statesystem.core.backend.historytree;
+
+import java.lang.ref.Cleaner;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLog;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLog;
+import org.eclipse.tracecompass.common.core.log.TraceCompassLogUtils.FlowScopeLogBuilder;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.IntegerRangeCondition;
+import org.eclipse.tracecompass.internal.provisional.datastore.core.condition.TimeRangeCondition;
+import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
+
+/**
+ * Iterator for 2D queries on a finished history tree, which reads the subtrees
+ * in parallel.
+ *
+ * The top of the tree is read on the calling thread until there are enough
+ * subtrees to keep the workers of the pool busy, then each subtree is read by
+ * a task of the pool. The intervals are returned in depth-first order, the
+ * results of the subtrees being returned in order as they become available.
+ *
+ * Only a few subtrees are read ahead of the one being returned, so the
+ * intervals of the whole query are not held in memory at once. When the
+ * iterator is abandoned before its end, the subtrees being read are canceled
+ * once it is garbage collected.
+ */
+class HistoryTreeBackendParallelIterator implements Iterator<@NonNull ITmfStateInterval> {
+    private static final @NonNull Logger LOGGER = TraceCompassLog.getLogger(HistoryTreeBackendParallelIterator.class);
+
+    /** Number of subtrees to create per worker, to balance the load */
+    private static final int SUBTREES_PER_WORKER = 4;
+
+    /** Number of subtrees read ahead per worker */
+    private static final int READ_AHEAD_PER_WORKER = 2;
+
+    /** Cancels the reads of the iterators that are abandoned */
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final SubtreeReader fReader;
+    private final ForkJoinPool fPool;
+    private final int fMaxInFlight;
+    private final @NonNull FlowScopeLog fParentLog;
+    private final Cleaner.Cleanable fCleanable;
+
+    /*
+     * The partial results, in the order they should be returned. Initialized
+     * at the first call to hasNext().
+     */
+    private @Nullable List<Segment> fSegments = null;
+    /** Index of the next segment to return */
+    private int fNext = 0;
+    /** Index of the next segment whose subtree is to be read */
+    private int fNextSubmit = 0;
+    /** Number of subtrees being read, between fNext and fNextSubmit */
+    private int fInFlight = 0;
+    private Iterator<@NonNull HTInterval> fIntervals = Collections.emptyIterator();
+    private boolean fClosed = false;
+
+    /**
+     * A partial result, either the intervals of a node read on the calling
+     * thread, or a subtree to read in the pool
+     */
+    private static final class Segment {
+        private final @Nullable List<@NonNull HTInterval> fIntervals;
+        private final int fSubtreeRoot;
+        private @Nullable Future<@Nullable List<@NonNull HTInterval>> fTask = null;
+
+        public Segment(@Nullable List<@NonNull HTInterval> intervals, int subtreeRoot) {
+            fIntervals = intervals;
+            fSubtreeRoot = subtreeRoot;
+        }
+    }
+
+    /**
+     * The reads of the subtrees, which do not reference the iterator so it can
+     * be garbage collected while they run
+     */
+    private static final class SubtreeReader implements Runnable {
+        private final @NonNull IHistoryTree fSht;
+        private final IntegerRangeCondition fQuarks;
+        private final TimeRangeCondition fTimes;
+        private final boolean fReverse;
+        private volatile boolean fCanceled = false;
+
+        public SubtreeReader(@NonNull IHistoryTree sht, IntegerRangeCondition quarks, TimeRangeCondition times, boolean reverse) {
+            fSht = sht;
+            fQuarks = quarks;
+            fTimes = times;
+            fReverse = reverse;
+        }
+
+        /** Cancel the reads, when the iterator is abandoned */
+        @Override
+        public void run() {
+            fCanceled = true;
+        }
+
+        /**
+         * Read a subtree in depth-first order, like the sequential iterator.
+         *
+         * @return The intervals in the subtree, or <code>null</code> if the
+         *         file was closed
+         */
+        private @Nullable List<@NonNull HTInterval> readSubtree(int rootSeqNb) {
+            List<@NonNull HTInterval> intervals = new ArrayList<>();
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(rootSeqNb);
+            try {
+                while (!queue.isEmpty()) {
+                    if (fCanceled) {
+                        throw new CancellationException();
+                    }
+                    HTNode node = fSht.readNode(queue.pop());
+                    TimeRangeCondition subTimes = getSubTimes(node);
+                    if (subTimes == null) {
+                        continue;
+                    }
+                    if (node.getNodeType() == HTNode.NodeType.CORE) {
+                        ((ParentNode) node).queueNextChildren2D(fQuarks, subTimes, queue, fReverse);
+                    }
+                    node.iterable2D(fQuarks, subTimes).forEach(intervals::add);
+                }
+            } catch (ClosedChannelException e) {
+                return null;
+            }
+            return intervals;
+        }
+
+        /**
+         * Get the time condition reduced to a node, or <code>null</code> if
+         * the node does not intersect the query.
+         */
+        private @Nullable TimeRangeCondition getSubTimes(HTNode node) {
+            if (!fQuarks.intersects(node.getMinQuark(), node.getMaxQuark())) {
+                return null;
+            }
+            return fTimes.subCondition(node.getNodeStart(), node.getNodeEnd());
+        }
+    }
+
+    HistoryTreeBackendParallelIterator(@NonNull IHistoryTree sht, IntegerRangeCondition quarks, TimeRangeCondition times, boolean reverse,
+            ForkJoinPool pool, @NonNull FlowScopeLog parentLog) {
+        fReader = new SubtreeReader(sht, quarks, times, reverse);
+        fPool = pool;
+        fMaxInFlight = Math.max(1, pool.getParallelism() * READ_AHEAD_PER_WORKER);
+        fParentLog = parentLog;
+        fCleanable = CLEANER.register(this, fReader);
+    }
+
+    @Override
+    public boolean hasNext() {
+        List<Segment> segments = fSegments;
+        if (segments == null) {
+            segments = splitTree();
+            fSegments = segments;
+            submitTasks(segments);
+        }
+        while (!fIntervals.hasNext() && !fClosed && fNext < segments.size()) {
+            List<@NonNull HTInterval> intervals = getResult(segments.get(fNext++));
+            submitTasks(segments);
+            if (intervals == null) {
+                /* The file was closed while reading, or the query interrupted */
+                close(segments);
+                try (FlowScopeLog closedChannelLog = new FlowScopeLogBuilder(LOGGER, Level.FINER,
+                        "HistoryTreeBackendParallelIterator:query2D:channelClosed").setParentScope(fParentLog).build()) { //$NON-NLS-1$
+                    return false;
+                }
+            }
+            fIntervals = intervals.iterator();
+        }
+        if (!fIntervals.hasNext() && !fClosed) {
+            /* All the segments were returned */
+            close(segments);
+        }
+        return fIntervals.hasNext();
+    }
+
+    @Override
+    public ITmfStateInterval next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return fIntervals.next();
+    }
+
+    /**
+     * Submit the reads of the next subtrees, up to the maximum number of
+     * subtrees read ahead
+     */
+    private void submitTasks(List<Segment> segments) {
+        while (fInFlight < fMaxInFlight && fNextSubmit < segments.size()) {
+            Segment segment = segments.get(fNextSubmit++);
+            if (segment.fIntervals == null) {
+                SubtreeReader reader = fReader;
+                int root = segment.fSubtreeRoot;
+                segment.fTask = fPool.submit(() -> reader.readSubtree(root));
+                fInFlight++;
+            }
+        }
+    }
+
+    private void close(List<Segment> segments) {
+        fClosed = true;
+        fCleanable.clean();
+        for (int i = fNext; i < fNextSubmit; i++) {
+            Future<?> task = segments.get(i).fTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+        segments.clear();
+        fInFlight = 0;
+    }
+
+    private @Nullable List<@NonNull HTInterval> getResult(Segment segment) {
+        List<@NonNull HTInterval> intervals = segment.fIntervals;
+        if (intervals != null) {
+            return intervals;
+        }
+        Future<@Nullable List<@NonNull HTInterval>> task = segment.fTask;
+        if (task == null) {
+            throw new IllegalStateException("Subtree was not submitted"); //$NON-NLS-1$
+        }
+        fInFlight--;
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (CancellationException e) {
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Splitting the tree
+    // ------------------------------------------------------------------------
+
+    private List<Segment> splitTree() {
+        List<Segment> segments = new ArrayList<>();
+        try (FlowScopeLog log = new FlowScopeLogBuilder(LOGGER, Level.FINER,
+                "HistoryTreeBackendParallelIterator:query2D:split").setParentScope(fParentLog).build()) { //$NON-NLS-1$
+            int rootSeqNb = fReader.fSht.getRootNode().getSequenceNumber();
+            int depth = getSplitDepth(rootSeqNb);
+            split(rootSeqNb, depth, segments);
+        } catch (ClosedChannelException e) {
+            segments.clear();
+            fClosed = true;
+        }
+        return segments;
+    }
+
+    /**
+     * Get the depth at which to split the tree, that is the depth of the
+     * shallowest level with enough nodes to give work to all the workers.
+     */
+    private int getSplitDepth(int rootSeqNb) throws ClosedChannelException {
+        SubtreeReader reader = fReader;
+        int target = fPool.getParallelism() * SUBTREES_PER_WORKER;
+        Deque<Integer> level = new ArrayDeque<>();
+        level.add(rootSeqNb);
+        int depth = 0;
+        while (level.size() < target) {
+            Deque<Integer> nextLevel = new ArrayDeque<>();
+            for (int seqNb : level) {
+                HTNode node = reader.fSht.readNode(seqNb);
+                TimeRangeCondition subTimes = reader.getSubTimes(node);
+                if (node.getNodeType() == HTNode.NodeType.CORE && subTimes != null) {
+                    ((ParentNode) node).queueNextChildren2D(reader.fQuarks, subTimes, nextLevel, reader.fReverse);
+                }
+            }
+            if (nextLevel.isEmpty()) {
+                break;
+            }
+            level = nextLevel;
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Read the nodes above the split depth in depth-first order, adding their
+     * intervals and the subtrees below in the segments.
+     */
+    private void split(int seqNb, int depth, List<Segment> segments) throws ClosedChannelException {
+        if (depth == 0) {
+            segments.add(new Segment(null, seqNb));
+            return;
+        }
+        SubtreeReader reader = fReader;
+        HTNode node = reader.fSht.readNode(seqNb);
+        TimeRangeCondition subTimes = reader.getSubTimes(node);
+        if (subTimes == null) {
+            return;
+        }
+        List<@NonNull HTInterval> intervals = new ArrayList<>();
+        node.iterable2D(reader.fQuarks, subTimes).forEach(intervals::add);
+        segments.add(new Segment(intervals, -1));
+        if (node.getNodeType() == HTNode.NodeType.CORE) {
+            Deque<Integer> children = new ArrayDeque<>();
+            ((ParentNode) node).queueNextChildren2D(reader.fQuarks, subTimes, children, reader.fReverse);
+            for (int child : children) {
+                split(child, depth - 1, segments);
+            }
+        }
+    }
+}
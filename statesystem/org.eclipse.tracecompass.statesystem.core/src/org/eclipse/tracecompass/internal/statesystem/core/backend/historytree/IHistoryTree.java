@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2019 Ericsson, École Polytechnique de Montréal, and others
+ * Copyright (c) 2010, 2026 Ericsson, École Polytechnique de Montréal, and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -91,6 +91,16 @@ public interface IHistoryTree {
      */
     void closeTree(long requestedEndTime);
 
+    /**
+     * Reopen a tree that was closed, so that intervals starting after its end
+     * time can be inserted. The tree must be closed again with
+     * {@link #closeTree(long)} once they are inserted.
+     *
+     * @throws IOException
+     *             If the tree cannot be written to anymore
+     */
+    void reopenTree() throws IOException;
+
     // ------------------------------------------------------------------------
     // Accessors
     // ------------------------------------------------------------------------
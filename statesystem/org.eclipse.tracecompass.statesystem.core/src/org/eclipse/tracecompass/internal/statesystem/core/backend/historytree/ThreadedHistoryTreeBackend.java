@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -156,6 +156,15 @@ public final class ThreadedHistoryTreeBackend extends HistoryTreeBackend
         fEndTime = Math.max(fEndTime, stateEndTime);
     }
 
+    @Override
+    public void insertPastStates(long[] stateStartTimes, long stateEndTime,
+            int[] quarks, Object[] values, int count) throws TimeRangeException {
+        for (int i = 0; i < count; i++) {
+            intervalQueue.put(new HTInterval(stateStartTimes[i], stateEndTime, quarks[i], values[i]));
+        }
+        fEndTime = Math.max(fEndTime, stateEndTime);
+    }
+
     @Override
     public long getEndTime() {
         return fEndTime;
@@ -171,10 +180,17 @@ public final class ThreadedHistoryTreeBackend extends HistoryTreeBackend
          */
 
         stopRunningThread(endTime);
+        saveCheckpoints(endTime);
         setFinishedBuilding(true);
         return;
     }
 
+    @Override
+    public void resumeBuilding() throws IOException {
+        /* The insertion thread is stopped once the history is finished */
+        throw new IOException("A threaded history cannot resume building, open its file with a HistoryTreeBackend"); //$NON-NLS-1$
+    }
+
     @Override
     public void dispose() {
         if (!isFinishedBuilding()) {
@@ -214,7 +230,7 @@ public final class ThreadedHistoryTreeBackend extends HistoryTreeBackend
             HTInterval currentInterval = intervalQueue.blockingPeek();
             while (currentInterval.getStartTime() != Long.MIN_VALUE || currentInterval.getAttribute() != -1) {
                 /* Send the interval to the History Tree */
-                getSHT().insertInterval(currentInterval);
+                insertInterval(currentInterval);
                 /* Actually remove the interval from the queue */
                 // FIXME Replace with remove() once it is implemented.
                 intervalQueue.take();
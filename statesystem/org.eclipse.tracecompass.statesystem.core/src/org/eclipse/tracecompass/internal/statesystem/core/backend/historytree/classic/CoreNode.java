@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 Ericsson, École Polytechnique de Montréal, and others
+ * Copyright (c) 2010, 2026 Ericsson, École Polytechnique de Montréal, and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -226,6 +226,29 @@ public final class CoreNode extends ParentNode {
         return -1;
     }
 
+    /**
+     * Reopen the latest child of this node, which was closed, so that the
+     * queries look for the intervals added to it again. Its end time and
+     * quarks are set again when it is closed.
+     *
+     * @param child
+     *            The reopened child node
+     */
+    public void reopenChild(HTNode child) {
+        rwl.writeLock().lock();
+        try {
+            int index = fNbChildren - 1;
+            if (index < 0 || fChildren[index] != child.getSequenceNumber()) {
+                throw new IllegalArgumentException("Only the latest child can be reopened"); //$NON-NLS-1$
+            }
+            fChildEnd[index] = Long.MAX_VALUE;
+            fChildMin[index] = 0;
+            fChildMax[index] = Integer.MAX_VALUE;
+        } finally {
+            rwl.writeLock().unlock();
+        }
+    }
+
     @Override
     public void linkNewChild(HTNode childNode) {
         rwl.writeLock().lock();
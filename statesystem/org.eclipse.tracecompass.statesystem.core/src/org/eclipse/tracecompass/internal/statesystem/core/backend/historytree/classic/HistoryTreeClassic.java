@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2019 Ericsson, École Polytechnique de Montréal, and others
+ * Copyright (c) 2010, 2026 Ericsson, École Polytechnique de Montréal, and others
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -29,9 +29,11 @@ import java.util.Deque;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.tracecompass.internal.statesystem.core.Activator;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTConfig;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTInterval;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTNode;
+import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HTStringDictionary;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.HT_IO;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.IHistoryTree;
 import org.eclipse.tracecompass.internal.statesystem.core.backend.historytree.LeafNode;
@@ -56,7 +58,13 @@ public class HistoryTreeClassic implements IHistoryTree {
     public static final int HISTORY_FILE_MAGIC_NUMBER = 0x05FFA900;
 
     /** File format version. Increment when breaking compatibility. */
-    private static final int FILE_VERSION = 11;
+    private static final int FILE_VERSION = 13;
+
+    /**
+     * Version of the files whose nodes store the intervals one after the
+     * other, instead of column by column. They can still be read.
+     */
+    private static final int ROW_FILE_VERSION = 11;
 
     private static final IHTNodeFactory CLASSIC_NODE_FACTORY = new IHTNodeFactory() {
 
@@ -92,6 +100,12 @@ public class HistoryTreeClassic implements IHistoryTree {
     /** The total number of nodes that exists in this tree */
     private int fNodeCount;
 
+    /**
+     * Size of the string dictionary, written after the nodes when the tree is
+     * closed
+     */
+    private int fStringsSize = 0;
+
     /** "Cache" to keep the active nodes in memory */
     private final @NonNull List<@NonNull HTNode> fLatestBranch;
 
@@ -152,6 +166,8 @@ public class HistoryTreeClassic implements IHistoryTree {
         int bs;
         int maxc;
         long startTime;
+        boolean columnarNodes;
+        HTStringDictionary strings = null;
 
         /* Java I/O mumbo jumbo... */
         if (!existingStateFile.exists()) {
@@ -185,9 +201,10 @@ public class HistoryTreeClassic implements IHistoryTree {
             }
 
             res = buffer.getInt(); /* File format version number */
-            if (res != FILE_VERSION) {
+            if (res != FILE_VERSION && res != ROW_FILE_VERSION) {
                 throw new IOException("Mismatching History Tree file format versions"); //$NON-NLS-1$
             }
+            columnarNodes = (res == FILE_VERSION);
 
             res = buffer.getInt(); /* Event handler's version number */
             if (res != expProviderVersion &&
@@ -209,7 +226,13 @@ public class HistoryTreeClassic implements IHistoryTree {
             rootNodeSeqNb = buffer.getInt();
             startTime = buffer.getLong();
 
-            fConfig = new HTConfig(existingStateFile, bs, maxc, expProviderVersion, startTime);
+            if (columnarNodes) {
+                /* The string dictionary is right after the nodes */
+                fStringsSize = buffer.getInt();
+                strings = readStringDictionary(fc, IHistoryTree.TREE_HEADER_SIZE + (long) fNodeCount * bs, fStringsSize);
+            }
+
+            fConfig = new HTConfig(existingStateFile, bs, maxc, expProviderVersion, startTime, strings);
         }
 
         /*
@@ -218,6 +241,9 @@ public class HistoryTreeClassic implements IHistoryTree {
          * the SHT otherwise?
          */
         fTreeIO = new HT_IO(fConfig, false, CLASSIC_NODE_FACTORY);
+        if (HT_IO.isMemoryMapEnabled()) {
+            mapNodes();
+        }
 
         fLatestBranch = buildLatestBranch(rootNodeSeqNb);
         fTreeEnd = getRootNode().getNodeEnd();
@@ -232,6 +258,18 @@ public class HistoryTreeClassic implements IHistoryTree {
         }
     }
 
+    private static HTStringDictionary readStringDictionary(FileChannel fc, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        fc.position(position);
+        while (buffer.hasRemaining()) {
+            if (fc.read(buffer) < 0) {
+                throw new IOException("Truncated string dictionary"); //$NON-NLS-1$
+            }
+        }
+        buffer.flip();
+        return HTStringDictionary.readFrom(buffer);
+    }
+
     /**
      * Rebuild the latestBranch "cache" object by reading the nodes from disk
      * (When we are opening an existing file on disk and want to append to it,
@@ -273,6 +311,31 @@ public class HistoryTreeClassic implements IHistoryTree {
             closeBranch(0, requestedEndTime);
 
             try (FileChannel fc = fTreeIO.getFcOut()) {
+                /* Write the last nodes, the writer thread is not needed anymore */
+                fTreeIO.closeWriter();
+
+                long endOfData = TREE_HEADER_SIZE + (long) fNodeCount * fConfig.getBlockSize();
+
+                /* Save the string dictionary after the nodes */
+                HTStringDictionary strings = fConfig.getStringDictionary();
+                if (strings != null) {
+                    ByteBuffer stringsBuffer = ByteBuffer.allocate(strings.getSerializedSize());
+                    strings.writeTo(stringsBuffer);
+                    stringsBuffer.flip();
+                    fc.position(endOfData);
+                    while (stringsBuffer.hasRemaining()) {
+                        fc.write(stringsBuffer);
+                    }
+                    fStringsSize = stringsBuffer.limit();
+                    endOfData += fStringsSize;
+                }
+
+                /*
+                 * If the tree was reopened, drop what the previous closing
+                 * wrote after the nodes, the attribute tree is appended next
+                 */
+                fc.truncate(endOfData);
+
                 ByteBuffer buffer = ByteBuffer.allocate(TREE_HEADER_SIZE);
                 buffer.order(ByteOrder.LITTLE_ENDIAN);
                 buffer.clear();
@@ -282,7 +345,7 @@ public class HistoryTreeClassic implements IHistoryTree {
 
                 buffer.putInt(HISTORY_FILE_MAGIC_NUMBER);
 
-                buffer.putInt(FILE_VERSION);
+                buffer.putInt(fConfig.hasColumnarNodes() ? FILE_VERSION : ROW_FILE_VERSION);
                 buffer.putInt(fConfig.getProviderVersion());
 
                 buffer.putInt(fConfig.getBlockSize());
@@ -296,6 +359,11 @@ public class HistoryTreeClassic implements IHistoryTree {
                 /* start time of this history */
                 buffer.putLong(fLatestBranch.get(0).getNodeStart());
 
+                if (strings != null) {
+                    /* size of the string dictionary */
+                    buffer.putInt(fStringsSize);
+                }
+
                 buffer.flip();
                 int res = fc.write(buffer);
 
@@ -312,6 +380,53 @@ public class HistoryTreeClassic implements IHistoryTree {
                  */
                 throw new RuntimeException("State system write error", e); //$NON-NLS-1$
             }
+
+            /* The nodes will not change anymore, they can be mapped */
+            if (HT_IO.isMemoryMapEnabled()) {
+                mapNodes();
+            }
+        }
+    }
+
+    @Override
+    public void reopenTree() throws IOException {
+        synchronized (fLatestBranch) {
+            if (!fLatestBranch.get(0).isOnDisk()) {
+                throw new IllegalStateException("Only a closed tree can be reopened"); //$NON-NLS-1$
+            }
+            if (!fTreeIO.isWritable()) {
+                throw new IOException("The history file is not open for writing anymore"); //$NON-NLS-1$
+            }
+
+            /* The nodes will change, they cannot be read from the mapping */
+            fTreeIO.unmapNodes();
+
+            /*
+             * Reopen the nodes of the latest branch, from the root, so that
+             * the tree keeps its depth. They are written again when they are
+             * closed, and new nodes are added when they are full, as usual.
+             */
+            for (int i = 0; i < fLatestBranch.size(); i++) {
+                HTNode node = fLatestBranch.get(i);
+                node.reopenThisNode();
+                if (i > 0) {
+                    ((CoreNode) fLatestBranch.get(i - 1)).reopenChild(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Map the nodes of the finished tree in memory, so that the queries can
+     * read them without locking the file. If the file cannot be mapped, the
+     * nodes are still read from the file channel.
+     */
+    @VisibleForTesting
+    protected void mapNodes() {
+        try {
+            fTreeIO.mapNodes(fNodeCount);
+        } catch (IOException e) {
+            Activator.getDefault().logWarning("Cannot map the history tree file " + fConfig.getStateFile(), e); //$NON-NLS-1$
         }
     }
 
@@ -386,7 +501,8 @@ public class HistoryTreeClassic implements IHistoryTree {
 
     @Override
     public FileInputStream supplyATReader() {
-        return fTreeIO.supplyATReader(getNodeCount());
+        /* Skip the string dictionary */
+        return fTreeIO.supplyATReader(getNodeCount(), fStringsSize);
     }
 
     @Override
@@ -397,7 +513,8 @@ public class HistoryTreeClassic implements IHistoryTree {
     @Override
     public long supplyATWriterFilePos() {
         return IHistoryTree.TREE_HEADER_SIZE
-                + ((long) getNodeCount() * fConfig.getBlockSize());
+                + ((long) getNodeCount() * fConfig.getBlockSize())
+                + fStringsSize;
     }
 
     @Override
@@ -454,7 +571,17 @@ public class HistoryTreeClassic implements IHistoryTree {
         if (interval.getStartTime() < fConfig.getTreeStart()) {
             throw new TimeRangeException("Interval Start:" + interval.getStartTime() + ", Config Start:" + fConfig.getTreeStart()); //$NON-NLS-1$ //$NON-NLS-2$
         }
-        tryInsertAtNode(interval, fLatestBranch.size() - 1);
+        HTInterval toInsert = interval;
+        HTStringDictionary strings = fConfig.getStringDictionary();
+        Object value = interval.getValue();
+        if (strings != null && value instanceof String) {
+            /* Keep one instance of each string, shared by the intervals */
+            String shared = strings.intern((String) value);
+            if (shared != value) {
+                toInsert = new HTInterval(interval.getStartTime(), interval.getEndTime(), interval.getAttribute(), shared);
+            }
+        }
+        tryInsertAtNode(toInsert, fLatestBranch.size() - 1);
     }
 
     /**
@@ -470,7 +597,7 @@ public class HistoryTreeClassic implements IHistoryTree {
         HTNode targetNode = fLatestBranch.get(indexOfNode);
 
         /* Verify if there is enough room in this node to store this interval */
-        int newSizeOnDisk = interval.getSizeOnDisk(targetNode.getNodeStart());
+        int newSizeOnDisk = targetNode.getIntervalSize(interval);
         if (newSizeOnDisk > targetNode.getNodeFreeSpace()) {
             /* Nope, not enough room. Insert in a new sibling instead. */
             addSiblingNode(indexOfNode, interval.getStartTime());
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -147,6 +147,23 @@ public interface ITmfStateSystemBuilder extends ITmfStateSystem {
         updateOngoingState(TmfStateValue.newValue(newValue), attributeQuark);
     }
 
+    /**
+     * Modify the current "ongoing" states of several attributes in one call.
+     * This is equivalent to calling {@link #updateOngoingState(Object, int)}
+     * for each change of the batch, in order.
+     *
+     * @param batch
+     *            The new values of the attributes. The batch is not cleared.
+     * @throws IndexOutOfBoundsException
+     *             If an attribute quark is out of range
+     * @since 5.4
+     */
+    default void updateOngoingStates(@NonNull StateChangeBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            updateOngoingState(batch.getValue(i), batch.getQuark(i));
+        }
+    }
+
     /**
      * Basic attribute modification method, we simply specify a new value, for a
      * given attribute, effective at the given timestamp.
@@ -170,6 +187,34 @@ public interface ITmfStateSystemBuilder extends ITmfStateSystem {
     void modifyAttribute(long t, Object value, int attributeQuark)
             throws StateValueTypeException;
 
+    /**
+     * Apply a batch of state changes, all effective at the given timestamp.
+     * This is equivalent to calling {@link #modifyAttribute(long, Object, int)}
+     * for each change of the batch, in order, but the state system can handle
+     * the whole batch at once and give the intervals it closes to the backend
+     * together.
+     *
+     * @param t
+     *            Timestamp of the state changes
+     * @param batch
+     *            The state changes to apply. The batch is not cleared.
+     * @throws TimeRangeException
+     *             If the requested time is outside of the trace's range
+     * @throws IndexOutOfBoundsException
+     *             If an attribute quark is out of range
+     * @throws StateValueTypeException
+     *             If an inserted state value's type does not match what is
+     *             already assigned to its attribute. The changes before it in
+     *             the batch are applied.
+     * @since 5.4
+     */
+    default void modifyAttributes(long t, @NonNull StateChangeBatch batch)
+            throws StateValueTypeException {
+        for (int i = 0; i < batch.size(); i++) {
+            modifyAttribute(t, batch.getValue(i), batch.getQuark(i));
+        }
+    }
+
     /**
      * "Push" helper method. This uses the given integer attribute as a stack:
      * The value of that attribute will represent the stack depth (always
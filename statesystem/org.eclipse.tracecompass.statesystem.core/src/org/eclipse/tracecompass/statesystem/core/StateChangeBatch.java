@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Ericsson
+ *
+ * All rights reserved. This program and the accompanying materials are
+ * made available under the terms of the Eclipse Public License 2.0 which
+ * accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.tracecompass.statesystem.core;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A batch of state changes, each one assigning a value to an attribute, to be
+ * applied to a state system in one call with
+ * {@link ITmfStateSystemBuilder#modifyAttributes(long, StateChangeBatch)} or
+ * {@link ITmfStateSystemBuilder#updateOngoingStates(StateChangeBatch)}.
+ *
+ * The changes are applied in the order they were added. A batch is meant to be
+ * reused, for example by a state provider for every event it handles, so it
+ * should be cleared once applied. It is not thread-safe.
+ *
+ * @since 5.4
+ */
+public final class StateChangeBatch {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] fQuarks = new int[INITIAL_CAPACITY];
+    private @Nullable Object[] fValues = new @Nullable Object[INITIAL_CAPACITY];
+    private int fSize = 0;
+
+    /**
+     * Add a state change to the batch
+     *
+     * @param quark
+     *            The quark of the attribute to modify
+     * @param value
+     *            The new value of the attribute
+     */
+    public void add(int quark, @Nullable Object value) {
+        if (fSize == fQuarks.length) {
+            fQuarks = Arrays.copyOf(fQuarks, fSize * 2);
+            fValues = Objects.requireNonNull(Arrays.copyOf(fValues, fSize * 2));
+        }
+        fQuarks[fSize] = quark;
+        fValues[fSize] = value;
+        fSize++;
+    }
+
+    /**
+     * Get the number of state changes in the batch
+     *
+     * @return The number of state changes
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * Get whether the batch has no state change
+     *
+     * @return <code>true</code> if there is no state change in the batch
+     */
+    public boolean isEmpty() {
+        return fSize == 0;
+    }
+
+    /**
+     * Get the quark of a state change
+     *
+     * @param index
+     *            The index of the state change, in the order they were added
+     * @return The quark of the attribute to modify
+     * @throws IndexOutOfBoundsException
+     *             If the index is out of range
+     */
+    public int getQuark(int index) {
+        return fQuarks[Objects.checkIndex(index, fSize)];
+    }
+
+    /**
+     * Get the value of a state change
+     *
+     * @param index
+     *            The index of the state change, in the order they were added
+     * @return The new value of the attribute
+     * @throws IndexOutOfBoundsException
+     *             If the index is out of range
+     */
+    public @Nullable Object getValue(int index) {
+        return fValues[Objects.checkIndex(index, fSize)];
+    }
+
+    /**
+     * Remove all the state changes from the batch, so that it can be reused
+     */
+    public void clear() {
+        /* Do not keep the values alive */
+        Arrays.fill(fValues, 0, fSize, null);
+        fSize = 0;
+    }
+}
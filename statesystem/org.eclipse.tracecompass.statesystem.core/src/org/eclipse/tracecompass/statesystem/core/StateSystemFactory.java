@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Ericsson
+ * Copyright (c) 2014, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -66,4 +66,24 @@ public final class StateSystemFactory {
         return new StateSystem(backend, newFile);
     }
 
+    /**
+     * Resume factory method. Opens the existing history of the backend and
+     * reopens it, so that the state changes after its end time can be
+     * inserted, for example when the trace has grown since the history was
+     * built. The ongoing state of the attributes is their state at the end of
+     * the history, starting right after it. The history must be closed again
+     * with {@link ITmfStateSystemBuilder#closeHistory(long)}.
+     *
+     * @param backend
+     *            The back-end of the existing history, which must support
+     *            {@link IStateHistoryBackend#resumeBuilding()}
+     * @return The state system, to which the new state changes are inserted
+     * @throws IOException
+     *             If the existing history cannot be read or reopened
+     * @since 5.4
+     */
+    public static ITmfStateSystemBuilder resumeStateSystem(IStateHistoryBackend backend) throws IOException {
+        return new StateSystem(backend, false, true);
+    }
+
 }
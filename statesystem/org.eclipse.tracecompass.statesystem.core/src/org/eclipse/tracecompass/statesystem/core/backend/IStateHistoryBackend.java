@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -16,6 +16,7 @@ package org.eclipse.tracecompass.statesystem.core.backend;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNull;
@@ -86,6 +87,33 @@ public interface IStateHistoryBackend {
         insertPastState(stateStartTime, stateEndTime, quark, TmfStateValue.newValue(value));
     }
 
+    /**
+     * Insert state intervals that all end at the same time, for example the
+     * intervals closed by a batch of state changes. The intervals are given
+     * column by column, the first <code>count</code> elements of each array
+     * describing them.
+     *
+     * @param stateStartTimes
+     *            The start times of the intervals
+     * @param stateEndTime
+     *            The end time of all the intervals
+     * @param quarks
+     *            The quarks of the attributes the intervals refer to
+     * @param values
+     *            The values represented by the intervals
+     * @param count
+     *            The number of intervals to insert
+     * @throws TimeRangeException
+     *             If the start or end time of an interval is invalid
+     * @since 5.4
+     */
+    default void insertPastStates(long[] stateStartTimes, long stateEndTime,
+            int[] quarks, @Nullable Object[] values, int count) throws TimeRangeException {
+        for (int i = 0; i < count; i++) {
+            insertPastState(stateStartTimes[i], stateEndTime, quarks[i], values[i]);
+        }
+    }
+
     /**
      * Indicate to the provider that we are done building the history (so it can
      * close off, stop threads, etc.)
@@ -98,6 +126,23 @@ public interface IStateHistoryBackend {
      */
     void finishedBuilding(long endTime) throws TimeRangeException;
 
+    /**
+     * Reopen a finished history, so that the states starting after its
+     * current end time can be inserted. The history is then finished again
+     * with {@link #finishedBuilding(long)}.
+     *
+     * The attribute tree of the history must have been read before, as it may
+     * be overwritten by the new states.
+     *
+     * @throws IOException
+     *             If the history cannot be reopened, for example if this
+     *             backend does not support it
+     * @since 5.4
+     */
+    default void resumeBuilding() throws IOException {
+        throw new IOException("This backend cannot resume building its history"); //$NON-NLS-1$
+    }
+
     /**
      * It is the responsibility of the backend to define where to save the
      * Attribute Tree (since it's only useful to "reopen" an Attribute Tree if
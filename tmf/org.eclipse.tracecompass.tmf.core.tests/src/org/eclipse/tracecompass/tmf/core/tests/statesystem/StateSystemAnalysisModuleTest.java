@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2016 École Polytechnique de Montréal
+ * Copyright (c) 2013, 2026 École Polytechnique de Montréal
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -11,6 +11,7 @@
 
 package org.eclipse.tracecompass.tmf.core.tests.statesystem;
 
+import static org.eclipse.tracecompass.common.core.NonNullUtils.checkNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -19,6 +20,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BrokenBarrierException;
@@ -29,6 +32,9 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.tracecompass.statesystem.core.ITmfStateSystem;
+import org.eclipse.tracecompass.statesystem.core.ITmfStateSystemBuilder;
+import org.eclipse.tracecompass.statesystem.core.exceptions.AttributeNotFoundException;
+import org.eclipse.tracecompass.statesystem.core.exceptions.StateSystemDisposedException;
 import org.eclipse.tracecompass.statesystem.core.interval.ITmfStateInterval;
 import org.eclipse.tracecompass.statesystem.core.tests.shared.utils.StateIntervalStub;
 import org.eclipse.tracecompass.statesystem.core.tests.shared.utils.StateSystemTestUtils;
@@ -83,6 +89,65 @@ public class StateSystemAnalysisModuleTest {
         }
     }
 
+    /**
+     * A state provider that counts the events, keeping the count outside of
+     * the state system, and that can resume building a history
+     */
+    private static final class ResumableProvider extends TestStateSystemProvider {
+
+        private int fCount = 0;
+        private long fResumeTime = -1;
+
+        private ResumableProvider(@NonNull ITmfTrace trace) {
+            super(trace);
+        }
+
+        @Override
+        public boolean canResume() {
+            return true;
+        }
+
+        @Override
+        public void restoreState(long resumeTime) {
+            ITmfStateSystemBuilder ss = checkNotNull(getStateSystemBuilder());
+            fResumeTime = resumeTime;
+            Object count = ss.queryOngoing(ss.getQuarkAbsoluteAndAdd(COUNT));
+            fCount = (count == null) ? 0 : (int) count;
+        }
+
+        @Override
+        protected void eventHandle(@NonNull ITmfEvent event) {
+            ITmfStateSystemBuilder ss = checkNotNull(getStateSystemBuilder());
+            fCount++;
+            ss.modifyAttribute(event.getTimestamp().toNanos(), fCount, ss.getQuarkAbsoluteAndAdd(COUNT));
+        }
+
+        @Override
+        public @NonNull ITmfStateProvider getNewInstance() {
+            return new ResumableProvider(getTrace());
+        }
+    }
+
+    private static final class ResumableModule extends TestStateSystemModule {
+
+        private @Nullable ResumableProvider fProvider = null;
+
+        private ResumableModule(boolean onDisk) {
+            super(onDisk);
+        }
+
+        @Override
+        protected @NonNull ITmfStateProvider createStateProvider() {
+            ResumableProvider provider = new ResumableProvider(checkNotNull(getTrace()));
+            fProvider = provider;
+            return provider;
+        }
+
+        private long getResumeTime() {
+            return checkNotNull(fProvider).fResumeTime;
+        }
+    }
+
     /** Time-out tests after 1 minute. */
     @Rule
     public TestRule globalTimeout = new Timeout(1, TimeUnit.MINUTES);
@@ -90,6 +155,9 @@ public class StateSystemAnalysisModuleTest {
     /** ID of the test state system analysis module */
     public static final String MODULE_SS = "org.eclipse.linuxtools.tmf.core.tests.analysis.sstest";
     private static final String XML_TRACE = "testfiles/stub_xml_traces/valid/analysis_dependency.xml";
+    private static final long[] XML_TRACE_TIMESTAMPS = { 1, 5, 5, 5, 7, 7, 10 };
+    private static final String COUNT = "count";
+    private static final String RESUME_EXTENSION = ".resume";
 
     private TestStateSystemModule fModule;
     private ITmfTrace fTrace;
@@ -516,4 +584,158 @@ public class StateSystemAnalysisModuleTest {
             TestStateSystemProvider.setEventHandler(null);
         }
     }
+
+    /**
+     * Test resuming the building of a full history that was cancelled, at
+     * each event of the trace. The resumed history must match the history
+     * built at once, without skipping or processing again the events at the
+     * resume point.
+     *
+     * @throws Exception
+     *             Propagates exceptions
+     */
+    @Test
+    public void testResumeCancelledBuild() throws Exception {
+        fTrace.indexTrace(true);
+        ResumableModule expected = buildResumable(false);
+        try {
+            ITmfStateSystem expectedSs = checkNotNull(expected.getStateSystem());
+            for (int rank = 1; rank < XML_TRACE_TIMESTAMPS.length; rank++) {
+                deleteResumableFiles();
+                buildCancelled(rank);
+
+                ResumableModule resumed = buildResumable(true);
+                try {
+                    long resumeTime = XML_TRACE_TIMESTAMPS[rank - 1];
+                    assertEquals("Resume time", resumeTime, resumed.getResumeTime());
+                    /*
+                     * The events after the resume rank at the resume time
+                     * change the state right after it
+                     */
+                    ITmfStateSystem ss = checkNotNull(resumed.getStateSystem());
+                    assertEquals("Count at resume time", rank, ss.querySingleState(resumeTime, ss.getQuarkAbsolute(COUNT)).getValue());
+                    assertSameStates(expectedSs, ss, resumeTime);
+                } finally {
+                    resumed.dispose();
+                }
+            }
+        } finally {
+            expected.dispose();
+            deleteResumableFiles();
+        }
+    }
+
+    /**
+     * Test that a cancelled history without a valid resume point is built
+     * again from scratch, and that a history cancelled before any event is
+     * processed is not kept
+     *
+     * @throws Exception
+     *             Propagates exceptions
+     */
+    @Test
+    public void testInvalidResumePoint() throws Exception {
+        fTrace.indexTrace(true);
+        ResumableModule expected = buildResumable(false);
+        try {
+            ITmfStateSystem expectedSs = checkNotNull(expected.getStateSystem());
+            deleteResumableFiles();
+            File ssFile = buildCancelled(0);
+            assertFalse(ssFile.exists());
+
+            /* A corrupt resume point */
+            buildCancelled(4);
+            File resumeFile = new File(ssFile.getPath() + RESUME_EXTENSION);
+            assertTrue(resumeFile.exists());
+            Files.write(resumeFile.toPath(), new byte[] { 1, 2, 3 });
+            ResumableModule rebuilt = buildResumable(true);
+            try {
+                assertEquals("Resume time", -1, rebuilt.getResumeTime());
+                assertSameStates(expectedSs, checkNotNull(rebuilt.getStateSystem()), Long.MIN_VALUE);
+            } finally {
+                rebuilt.dispose();
+            }
+
+            /* A stale resume point, of another history */
+            deleteResumableFiles();
+            buildCancelled(1);
+            byte[] staleResumePoint = Files.readAllBytes(resumeFile.toPath());
+            deleteResumableFiles();
+            buildCancelled(4);
+            Files.write(resumeFile.toPath(), staleResumePoint);
+            rebuilt = buildResumable(true);
+            try {
+                assertEquals("Resume time", -1, rebuilt.getResumeTime());
+                assertSameStates(expectedSs, checkNotNull(rebuilt.getStateSystem()), Long.MIN_VALUE);
+            } finally {
+                rebuilt.dispose();
+            }
+        } finally {
+            expected.dispose();
+            deleteResumableFiles();
+        }
+    }
+
+    private ResumableModule buildResumable(boolean onDisk) throws TmfAnalysisException {
+        ResumableModule module = new ResumableModule(onDisk);
+        module.setTrace(fTrace);
+        module.schedule();
+        assertTrue(module.waitForCompletion());
+        return module;
+    }
+
+    /*
+     * Build the full history with the resumable provider, cancelling it when
+     * the event at the given rank is requested, before it is processed.
+     * Returns the history file.
+     */
+    private File buildCancelled(int cancelRank) throws TmfAnalysisException {
+        ResumableModule module = new ResumableModule(true);
+        try {
+            int[] nbRequested = { 0 };
+            module.setRequestAction(event -> {
+                if (nbRequested[0]++ == cancelRank) {
+                    module.cancel();
+                }
+                return event;
+            });
+            module.setTrace(fTrace);
+            File ssFile = checkNotNull(module.getSsFile());
+            module.schedule();
+            assertFalse(module.waitForCompletion());
+            return ssFile;
+        } finally {
+            module.dispose();
+        }
+    }
+
+    private void deleteResumableFiles() throws TmfAnalysisException, IOException {
+        ResumableModule module = new ResumableModule(true);
+        try {
+            module.setTrace(fTrace);
+            File ssFile = checkNotNull(module.getSsFile());
+            Files.deleteIfExists(ssFile.toPath());
+            Files.deleteIfExists(new File(ssFile.getPath() + RESUME_EXTENSION).toPath());
+        } finally {
+            module.dispose();
+        }
+    }
+
+    /*
+     * Compare the count of events at each time of the trace, except at the
+     * time to skip
+     */
+    private static void assertSameStates(ITmfStateSystem expected, ITmfStateSystem actual, long skippedTime) throws AttributeNotFoundException, StateSystemDisposedException {
+        assertEquals("Start time", expected.getStartTime(), actual.getStartTime());
+        assertEquals("End time", expected.getCurrentEndTime(), actual.getCurrentEndTime());
+        int expectedQuark = expected.getQuarkAbsolute(COUNT);
+        int quark = actual.getQuarkAbsolute(COUNT);
+        for (long time = expected.getStartTime(); time <= expected.getCurrentEndTime(); time++) {
+            if (time != skippedTime) {
+                assertEquals("Count at " + time, expected.querySingleState(time, expectedQuark).getValue(),
+                        actual.querySingleState(time, quark).getValue());
+            }
+        }
+        assertEquals("Count", XML_TRACE_TIMESTAMPS.length, actual.querySingleState(actual.getCurrentEndTime(), quark).getValue());
+    }
 }
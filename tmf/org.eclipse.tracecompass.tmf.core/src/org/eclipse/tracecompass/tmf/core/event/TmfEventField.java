@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Ericsson
+ * Copyright (c) 2009, 2026 Ericsson
  *
  * All rights reserved. This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0 which
@@ -51,7 +51,8 @@ public class TmfEventField implements ITmfEventField {
 
     private final @NonNull String fName;
     private final @Nullable Object fValue;
-    private final @NonNull Map<String, ITmfEventField> fFields;
+    /** The subfields, null until they are created for a lazy field */
+    private volatile @Nullable Map<String, ITmfEventField> fFields;
 
     // ------------------------------------------------------------------------
     // Constructors
@@ -72,14 +73,25 @@ public class TmfEventField implements ITmfEventField {
     public TmfEventField(@NonNull String name, @Nullable Object value, ITmfEventField @Nullable [] fields) {
         fName = name;
         fValue = value;
+        fFields = toMap(fields);
+    }
 
-        if (fields == null) {
-            fFields = ImmutableMap.of();
-        } else {
-            ImmutableMap.Builder<String, ITmfEventField> mapBuilder = new ImmutableMap.Builder<>();
-            Arrays.stream(fields).forEach(t -> mapBuilder.put(t.getName(), t));
-            fFields = mapBuilder.build();
-        }
+    /**
+     * Constructor of a field whose subfields are created by
+     * {@link #createFields()} the first time they are needed. Subclasses can
+     * override {@link #getField(String...)} to look up a subfield without
+     * creating all of them.
+     *
+     * @param name
+     *            the event field id
+     * @param value
+     *            the event field value
+     * @since 9.4
+     */
+    protected TmfEventField(@NonNull String name, @Nullable Object value) {
+        fName = name;
+        fValue = value;
+        fFields = null;
     }
 
     /**
@@ -93,7 +105,44 @@ public class TmfEventField implements ITmfEventField {
         }
         fName = field.fName;
         fValue = field.fValue;
-        fFields = field.fFields;
+        fFields = field.getFieldMap();
+    }
+
+    private static @NonNull Map<String, ITmfEventField> toMap(ITmfEventField @Nullable [] fields) {
+        if (fields == null) {
+            return ImmutableMap.of();
+        }
+        ImmutableMap.Builder<String, ITmfEventField> mapBuilder = new ImmutableMap.Builder<>();
+        Arrays.stream(fields).forEach(t -> mapBuilder.put(t.getName(), t));
+        return checkNotNull(mapBuilder.build());
+    }
+
+    /**
+     * Create the subfields of a field constructed without them, see
+     * {@link #TmfEventField(String, Object)}. It is called once, the first time
+     * the subfields are needed.
+     *
+     * @return the subfields, or null if there are none
+     * @throws IllegalArgumentException
+     *             If the subfields have duplicate field names.
+     * @since 9.4
+     */
+    protected ITmfEventField @Nullable [] createFields() {
+        return null;
+    }
+
+    private @NonNull Map<String, ITmfEventField> getFieldMap() {
+        Map<String, ITmfEventField> fields = fFields;
+        if (fields == null) {
+            synchronized (this) {
+                fields = fFields;
+                if (fields == null) {
+                    fields = toMap(createFields());
+                    fFields = fields;
+                }
+            }
+        }
+        return fields;
     }
 
     // ------------------------------------------------------------------------
@@ -112,18 +161,18 @@ public class TmfEventField implements ITmfEventField {
 
     @Override
     public final Collection<String> getFieldNames() {
-        return fFields.keySet();
+        return getFieldMap().keySet();
     }
 
     @Override
     public final Collection<ITmfEventField> getFields() {
-        return fFields.values();
+        return getFieldMap().values();
     }
 
     @Override
     public ITmfEventField getField(final String... path) {
         if (path.length == 1) {
-            return fFields.get(path[0]);
+            return getFieldMap().get(path[0]);
         }
         ITmfEventField field = this;
         for (String name : path) {
@@ -165,7 +214,7 @@ public class TmfEventField implements ITmfEventField {
         int result = 1;
         result = prime * result + getName().hashCode();
         result = prime * result + ObjectUtils.deepHashCode(getValue());
-        result = prime * result + fFields.hashCode();
+        result = prime * result + getFieldMap().hashCode();
         return result;
     }
 
@@ -200,7 +249,7 @@ public class TmfEventField implements ITmfEventField {
         }
 
         /* Check that sub-fields are the same. */
-        return (fFields.equals(other.fFields));
+        return (getFieldMap().equals(other.getFieldMap()));
     }
 
     @Override
@@ -219,7 +268,7 @@ public class TmfEventField implements ITmfEventField {
             ret.append('=');
             ret.append(fValue);
 
-            if (!fFields.isEmpty()) {
+            if (!getFieldMap().isEmpty()) {
                 /*
                  * In addition to its own name/value, this field also has
                  * sub-fields.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2015 Ericsson
+ * Copyright (c) 2012, 2026 Ericsson
  * Copyright (c) 2010, 2011 École Polytechnique de Montréal
  * Copyright (c) 2010, 2011 Alexandre Montplaisir <alexandre.montplaisir@gmail.com>
  *
@@ -136,6 +136,41 @@ public interface ITmfStateProvider {
      */
     void dispose();
 
+    /**
+     * Whether this state provider can resume building an existing full
+     * history, when the trace has grown since the history was built or its
+     * building was cancelled. If it can, {@link #restoreState(long)} is called
+     * before the events that are not in the history yet are sent to it.
+     * Otherwise, the existing history is used as it is, and the history of a
+     * cancelled build is deleted.
+     *
+     * @return <code>true</code> if this provider can resume building a
+     *         history
+     * @since 9.4
+     */
+    default boolean canResume() {
+        return false;
+    }
+
+    /**
+     * Restore the internal state of this state provider, before it resumes
+     * building an existing history. The state system assigned to this
+     * provider is already the resumed one, its ongoing states are the states
+     * at the end of the history, starting right after it. A provider which
+     * keeps state outside of the state system must rebuild it from them.
+     *
+     * The events processed next are the ones following the last event read
+     * to build the history. Some of them may be at the end time of the
+     * history, their state changes then start right after it.
+     *
+     * @param resumeTime
+     *            The end time of the existing history
+     * @since 9.4
+     */
+    default void restoreState(long resumeTime) {
+        // Nothing to restore by default
+    }
+
     /**
      * Callback when trace has been fully read
      * @since 2.1
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 École Polytechnique de Montréal
+ * Copyright (c) 2013, 2026 École Polytechnique de Montréal
  *
  * All rights reserved. This program and the accompanying materials are
  * made available under the terms of the Eclipse Public License 2.0 which
@@ -17,6 +17,9 @@ package org.eclipse.tracecompass.tmf.core.statesystem;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -86,6 +89,14 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
 
     private static final String EXTENSION = ".ht"; //$NON-NLS-1$
 
+    /*
+     * The resume point of a full history is saved next to it: the end time of
+     * the history and the number of events read to build it.
+     */
+    private static final String RESUME_EXTENSION = ".resume"; //$NON-NLS-1$
+    private static final int RESUME_MAGIC_NUMBER = 0x05FFEE01;
+    private static final int RESUME_FILE_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+
     private final CountDownLatch fInitialized = new CountDownLatch(1);
     private final Object fRequestSyncObj = new Object();
 
@@ -355,16 +366,45 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
      */
     private void createFullHistory(String id, ITmfStateProvider provider, File htFile) throws TmfTraceException {
 
-        /* If the target file already exists, do not rebuild it uselessly */
-        // TODO for now we assume it's complete. Might be a good idea to check
-        // at least if its range matches the trace's range.
-
+        /*
+         * If the target file already exists, do not rebuild it uselessly. If
+         * the trace has grown since the file was built, or its building was
+         * cancelled, and the provider can resume, only the events that were
+         * not read are read and their states appended to the existing
+         * history. Without a valid resume point, the history is rebuilt.
+         */
         if (htFile.exists()) {
             /* Load an existing history */
             final int version = provider.getVersion();
             try {
                 IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendExistingFile(
                         id, htFile, version);
+                long historyEnd = backend.getEndTime();
+                ITmfTrace trace = provider.getTrace();
+                if (provider.canResume() && isCompleteTrace(trace) && historyEnd < trace.getEndTime().toNanos()) {
+                    int nbRead = readResumePoint(htFile, historyEnd);
+                    if (nbRead < 0) {
+                        /* The history is incomplete, it is built again */
+                        backend.dispose();
+                        throw new IOException("No valid resume point for " + htFile); //$NON-NLS-1$
+                    }
+                    /* The resume point is saved again once the history is closed */
+                    Files.deleteIfExists(getResumeFile(htFile).toPath());
+                    ITmfStateSystemBuilder stateSystem;
+                    try {
+                        stateSystem = StateSystemFactory.resumeStateSystem(backend);
+                    } catch (IOException e) {
+                        backend.dispose();
+                        throw e;
+                    }
+                    fStateSystem = stateSystem;
+                    provider.assignTargetStateSystem(stateSystem);
+                    provider.restoreState(historyEnd);
+                    /* Start from the first event that is not in the history */
+                    fNbRead = nbRead;
+                    build(provider, true);
+                    return;
+                }
                 fStateSystem = StateSystemFactory.newStateSystem(backend, false);
                 analysisReady(true);
                 return;
@@ -381,6 +421,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         final int QUEUE_SIZE = 10000;
 
         try {
+            Files.deleteIfExists(getResumeFile(htFile).toPath());
             IStateHistoryBackend backend = StateHistoryBackendFactory.createHistoryTreeBackendNewFile(
                     id, htFile, provider.getVersion(), provider.getStartTime(), QUEUE_SIZE);
             fStateSystem = StateSystemFactory.newStateSystem(backend);
@@ -395,6 +436,51 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         }
     }
 
+    private static File getResumeFile(File htFile) {
+        return new File(htFile.getPath() + RESUME_EXTENSION);
+    }
+
+    /*
+     * Read the number of events read to build the history, or -1 if it is not
+     * known for this end time of the history.
+     */
+    private static int readResumePoint(File htFile, long historyEnd) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(getResumeFile(htFile).toPath()));
+            if (buffer.getInt() == RESUME_MAGIC_NUMBER && buffer.getLong() == historyEnd) {
+                return buffer.getInt();
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            /* No valid resume point, the history cannot be resumed */
+        }
+        return -1;
+    }
+
+    /*
+     * Save the resume point of the full history once it is closed, so that it
+     * can be resumed with the events after the ones read. Returns whether the
+     * resume point was saved.
+     */
+    private boolean saveResumePoint(ITmfStateProvider provider, int nbRead) {
+        ITmfStateSystem stateSystem = fStateSystem;
+        File htFile = getSsFile();
+        if (!provider.canResume() || provider.getFailureCause() != null || stateSystem == null
+                || htFile == null || getBackendType() != StateSystemBackendType.FULL || nbRead <= 0) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RESUME_FILE_SIZE);
+        buffer.putInt(RESUME_MAGIC_NUMBER);
+        buffer.putLong(stateSystem.getCurrentEndTime());
+        buffer.putInt(nbRead);
+        try {
+            Files.write(getResumeFile(htFile).toPath(), buffer.array());
+            return true;
+        } catch (IOException e) {
+            Activator.logWarning("Failed to save the resume point of " + htFile, e); //$NON-NLS-1$
+            return false;
+        }
+    }
+
     /*
      * Create a new state system backed with a partial history. A partial history is
      * similar to a "full" one (which you get with {@link #newFullHistory}), except
@@ -531,6 +617,15 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
     }
 
     private void disposeProvider(boolean deleteFiles) {
+        disposeProvider(deleteFiles, 0);
+    }
+
+    /*
+     * Dispose the state provider, once the events up to the rank nbRead were
+     * sent to it. The history is kept, even if its building was cancelled,
+     * when its resume point can be saved.
+     */
+    private void disposeProvider(boolean deleteFiles, int nbRead) {
         ITmfStateProvider provider = fStateProvider;
         boolean shouldDeleteFiles = deleteFiles;
         if (provider != null) {
@@ -542,6 +637,8 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
             if (failureCause != null) {
                 fail(failureCause);
                 shouldDeleteFiles = true;
+            } else if (saveResumePoint(provider, nbRead)) {
+                shouldDeleteFiles = false;
             }
         }
         fStateProvider = null;
@@ -567,6 +664,15 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
     }
 
     private void build(ITmfStateProvider provider) {
+        build(provider, false);
+    }
+
+    /*
+     * Build the state system with the events of the trace. When the building of
+     * an existing history is resumed, the events are read from fNbRead, the
+     * initial state being already in the history.
+     */
+    private void build(ITmfStateProvider provider, boolean resume) {
         if (fStateSystem == null) {
             throw new IllegalArgumentException();
         }
@@ -576,7 +682,9 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
          * signal listener below will start sending real trace events through the state
          * provider.
          */
-        loadInitialState(provider);
+        if (!resume) {
+            loadInitialState(provider);
+        }
 
         /* Continue on initializing the event request to read trace events. */
         ITmfEventRequest request = fRequest;
@@ -691,6 +799,15 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         private final ITmfStateProvider sci;
         private final ITmfTrace trace;
 
+        /*
+         * The request can be cancelled while an event is handled, the events
+         * sent to the provider are counted under this lock to resume from the
+         * first one that was not.
+         */
+        private final Object fProcessLock = new Object();
+        private boolean fProviderDisposed = false;
+        private int fNbProcessed = 0;
+
         /**
          * Constructor
          *
@@ -741,7 +858,12 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         @Override
         public void handleData(final ITmfEvent event) {
             super.handleData(event);
-            processEvent(event, trace);
+            synchronized (fProcessLock) {
+                if (!fProviderDisposed) {
+                    processEvent(event, trace);
+                    fNbProcessed++;
+                }
+            }
         }
 
         private void processEvent(final ITmfEvent event, ITmfTrace tmfTrace) {
@@ -762,7 +884,7 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         public void handleSuccess() {
             super.handleSuccess();
             if (isCompleteTrace(trace)) {
-                disposeProvider(false);
+                disposeProvider(false, fNbRead + getNbRead());
             } else {
                 fNbRead += getNbRead();
                 synchronized (fRequestSyncObj) {
@@ -777,7 +899,15 @@ public abstract class TmfStateSystemAnalysisModule extends TmfAbstractAnalysisMo
         @Override
         public void handleCancel() {
             super.handleCancel();
-            disposeProvider(true);
+            synchronized (fProcessLock) {
+                /* The request thread cancels it again once it stops */
+                if (fProviderDisposed) {
+                    return;
+                }
+                fProviderDisposed = true;
+                /* A resumable history is kept, to resume it after the events processed */
+                disposeProvider(true, isCompleteTrace(trace) ? fNbRead + fNbProcessed : 0);
+            }
         }
 
         @Override